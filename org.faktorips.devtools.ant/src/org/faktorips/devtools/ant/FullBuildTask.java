@@ -30,6 +30,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.faktorips.devtools.core.IpsPlugin;
+import org.faktorips.devtools.core.IpsPreferences;
 import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
 
 /**
@@ -39,11 +40,17 @@ import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
  * the name of the Eclipse project within the workspace can be specified. If the specified project
  * doesn't exist in the workspace the {@code EclipseProject} entry will be ignored during build and
  * a information will be logged to system out.
+ * <p>
+ * The optional attribute {@code threads} sets the number of threads building the IPS objects. If it
+ * is greater than 1 the IPS objects are validated and the thread safe artefact builders are
+ * applied in parallel.
  */
 public class FullBuildTask extends AbstractIpsTask {
 
     private List<EclipseProject> eclipseProjects = new ArrayList<EclipseProject>();
 
+    private int threads;
+
     public FullBuildTask() {
         super("FullBuildTask");
     }
@@ -52,11 +59,35 @@ public class FullBuildTask extends AbstractIpsTask {
         eclipseProjects.add(eclipsProject);
     }
 
+    /**
+     * Sets the number of threads building the IPS objects. If not set, the number configured in the
+     * workspace preferences is used.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Excecutes the Ant task.
      */
     @Override
     public void executeInternal() throws Exception {
+        IpsPreferences ipsPreferences = IpsPlugin.getDefault().getIpsPreferences();
+        int previousThreads = ipsPreferences.getBuilderThreads();
+        if (threads > 0) {
+            System.out.println("Number of builder threads: " + threads);
+            ipsPreferences.setBuilderThreads(threads);
+        }
+        try {
+            build();
+        } finally {
+            if (threads > 0) {
+                ipsPreferences.setBuilderThreads(previousThreads);
+            }
+        }
+    }
+
+    private void build() throws InterruptedException {
         WorkspaceJob job = new WorkspaceJob("build") {
             @Override
             public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.faktorips.devtools.core.IpsStatus;
+import org.faktorips.devtools.core.builder.ParallelBuildExecutor.IpsSrcFileProcessor;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.IpsObjectDependency;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelBuildExecutorTest {
+
+    private IDependencyGraph graph;
+
+    private IIpsSrcFile fileA;
+    private IIpsSrcFile fileB;
+    private IIpsSrcFile fileC;
+    private IIpsSrcFile fileD;
+    private IIpsSrcFile fileE;
+
+    @Before
+    public void setUp() {
+        graph = mock(IDependencyGraph.class);
+        when(graph.getDependants(any(QualifiedNameType.class))).thenReturn(new IDependency[0]);
+        fileA = mockIpsSrcFile("A");
+        fileB = mockIpsSrcFile("B");
+        fileC = mockIpsSrcFile("C");
+        fileD = mockIpsSrcFile("D");
+        fileE = mockIpsSrcFile("E");
+        // D depends on A, B depends on D
+        addDependency(fileD, fileA);
+        addDependency(fileB, fileD);
+    }
+
+    @Test
+    public void testCreateGroups() {
+        List<List<IIpsSrcFile>> groups = ParallelBuildExecutor.createGroups(
+                Arrays.asList(fileA, fileB, fileC, fileD, fileE), graph, 3);
+
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList(fileA, fileB, fileD), groups.get(0));
+        assertEquals(Arrays.asList(fileC, fileE), groups.get(1));
+    }
+
+    @Test
+    public void testCreateGroups_SplitsLargeComponents() {
+        List<List<IIpsSrcFile>> groups = ParallelBuildExecutor.createGroups(
+                Arrays.asList(fileA, fileB, fileC, fileD, fileE), graph, 2);
+
+        assertEquals(3, groups.size());
+        assertEquals(Arrays.asList(fileA, fileB), groups.get(0));
+        assertEquals(Arrays.asList(fileD), groups.get(1));
+        assertEquals(Arrays.asList(fileC, fileE), groups.get(2));
+    }
+
+    @Test
+    public void testCreateGroups_IgnoresDependantsNotToBuild() {
+        // A and B are only connected via D
+        List<List<IIpsSrcFile>> groups = ParallelBuildExecutor.createGroups(Arrays.asList(fileA, fileB, fileC),
+                graph, 1);
+
+        assertEquals(3, groups.size());
+        assertEquals(Arrays.asList(fileA), groups.get(0));
+        assertEquals(Arrays.asList(fileB), groups.get(1));
+        assertEquals(Arrays.asList(fileC), groups.get(2));
+    }
+
+    @Test
+    public void testProcess() throws Exception {
+        List<IIpsSrcFile> files = Arrays.asList(fileA, fileB, fileC, fileD, fileE);
+        IpsSrcFileProcessor processor = mock(IpsSrcFileProcessor.class);
+        doThrow(new RuntimeException()).when(processor).process(fileB);
+
+        new ParallelBuildExecutor(2).process(files, graph, processor, new NullProgressMonitor());
+
+        for (IIpsSrcFile file : files) {
+            verify(processor).process(file);
+        }
+    }
+
+    @Test
+    public void testProcess_RunsWorkspaceOperationsInBuildThread() {
+        final Thread buildThread = Thread.currentThread();
+        final List<Thread> operationThreads = new CopyOnWriteArrayList<Thread>();
+        final List<Thread> processorThreads = new CopyOnWriteArrayList<Thread>();
+        IpsSrcFileProcessor processor = new IpsSrcFileProcessor() {
+
+            @Override
+            public void process(IIpsSrcFile ipsSrcFile) throws CoreException {
+                processorThreads.add(Thread.currentThread());
+                ParallelBuildExecutor.runInBuildThread(new IWorkspaceRunnable() {
+
+                    @Override
+                    public void run(IProgressMonitor monitor) {
+                        operationThreads.add(Thread.currentThread());
+                    }
+
+                });
+            }
+
+        };
+
+        new ParallelBuildExecutor(2).process(Arrays.asList(fileA, fileB, fileC, fileD, fileE), graph, processor,
+                new NullProgressMonitor());
+
+        assertEquals(5, processorThreads.size());
+        assertFalse(processorThreads.contains(buildThread));
+        assertEquals(Collections.nCopies(5, buildThread), operationThreads);
+    }
+
+    @Test(expected = CoreException.class)
+    public void testRunInBuildThread_PassesCoreExceptionToWorker() throws CoreException {
+        final CoreException[] exceptions = new CoreException[1];
+        IpsSrcFileProcessor processor = new IpsSrcFileProcessor() {
+
+            @Override
+            public void process(IIpsSrcFile ipsSrcFile) {
+                try {
+                    ParallelBuildExecutor.runInBuildThread(new IWorkspaceRunnable() {
+
+                        @Override
+                        public void run(IProgressMonitor monitor) throws CoreException {
+                            throw new CoreException(new IpsStatus("failed")); //$NON-NLS-1$
+                        }
+
+                    });
+                } catch (CoreException e) {
+                    exceptions[0] = e;
+                }
+            }
+
+        };
+
+        new ParallelBuildExecutor(2).process(Arrays.asList(fileA), graph, processor, new NullProgressMonitor());
+
+        throw exceptions[0];
+    }
+
+    @Test
+    public void testRunInBuildThread_OutsideOfParallelBuild() throws CoreException {
+        IWorkspaceRunnable operation = mock(IWorkspaceRunnable.class);
+
+        ParallelBuildExecutor.runInBuildThread(operation);
+
+        verify(operation).run(any(IProgressMonitor.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_OneThread() {
+        new ParallelBuildExecutor(1);
+    }
+
+    private IIpsSrcFile mockIpsSrcFile(String name) {
+        IIpsSrcFile ipsSrcFile = mock(IIpsSrcFile.class);
+        when(ipsSrcFile.getQualifiedNameType()).thenReturn(new QualifiedNameType(name, IpsObjectType.PRODUCT_CMPT));
+        return ipsSrcFile;
+    }
+
+    private void addDependency(IIpsSrcFile source, IIpsSrcFile target) {
+        when(graph.getDependants(target.getQualifiedNameType())).thenReturn(
+                new IDependency[] { IpsObjectDependency.createReferenceDependency(source.getQualifiedNameType(),
+                        target.getQualifiedNameType()) });
+    }
+
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.faktorips.abstracttest.AbstractIpsPluginTest;
+import org.faktorips.devtools.core.IpsPlugin;
+import org.faktorips.devtools.core.model.DatatypeDependency;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.IpsObjectDependency;
+import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
+import org.faktorips.devtools.core.model.pctype.IPolicyCmptType;
+import org.faktorips.devtools.core.model.type.IAssociation;
+import org.faktorips.devtools.core.model.type.IMethod;
+import org.faktorips.devtools.core.util.CollectionUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DependencyGraphFormatTest extends AbstractIpsPluginTest {
+
+    private IIpsProject ipsProject;
+    private IPolicyCmptType a;
+    private IPolicyCmptType b;
+    private IPolicyCmptType c;
+    private DependencyGraphFormat format;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        ipsProject = newIpsProject();
+        a = newPolicyCmptTypeWithoutProductCmptType(ipsProject, "A");
+        b = newPolicyCmptTypeWithoutProductCmptType(ipsProject, "B");
+        c = newPolicyCmptTypeWithoutProductCmptType(ipsProject, "C");
+
+        // dependencies c->a (subtype), c->b (reference), c->b (datatype)
+        c.setSupertype(a.getQualifiedName());
+        IAssociation cToB = c.newAssociation();
+        cToB.setTarget(b.getQualifiedName());
+        IMethod method = c.newMethod();
+        method.setDatatype(b.getQualifiedName());
+        method.setName("method");
+        c.getIpsSrcFile().save(true, null);
+
+        format = new DependencyGraphFormat(IpsPlugin.getDefault().getIpsModel());
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        DependencyGraph graph = new DependencyGraph(ipsProject);
+
+        DependencyGraph readGraph = writeAndRead(graph);
+
+        assertSame(ipsProject, readGraph.getIpsProject());
+        List<IDependency> dependants = CollectionUtil.toArrayList(readGraph.getDependants(a.getQualifiedNameType()));
+        assertEquals(1, dependants.size());
+        assertTrue(dependants.contains(IpsObjectDependency.createSubtypeDependency(c.getQualifiedNameType(),
+                a.getQualifiedNameType())));
+
+        dependants = CollectionUtil.toArrayList(readGraph.getDependants(b.getQualifiedNameType()));
+        assertEquals(2, dependants.size());
+        assertTrue(dependants.contains(IpsObjectDependency.createReferenceDependency(c.getQualifiedNameType(),
+                b.getQualifiedNameType())));
+        assertTrue(dependants.contains(new DatatypeDependency(c.getQualifiedNameType(), b.getQualifiedName())));
+
+        assertEquals(0, readGraph.getDependants(c.getQualifiedNameType()).length);
+    }
+
+    @Test
+    public void testRead_InternsQualifiedNameTypes() throws Exception {
+        DependencyGraph readGraph = writeAndRead(new DependencyGraph(ipsProject));
+
+        IDependency[] dependantsOfA = readGraph.getDependants(a.getQualifiedNameType());
+        IDependency[] dependantsOfB = readGraph.getDependants(b.getQualifiedNameType());
+
+        assertSame(dependantsOfA[0].getSource(), dependantsOfB[0].getSource());
+        assertSame(dependantsOfB[0].getSource(), dependantsOfB[1].getSource());
+    }
+
+    @Test
+    public void testRead_OtherFormat() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(os);
+        oos.writeObject("no dependency graph");
+        oos.close();
+
+        assertNull(format.read(ipsProject, new ByteArrayInputStream(os.toByteArray())));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_OtherProject() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        format.write(new DependencyGraph(ipsProject), os);
+
+        format.read(newIpsProject("OtherProject"), new ByteArrayInputStream(os.toByteArray()));
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        DependencyGraph graph = new DependencyGraph(ipsProject);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        format.write(graph, os);
+
+        // b now depends on a, c does not depend on b any more
+        IAssociation bToA = b.newAssociation();
+        bToA.setTarget(a.getQualifiedName());
+        b.getIpsSrcFile().save(true, null);
+        c.getIpsSrcFile().getCorrespondingResource().delete(true, null);
+
+        DependencyGraph readGraph = format.read(ipsProject, new ByteArrayInputStream(os.toByteArray()));
+        assertEquals(2, readGraph.getDependants(b.getQualifiedNameType()).length);
+        readGraph.refresh();
+
+        IDependency[] dependants = readGraph.getDependants(a.getQualifiedNameType());
+        assertEquals(1, dependants.length);
+        assertEquals(IpsObjectDependency.createReferenceDependency(b.getQualifiedNameType(), a.getQualifiedNameType()),
+                dependants[0]);
+        assertEquals(0, readGraph.getDependants(b.getQualifiedNameType()).length);
+    }
+
+    private DependencyGraph writeAndRead(DependencyGraph graph) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        format.write(graph, os);
+        return format.read(ipsProject, new ByteArrayInputStream(os.toByteArray()));
+    }
+
+}
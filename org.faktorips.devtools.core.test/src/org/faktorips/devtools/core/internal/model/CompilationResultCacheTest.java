@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.datatype.Datatype;
+import org.faktorips.devtools.core.builder.IDependencyGraph;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.IpsObjectDependency;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
+import org.faktorips.devtools.core.model.productcmpt.IExpression;
+import org.faktorips.fl.CompilationResult;
+import org.faktorips.fl.CompilationResultImpl;
+import org.faktorips.fl.JavaExprCompiler;
+import org.faktorips.util.message.Message;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompilationResultCacheTest {
+
+    private final QualifiedNameType qntType = new QualifiedNameType("a.Type", IpsObjectType.PRODUCT_CMPT_TYPE);
+    private final QualifiedNameType qntProduct = new QualifiedNameType("b.Product", IpsObjectType.PRODUCT_CMPT);
+    private final QualifiedNameType qntOther = new QualifiedNameType("c.Other", IpsObjectType.PRODUCT_CMPT);
+
+    private CompilationResultCache cache;
+
+    private IIpsProject ipsProject;
+
+    private IDependencyGraph graph;
+
+    private JavaExprCompiler compiler;
+
+    private IIpsSrcFile srcFileType;
+
+    private IExpression expression;
+
+    private IExpression otherExpression;
+
+    @Before
+    public void setUp() {
+        cache = new CompilationResultCache();
+        compiler = new JavaExprCompiler(Locale.ENGLISH);
+        ipsProject = mock(IIpsProject.class);
+        when(ipsProject.findReferencingProjects(true)).thenReturn(new IIpsProject[0]);
+        graph = mock(IDependencyGraph.class);
+        when(graph.getIpsProject()).thenReturn(ipsProject);
+        when(graph.getDependants(any(QualifiedNameType.class))).thenReturn(new IDependency[0]);
+        when(graph.getDependants(qntType)).thenReturn(
+                new IDependency[] { IpsObjectDependency.createInstanceOfDependency(qntProduct, qntType) });
+
+        srcFileType = mockSrcFile(qntType);
+        expression = mockExpression(mockSrcFile(qntProduct));
+        otherExpression = mockExpression(mockSrcFile(qntOther));
+    }
+
+    @Test
+    public void testPutResult() {
+        CompilationResultImpl result = new CompilationResultImpl("1 + 2", Datatype.INTEGER);
+
+        cache.putResult(expression, ipsProject, compiler, "1+2", result);
+        result.addCodeFragment(" + 3");
+
+        CompilationResult<JavaCodeFragment> cached = cache.getResult(expression, ipsProject, compiler, "1+2");
+        assertEquals("1 + 2", cached.getCodeFragment().getSourcecode());
+        assertEquals(Datatype.INTEGER, cached.getDatatype());
+        assertNotSame(cached, cache.getResult(expression, ipsProject, compiler, "1+2"));
+        cached.getCodeFragment().append(" + 3");
+        assertEquals("1 + 2", cache.getResult(expression, ipsProject, compiler, "1+2").getCodeFragment()
+                .getSourcecode());
+    }
+
+    @Test
+    public void testPutResult_Failed() {
+        cache.putResult(expression, ipsProject, compiler, "1+",
+                new CompilationResultImpl(Message.newError("code", "text")));
+
+        assertNull(cache.getResult(expression, ipsProject, compiler, "1+"));
+    }
+
+    @Test
+    public void testGetResult_OtherExpressionText() {
+        cache.putResult(expression, ipsProject, compiler, "1+2", new CompilationResultImpl("1 + 2", Datatype.INTEGER));
+
+        assertNull(cache.getResult(expression, ipsProject, compiler, "1+3"));
+    }
+
+    @Test
+    public void testGetResult_OtherProject() {
+        cache.putResult(expression, ipsProject, compiler, "1+2", new CompilationResultImpl("1 + 2", Datatype.INTEGER));
+
+        assertNull(cache.getResult(expression, mock(IIpsProject.class), compiler, "1+2"));
+    }
+
+    @Test
+    public void testGetResult_OtherCompiler() {
+        cache.putResult(expression, ipsProject, compiler, "1+2", new CompilationResultImpl("1 + 2", Datatype.INTEGER));
+
+        assertNotNull(cache.getResult(expression, ipsProject, new JavaExprCompiler(Locale.ENGLISH), "1+2"));
+        assertNull(cache.getResult(expression, ipsProject, new JavaExprCompiler(Locale.GERMAN), "1+2"));
+    }
+
+    @Test
+    public void testGetResult_Statistics() {
+        cache.putResult(expression, ipsProject, compiler, "1+2", new CompilationResultImpl("1 + 2", Datatype.INTEGER));
+
+        cache.getResult(expression, ipsProject, compiler, "1+2");
+        cache.getResult(expression, ipsProject, compiler, "1+2");
+        cache.getResult(otherExpression, ipsProject, compiler, "1+2");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testRemoveStaleData_RemovesDependants() {
+        putResults();
+
+        cache.removeStaleData(Collections.singletonList(srcFileType), new IDependencyGraph[] { graph });
+
+        assertNull(cache.getResult(expression, ipsProject, compiler, "1+2"));
+        assertNotNull(cache.getResult(otherExpression, ipsProject, compiler, "1+2"));
+    }
+
+    @Test
+    public void testRemoveStaleData_MissingGraph() {
+        putResults();
+
+        cache.removeStaleData(Collections.singletonList(srcFileType), new IDependencyGraph[0]);
+
+        assertNull(cache.getResult(otherExpression, ipsProject, compiler, "1+2"));
+    }
+
+    private void putResults() {
+        cache.putResult(expression, ipsProject, compiler, "1+2", new CompilationResultImpl("1 + 2", Datatype.INTEGER));
+        cache.putResult(otherExpression, ipsProject, compiler, "1+2",
+                new CompilationResultImpl("1 + 2", Datatype.INTEGER));
+    }
+
+    private IIpsSrcFile mockSrcFile(QualifiedNameType qualifiedNameType) {
+        IIpsSrcFile srcFile = mock(IIpsSrcFile.class);
+        when(srcFile.getQualifiedNameType()).thenReturn(qualifiedNameType);
+        when(srcFile.getIpsProject()).thenReturn(ipsProject);
+        return srcFile;
+    }
+
+    private IExpression mockExpression(IIpsSrcFile srcFile) {
+        IExpression mockExpression = mock(IExpression.class);
+        when(mockExpression.getIpsSrcFile()).thenReturn(srcFile);
+        return mockExpression;
+    }
+
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.eclipse.core.resources.IResource;
+import org.faktorips.abstracttest.AbstractIpsPluginTest;
+import org.faktorips.devtools.core.IpsPlugin;
+import org.faktorips.devtools.core.internal.model.ipsobject.IpsObject;
+import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFile;
+import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFileContent;
+import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
+import org.faktorips.runtime.caching.CacheStatistics;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class IpsSrcFileContentCacheTest extends AbstractIpsPluginTest {
+
+    @Test
+    public void testGetContent_ReadsFileOnce() throws Exception {
+        IpsSrcFileContentCache cache = new IpsSrcFileContentCache(IpsSrcFileContentCache.UNBOUNDED);
+        IpsSrcFile srcFile = mockIpsSrcFile(1);
+
+        IpsSrcFileContent content = cache.getContent(srcFile, true);
+
+        assertSame(content, cache.getContent(srcFile, true));
+        assertTrue(content.isInitialized());
+        assertTrue(cache.contains(srcFile));
+        verify(srcFile, times(1)).getContentFromEnclosingResource();
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    public void testGetContent_ReloadsChangedFile() throws Exception {
+        IpsSrcFileContentCache cache = new IpsSrcFileContentCache(IpsSrcFileContentCache.UNBOUNDED);
+        IpsSrcFile srcFile = mockIpsSrcFile(1);
+        IpsSrcFileContent content = cache.getContent(srcFile, true);
+
+        IResource resource = srcFile.getEnclosingResource();
+        when(resource.getModificationStamp()).thenReturn(2L);
+
+        assertSame(content, cache.getContent(srcFile, true));
+        assertEquals(2, content.getModificationStamp());
+        verify(srcFile, times(2)).getContentFromEnclosingResource();
+        assertEquals(2, cache.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void testInvalidateUnmodifiedContents() throws Exception {
+        IpsSrcFileContentCache cache = new IpsSrcFileContentCache(IpsSrcFileContentCache.UNBOUNDED);
+        IpsSrcFile srcFile = mockIpsSrcFile(1);
+        IpsSrcFileContent content = cache.getContent(srcFile, true);
+
+        cache.invalidateUnmodifiedContents(null);
+
+        assertSame(content, cache.getContent(srcFile, true));
+        verify(srcFile, times(2)).getContentFromEnclosingResource();
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        IpsSrcFileContentCache cache = new IpsSrcFileContentCache(IpsSrcFileContentCache.UNBOUNDED);
+        IpsSrcFile srcFile = mockIpsSrcFile(1);
+        IpsSrcFileContent content = cache.getContent(srcFile, true);
+
+        cache.remove(srcFile);
+
+        assertFalse(cache.contains(srcFile));
+        assertNotSame(content, cache.getContent(srcFile, true));
+    }
+
+    @Test
+    public void testGetContent_EvictsLeastRecentlyUsed() throws Exception {
+        IpsSrcFileContentCache cache = new IpsSrcFileContentCache(10);
+        IpsSrcFile[] srcFiles = new IpsSrcFile[11];
+        for (int i = 0; i < srcFiles.length; i++) {
+            srcFiles[i] = mockIpsSrcFile(1);
+        }
+        for (int i = 0; i < 10; i++) {
+            cache.getContent(srcFiles[i], true);
+        }
+        cache.getContent(srcFiles[0], true);
+
+        cache.getContent(srcFiles[10], true);
+
+        assertEquals(9, cache.size());
+        assertTrue(cache.contains(srcFiles[0]));
+        assertFalse(cache.contains(srcFiles[1]));
+        assertFalse(cache.contains(srcFiles[2]));
+        assertTrue(cache.contains(srcFiles[3]));
+        assertTrue(cache.contains(srcFiles[10]));
+        assertEquals(2, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testSetMaximumSize_KeepsModifiedContents() throws Exception {
+        IpsSrcFileContentCache cache = new IpsSrcFileContentCache(IpsSrcFileContentCache.UNBOUNDED);
+        IpsSrcFile modifiedFile = mockIpsSrcFile(1);
+        IpsSrcFile unmodifiedFile = mockIpsSrcFile(1);
+        cache.getContent(modifiedFile, true).markAsModified();
+        cache.getContent(unmodifiedFile, true);
+
+        cache.setMaximumSize(0);
+
+        assertTrue(cache.contains(modifiedFile));
+        assertFalse(cache.contains(unmodifiedFile));
+    }
+
+    private IpsSrcFile mockIpsSrcFile(long modificationStamp) throws Exception {
+        IResource resource = mock(IResource.class);
+        when(resource.getModificationStamp()).thenReturn(modificationStamp);
+        IpsObjectType ipsObjectType = mock(IpsObjectType.class);
+        IpsSrcFile ipsSrcFile = mock(IpsSrcFile.class);
+        when(ipsSrcFile.exists()).thenReturn(true);
+        when(ipsSrcFile.getIpsObjectType()).thenReturn(ipsObjectType);
+        when(ipsSrcFile.getEnclosingResource()).thenReturn(resource);
+        when(ipsSrcFile.getContentFromEnclosingResource()).thenAnswer(new Answer<InputStream>() {
+
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                return new ByteArrayInputStream("<Foo/>".getBytes());
+            }
+        });
+        // every call of newObject must create a new IPS object
+        when(ipsObjectType.newObject(ipsSrcFile)).thenAnswer(new Answer<IpsObject>() {
+
+            @Override
+            public IpsObject answer(InvocationOnMock invocation) throws Throwable {
+                IpsObject ipsObject = mock(IpsObject.class);
+                when(ipsObject.getIpsSrcFile()).thenReturn((IpsSrcFile)invocation.getArguments()[0]);
+                when(ipsObject.getIpsModel()).thenReturn(IpsPlugin.getDefault().getIpsModel());
+                return ipsObject;
+            }
+        });
+        return ipsSrcFile;
+    }
+
+}
@@ -79,6 +79,27 @@ public class ResourceDeltaVisitorTest extends AbstractIpsPluginTest {
         assertThat(ipsModel.getValidationResultCache().getResult(productCmptType), is(nullValue()));
     }
 
+    @Test
+    public void testAddIpsSrcFile() throws CoreException {
+        productCmptType.validate(ipsProject);
+        assertTrue(ipsModel.getValidationResultCache().getResult(productCmptType).isEmpty());
+
+        newProductCmptType(ipsProject, "OtherPCT");
+
+        assertThat(ipsModel.getValidationResultCache().getResult(productCmptType), is(nullValue()));
+    }
+
+    @Test
+    public void testRemoveIpsSrcFile() throws CoreException {
+        ProductCmptType otherType = newProductCmptType(ipsProject, "OtherPCT");
+        productCmptType.validate(ipsProject);
+        assertTrue(ipsModel.getValidationResultCache().getResult(productCmptType).isEmpty());
+
+        otherType.getEnclosingResource().delete(true, null);
+
+        assertThat(ipsModel.getValidationResultCache().getResult(productCmptType), is(nullValue()));
+    }
+
     @Test
     public void testChangeIpsSrcFile() throws CoreException {
         productCmptType.getEnclosingResource().touch(null);
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.faktorips.devtools.core.builder.IDependencyGraph;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.IpsObjectDependency;
+import org.faktorips.devtools.core.model.ipsobject.IIpsObjectPartContainer;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
+import org.faktorips.util.message.Message;
+import org.faktorips.util.message.MessageList;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValidationResultCacheTest {
+
+    private final QualifiedNameType qntA = new QualifiedNameType("a.A", IpsObjectType.POLICY_CMPT_TYPE);
+    private final QualifiedNameType qntB = new QualifiedNameType("b.B", IpsObjectType.POLICY_CMPT_TYPE);
+    private final QualifiedNameType qntC = new QualifiedNameType("c.C", IpsObjectType.PRODUCT_CMPT);
+    private final QualifiedNameType qntD = new QualifiedNameType("d.D", IpsObjectType.PRODUCT_CMPT);
+
+    private ValidationResultCache cache;
+
+    private IIpsProject ipsProject;
+
+    private IDependencyGraph graph;
+
+    private IIpsSrcFile srcFileA;
+    private IIpsSrcFile srcFileD;
+
+    private IIpsObjectPartContainer containerA;
+    private IIpsObjectPartContainer containerB;
+    private IIpsObjectPartContainer containerC;
+    private IIpsObjectPartContainer containerD;
+
+    @Before
+    public void setUp() {
+        cache = new ValidationResultCache();
+        ipsProject = mock(IIpsProject.class);
+        when(ipsProject.findReferencingProjects(true)).thenReturn(new IIpsProject[0]);
+        graph = mock(IDependencyGraph.class);
+        when(graph.getIpsProject()).thenReturn(ipsProject);
+        when(graph.getDependants(any(QualifiedNameType.class))).thenReturn(new IDependency[0]);
+        // C depends on B, B depends on A, D is independent
+        when(graph.getDependants(qntA)).thenReturn(
+                new IDependency[] { IpsObjectDependency.createSubtypeDependency(qntB, qntA) });
+        when(graph.getDependants(qntB)).thenReturn(
+                new IDependency[] { IpsObjectDependency.createConfiguresDependency(qntC, qntB) });
+
+        srcFileA = mockSrcFile(qntA);
+        containerA = mockContainer(srcFileA);
+        containerB = mockContainer(mockSrcFile(qntB));
+        containerC = mockContainer(mockSrcFile(qntC));
+        srcFileD = mockSrcFile(qntD);
+        containerD = mockContainer(srcFileD);
+    }
+
+    @Test
+    public void testPutResult() {
+        MessageList result = new MessageList(Message.newError("code", "text"));
+
+        cache.putResult(containerA, result);
+        result.add(Message.newWarning("code2", "text2"));
+
+        MessageList cached = cache.getResult(containerA);
+        assertEquals(1, cached.size());
+        assertNotSame(cached, cache.getResult(containerA));
+        cached.add(Message.newWarning("code2", "text2"));
+        assertEquals(1, cache.getResult(containerA).size());
+    }
+
+    @Test
+    public void testPutResult_Null() {
+        cache.putResult(containerA, new MessageList());
+
+        cache.putResult(containerA, null);
+
+        assertNull(cache.getResult(containerA));
+    }
+
+    @Test
+    public void testGetResult_Statistics() {
+        cache.putResult(containerA, new MessageList());
+
+        cache.getResult(containerA);
+        cache.getResult(containerA);
+        cache.getResult(containerB);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testRemoveStaleData_RemovesDependants() {
+        putResults();
+
+        cache.removeStaleData(Collections.singletonList(srcFileA), new IDependencyGraph[] { graph });
+
+        assertNull(cache.getResult(containerA));
+        assertNull(cache.getResult(containerB));
+        assertNull(cache.getResult(containerC));
+        assertNotNull(cache.getResult(containerD));
+    }
+
+    @Test
+    public void testRemoveStaleData_FilesChangedSinceGraphUpdate() {
+        putResults();
+
+        cache.removeStaleData(Arrays.asList(srcFileD, srcFileA), new IDependencyGraph[] { graph });
+
+        assertNull(cache.getResult(containerA));
+        assertNull(cache.getResult(containerB));
+        assertNull(cache.getResult(containerC));
+        assertNull(cache.getResult(containerD));
+    }
+
+    @Test
+    public void testRemoveStaleData_MissingGraph() {
+        putResults();
+
+        cache.removeStaleData(Collections.singletonList(srcFileA), new IDependencyGraph[0]);
+
+        assertNull(cache.getResult(containerD));
+    }
+
+    @Test
+    public void testRemoveStaleData_MissingGraphOfReferencingProject() {
+        IIpsProject referencingProject = mock(IIpsProject.class);
+        when(ipsProject.findReferencingProjects(true)).thenReturn(new IIpsProject[] { referencingProject });
+        putResults();
+
+        cache.removeStaleData(Collections.singletonList(srcFileA), new IDependencyGraph[] { graph });
+
+        assertNull(cache.getResult(containerD));
+    }
+
+    @Test
+    public void testRemoveStaleData_NoChangedFiles() {
+        putResults();
+
+        cache.removeStaleData(Collections.<IIpsSrcFile> emptyList(), new IDependencyGraph[] { graph });
+
+        assertNotNull(cache.getResult(containerA));
+    }
+
+    private void putResults() {
+        cache.putResult(containerA, new MessageList());
+        cache.putResult(containerB, new MessageList());
+        cache.putResult(containerC, new MessageList());
+        cache.putResult(containerD, new MessageList());
+    }
+
+    private IIpsSrcFile mockSrcFile(QualifiedNameType qualifiedNameType) {
+        IIpsSrcFile srcFile = mock(IIpsSrcFile.class);
+        when(srcFile.getQualifiedNameType()).thenReturn(qualifiedNameType);
+        when(srcFile.getIpsProject()).thenReturn(ipsProject);
+        return srcFile;
+    }
+
+    private IIpsObjectPartContainer mockContainer(IIpsSrcFile srcFile) {
+        IIpsObjectPartContainer container = mock(IIpsObjectPartContainer.class);
+        when(container.getIpsSrcFile()).thenReturn(srcFile);
+        return container;
+    }
+
+}
@@ -17,6 +17,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+
 import org.eclipse.core.runtime.CoreException;
 import org.faktorips.abstracttest.AbstractIpsPluginTest;
 import org.faktorips.devtools.core.model.IIpsElement;
@@ -92,6 +94,24 @@ public class TableRowsTest extends AbstractIpsPluginTest {
         assertEquals(1, row1.getRowNumber());
     }
 
+    @Test
+    public void testNewRows() throws CoreException {
+        tableRows.getIpsSrcFile().save(true, null);
+
+        tableRows.newRows(Arrays.asList(new String[] { "a", "b", "c" }, new String[] { "d", null },
+                new String[] { "e", "f", "g", "h" }));
+
+        assertEquals(3, tableRows.getNumOfRows());
+        assertEquals("a", tableRows.getRow(0).getValue(0));
+        assertEquals("c", tableRows.getRow(0).getValue(2));
+        assertEquals("d", tableRows.getRow(1).getValue(0));
+        assertNull(tableRows.getRow(1).getValue(1));
+        assertNull(tableRows.getRow(1).getValue(2));
+        assertEquals("g", tableRows.getRow(2).getValue(2));
+        assertEquals(2, tableRows.getRow(2).getRowNumber());
+        assertTrue(tableRows.getIpsSrcFile().isDirty());
+    }
+
     @Test
     public void testNewColumn() {
         IRow row1 = tableRows.newRow();
@@ -170,6 +170,11 @@ public class IpsPreferences {
      */
     private static final int DEFAULT_DELAY_TIME = 200;
 
+    /**
+     * Constant that identifies the preference for the number of threads building the IPS objects.
+     */
+    public static final String BUILDER_THREADS = IpsPlugin.PLUGIN_ID + ".builderThreads"; //$NON-NLS-1$
+
     private final DatatypeFormatter datatypeFormatter;
 
     private final IPreferenceStore prefStore;
@@ -191,6 +196,7 @@ public class IpsPreferences {
         prefStore.setDefault(SECTIONS_IN_TYPE_EDITORS, TWO_SECTIONS_IN_TYPE_EDITOR_PAGE);
         prefStore.setDefault(CHANGE_EVENT_DELAY_TIME, DEFAULT_DELAY_TIME);
         prefStore.setDefault(COPY_WIZARD_MODE, COPY_WIZARD_MODE_SMARTMODE);
+        prefStore.setDefault(BUILDER_THREADS, 1);
 
         setDefaultForDatatypeFormatting(prefStore);
 
@@ -545,6 +551,22 @@ public class IpsPreferences {
         prefStore.setValue(CHANGE_EVENT_DELAY_TIME, delayTime);
     }
 
+    /**
+     * Returns the number of threads building the IPS objects. If the number is greater than 1, the
+     * IPS objects are validated and the thread safe artefact builders are applied in parallel
+     * before the other artefact builders are applied.
+     */
+    public int getBuilderThreads() {
+        return prefStore.getInt(BUILDER_THREADS);
+    }
+
+    /**
+     * Sets the number of threads building the IPS objects.
+     */
+    public void setBuilderThreads(int numberOfThreads) {
+        prefStore.setValue(BUILDER_THREADS, numberOfThreads);
+    }
+
     /**
      * Returns <code>true</code> if the currently mode for the product copy wizard is the copy mode,
      * <code>false</code> otherwise.
@@ -18,7 +18,9 @@ import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
@@ -86,6 +88,14 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
         return false;
     }
 
+    /**
+     * Returns false.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
     @Override
     public String toString() {
         return "Builder: " + getName(); //$NON-NLS-1$
@@ -105,22 +115,35 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
      * @throws CoreException if an Exception occurs during the creation procedure
      * @throws RuntimeException if the provided file parameter is <code>null</code>
      */
-    protected boolean createFileIfNotThere(IFile file) throws CoreException {
+    protected boolean createFileIfNotThere(final IFile file) throws CoreException {
         ArgumentCheck.notNull(file, this);
         if (!file.exists()) {
-            IContainer parent = file.getParent();
+            runInBuildThread(new IWorkspaceRunnable() {
 
-            if (parent instanceof IFolder) {
-                createFolderIfNotThere((IFolder)parent);
-            }
-            file.create(new ByteArrayInputStream("".getBytes()), true, null); //$NON-NLS-1$
-            file.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    createFile(file);
+                }
+
+            });
             return true;
         }
 
         return false;
     }
 
+    private void createFile(IFile file) throws CoreException {
+        if (file.exists()) {
+            return;
+        }
+        IContainer parent = file.getParent();
+        if (parent instanceof IFolder) {
+            createFolder((IFolder)parent);
+        }
+        file.create(new ByteArrayInputStream("".getBytes()), true, null); //$NON-NLS-1$
+        file.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+    }
+
     /**
      * This method needs to be used in subclasses of this builder when a folder is created during
      * the build cycle. This method creates a folder only if the folder handle points to a folder
@@ -135,21 +158,54 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
      * @throws CoreException if an Exception occurs during the creation procedure
      * @throws RuntimeException if the provided folder parameter is <code>null</code>
      */
-    protected boolean createFolderIfNotThere(IFolder folder) throws CoreException {
+    protected boolean createFolderIfNotThere(final IFolder folder) throws CoreException {
 
         ArgumentCheck.notNull(folder, this);
         if (!folder.exists()) {
-            IContainer parent = folder.getParent();
-            if (parent instanceof IFolder) {
-                createFolderIfNotThere((IFolder)parent);
-            }
-            folder.create(true, true, null);
-            folder.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+            runInBuildThread(new IWorkspaceRunnable() {
+
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    createFolder(folder);
+                }
+
+            });
             return true;
         }
         return false;
     }
 
+    /**
+     * Creates the folder and its parents unless they exist. Another thread safe builder may have
+     * created them in the meantime, hence the folders are checked again in the thread running the
+     * build.
+     */
+    private void createFolder(IFolder folder) throws CoreException {
+        if (folder.exists()) {
+            return;
+        }
+        IContainer parent = folder.getParent();
+        if (parent instanceof IFolder) {
+            createFolder((IFolder)parent);
+        }
+        folder.create(true, true, null);
+        folder.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+    }
+
+    /**
+     * Runs the given operation in the thread running the build. Builders that are
+     * {@link #isThreadSafe() thread safe} must modify the workspace by means of this method, as
+     * only the thread running the build holds the build's scheduling rule. If this method is
+     * called by the thread running the build, the operation is executed directly.
+     * 
+     * @param operation the operation modifying the workspace
+     * 
+     * @throws CoreException if the operation throws a CoreException
+     */
+    protected final void runInBuildThread(IWorkspaceRunnable operation) throws CoreException {
+        ParallelBuildExecutor.runInBuildThread(operation);
+    }
+
     /**
      * Returns the language in that variables, methods are named and and Java documentations are
      * written in.
@@ -229,9 +285,18 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
      * @throws CoreException in case of an error while setting the new content to the file @see
      *             {@link IFile#setContents(InputStream, boolean, boolean, org.eclipse.core.runtime.IProgressMonitor)}
      */
-    public void writeToFile(IFile file, InputStream inputStream, boolean force, boolean keepHistory)
-            throws CoreException {
-        EclipseIOUtil.writeToFile(file, inputStream, force, keepHistory, new NullProgressMonitor());
+    public void writeToFile(final IFile file,
+            final InputStream inputStream,
+            final boolean force,
+            final boolean keepHistory) throws CoreException {
+        runInBuildThread(new IWorkspaceRunnable() {
+
+            @Override
+            public void run(IProgressMonitor monitor) throws CoreException {
+                EclipseIOUtil.writeToFile(file, inputStream, force, keepHistory, new NullProgressMonitor());
+            }
+
+        });
     }
 
     /**
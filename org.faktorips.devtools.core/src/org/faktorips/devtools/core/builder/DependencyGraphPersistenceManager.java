@@ -14,8 +14,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import org.eclipse.core.resources.ISaveContext;
 import org.eclipse.core.resources.ISaveParticipant;
@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.faktorips.devtools.core.IpsPlugin;
 import org.faktorips.devtools.core.IpsStatus;
 import org.faktorips.devtools.core.internal.builder.DependencyGraph;
+import org.faktorips.devtools.core.internal.builder.DependencyGraphFormat;
 import org.faktorips.devtools.core.internal.model.IpsModel;
 import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
 import org.faktorips.util.ArgumentCheck;
@@ -33,9 +34,9 @@ import org.faktorips.util.ArgumentCheck;
  * instance of it during its life cycle. It is responsible for saving the states of the dependency
  * graphs that have been accessed during startup and shut down phase of the Faktor-IPS plug-in. The
  * states will be saved at shut down of the eclipse application. The dependency graph states are
- * saved to files located at the eclipse save location of the org.faktorips.devtools.core plug-in.
- * Once a state of a dependency graph has been saved this state can be retrieved by this persistence
- * manager.
+ * saved to files located at the eclipse save location of the org.faktorips.devtools.core plug-in
+ * in the binary format of the {@link DependencyGraphFormat}. Once a state of a dependency graph
+ * has been saved this state can be retrieved by this persistence manager.
  * 
  * @author Peter Erzberger
  */
@@ -43,7 +44,9 @@ public class DependencyGraphPersistenceManager implements ISaveParticipant {
 
     /**
      * Returns the last persisted dependency graph for the provided IpsProject if available.
-     * Otherwise <code>null</code> will be returned.
+     * Otherwise <code>null</code> will be returned. The dependencies of the IPS source files that
+     * have been changed, added or removed since the graph has been persisted are updated before the
+     * graph is returned.
      * 
      * @throws NullPointerException if the provided project is <code>null</code>
      */
@@ -53,13 +56,15 @@ public class DependencyGraphPersistenceManager implements ISaveParticipant {
         if (file == null || !file.exists()) {
             return null;
         }
-        ObjectInputStream ois = null;
+        InputStream in = null;
         try {
-            FileInputStream in = new FileInputStream(file);
-            ois = new ObjectInputStream(in);
-            DependencyGraph graph = (DependencyGraph)ois.readObject();
-            ois.close();
-            graph.setIpsProject(project);
+            in = new FileInputStream(file);
+            DependencyGraph graph = new DependencyGraphFormat(IpsPlugin.getDefault().getIpsModel()).read(project, in);
+            if (graph == null) {
+                // written by an older version
+                return null;
+            }
+            graph.refresh();
             return graph;
             // CSOFF: IllegalCatch
         } catch (Exception e) {
@@ -70,13 +75,12 @@ public class DependencyGraphPersistenceManager implements ISaveParticipant {
             return new DependencyGraph(project);
             // CSON: IllegalCatch
         } finally {
-            if (ois != null) {
+            if (in != null) {
                 try {
-                    ois.close();
+                    in.close();
                 } catch (IOException e1) {
                     IpsPlugin.log(new IpsStatus("Unable to close the input stream while of the dependency graph file " //$NON-NLS-1$
                             + file.getAbsolutePath(), e1));
-                    return new DependencyGraph(project);
                 }
             }
         }
@@ -118,13 +122,14 @@ public class DependencyGraphPersistenceManager implements ISaveParticipant {
     }
 
     private void save(IDependencyGraph graph) {
-        ObjectOutputStream os = null;
+        if (!(graph instanceof DependencyGraph)) {
+            return;
+        }
+        OutputStream os = null;
         File file = getDependencyGraphFile(graph.getIpsProject());
         try {
-            FileOutputStream fileOs = new FileOutputStream(file);
-            os = new ObjectOutputStream(fileOs);
-            os.writeObject(graph);
-            os.flush();
+            os = new FileOutputStream(file);
+            new DependencyGraphFormat(IpsPlugin.getDefault().getIpsModel()).write((DependencyGraph)graph, os);
             os.close();
         } catch (IOException e) {
             IpsPlugin.log(new IpsStatus(IStatus.WARNING,
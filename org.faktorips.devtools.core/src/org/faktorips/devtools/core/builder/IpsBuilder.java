@@ -16,9 +16,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -41,7 +43,10 @@ import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.osgi.util.NLS;
 import org.faktorips.devtools.core.IpsPlugin;
+import org.faktorips.devtools.core.IpsPreferences;
 import org.faktorips.devtools.core.IpsStatus;
+import org.faktorips.devtools.core.builder.ParallelBuildExecutor.IpsSrcFileProcessor;
+import org.faktorips.devtools.core.internal.model.IpsModel;
 import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFile;
 import org.faktorips.devtools.core.internal.model.ipsproject.IpsBundleManifest;
 import org.faktorips.devtools.core.model.IDependency;
@@ -344,6 +349,14 @@ public class IpsBuilder extends IncrementalProjectBuilder {
             MultiStatus buildStatus,
             BuildCommand command,
             IProgressMonitor monitor) {
+        applyBuildCommand(currentBuilderSet, buildStatus, command, false, monitor);
+    }
+
+    private void applyBuildCommand(IIpsArtefactBuilderSet currentBuilderSet,
+            MultiStatus buildStatus,
+            BuildCommand command,
+            boolean skipThreadSafeBuilders,
+            IProgressMonitor monitor) {
 
         /*
          * Despite the fact that generating is disabled in the Faktor-IPS preferences the validation
@@ -355,10 +368,8 @@ public class IpsBuilder extends IncrementalProjectBuilder {
         }
         IIpsArtefactBuilder[] artefactBuilders = currentBuilderSet.getArtefactBuilders();
         for (IIpsArtefactBuilder artefactBuilder : artefactBuilders) {
-            try {
-                command.build(artefactBuilder, buildStatus);
-            } catch (Exception e) {
-                addIpsStatus(artefactBuilder, command, buildStatus, e);
+            if (!skipThreadSafeBuilders || !artefactBuilder.isThreadSafe()) {
+                applyBuildCommand(artefactBuilder, buildStatus, command);
             }
         }
         if (monitor.isCanceled()) {
@@ -366,6 +377,14 @@ public class IpsBuilder extends IncrementalProjectBuilder {
         }
     }
 
+    private void applyBuildCommand(IIpsArtefactBuilder artefactBuilder, MultiStatus buildStatus, BuildCommand command) {
+        try {
+            command.build(artefactBuilder, buildStatus);
+        } catch (Exception e) {
+            addIpsStatus(artefactBuilder, command, buildStatus, e);
+        }
+    }
+
     private void addIpsStatus(IIpsArtefactBuilder builder, BuildCommand command, MultiStatus buildStatus, Exception e) {
         String text = builder.getName() + ": Error during: " + command + "."; //$NON-NLS-1$ //$NON-NLS-2$
         buildStatus.add(new IpsStatus(text, e));
@@ -430,9 +449,12 @@ public class IpsBuilder extends IncrementalProjectBuilder {
             List<IIpsSrcFile> allIpsSrcFiles = new ArrayList<IIpsSrcFile>();
             collectIpsSrcFilesForFullBuild(allIpsSrcFiles);
             monitor.beginTask("full build", 2 * allIpsSrcFiles.size()); //$NON-NLS-1$
+            ((IpsModel)getIpsProject().getIpsModel()).dependenciesUpdated(getIpsProject());
             getDependencyGraph(getIpsProject()).reInit();
             monitor.worked(allIpsSrcFiles.size());
             removeEmptyFolders();
+            Map<IIpsSrcFile, MultiStatus> parallelBuildStatuses = buildInParallel(ipsArtefactBuilderSet,
+                    getIpsProject(), allIpsSrcFiles, monitor);
 
             for (IIpsSrcFile ipsSrcFile : allIpsSrcFiles) {
                 if (monitor.isCanceled()) {
@@ -440,7 +462,8 @@ public class IpsBuilder extends IncrementalProjectBuilder {
                 }
                 try {
                     monitor.subTask(Messages.IpsBuilder_building + ipsSrcFile.getName());
-                    buildIpsSrcFile(ipsArtefactBuilderSet, getIpsProject(), ipsSrcFile, buildStatus, monitor);
+                    buildIpsSrcFile(ipsArtefactBuilderSet, getIpsProject(), ipsSrcFile, parallelBuildStatuses,
+                            buildStatus, monitor);
                     monitor.worked(1);
                 } catch (Exception e) {
                     buildStatus.add(new IpsStatus(e));
@@ -556,13 +579,16 @@ public class IpsBuilder extends IncrementalProjectBuilder {
                 monitor.worked(1);
             }
 
+            Map<IIpsSrcFile, MultiStatus> parallelBuildStatuses = buildInParallel(ipsArtefactBuilderSet,
+                    getIpsProject(), visitor.changedAndAddedIpsSrcFiles, monitor);
             for (IIpsSrcFile iIpsSrcFile : visitor.changedAndAddedIpsSrcFiles) {
                 if (monitor.isCanceled()) {
                     break;
                 }
                 IpsSrcFile ipsSrcFile = (IpsSrcFile)iIpsSrcFile;
                 monitor.subTask(Messages.IpsBuilder_building + ipsSrcFile.getName());
-                buildIpsSrcFile(ipsArtefactBuilderSet, getIpsProject(), ipsSrcFile, buildStatus, monitor);
+                buildIpsSrcFile(ipsArtefactBuilderSet, getIpsProject(), ipsSrcFile, parallelBuildStatuses, buildStatus,
+                        monitor);
                 updateDependencyGraph(ipsSrcFile);
                 monitor.worked(1);
             }
@@ -592,6 +618,8 @@ public class IpsBuilder extends IncrementalProjectBuilder {
                         applyBuildCommand(ipsArtefactBuilderSet, currentBuildStatus,
                                 new BeforeBuildProcessCommand(INCREMENTAL_BUILD, ipsProject), monitor);
                     }
+                    Map<IIpsSrcFile, MultiStatus> parallelBuildStatuses = buildInParallel(ipsArtefactBuilderSet,
+                            ipsProject, findIpsSrcFiles(ipsProject, dependencySet), monitor);
                     for (IDependency dependency : dependencySet) {
                         if (monitor.isCanceled()) {
                             break;
@@ -607,7 +635,7 @@ public class IpsBuilder extends IncrementalProjectBuilder {
                         }
                         monitor.subTask(Messages.IpsBuilder_building + dependency);
                         buildIpsSrcFile(ipsArtefactBuilderSet, ipsProject, ipsObject.getIpsSrcFile(),
-                                currentBuildStatus, monitor);
+                                parallelBuildStatuses, currentBuildStatus, monitor);
                         updateDependencyGraph(ipsObject.getIpsSrcFile());
                         monitor.worked(1);
                     }
@@ -638,6 +666,85 @@ public class IpsBuilder extends IncrementalProjectBuilder {
         }
     }
 
+    /**
+     * Validates the given files and applies the thread safe artefact builders to them in parallel
+     * if more than one builder thread is configured. The validation results are cached, so the
+     * markers are updated without validating the files again.
+     * 
+     * @return the status of applying the thread safe artefact builders per file or
+     *         <code>null</code> if the files are not built in parallel. Files that are not
+     *         contained have not been built, e.g. because their contents are not parsable.
+     * 
+     * @see IpsPreferences#getBuilderThreads()
+     * @see IIpsArtefactBuilder#isThreadSafe()
+     */
+    private Map<IIpsSrcFile, MultiStatus> buildInParallel(IIpsArtefactBuilderSet ipsArtefactBuilderSet,
+            final IIpsProject ipsProject,
+            Collection<IIpsSrcFile> ipsSrcFiles,
+            IProgressMonitor monitor) {
+        int numberOfThreads = IpsPlugin.getDefault().getIpsPreferences().getBuilderThreads();
+        if (numberOfThreads < 2 || ipsSrcFiles.size() < 2) {
+            return null;
+        }
+        final List<IIpsArtefactBuilder> threadSafeBuilders = getThreadSafeArtefactBuilders(ipsArtefactBuilderSet);
+        final Map<IIpsSrcFile, MultiStatus> buildStatuses = new ConcurrentHashMap<IIpsSrcFile, MultiStatus>();
+        if (TRACE_BUILDER_TRACE) {
+            System.out.println("Parallel build of " + ipsSrcFiles.size() + " files with " + numberOfThreads //$NON-NLS-1$ //$NON-NLS-2$
+                    + " threads and " + threadSafeBuilders.size() + " thread safe builders started."); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        long begin = System.currentTimeMillis();
+        new ParallelBuildExecutor(numberOfThreads).process(ipsSrcFiles, getDependencyGraph(ipsProject),
+                new IpsSrcFileProcessor() {
+
+                    @Override
+                    public void process(IIpsSrcFile ipsSrcFile) throws CoreException {
+                        if (!ipsSrcFile.exists() || !ipsSrcFile.isContentParsable()) {
+                            return;
+                        }
+                        ipsSrcFile.getIpsObject().validate(ipsProject);
+                        MultiStatus status = createInitialMultiStatus();
+                        BuildCommand command = new BuildArtefactBuildCommand(ipsSrcFile);
+                        for (IIpsArtefactBuilder artefactBuilder : threadSafeBuilders) {
+                            applyBuildCommand(artefactBuilder, status, command);
+                        }
+                        buildStatuses.put(ipsSrcFile, status);
+                    }
+
+                }, monitor);
+        if (TRACE_BUILDER_TRACE) {
+            System.out.println("Parallel build finished. Duration: " + (System.currentTimeMillis() - begin)); //$NON-NLS-1$
+        }
+        return buildStatuses;
+    }
+
+    private List<IIpsArtefactBuilder> getThreadSafeArtefactBuilders(IIpsArtefactBuilderSet ipsArtefactBuilderSet) {
+        List<IIpsArtefactBuilder> threadSafeBuilders = new ArrayList<IIpsArtefactBuilder>();
+        if (!IpsPlugin.getDefault().getIpsPreferences().getEnableGenerating()) {
+            return threadSafeBuilders;
+        }
+        for (IIpsArtefactBuilder artefactBuilder : ipsArtefactBuilderSet.getArtefactBuilders()) {
+            if (artefactBuilder.isThreadSafe()) {
+                threadSafeBuilders.add(artefactBuilder);
+            }
+        }
+        return threadSafeBuilders;
+    }
+
+    private List<IIpsSrcFile> findIpsSrcFiles(IIpsProject ipsProject, Collection<IDependency> dependencies) {
+        Set<QualifiedNameType> qualifiedNameTypes = new LinkedHashSet<QualifiedNameType>();
+        for (IDependency dependency : dependencies) {
+            qualifiedNameTypes.add(dependency.getSource());
+        }
+        List<IIpsSrcFile> ipsSrcFiles = new ArrayList<IIpsSrcFile>(qualifiedNameTypes.size());
+        for (QualifiedNameType qualifiedNameType : qualifiedNameTypes) {
+            IIpsSrcFile ipsSrcFile = ipsProject.findIpsSrcFile(qualifiedNameType);
+            if (ipsSrcFile != null) {
+                ipsSrcFiles.add(ipsSrcFile);
+            }
+        }
+        return ipsSrcFiles;
+    }
+
     private void updateMarkers(MultiStatus buildStatus, IIpsObject object) {
         if (object == null) {
             return;
@@ -699,11 +806,13 @@ public class IpsBuilder extends IncrementalProjectBuilder {
     }
 
     /**
-     * Builds the indicated file and updates its markers.
+     * Builds the indicated file and updates its markers. If the file is contained in the given
+     * statuses of the parallel build, only the builders that are not thread safe are applied.
      */
     private IIpsObject buildIpsSrcFile(IIpsArtefactBuilderSet ipsArtefactBuilderSet,
             IIpsProject ipsProject,
             IIpsSrcFile file,
+            Map<IIpsSrcFile, MultiStatus> parallelBuildStatuses,
             MultiStatus buildStatus,
             IProgressMonitor monitor) throws CoreException {
 
@@ -715,7 +824,12 @@ public class IpsBuilder extends IncrementalProjectBuilder {
         }
         IIpsObject ipsObject = file.getIpsObject();
         MultiStatus newStatus = createInitialMultiStatus();
-        applyBuildCommand(ipsArtefactBuilderSet, newStatus, new BuildArtefactBuildCommand(file), monitor);
+        MultiStatus parallelBuildStatus = parallelBuildStatuses == null ? null : parallelBuildStatuses.get(file);
+        if (parallelBuildStatus != null) {
+            newStatus.merge(parallelBuildStatus);
+        }
+        applyBuildCommand(ipsArtefactBuilderSet, newStatus, new BuildArtefactBuildCommand(file),
+                parallelBuildStatus != null, monitor);
         if (!newStatus.isOK()) {
             fillMultiStatusWithMessageList(newStatus, ipsObject.validate(ipsProject));
             buildStatus.add(newStatus);
@@ -732,6 +846,7 @@ public class IpsBuilder extends IncrementalProjectBuilder {
     }
 
     private void updateDependencyGraph(IIpsSrcFile ipsSrcFile) {
+        ((IpsModel)ipsSrcFile.getIpsModel()).dependenciesUpdated(ipsSrcFile);
         getDependencyGraph(ipsSrcFile.getIpsProject()).update(ipsSrcFile.getQualifiedNameType());
     }
 
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.builder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.faktorips.devtools.core.IpsPlugin;
+import org.faktorips.devtools.core.IpsStatus;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+
+/**
+ * Processes the IPS source files of a build on a pool of worker threads. The build uses it to
+ * parse and validate the files and to apply the thread safe artefact builders before the other
+ * artefact builders are applied one file after the other.
+ * <p>
+ * Only the thread running the build holds the build's scheduling rule and may modify the
+ * workspace. The workers therefore pass their workspace operations to
+ * {@link #runInBuildThread(IWorkspaceRunnable)} and the thread running the build executes them
+ * while it waits for the workers.
+ * <p>
+ * The files are divided into groups of files depending on each other, so every worker loads the
+ * objects its files refer to mostly by itself. Exceptions thrown while processing a file are
+ * logged and the processing continues with the next file.
+ * 
+ * @see org.faktorips.devtools.core.model.ipsproject.IIpsArtefactBuilder#isThreadSafe()
+ */
+class ParallelBuildExecutor {
+
+    /** The number of groups per thread, more groups balance the load better. */
+    private static final int GROUPS_PER_THREAD = 4;
+
+    /** The queue of the build thread the current worker passes its workspace operations to. */
+    private static final ThreadLocal<BlockingQueue<Runnable>> BUILD_THREAD_QUEUE = new ThreadLocal<BlockingQueue<Runnable>>();
+
+    /** Put into the build thread's queue by a worker after it has processed a group. */
+    private static final Runnable GROUP_FINISHED = new Runnable() {
+
+        @Override
+        public void run() {
+            // only a marker
+        }
+
+    };
+
+    private final int numberOfThreads;
+
+    /**
+     * @param numberOfThreads the number of worker threads, must be at least 2
+     */
+    public ParallelBuildExecutor(int numberOfThreads) {
+        if (numberOfThreads < 2) {
+            throw new IllegalArgumentException("At least two threads are needed: " + numberOfThreads); //$NON-NLS-1$
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Processes the given files in parallel and returns as soon as all files are processed or the
+     * monitor is canceled. Must be called by the thread running the build, which executes the
+     * workspace operations of the workers in the meantime.
+     * 
+     * @param ipsSrcFiles the files to process
+     * @param graph the dependency graph used to group the files
+     * @param processor the processor called by the worker threads for every file
+     * @param monitor the monitor that is checked for cancellation
+     */
+    public void process(Collection<IIpsSrcFile> ipsSrcFiles,
+            IDependencyGraph graph,
+            final IpsSrcFileProcessor processor,
+            final IProgressMonitor monitor) {
+        if (ipsSrcFiles.isEmpty()) {
+            return;
+        }
+        int maxGroupSize = Math.max(1, ipsSrcFiles.size() / (numberOfThreads * GROUPS_PER_THREAD));
+        List<List<IIpsSrcFile>> groups = createGroups(ipsSrcFiles, graph, maxGroupSize);
+        final BlockingQueue<Runnable> buildThreadQueue = new LinkedBlockingQueue<Runnable>();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, new WorkerThreadFactory());
+        try {
+            for (final List<IIpsSrcFile> group : groups) {
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        BUILD_THREAD_QUEUE.set(buildThreadQueue);
+                        try {
+                            processGroup(group, processor, monitor);
+                        } finally {
+                            BUILD_THREAD_QUEUE.remove();
+                            buildThreadQueue.add(GROUP_FINISHED);
+                        }
+                    }
+
+                });
+            }
+            int finishedGroups = 0;
+            while (finishedGroups < groups.size()) {
+                Runnable operation = buildThreadQueue.take();
+                if (operation == GROUP_FINISHED) {
+                    finishedGroups++;
+                } else {
+                    operation.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void processGroup(List<IIpsSrcFile> group, IpsSrcFileProcessor processor, IProgressMonitor monitor) {
+        for (IIpsSrcFile ipsSrcFile : group) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            // CSOFF: IllegalCatch
+            try {
+                processor.process(ipsSrcFile);
+            } catch (Exception e) {
+                IpsPlugin.log(new IpsStatus("Error during the parallel build of " + ipsSrcFile, e)); //$NON-NLS-1$
+            }
+            // CSON: IllegalCatch
+        }
+    }
+
+    /**
+     * Runs the given workspace operation in the thread running the build. If this method is called
+     * by a worker thread, the operation is passed to the thread running the build and this method
+     * waits until it is executed. Otherwise the operation is executed directly.
+     * 
+     * @throws CoreException if the operation throws one or the worker is interrupted while waiting
+     */
+    static void runInBuildThread(final IWorkspaceRunnable operation) throws CoreException {
+        BlockingQueue<Runnable> buildThreadQueue = BUILD_THREAD_QUEUE.get();
+        if (buildThreadQueue == null) {
+            operation.run(null);
+            return;
+        }
+        FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+
+            @Override
+            public Void call() throws CoreException {
+                operation.run(null);
+                return null;
+            }
+
+        });
+        buildThreadQueue.add(task);
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CoreException(new IpsStatus("Interrupted while waiting for the build thread", e)); //$NON-NLS-1$
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CoreException) {
+                throw (CoreException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new CoreException(new IpsStatus(cause));
+        }
+    }
+
+    /**
+     * Divides the given files into groups. Files that depend on each other directly or indirectly
+     * are put into the same group unless the group would exceed the maximum size. The order of the
+     * files within the groups is the order of the given collection.
+     */
+    static List<List<IIpsSrcFile>> createGroups(Collection<IIpsSrcFile> ipsSrcFiles,
+            IDependencyGraph graph,
+            int maxGroupSize) {
+        List<IIpsSrcFile> files = new ArrayList<IIpsSrcFile>(ipsSrcFiles);
+        Map<QualifiedNameType, Integer> indices = new HashMap<QualifiedNameType, Integer>(files.size() * 2);
+        for (int i = 0; i < files.size(); i++) {
+            indices.put(files.get(i).getQualifiedNameType(), Integer.valueOf(i));
+        }
+        int[] parents = new int[files.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int i = 0; i < files.size(); i++) {
+            for (IDependency dependency : graph.getDependants(files.get(i).getQualifiedNameType())) {
+                Integer dependant = indices.get(dependency.getSource());
+                if (dependant != null) {
+                    union(parents, i, dependant.intValue());
+                }
+            }
+        }
+
+        Map<Integer, List<IIpsSrcFile>> components = new LinkedHashMap<Integer, List<IIpsSrcFile>>();
+        for (int i = 0; i < files.size(); i++) {
+            Integer root = Integer.valueOf(find(parents, i));
+            List<IIpsSrcFile> component = components.get(root);
+            if (component == null) {
+                component = new ArrayList<IIpsSrcFile>();
+                components.put(root, component);
+            }
+            component.add(files.get(i));
+        }
+
+        List<List<IIpsSrcFile>> groups = new ArrayList<List<IIpsSrcFile>>();
+        List<IIpsSrcFile> smallComponents = new ArrayList<IIpsSrcFile>();
+        for (List<IIpsSrcFile> component : components.values()) {
+            if (component.size() >= maxGroupSize) {
+                for (int start = 0; start < component.size(); start += maxGroupSize) {
+                    groups.add(component.subList(start, Math.min(component.size(), start + maxGroupSize)));
+                }
+            } else {
+                // many small components are collected into one group
+                if (smallComponents.size() + component.size() > maxGroupSize) {
+                    groups.add(smallComponents);
+                    smallComponents = new ArrayList<IIpsSrcFile>();
+                }
+                smallComponents.addAll(component);
+            }
+        }
+        if (!smallComponents.isEmpty()) {
+            groups.add(smallComponents);
+        }
+        return groups;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        int rootA = find(parents, a);
+        int rootB = find(parents, b);
+        if (rootA != rootB) {
+            // the smaller index stays the root to keep the order of the first file
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private static int find(int[] parents, int index) {
+        int root = index;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        // path compression
+        int current = index;
+        while (parents[current] != root) {
+            int next = parents[current];
+            parents[current] = root;
+            current = next;
+        }
+        return root;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Faktor-IPS build worker " + count.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+    /**
+     * Processes a single IPS source file on a worker thread.
+     */
+    interface IpsSrcFileProcessor {
+
+        void process(IIpsSrcFile ipsSrcFile) throws CoreException;
+
+    }
+
+}
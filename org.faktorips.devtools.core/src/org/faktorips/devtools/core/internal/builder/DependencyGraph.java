@@ -10,39 +10,48 @@
 
 package org.faktorips.devtools.core.internal.builder;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Platform;
-import org.faktorips.devtools.core.IpsPlugin;
 import org.faktorips.devtools.core.builder.IDependencyGraph;
 import org.faktorips.devtools.core.model.IDependency;
-import org.faktorips.devtools.core.model.IIpsModel;
 import org.faktorips.devtools.core.model.ipsobject.IIpsObject;
 import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
 import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
 import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
 import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
 import org.faktorips.util.ArgumentCheck;
-import org.faktorips.util.MultiMap;
 
 /**
  * The dependency graph stores IPS object dependencies. It is supposed to be used in a way that it
  * represents the object dependencies after the last build has been completed.
+ * <p>
+ * The graph can be queried by any number of threads without locking, for example by the workers
+ * validating the files of a build, while it is updated. The dependencies of every node are held in
+ * immutable arrays that are replaced as a whole when the node changes. Modifications are
+ * serialized by synchronizing on the graph. {@link #reInit()} builds a complete new graph before
+ * it replaces the current one, so readers never see a partially initialized graph.
+ * <p>
+ * For every source the modification stamp of its file is recorded when its dependencies are
+ * determined. A graph that has been read by the {@link DependencyGraphFormat} uses them in
+ * {@link #refresh()} to update only the sources whose files have changed in the meantime.
  * 
  * @author Jan Ortmann, Peter Erzberger
  */
-public class DependencyGraph implements Serializable, IDependencyGraph {
+public class DependencyGraph implements IDependencyGraph {
 
     public static final boolean TRACE_DEPENDENCY_GRAPH_MANAGEMENT;
 
-    private static final long serialVersionUID = 5692023485881401223L;
+    private static final IDependency[] NO_DEPENDENCIES = new IDependency[0];
 
     static {
         TRACE_DEPENDENCY_GRAPH_MANAGEMENT = Boolean
@@ -50,11 +59,9 @@ public class DependencyGraph implements Serializable, IDependencyGraph {
                 .booleanValue();
     }
 
-    private final MultiMap<Object, IDependency> dependantsForMap = MultiMap.createWithSetsAsValues();
+    private volatile Nodes nodes = new Nodes();
 
-    private final MultiMap<QualifiedNameType, IDependency> dependsOnMap = MultiMap.createWithSetsAsValues();
-
-    private transient IIpsProject ipsProject;
+    private volatile IIpsProject ipsProject;
 
     /**
      * Creates a new DependencyGraph object.
@@ -63,10 +70,20 @@ public class DependencyGraph implements Serializable, IDependencyGraph {
      *            IPS objects for.
      */
     public DependencyGraph(IIpsProject ipsProject) {
+        this(ipsProject, true);
+    }
+
+    /**
+     * Creates a graph that is initialized only if <code>init</code> is <code>true</code>, an
+     * uninitialized graph is filled by the {@link DependencyGraphFormat}.
+     */
+    DependencyGraph(IIpsProject ipsProject, boolean init) {
         super();
         ArgumentCheck.notNull(ipsProject, this);
         this.ipsProject = ipsProject;
-        init();
+        if (init) {
+            init();
+        }
     }
 
     /**
@@ -77,12 +94,8 @@ public class DependencyGraph implements Serializable, IDependencyGraph {
         return ipsProject;
     }
 
-    public void setIpsProject(IIpsProject ipsProject) {
+    public synchronized void setIpsProject(IIpsProject ipsProject) {
         ArgumentCheck.notNull(ipsProject, this);
-        if (this.ipsProject == null) {
-            this.ipsProject = ipsProject;
-            return;
-        }
         if (!this.ipsProject.equals(ipsProject)) {
             this.ipsProject = ipsProject;
             init();
@@ -90,41 +103,107 @@ public class DependencyGraph implements Serializable, IDependencyGraph {
     }
 
     @Override
-    public void reInit() {
+    public synchronized void reInit() {
         init();
     }
 
     private void init() {
-        dependantsForMap.clear();
-        dependsOnMap.clear();
+        Nodes newNodes = new Nodes();
         List<IIpsSrcFile> allSrcFiles = new ArrayList<IIpsSrcFile>();
         ipsProject.collectAllIpsSrcFilesOfSrcFolderEntries(allSrcFiles);
         for (IIpsSrcFile file : allSrcFiles) {
             if (!file.exists()) {
                 continue;
             }
-            IIpsObject ipsObject = file.getIpsObject();
-            addEntries(ipsObject);
+            addEntries(newNodes, file.getIpsObject());
         }
+        nodes = newNodes;
     }
 
-    private void addEntries(IIpsObject ipsObject) {
+    /**
+     * Updates the dependencies of all sources whose files have been changed, added or removed since
+     * their dependencies have been determined. The dependencies of unchanged files are kept without
+     * loading the files.
+     */
+    public synchronized void refresh() {
+        Nodes currentNodes = nodes;
+        List<IIpsSrcFile> allSrcFiles = new ArrayList<IIpsSrcFile>();
+        ipsProject.collectAllIpsSrcFilesOfSrcFolderEntries(allSrcFiles);
+        Set<QualifiedNameType> existingSources = new HashSet<QualifiedNameType>(allSrcFiles.size() * 2);
+        int updated = 0;
+        for (IIpsSrcFile file : allSrcFiles) {
+            if (!file.exists()) {
+                continue;
+            }
+            QualifiedNameType qualifiedNameType = file.getQualifiedNameType();
+            existingSources.add(qualifiedNameType);
+            Source source = currentNodes.sources.get(qualifiedNameType);
+            long modificationStamp = getModificationStamp(file);
+            if (source == null || modificationStamp == IResource.NULL_STAMP
+                    || source.modificationStamp != modificationStamp) {
+                removeDependency(currentNodes, qualifiedNameType);
+                addEntries(currentNodes, file.getIpsObject());
+                updated++;
+            }
+        }
+        List<QualifiedNameType> knownSources = new ArrayList<QualifiedNameType>(currentNodes.sources.keySet());
+        for (QualifiedNameType qualifiedNameType : knownSources) {
+            if (!existingSources.contains(qualifiedNameType)) {
+                removeDependency(currentNodes, qualifiedNameType);
+                updated++;
+            }
+        }
+        if (TRACE_DEPENDENCY_GRAPH_MANAGEMENT) {
+            System.out.println("DependencyGraph.refresh(): " + updated + " of " + existingSources.size() //$NON-NLS-1$ //$NON-NLS-2$
+                    + " sources updated in " + ipsProject.getName()); //$NON-NLS-1$
+        }
+    }
+
+    private long getModificationStamp(IIpsSrcFile file) {
+        IResource resource = file.getEnclosingResource();
+        return resource == null ? IResource.NULL_STAMP : resource.getModificationStamp();
+    }
+
+    private void addEntries(Nodes target, IIpsObject ipsObject) {
         IDependency[] dependencies = ipsObject.dependsOn();
-        if (dependencies != null) {
-            QualifiedNameType qualifiedNameType = ipsObject.getQualifiedNameType();
-            addEntriesToDependsOnMap(qualifiedNameType, dependencies);
-            addEntryToDependantsForMap(dependencies);
+        if (dependencies == null) {
+            dependencies = NO_DEPENDENCIES;
+        }
+        // the same dependency may be reported more than once
+        Set<IDependency> uniqueDependencies = new LinkedHashSet<IDependency>();
+        for (IDependency dependency : dependencies) {
+            uniqueDependencies.add(dependency);
         }
+        addSource(target, ipsObject.getQualifiedNameType(),
+                uniqueDependencies.toArray(new IDependency[uniqueDependencies.size()]),
+                getModificationStamp(ipsObject.getIpsSrcFile()));
     }
 
-    private void addEntriesToDependsOnMap(QualifiedNameType requestedNameType, IDependency[] dependsOn) {
-        dependsOnMap.putReplace(requestedNameType, Arrays.asList(dependsOn));
+    /**
+     * Adds a source with the given unique dependencies to the given nodes. The source must not be
+     * contained in the nodes.
+     */
+    private void addSource(Nodes target, QualifiedNameType qualifiedNameType, IDependency[] dependsOn, long stamp) {
+        target.sources.put(qualifiedNameType, new Source(dependsOn, stamp));
+        for (IDependency dependency : dependsOn) {
+            IDependency[] dependants = target.dependants.get(dependency.getTarget());
+            target.dependants.put(dependency.getTarget(), append(dependants, dependency));
+        }
     }
 
-    private void addEntryToDependantsForMap(IDependency[] dependsOn) {
-        for (IDependency element : dependsOn) {
-            dependantsForMap.put(element.getTarget(), element);
+    private IDependency[] append(IDependency[] dependencies, IDependency dependency) {
+        if (dependencies == null) {
+            return new IDependency[] { dependency };
         }
+        for (IDependency existingDependency : dependencies) {
+            if (existingDependency.equals(dependency)) {
+                return dependencies;
+            }
+        }
+        IDependency[] result = new IDependency[dependencies.length + 1];
+        System.arraycopy(dependencies, 0, result, 0, dependencies.length);
+        result[dependencies.length] = dependency;
+        return result;
     }
 
     /**
@@ -132,20 +211,21 @@ public class DependencyGraph implements Serializable, IDependencyGraph {
      */
     @Override
     public IDependency[] getDependants(QualifiedNameType id) {
-        Collection<IDependency> qualfiedNameTypes = getDependantsAsList(id);
+        Nodes currentNodes = nodes;
+        IDependency[] dependants = currentNodes.dependants.get(id);
+        IDependency[] additionalDependants = null;
         if (isUsedAsDatatype(id)) {
-            Collection<IDependency> additionalNameTypes = getDependantsAsList(id.getName());
-            if (qualfiedNameTypes == null) {
-                qualfiedNameTypes = additionalNameTypes;
-            } else if (additionalNameTypes != null) {
-                qualfiedNameTypes.addAll(additionalNameTypes);
-            }
+            additionalDependants = currentNodes.dependants.get(id.getName());
         }
-
-        if (qualfiedNameTypes == null) {
-            return new IDependency[0];
+        if (dependants == null) {
+            return additionalDependants == null ? NO_DEPENDENCIES : additionalDependants.clone();
+        } else if (additionalDependants == null) {
+            return dependants.clone();
         }
-        return qualfiedNameTypes.toArray(new IDependency[qualfiedNameTypes.size()]);
+        IDependency[] result = new IDependency[dependants.length + additionalDependants.length];
+        System.arraycopy(dependants, 0, result, 0, dependants.length);
+        System.arraycopy(additionalDependants, 0, result, dependants.length, additionalDependants.length);
+        return result;
     }
 
     private boolean isUsedAsDatatype(QualifiedNameType id) {
@@ -154,73 +234,105 @@ public class DependencyGraph implements Serializable, IDependencyGraph {
                 || id.getIpsObjectType().equals(IpsObjectType.ENUM_TYPE);
     }
 
-    private Collection<IDependency> getDependantsAsList(Object target) {
-        return new ArrayList<IDependency>(dependantsForMap.get(target));
-    }
-
     /**
      * {@inheritDoc}
      */
     @Override
-    public void update(QualifiedNameType qName) {
+    public synchronized void update(QualifiedNameType qName) {
         if (qName == null) {
             return;
         }
-        removeDependency(qName);
+        Nodes currentNodes = nodes;
+        removeDependency(currentNodes, qName);
         IIpsObject ipsObject = ipsProject.findIpsObject(qName);
         if (ipsObject != null) {
-            addEntries(ipsObject);
+            addEntries(currentNodes, ipsObject);
         }
     }
 
-    private void removeDependency(QualifiedNameType qName) {
-        Collection<IDependency> dependsOnList = dependsOnMap.remove(qName);
-        if (dependsOnList != null && !dependsOnList.isEmpty()) {
-
-            for (IDependency dependency : dependsOnList) {
-                Collection<IDependency> dependants = getDependantsAsList(dependency.getTarget());
-                if (dependants != null) {
-                    for (IDependency dependant : dependants) {
-                        if (dependant.getSource().equals(qName)) {
-                            dependantsForMap.remove(dependency.getTarget(), dependant);
-                        }
+    private void removeDependency(Nodes target, QualifiedNameType qName) {
+        Source source = target.sources.remove(qName);
+        if (source == null) {
+            return;
+        }
+        for (IDependency dependency : source.dependsOn) {
+            IDependency[] dependants = target.dependants.get(dependency.getTarget());
+            if (dependants != null) {
+                List<IDependency> remainingDependants = new ArrayList<IDependency>(dependants.length);
+                for (IDependency dependant : dependants) {
+                    if (!dependant.getSource().equals(qName)) {
+                        remainingDependants.add(dependant);
                     }
                 }
+                if (remainingDependants.isEmpty()) {
+                    target.dependants.remove(dependency.getTarget());
+                } else if (remainingDependants.size() < dependants.length) {
+                    target.dependants.put(dependency.getTarget(),
+                            remainingDependants.toArray(new IDependency[remainingDependants.size()]));
+                }
             }
         }
     }
 
+    /**
+     * Returns a snapshot of the dependencies of every source in this graph together with the
+     * modification stamp of the source's file.
+     */
+    synchronized Map<QualifiedNameType, Source> getSources() {
+        return new LinkedHashMap<QualifiedNameType, Source>(nodes.sources);
+    }
+
+    /**
+     * Adds a source that has been read by the {@link DependencyGraphFormat}.
+     */
+    synchronized void putSource(QualifiedNameType qualifiedNameType, IDependency[] dependsOn, long stamp) {
+        Nodes currentNodes = nodes;
+        removeDependency(currentNodes, qualifiedNameType);
+        addSource(currentNodes, qualifiedNameType, dependsOn, stamp);
+    }
+
     @Override
     public String toString() {
         return "DependencyGraph for " + ipsProject.getName(); //$NON-NLS-1$
     }
 
     /**
-     * Writes the object status to the {@link ObjectOutputStream}. For the {@link IIpsProject} we
-     * simply write the name of the project.
-     * 
-     * @serialData The maps are serialized by default serialization. The {@link #ipsProject} is
-     *             serialized by writing its name.
+     * The dependencies of a source and the modification stamp of the source's file at the time the
+     * dependencies have been determined.
      */
-    private void writeObject(ObjectOutputStream s) throws IOException {
-        s.defaultWriteObject();
-        s.writeObject(ipsProject != null ? ipsProject.getName() : null);
+    static final class Source {
+
+        private final IDependency[] dependsOn;
+
+        private final long modificationStamp;
+
+        Source(IDependency[] dependsOn, long modificationStamp) {
+            this.dependsOn = dependsOn;
+            this.modificationStamp = modificationStamp;
+        }
+
+        IDependency[] getDependsOn() {
+            return dependsOn;
+        }
+
+        long getModificationStamp() {
+            return modificationStamp;
+        }
+
     }
 
     /**
-     * Reading the status of this object from the {@link ObjectInputStream}. The {@link IIpsProject}
-     * is set by reading its name and resolving the project from the {@link IIpsModel}.
-     * 
-     * @serialData The maps are read by default deserialization. The {@link #ipsProject} is read by
-     *             reading the name of the project and resolving the project via the
-     *             {@link IIpsModel}.
+     * The maps of the graph. The keys of the dependants map are the targets of the dependencies,
+     * that is {@link QualifiedNameType qualified name types} for IPS objects and qualified names
+     * for data types. The arrays in both maps are never modified.
      */
-    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
-        s.defaultReadObject();
-        String projectName = (String)s.readObject();
-        if (projectName != null) {
-            ipsProject = IpsPlugin.getDefault().getIpsModel().getIpsProject(projectName);
-        }
+    private static final class Nodes {
+
+        private final ConcurrentMap<QualifiedNameType, Source> sources =
+                new ConcurrentHashMap<QualifiedNameType, Source>();
+
+        private final ConcurrentMap<Object, IDependency[]> dependants = new ConcurrentHashMap<Object, IDependency[]>();
+
     }
 
 }
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.faktorips.devtools.core.internal.builder.DependencyGraph.Source;
+import org.faktorips.devtools.core.model.DatatypeDependency;
+import org.faktorips.devtools.core.model.DependencyType;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.IIpsModel;
+import org.faktorips.devtools.core.model.IpsObjectDependency;
+import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
+
+/**
+ * Reads and writes {@link DependencyGraph dependency graphs} in a compact binary format.
+ * <p>
+ * Every string, that is every qualified name, IPS object type id and dependency type, is written
+ * only once into a string table. The nodes of the graph, the IPS objects and data types, refer to
+ * the strings by their index and are themselves identified by their index in the node table. The
+ * dependencies of a source are written as an array of target node ids and an array of dependency
+ * type indices together with the modification stamp of the source's file. When the graph is read,
+ * every node is created only once, so all dependencies share the same qualified name type
+ * instances.
+ * 
+ * <pre>
+ * int magic, int version, UTF project name
+ * int stringCount, UTF[stringCount]
+ * int nodeCount, nodeCount * (int nameIndex, int typeIndex)   typeIndex is -1 for data types
+ * int sourceCount, sourceCount * (int node, long modificationStamp, int dependencyCount,
+ *                                 int[dependencyCount] targetNodes, int[dependencyCount] types)
+ * </pre>
+ */
+public class DependencyGraphFormat {
+
+    private static final int MAGIC = 0x46495047;
+
+    private static final int VERSION = 1;
+
+    private static final int DATATYPE_NODE = -1;
+
+    private final IIpsModel ipsModel;
+
+    /**
+     * @param ipsModel the model that resolves the IPS object types when a graph is read
+     */
+    public DependencyGraphFormat(IIpsModel ipsModel) {
+        this.ipsModel = ipsModel;
+    }
+
+    /**
+     * Writes the given graph to the given stream. The stream is not closed.
+     * 
+     * @throws IOException if the graph can not be written
+     */
+    public void write(DependencyGraph graph, OutputStream os) throws IOException {
+        Map<QualifiedNameType, Source> sources = graph.getSources();
+        Table<String> strings = new Table<String>();
+        Table<Object> nodes = new Table<Object>();
+        for (Entry<QualifiedNameType, Source> entry : sources.entrySet()) {
+            addNode(entry.getKey(), nodes, strings);
+            for (IDependency dependency : entry.getValue().getDependsOn()) {
+                addNode(dependency.getTarget(), nodes, strings);
+                strings.add(dependency.getType().name());
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(graph.getIpsProject().getName());
+        out.writeInt(strings.size());
+        for (String string : strings.getValues()) {
+            out.writeUTF(string);
+        }
+        out.writeInt(nodes.size());
+        for (Object node : nodes.getValues()) {
+            if (node instanceof QualifiedNameType) {
+                QualifiedNameType qualifiedNameType = (QualifiedNameType)node;
+                out.writeInt(strings.indexOf(qualifiedNameType.getName()));
+                out.writeInt(strings.indexOf(qualifiedNameType.getIpsObjectType().getId()));
+            } else {
+                out.writeInt(strings.indexOf((String)node));
+                out.writeInt(DATATYPE_NODE);
+            }
+        }
+        out.writeInt(sources.size());
+        for (Entry<QualifiedNameType, Source> entry : sources.entrySet()) {
+            IDependency[] dependsOn = entry.getValue().getDependsOn();
+            out.writeInt(nodes.indexOf(entry.getKey()));
+            out.writeLong(entry.getValue().getModificationStamp());
+            out.writeInt(dependsOn.length);
+            for (IDependency dependency : dependsOn) {
+                out.writeInt(nodes.indexOf(dependency.getTarget()));
+            }
+            for (IDependency dependency : dependsOn) {
+                out.writeInt(strings.indexOf(dependency.getType().name()));
+            }
+        }
+        out.flush();
+    }
+
+    private void addNode(Object node, Table<Object> nodes, Table<String> strings) throws IOException {
+        if (node instanceof QualifiedNameType) {
+            QualifiedNameType qualifiedNameType = (QualifiedNameType)node;
+            strings.add(qualifiedNameType.getName());
+            strings.add(qualifiedNameType.getIpsObjectType().getId());
+        } else if (node instanceof String) {
+            strings.add((String)node);
+        } else {
+            throw new IOException("Unsupported dependency target " + node); //$NON-NLS-1$
+        }
+        nodes.add(node);
+    }
+
+    /**
+     * Reads the graph of the given project from the given stream. The stream is not closed. The
+     * returned graph contains the dependencies as they have been written, call
+     * {@link DependencyGraph#refresh()} to update the sources that have changed since.
+     * <p>
+     * Returns <code>null</code> if the stream does not contain a graph of this format, for example
+     * because it has been written by an older version.
+     * 
+     * @throws IOException if the stream can not be read or contains an invalid graph
+     */
+    public DependencyGraph read(IIpsProject ipsProject, InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return null;
+        }
+        String projectName = in.readUTF();
+        if (!projectName.equals(ipsProject.getName())) {
+            throw new IOException("The graph has been written for the project " + projectName); //$NON-NLS-1$
+        }
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        Map<String, IpsObjectType> ipsObjectTypes = new HashMap<String, IpsObjectType>();
+        Object[] nodes = new Object[in.readInt()];
+        for (int i = 0; i < nodes.length; i++) {
+            String name = get(strings, in.readInt());
+            int typeIndex = in.readInt();
+            if (typeIndex == DATATYPE_NODE) {
+                nodes[i] = name;
+            } else {
+                nodes[i] = new QualifiedNameType(name, getIpsObjectType(get(strings, typeIndex), ipsObjectTypes));
+            }
+        }
+
+        DependencyGraph graph = new DependencyGraph(ipsProject, false);
+        int sourceCount = in.readInt();
+        for (int i = 0; i < sourceCount; i++) {
+            Object source = get(nodes, in.readInt());
+            if (!(source instanceof QualifiedNameType)) {
+                throw new IOException("The source " + source + " is not an IPS object"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            long modificationStamp = in.readLong();
+            int[] targets = new int[in.readInt()];
+            for (int j = 0; j < targets.length; j++) {
+                targets[j] = in.readInt();
+            }
+            int[] types = new int[targets.length];
+            for (int j = 0; j < types.length; j++) {
+                types[j] = in.readInt();
+            }
+            IDependency[] dependsOn = new IDependency[targets.length];
+            for (int j = 0; j < dependsOn.length; j++) {
+                dependsOn[j] = createDependency((QualifiedNameType)source, get(nodes, targets[j]),
+                        getDependencyType(get(strings, types[j])));
+            }
+            graph.putSource((QualifiedNameType)source, dependsOn, modificationStamp);
+        }
+        return graph;
+    }
+
+    private IDependency createDependency(QualifiedNameType source, Object target, DependencyType type) {
+        if (target instanceof QualifiedNameType) {
+            return IpsObjectDependency.create(source, (QualifiedNameType)target, type);
+        } else {
+            return new DatatypeDependency(source, (String)target);
+        }
+    }
+
+    private IpsObjectType getIpsObjectType(String id, Map<String, IpsObjectType> ipsObjectTypes) throws IOException {
+        IpsObjectType ipsObjectType = ipsObjectTypes.get(id);
+        if (ipsObjectType == null) {
+            ipsObjectType = ipsModel.getIpsObjectType(id);
+            if (ipsObjectType == null) {
+                throw new IOException("Unknown IPS object type " + id); //$NON-NLS-1$
+            }
+            ipsObjectTypes.put(id, ipsObjectType);
+        }
+        return ipsObjectType;
+    }
+
+    private DependencyType getDependencyType(String name) throws IOException {
+        try {
+            return DependencyType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown dependency type " + name, e); //$NON-NLS-1$
+        }
+    }
+
+    private <T> T get(T[] values, int index) throws IOException {
+        if (index < 0 || index >= values.length) {
+            throw new IOException("Invalid index " + index); //$NON-NLS-1$
+        }
+        return values[index];
+    }
+
+    /**
+     * Assigns consecutive indices to distinct values.
+     */
+    private static class Table<T> {
+
+        private final Map<T, Integer> indices = new HashMap<T, Integer>();
+
+        private final List<T> values = new ArrayList<T>();
+
+        public void add(T value) {
+            if (!indices.containsKey(value)) {
+                indices.put(value, Integer.valueOf(values.size()));
+                values.add(value);
+            }
+        }
+
+        public int indexOf(T value) {
+            return indices.get(value).intValue();
+        }
+
+        public List<T> getValues() {
+            return values;
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+    }
+
+}
@@ -19,19 +19,22 @@ import org.faktorips.devtools.core.model.tablecontents.ITableContents;
 import org.faktorips.devtools.core.model.tablestructure.ITableAccessFunction;
 import org.faktorips.devtools.core.model.tablestructure.ITableStructure;
 import org.faktorips.fl.FlFunction;
+import org.faktorips.fl.FunctionIndex;
 import org.faktorips.fl.FunctionResolver;
+import org.faktorips.fl.IndexedFunctionResolver;
 import org.faktorips.util.ArgumentCheck;
 
 /**
  * This class is an abstract implementation of a {@link FunctionResolver} for tables. We use a cache
  * for the functions because there always the same. If there is a model-update then the hole
- * resolver is new.
+ * resolver is new. The index of the functions is cached the same way.
  * 
  */
-public abstract class AbstractTableFunctionsResolver implements FunctionResolver<JavaCodeFragment> {
+public abstract class AbstractTableFunctionsResolver implements IndexedFunctionResolver<JavaCodeFragment> {
 
     private final IIpsProject ipsProject;
     private List<FlFunction<JavaCodeFragment>> flfunctions;
+    private FunctionIndex<JavaCodeFragment> functionIndex;
 
     public AbstractTableFunctionsResolver(IIpsProject ipsProject) {
         ArgumentCheck.notNull(ipsProject);
@@ -53,6 +56,14 @@ public abstract class AbstractTableFunctionsResolver implements FunctionResolver
         return flfunctions.toArray(functions);
     }
 
+    @Override
+    public FunctionIndex<JavaCodeFragment> getFunctionIndex() {
+        if (functionIndex == null) {
+            functionIndex = new FunctionIndex<JavaCodeFragment>(this);
+        }
+        return functionIndex;
+    }
+
     private List<FlFunction<JavaCodeFragment>> getFlFunctionsFor(List<TableData> tableDatas) {
         List<FlFunction<JavaCodeFragment>> functions = new ArrayList<FlFunction<JavaCodeFragment>>();
         for (TableData tableData : tableDatas) {
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.model;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.devtools.core.builder.IDependencyGraph;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
+import org.faktorips.devtools.core.model.productcmpt.IExpression;
+import org.faktorips.fl.CompilationResult;
+import org.faktorips.fl.CompilationResultImpl;
+import org.faktorips.fl.JavaExprCompiler;
+import org.faktorips.util.message.MessageList;
+
+/**
+ * A cache for the results of compiling the formula language expressions of {@link IExpression}s.
+ * <p>
+ * A result is only returned for the same expression text that has been compiled in the context of
+ * the same IPS project by an equally configured compiler, that is a compiler of the same class with
+ * an identifier resolver and a conversion code generator of the same class, the same locale and
+ * the same setting whether the result has to be an object. Like the {@link ValidationResultCache}
+ * the results are grouped by the IPS object the expression belongs to. If the content of an IPS
+ * source file changes, the results of its own IPS object and of the IPS objects that depend on it
+ * directly or indirectly are removed, so a result is kept as long as the types, tables and
+ * enumerations the expression refers to do not change. The cache has to be cleared if IPS source
+ * files are added or removed, as an identifier may refer to another IPS object then.
+ * <p>
+ * Only successful compilations are cached. The result of a failed compilation may depend on IPS
+ * objects that do not exist yet and hence are not contained in the dependency graphs.
+ * <p>
+ * The cache is thread safe. The stored results are copies that are never modified.
+ */
+public class CompilationResultCache {
+
+    /** The results grouped by the qualified name type of the IPS object they belong to. */
+    private final ConcurrentMap<QualifiedNameType, ConcurrentMap<IExpression, CachedResult>> data = new ConcurrentHashMap<QualifiedNameType, ConcurrentMap<IExpression, CachedResult>>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Puts a copy of the given compilation result into the cache. Overwrites any old result for the
+     * given expression. Does nothing if the compilation has failed or if the expression does not
+     * belong to an IPS source file.
+     * 
+     * @param expression the expression that has been compiled
+     * @param ipsProject the project in whose context the expression has been compiled
+     * @param compiler the compiler that has compiled the expression
+     * @param expressionText the text of the expression that has been compiled
+     * @param result the result of the compilation
+     */
+    public void putResult(IExpression expression,
+            IIpsProject ipsProject,
+            JavaExprCompiler compiler,
+            String expressionText,
+            CompilationResult<JavaCodeFragment> result) {
+        if (result.failed()) {
+            return;
+        }
+        ConcurrentMap<IExpression, CachedResult> results = getResults(expression, true);
+        if (results == null) {
+            return;
+        }
+        results.put(expression, new CachedResult(ipsProject, new CompilerIdentity(compiler), expressionText,
+                copy(result)));
+    }
+
+    /**
+     * Returns a copy of the cached compilation result for the given expression or
+     * <code>null</code> if the cache does not contain a result for the given text of the
+     * expression compiled in the context of the given project by a compiler configured like the
+     * given one.
+     */
+    public CompilationResult<JavaCodeFragment> getResult(IExpression expression,
+            IIpsProject ipsProject,
+            JavaExprCompiler compiler,
+            String expressionText) {
+        ConcurrentMap<IExpression, CachedResult> results = getResults(expression, false);
+        CachedResult cached = results == null ? null : results.get(expression);
+        if (cached == null || !cached.isResultFor(ipsProject, new CompilerIdentity(compiler), expressionText)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return copy(cached.result);
+    }
+
+    private ConcurrentMap<IExpression, CachedResult> getResults(IExpression expression, boolean create) {
+        IIpsSrcFile srcFile = expression.getIpsSrcFile();
+        if (srcFile == null) {
+            return null;
+        }
+        QualifiedNameType qualifiedNameType = srcFile.getQualifiedNameType();
+        ConcurrentMap<IExpression, CachedResult> results = data.get(qualifiedNameType);
+        if (results == null && create) {
+            ConcurrentMap<IExpression, CachedResult> newResults = new ConcurrentHashMap<IExpression, CachedResult>();
+            results = data.putIfAbsent(qualifiedNameType, newResults);
+            if (results == null) {
+                results = newResults;
+            }
+        }
+        return results;
+    }
+
+    private CompilationResult<JavaCodeFragment> copy(CompilationResult<JavaCodeFragment> result) {
+        MessageList messages = new MessageList();
+        messages.add(result.getMessages());
+        return new CompilationResultImpl(new JavaCodeFragment(result.getCodeFragment()), result.getDatatype(),
+                messages);
+    }
+
+    /**
+     * Removes the results from the cache that are stale because the content of IPS source files
+     * has changed. Does nothing if no file is given.
+     * 
+     * @param changedFiles The ips source file that has changed and all files that have changed
+     *            since their dependencies were last updated in the dependency graphs.
+     * @param dependencyGraphs The available dependency graphs, e.g. the graphs cached by the model
+     * 
+     * @see ValidationResultCache#removeStaleData(Collection, IDependencyGraph[])
+     */
+    public void removeStaleData(Collection<IIpsSrcFile> changedFiles, IDependencyGraph[] dependencyGraphs) {
+        if (changedFiles.isEmpty()) {
+            return;
+        }
+        Set<QualifiedNameType> staleIpsObjects = StaleIpsObjects.collect(changedFiles, dependencyGraphs);
+        if (staleIpsObjects == null) {
+            clear();
+            return;
+        }
+        for (QualifiedNameType qualifiedNameType : staleIpsObjects) {
+            data.remove(qualifiedNameType);
+        }
+    }
+
+    /**
+     * Clears the whole cache.
+     */
+    public void clear() {
+        data.clear();
+    }
+
+    /**
+     * Returns the number of requests that were answered by a cached result.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests for which no result was cached.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static class CachedResult {
+
+        private final IIpsProject ipsProject;
+
+        private final CompilerIdentity compilerIdentity;
+
+        private final String expressionText;
+
+        private final CompilationResult<JavaCodeFragment> result;
+
+        public CachedResult(IIpsProject ipsProject, CompilerIdentity compilerIdentity, String expressionText,
+                CompilationResult<JavaCodeFragment> result) {
+            this.ipsProject = ipsProject;
+            this.compilerIdentity = compilerIdentity;
+            this.expressionText = expressionText;
+            this.result = result;
+        }
+
+        public boolean isResultFor(IIpsProject otherIpsProject,
+                CompilerIdentity otherCompilerIdentity,
+                String otherExpressionText) {
+            return ipsProject.equals(otherIpsProject) && compilerIdentity.equals(otherCompilerIdentity)
+                    && expressionText.equals(otherExpressionText);
+        }
+
+    }
+
+    /**
+     * The parts of a compiler's configuration that decide how an expression is compiled. The
+     * functions are not compared, they are defined by the project settings and the cache is cleared
+     * if these change.
+     */
+    private static class CompilerIdentity {
+
+        private final Class<?> compilerClass;
+
+        private final Class<?> identifierResolverClass;
+
+        private final Class<?> conversionCodeGeneratorClass;
+
+        private final Locale locale;
+
+        private final boolean ensureResultIsObject;
+
+        public CompilerIdentity(JavaExprCompiler compiler) {
+            compilerClass = compiler.getClass();
+            identifierResolverClass = classOf(compiler.getIdentifierResolver());
+            conversionCodeGeneratorClass = classOf(compiler.getConversionCodeGenerator());
+            locale = compiler.getLocale();
+            ensureResultIsObject = compiler.getEnsureResultIsObject();
+        }
+
+        private static Class<?> classOf(Object object) {
+            return object == null ? null : object.getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + compilerClass.hashCode();
+            result = prime * result + ((identifierResolverClass == null) ? 0 : identifierResolverClass.hashCode());
+            result = prime * result
+                    + ((conversionCodeGeneratorClass == null) ? 0 : conversionCodeGeneratorClass.hashCode());
+            result = prime * result + ((locale == null) ? 0 : locale.hashCode());
+            result = prime * result + (ensureResultIsObject ? 1231 : 1237);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            CompilerIdentity other = (CompilerIdentity)obj;
+            return compilerClass.equals(other.compilerClass)
+                    && ObjectUtils.equals(identifierResolverClass, other.identifierResolverClass)
+                    && ObjectUtils.equals(conversionCodeGeneratorClass, other.conversionCodeGeneratorClass)
+                    && ObjectUtils.equals(locale, other.locale) && ensureResultIsObject == other.ensureResultIsObject;
+        }
+
+    }
+
+}
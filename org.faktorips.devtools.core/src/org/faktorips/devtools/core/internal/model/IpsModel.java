@@ -15,6 +15,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,6 +26,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -48,7 +50,6 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.PlatformUI;
 import org.faktorips.datatype.Datatype;
@@ -62,11 +63,9 @@ import org.faktorips.devtools.core.builder.IDependencyGraph;
 import org.faktorips.devtools.core.exception.CoreRuntimeException;
 import org.faktorips.devtools.core.internal.builder.DependencyGraph;
 import org.faktorips.devtools.core.internal.model.datatype.DatatypeDefinition;
-import org.faktorips.devtools.core.internal.model.ipsobject.IpsObject;
 import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFile;
 import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFileContent;
 import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFileOffRoot;
-import org.faktorips.devtools.core.internal.model.ipsobject.LibraryIpsSrcFile;
 import org.faktorips.devtools.core.internal.model.ipsproject.ChangesOverTimeNamingConvention;
 import org.faktorips.devtools.core.internal.model.ipsproject.ClassLoaderProvider;
 import org.faktorips.devtools.core.internal.model.ipsproject.IpsArtefactBuilderSetConfig;
@@ -117,14 +116,6 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
 
     public static final boolean TRACE_VALIDATION;
 
-    /**
-     * We must use a value different from {@link IResource#NULL_STAMP} because otherwise files which
-     * do not exist in workspace (like {@link LibraryIpsSrcFile}) would remain cached forever.
-     * <p>
-     * Described in FIPS-5745
-     */
-    private static final int INVALID_MOD_STAMP = -42;
-
     static {
         TRACE_MODEL_MANAGEMENT = Boolean
                 .valueOf(Platform.getDebugOption("org.faktorips.devtools.core/trace/modelmanagement")).booleanValue(); //$NON-NLS-1$
@@ -154,13 +145,13 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
      * a map that contains per thread if changes should be broadcasted to the registered listeners
      * or squeezed.
      */
-    private Map<Thread, Integer> listenerNoticicationLevelMap = new HashMap<Thread, Integer>();
+    private Map<Thread, Integer> listenerNoticicationLevelMap = new ConcurrentHashMap<Thread, Integer>();
 
     /**
      * A map containing the datatypes (value) by id (key). The map is initialized with null to point
      * at the lazy loading mechanism
      */
-    private Map<String, Datatype> datatypes = null;
+    private volatile Map<String, Datatype> datatypes = null;
 
     /**
      * A map containing the project for every name.
@@ -170,13 +161,23 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
     private List<IIpsArtefactBuilderSetInfo> builderSetInfoList = null;
 
     /** map containing all changes in time naming conventions by id. */
-    private Map<String, IChangesOverTimeNamingConvention> changesOverTimeNamingConventionMap = null;
+    private volatile Map<String, IChangesOverTimeNamingConvention> changesOverTimeNamingConventionMap = null;
 
-    /** map containing IpsSrcFileContents as values and IpsSrcFiles as keys. */
-    private HashMap<IIpsSrcFile, IpsSrcFileContent> ipsObjectsMap = new HashMap<IIpsSrcFile, IpsSrcFileContent>(1000);
+    /** cache containing the IpsSrcFileContents of the IpsSrcFiles. */
+    private final IpsSrcFileContentCache ipsSrcFileContentCache = IpsSrcFileContentCache.createFromSystemProperty();
 
     /** validation result cache */
-    private ValidationResultCache validationResultCache = new ValidationResultCache();
+    private final ValidationResultCache validationResultCache = new ValidationResultCache();
+
+    /** cache containing the results of compiling formula expressions */
+    private final CompilationResultCache compilationResultCache = new CompilationResultCache();
+
+    /**
+     * the IPS source files whose content has changed since their dependencies were last updated in
+     * the dependency graph
+     */
+    private final Set<IIpsSrcFile> filesWithOutdatedDependencies = Collections
+            .newSetFromMap(new ConcurrentHashMap<IIpsSrcFile, Boolean>());
 
     private IpsObjectType[] ipsObjectTypes;
 
@@ -185,7 +186,7 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
     /**
      * A map containing project data per project.
      */
-    private final Map<IIpsProject, IpsProjectData> ipsProjectDatas = new ConcurrentHashMap<IIpsProject, IpsProjectData>(
+    private final ConcurrentMap<IIpsProject, IpsProjectData> ipsProjectDatas = new ConcurrentHashMap<IIpsProject, IpsProjectData>(
             3, 0.9f, 2);
 
     private IpsObjectPathContainerFactory ipsObjectPathContainerFactory = IpsObjectPathContainerFactory
@@ -281,8 +282,11 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
     private IpsProjectData getIpsProjectData(IIpsProject ipsProject) {
         IpsProjectData data = ipsProjectDatas.get(ipsProject);
         if (data == null) {
-            data = new IpsProjectData(ipsProject, ipsObjectPathContainerFactory);
-            ipsProjectDatas.put(ipsProject, data);
+            IpsProjectData newData = new IpsProjectData(ipsProject, ipsObjectPathContainerFactory);
+            data = ipsProjectDatas.putIfAbsent(ipsProject, newData);
+            if (data == null) {
+                data = newData;
+            }
         }
         return data;
     }
@@ -618,8 +622,8 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
         Integer level = listenerNoticicationLevelMap.get(Thread.currentThread());
         if (level != null && level.intValue() > 0) {
             level = Integer.valueOf(level.intValue() - 1);
+            listenerNoticicationLevelMap.put(Thread.currentThread(), level);
         }
-        listenerNoticicationLevelMap.put(Thread.currentThread(), level);
         if (TRACE_MODEL_CHANGE_LISTENERS) {
             System.out.println("IpsModel.restartBroadcastingChangesMadeByCurrentThread(): Thread=" //$NON-NLS-1$
                     + Thread.currentThread() + ", new level=" + level); //$NON-NLS-1$
@@ -788,10 +792,13 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
 
     public Map<String, Datatype> getDatatypesDefinedInProjectProperties(IIpsProject ipsProject) {
         reinitIpsProjectPropertiesIfNecessary((IpsProject)ipsProject);
-        Map<String, Datatype> map = getIpsProjectData(ipsProject).getProjectDatatypesMap();
-        if (map.isEmpty()) {
-            initDatatypesDefinedInProjectProperties(ipsProject);
-            map = getIpsProjectData(ipsProject).getProjectDatatypesMap();
+        IpsProjectData ipsProjectData = getIpsProjectData(ipsProject);
+        Map<String, Datatype> map = ipsProjectData.getProjectDatatypesMap();
+        // the map is filled only once, the lock makes the filled map visible to all threads
+        synchronized (map) {
+            if (map.isEmpty()) {
+                initDatatypesDefinedInProjectProperties(ipsProject, ipsProjectData);
+            }
         }
         return map;
     }
@@ -799,11 +806,10 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
     /**
      * Intializes the datatypes and their helpers for the project.
      */
-    private void initDatatypesDefinedInProjectProperties(IIpsProject project) {
+    private void initDatatypesDefinedInProjectProperties(IIpsProject project, IpsProjectData ipsProjectData) {
         if (datatypes == null) {
             initDatatypesDefinedViaExtension();
         }
-        IpsProjectData ipsProjectData = getIpsProjectData(project);
         LinkedHashMap<String, Datatype> projectTypes = ipsProjectData.getProjectDatatypesMap();
 
         IIpsProjectProperties props = getIpsProjectProperties((IpsProject)project);
@@ -966,6 +972,7 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
     public void clearProjectSpecificCaches(IIpsProject ipsProject) {
         ipsProjectDatas.remove(ipsProject);
         ipsProject.clearCaches();
+        compilationResultCache.clear();
     }
 
     /**
@@ -1047,36 +1054,14 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
 
     /**
      * Forces to reload the the cached IPS source file contents of a single project or the whole
-     * workspace. This is done by setting {@value #INVALID_MOD_STAMP} as modification stamp in each
-     * content object.
+     * workspace.
      * 
      * @param project The project that should considered or <code>null</code> if the whole workspace
      *            should be considered.
+     * @see IpsSrcFileContentCache#invalidateUnmodifiedContents(IProject)
      */
-    private synchronized void forceReloadOfCachedIpsSrcFileContents(IProject project) {
-        HashSet<IIpsSrcFile> copyKeys = new HashSet<IIpsSrcFile>(ipsObjectsMap.keySet());
-        for (IIpsSrcFile srcFile : copyKeys) {
-            if (!srcFile.isDirty() && (project == null || srcFile.getIpsProject().getProject().equals(project))) {
-                releaseInCache(srcFile);
-            }
-        }
-    }
-
-    /**
-     * Releases a cached {@link IIpsSrcFile} from the ipsObjectMap cache.
-     * <p>
-     * Do not really remove the IpsSrcFileContent from ipsObjectMap because we want to have the same
-     * IPS object (same object reference) after reloading the file. The object identity should never
-     * change until we have no other references remaining. Instead of removing the file we simply
-     * set the modification stamp invalid and force a reload on next access.
-     * <p>
-     * Only alternative would be to use a soft reference cache.
-     * 
-     * @param srcFile The {@link IIpsSrcFile} you want to release from the cache.
-     */
-    private void releaseInCache(IIpsSrcFile srcFile) {
-        IpsSrcFileContent contents = ipsObjectsMap.get(srcFile);
-        contents.setModificationStamp(INVALID_MOD_STAMP);
+    private void forceReloadOfCachedIpsSrcFileContents(IProject project) {
+        ipsSrcFileContentCache.invalidateUnmodifiedContents(project);
     }
 
     /**
@@ -1162,8 +1147,11 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
         customModelExtensions.addIpsObjectExtensionProperty(property);
     }
 
-    private void initDatatypesDefinedViaExtension() {
-        datatypes = new HashMap<String, Datatype>();
+    private synchronized void initDatatypesDefinedViaExtension() {
+        if (datatypes != null) {
+            return;
+        }
+        Map<String, Datatype> extensionDatatypes = new HashMap<String, Datatype>();
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         IExtensionPoint point = registry.getExtensionPoint(IpsPlugin.PLUGIN_ID, "datatypeDefinition"); //$NON-NLS-1$
         IExtension[] extensions = point.getExtensions();
@@ -1172,23 +1160,24 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
         // to get them at top of the list...
         for (IExtension extension : extensions) {
             if (extension.getNamespaceIdentifier().equals(IpsPlugin.PLUGIN_ID)) {
-                createDatatypeDefinition(extension);
+                createDatatypeDefinition(extension, extensionDatatypes);
             }
         }
 
         // and second, get the rest.
         for (int i = 0; i < extensions.length; i++) {
             if (!extensions[i].getNamespaceIdentifier().equals(IpsPlugin.PLUGIN_ID)) {
-                createDatatypeDefinition(extensions[i]);
+                createDatatypeDefinition(extensions[i], extensionDatatypes);
             }
         }
+        datatypes = extensionDatatypes;
     }
 
-    private void createDatatypeDefinition(IExtension extension) {
+    private void createDatatypeDefinition(IExtension extension, Map<String, Datatype> extensionDatatypes) {
         for (IConfigurationElement configElement : extension.getConfigurationElements()) {
             DatatypeDefinition definition = new DatatypeDefinition(extension, configElement);
             if (definition.hasDatatype()) {
-                datatypes.put(definition.getDatatype().getQualifiedName(), definition.getDatatype());
+                extensionDatatypes.put(definition.getDatatype().getQualifiedName(), definition.getDatatype());
             }
         }
     }
@@ -1252,20 +1241,21 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
         return conventions;
     }
 
-    private void initChangesOverTimeNamingConventionIfNecessary() {
+    private synchronized void initChangesOverTimeNamingConventionIfNecessary() {
         if (changesOverTimeNamingConventionMap == null) {
-            changesOverTimeNamingConventionMap = new HashMap<String, IChangesOverTimeNamingConvention>();
+            Map<String, IChangesOverTimeNamingConvention> conventions = new HashMap<String, IChangesOverTimeNamingConvention>();
             IChangesOverTimeNamingConvention fips = new ChangesOverTimeNamingConvention(
                     IChangesOverTimeNamingConvention.FAKTOR_IPS);
-            changesOverTimeNamingConventionMap.put(fips.getId(), fips);
+            conventions.put(fips.getId(), fips);
 
             IChangesOverTimeNamingConvention vaa = new ChangesOverTimeNamingConvention(
                     IChangesOverTimeNamingConvention.VAA);
-            changesOverTimeNamingConventionMap.put(vaa.getId(), vaa);
+            conventions.put(vaa.getId(), vaa);
 
             IChangesOverTimeNamingConvention pm = new ChangesOverTimeNamingConvention(
                     IChangesOverTimeNamingConvention.PM);
-            changesOverTimeNamingConventionMap.put(pm.getId(), pm);
+            conventions.put(pm.getId(), pm);
+            changesOverTimeNamingConventionMap = conventions;
         }
     }
 
@@ -1314,12 +1304,26 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
         return validationResultCache;
     }
 
+    /**
+     * Returns the cache for the results of compiling formula expressions.
+     */
+    public CompilationResultCache getCompilationResultCache() {
+        return compilationResultCache;
+    }
+
+    /**
+     * Returns the cache for the contents of the IPS source files.
+     */
+    public IpsSrcFileContentCache getIpsSrcFileContentCache() {
+        return ipsSrcFileContentCache;
+    }
+
     /**
      * Removes the content for the given IpsSrcFile.
      */
-    public synchronized void removeIpsSrcFileContent(IIpsSrcFile file) {
+    public void removeIpsSrcFileContent(IIpsSrcFile file) {
         if (file != null) {
-            ipsObjectsMap.remove(file);
+            ipsSrcFileContentCache.remove(file);
         }
     }
 
@@ -1327,7 +1331,7 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
      * Returns true if the IIpsSrcFileContents of the provided IIpsSrcFile has been cached.
      */
     public boolean isCached(IIpsSrcFile file) {
-        return ipsObjectsMap.get(file) != null;
+        return ipsSrcFileContentCache.contains(file);
     }
 
     /**
@@ -1341,86 +1345,68 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
      * @param loadCompleteContent <code>true</code> if the completely file should be read,
      *            <code>false</code> if only the properties will be read
      */
-    public synchronized IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file, boolean loadCompleteContent) {
+    public IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file, boolean loadCompleteContent) {
         if (file == null || !file.exists()) {
             return null;
         }
-        IpsSrcFileContent content = ipsObjectsMap.get(file);
-
-        // new content
-        if (content == null) {
-            content = readContentFromFile(file, loadCompleteContent);
-            ipsObjectsMap.put(file, content);
-            return content;
-        }
-
-        IResource enclResource = file.getEnclosingResource();
-        if (enclResource == null) {
-            return content;
-        }
+        return ipsSrcFileContentCache.getContent(file, loadCompleteContent);
+    }
 
-        long resourceModStamp = enclResource.getModificationStamp();
-        // existing, synchronized content
-        if (content.getModificationStamp() == resourceModStamp) {
-            return checkSynchronizedContent(content, loadCompleteContent);
-        }
+    public IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file) {
+        return getIpsSrcFileContent(file, true);
+    }
 
-        // existing, but unsynchronized content
-        if (loadCompleteContent) {
-            content.initContentFromFile();
-        } else {
-            content.initRootPropertiesFromFile();
+    /**
+     * Removes the cached validation and compilation results of the given file and all files
+     * depending on it after the content of the file has changed. As the dependencies of the file
+     * may have changed, too, the file is remembered until the builder has updated its
+     * dependencies in the dependency graph. Until then the results of all files depending on it
+     * are removed whenever any file changes.
+     * 
+     * @see ValidationResultCache#removeStaleData(Collection, IDependencyGraph[])
+     * @see CompilationResultCache#removeStaleData(Collection, IDependencyGraph[])
+     */
+    void removeStaleCachedResults(IIpsSrcFile file) {
+        if (file == null) {
+            return;
         }
-        return content;
+        filesWithOutdatedDependencies.add(file);
+        List<IIpsSrcFile> changedFiles = new ArrayList<IIpsSrcFile>(filesWithOutdatedDependencies);
+        IDependencyGraph[] dependencyGraphs = getCachedDependencyGraphs();
+        validationResultCache.removeStaleData(changedFiles, dependencyGraphs);
+        compilationResultCache.removeStaleData(changedFiles, dependencyGraphs);
     }
 
-    private IpsSrcFileContent readContentFromFile(IIpsSrcFile file, boolean loadCompleteContent) {
-        IpsSrcFileContent content = new IpsSrcFileContent((IpsObject)file.getIpsObjectType().newObject(file));
-
-        if (loadCompleteContent) {
-            logTraceMessage("New content created", file); //$NON-NLS-1$
-            content.initContentFromFile();
-        } else {
-            logTraceMessage("New properties read", file); //$NON-NLS-1$
-            content.initRootPropertiesFromFile();
-        }
-        return content;
+    /**
+     * Notifies the model that the dependencies of the given file are about to be updated in the
+     * dependency graph. Has to be called before the graph is updated, so a change of the file
+     * during the update is not missed. This method is not part of the published interface.
+     */
+    public void dependenciesUpdated(IIpsSrcFile file) {
+        filesWithOutdatedDependencies.remove(file);
     }
 
-    private IpsSrcFileContent checkSynchronizedContent(IpsSrcFileContent content, boolean loadCompleteContent) {
-        if (loadCompleteContent) {
-            if (content.isInitialized()) {
-                logTraceMessage("Content returned from cache", content.getIpsSrcFile()); //$NON-NLS-1$
-                return content;
-            } else {
-                logTraceMessage("Content initialized", content.getIpsSrcFile()); //$NON-NLS-1$
-                content.initContentFromFile();
-                return content;
-            }
-        } else {
-            // only properties are needed
-            if (content.areRootPropertiesAvailable()) {
-                logTraceMessage("Properties returned from cache", content.getIpsSrcFile()); //$NON-NLS-1$
-                return content;
-            } else {
-                logTraceMessage("Properties initialized", content.getIpsSrcFile()); //$NON-NLS-1$
-                content.initRootPropertiesFromFile();
-                return content;
+    /**
+     * Notifies the model that the dependency graph of the given project is about to be
+     * reinitialized. This method is not part of the published interface.
+     * 
+     * @see #dependenciesUpdated(IIpsSrcFile)
+     */
+    public void dependenciesUpdated(IIpsProject ipsProject) {
+        for (Iterator<IIpsSrcFile> it = filesWithOutdatedDependencies.iterator(); it.hasNext();) {
+            if (ipsProject.equals(it.next().getIpsProject())) {
+                it.remove();
             }
         }
     }
 
-    public synchronized IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file) {
-        return getIpsSrcFileContent(file, true);
-    }
-
     public void ipsSrcFileContentHasChanged(ContentChangeEvent event) {
         IIpsSrcFile file = event.getIpsSrcFile();
         if (IpsModel.TRACE_MODEL_MANAGEMENT) {
             System.out.println("IpsModel.ipsSrcFileHasChanged(), file=" + file //$NON-NLS-1$
                     + ", Thead: " + Thread.currentThread().getName()); //$NON-NLS-1$
         }
-        validationResultCache.removeStaleData(file);
+        removeStaleCachedResults(file);
         notifyChangeListeners(event);
         if (IpsModel.TRACE_MODEL_MANAGEMENT) {
             System.out.println("IpsModel.ipsSrcFileHasChanged(), file=" //$NON-NLS-1$
@@ -1511,15 +1497,6 @@ public class IpsModel extends IpsElement implements IIpsModel, IResourceChangeLi
 
     }
 
-    private static void logTraceMessage(String text, IIpsSrcFile ipsSrcFile) {
-        if (IpsModel.TRACE_MODEL_MANAGEMENT) {
-            IResource enclosingResource = ipsSrcFile.getEnclosingResource();
-            System.out.println(NLS.bind("IpsModel.getIpsSrcFileContent(): {0}, file={1}, FileModStamp={2}, Thread={3}", //$NON-NLS-1$
-                    new String[] { text, "" + ipsSrcFile, "" + enclosingResource.getModificationStamp(), //$NON-NLS-1$ //$NON-NLS-2$
-                            Thread.currentThread().getName() }));
-        }
-    }
-
     @Override
     public boolean isContainedInArchive() {
         return false;
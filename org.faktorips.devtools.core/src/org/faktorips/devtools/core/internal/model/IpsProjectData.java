@@ -52,7 +52,7 @@ public class IpsProjectData {
 
     private volatile LinkedHashSet<IIpsSrcFile> markerEnums;
 
-    private IpsProjectProperties projectProperties;
+    private volatile IpsProjectProperties projectProperties;
 
     /**
      * a map containing a set of datatypes.
@@ -78,7 +78,7 @@ public class IpsProjectData {
      * 
      * @throws NullPointerException if containerTypeId or optionalPath is <code>null</code>.
      */
-    public IIpsObjectPathContainer getIpsObjectPathContainer(String containerTypeId, String optionalPath) {
+    public synchronized IIpsObjectPathContainer getIpsObjectPathContainer(String containerTypeId, String optionalPath) {
         ArgumentCheck.notNull(containerTypeId);
         ArgumentCheck.notNull(optionalPath);
         ContainerTypeAndPath typeAndPath = new ContainerTypeAndPath(containerTypeId, optionalPath);
@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.osgi.util.NLS;
+import org.faktorips.devtools.core.internal.model.ipsobject.IpsObject;
+import org.faktorips.devtools.core.internal.model.ipsobject.IpsSrcFileContent;
+import org.faktorips.devtools.core.internal.model.ipsobject.LibraryIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.runtime.caching.CacheStatistics;
+
+/**
+ * Cache for the contents of the IPS source files used by the {@link IpsModel}.
+ * <p>
+ * The cache does not use a global lock. Every cached file has its own entry that is locked while
+ * the file is read, so a file is read only once even if many threads request it at the same time,
+ * while different files are read in parallel.
+ * <p>
+ * By default the number of cached contents is not limited. If a maximum size is set, the least
+ * recently used contents are evicted as soon as the cache exceeds this size. Modified contents are
+ * never evicted. An evicted content is read again on the next request, which creates a new IPS
+ * object. Hence a maximum size should only be used if no other component holds references to the
+ * IPS objects, for example in headless builds. The maximum size can be set with the system
+ * property {@value #MAXIMUM_SIZE_PROPERTY}.
+ * <p>
+ * {@link #getStatistics()} returns the number of hits and misses and the time spent reading files.
+ * A request is a hit if the content is returned without reading the file.
+ */
+public class IpsSrcFileContentCache {
+
+    /** The maximum size of a cache that never evicts any content. */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /** The name of the system property defining the maximum size of the cache. */
+    public static final String MAXIMUM_SIZE_PROPERTY = "org.faktorips.devtools.core.ipsSrcFileContentCacheSize"; //$NON-NLS-1$
+
+    /**
+     * We must use a value different from {@link IResource#NULL_STAMP} because otherwise files which
+     * do not exist in workspace (like {@link LibraryIpsSrcFile}) would remain cached forever.
+     * <p>
+     * Described in FIPS-5745
+     */
+    private static final int INVALID_MOD_STAMP = -42;
+
+    /**
+     * A full cache is reduced to this percentage of its maximum size, so not every new content
+     * triggers an eviction.
+     */
+    private static final int EVICTION_TARGET_PERCENTAGE = 90;
+
+    private final ConcurrentMap<IIpsSrcFile, Entry> entries = new ConcurrentHashMap<IIpsSrcFile, Entry>(1000);
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private volatile int maximumSize;
+
+    /**
+     * Creates a cache holding at most the given number of contents.
+     * 
+     * @see #UNBOUNDED
+     */
+    public IpsSrcFileContentCache(int maximumSize) {
+        setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Creates a cache with the maximum size defined by the system property
+     * {@value #MAXIMUM_SIZE_PROPERTY} or an unbounded cache if the property is not set.
+     */
+    public static IpsSrcFileContentCache createFromSystemProperty() {
+        return new IpsSrcFileContentCache(Integer.getInteger(MAXIMUM_SIZE_PROPERTY, UNBOUNDED));
+    }
+
+    /**
+     * Returns the content of the given file. The content is read from the file if it is not cached
+     * yet or if the file has been changed since it was read. If loadCompleteContent is
+     * <code>true</code> the complete content is read, otherwise only the root properties of the IPS
+     * object are read.
+     * 
+     * @param file the file to read, must exist
+     * @param loadCompleteContent <code>true</code> if the complete file should be read,
+     *            <code>false</code> if only the properties will be read
+     */
+    public IpsSrcFileContent getContent(IIpsSrcFile file, boolean loadCompleteContent) {
+        Entry entry = entries.get(file);
+        if (entry == null) {
+            Entry newEntry = new Entry();
+            entry = entries.putIfAbsent(file, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        try {
+            IpsSrcFileContent content = entry.getContent(file, loadCompleteContent);
+            evictIfNecessary();
+            return content;
+        } finally {
+            if (entry.content == null) {
+                // reading a new content failed, do not keep the empty entry
+                entries.remove(file, entry);
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the content of the given file is cached.
+     */
+    public boolean contains(IIpsSrcFile file) {
+        Entry entry = entries.get(file);
+        return entry != null && entry.content != null;
+    }
+
+    /**
+     * Removes the content of the given file from the cache.
+     */
+    public void remove(IIpsSrcFile file) {
+        entries.remove(file);
+    }
+
+    /**
+     * Forces to reload the unmodified contents of a single project or the whole workspace on their
+     * next request.
+     * <p>
+     * The contents are not removed because we want to have the same IPS object (same object
+     * reference) after reloading the file. The object identity should never change until we have no
+     * other references remaining. Instead of removing the content we simply set the modification
+     * stamp invalid.
+     * 
+     * @param project The project that should be considered or <code>null</code> if the whole
+     *            workspace should be considered.
+     */
+    public void invalidateUnmodifiedContents(IProject project) {
+        for (Map.Entry<IIpsSrcFile, Entry> mapEntry : entries.entrySet()) {
+            IIpsSrcFile srcFile = mapEntry.getKey();
+            if (project == null || srcFile.getIpsProject().getProject().equals(project)) {
+                mapEntry.getValue().invalidateIfUnmodified();
+            }
+        }
+    }
+
+    /**
+     * Removes all contents from the cache.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached contents.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum number of cached contents and evicts contents if the cache is larger.
+     * 
+     * @see #UNBOUNDED
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The maximum size must not be negative: " + maximumSize); //$NON-NLS-1$
+        }
+        this.maximumSize = maximumSize;
+        evictIfNecessary();
+    }
+
+    /**
+     * Returns a snapshot of the counters of this cache. Every content has the weight 1.
+     */
+    public CacheStatistics getStatistics() {
+        long size = entries.size();
+        long misses = missCount.get();
+        long evictions = evictionCount.get();
+        return new CacheStatistics(hitCount.get(), misses, misses, totalLoadTime.get(), evictions, evictions, size,
+                size);
+    }
+
+    private void evictIfNecessary() {
+        int max = maximumSize;
+        if (entries.size() <= max || !evictionLock.tryLock()) {
+            // another thread is already evicting
+            return;
+        }
+        try {
+            List<Map.Entry<IIpsSrcFile, Entry>> candidates = new ArrayList<Map.Entry<IIpsSrcFile, Entry>>();
+            for (Map.Entry<IIpsSrcFile, Entry> mapEntry : entries.entrySet()) {
+                if (mapEntry.getValue().isEvictable()) {
+                    candidates.add(mapEntry);
+                }
+            }
+            Collections.sort(candidates, new Comparator<Map.Entry<IIpsSrcFile, Entry>>() {
+
+                @Override
+                public int compare(Map.Entry<IIpsSrcFile, Entry> o1, Map.Entry<IIpsSrcFile, Entry> o2) {
+                    return Long.compare(o1.getValue().lastAccess, o2.getValue().lastAccess);
+                }
+
+            });
+            long targetSize = (long)max * EVICTION_TARGET_PERCENTAGE / 100;
+            for (int i = 0; i < candidates.size() && entries.size() > targetSize; i++) {
+                Map.Entry<IIpsSrcFile, Entry> candidate = candidates.get(i);
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictionCount.incrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static void logTraceMessage(String text, IIpsSrcFile ipsSrcFile) {
+        if (IpsModel.TRACE_MODEL_MANAGEMENT) {
+            IResource enclosingResource = ipsSrcFile.getEnclosingResource();
+            System.out.println(NLS.bind("IpsModel.getIpsSrcFileContent(): {0}, file={1}, FileModStamp={2}, Thread={3}", //$NON-NLS-1$
+                    new String[] { text, "" + ipsSrcFile, "" + enclosingResource.getModificationStamp(), //$NON-NLS-1$ //$NON-NLS-2$
+                            Thread.currentThread().getName() }));
+        }
+    }
+
+    /**
+     * The cached content of a single file. All methods reading the file are synchronized on the
+     * entry.
+     */
+    private class Entry {
+
+        private volatile IpsSrcFileContent content;
+
+        private volatile long lastAccess;
+
+        private synchronized IpsSrcFileContent getContent(IIpsSrcFile file, boolean loadCompleteContent) {
+            lastAccess = clock.incrementAndGet();
+
+            // new content
+            if (content == null) {
+                IpsSrcFileContent newContent = new IpsSrcFileContent(
+                        (IpsObject)file.getIpsObjectType().newObject(file));
+                if (loadCompleteContent) {
+                    logTraceMessage("New content created", file); //$NON-NLS-1$
+                } else {
+                    logTraceMessage("New properties read", file); //$NON-NLS-1$
+                }
+                init(newContent, loadCompleteContent);
+                content = newContent;
+                return newContent;
+            }
+
+            IResource enclResource = file.getEnclosingResource();
+            if (enclResource == null) {
+                hitCount.incrementAndGet();
+                return content;
+            }
+
+            long resourceModStamp = enclResource.getModificationStamp();
+            // existing, synchronized content
+            if (content.getModificationStamp() == resourceModStamp) {
+                return checkSynchronizedContent(loadCompleteContent);
+            }
+
+            // existing, but unsynchronized content
+            init(content, loadCompleteContent);
+            return content;
+        }
+
+        private IpsSrcFileContent checkSynchronizedContent(boolean loadCompleteContent) {
+            if (loadCompleteContent) {
+                if (content.isInitialized()) {
+                    logTraceMessage("Content returned from cache", content.getIpsSrcFile()); //$NON-NLS-1$
+                    hitCount.incrementAndGet();
+                } else {
+                    logTraceMessage("Content initialized", content.getIpsSrcFile()); //$NON-NLS-1$
+                    init(content, true);
+                }
+            } else {
+                // only properties are needed
+                if (content.areRootPropertiesAvailable()) {
+                    logTraceMessage("Properties returned from cache", content.getIpsSrcFile()); //$NON-NLS-1$
+                    hitCount.incrementAndGet();
+                } else {
+                    logTraceMessage("Properties initialized", content.getIpsSrcFile()); //$NON-NLS-1$
+                    init(content, false);
+                }
+            }
+            return content;
+        }
+
+        private void init(IpsSrcFileContent contentToInit, boolean loadCompleteContent) {
+            missCount.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                if (loadCompleteContent) {
+                    contentToInit.initContentFromFile();
+                } else {
+                    contentToInit.initRootPropertiesFromFile();
+                }
+            } finally {
+                totalLoadTime.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        private synchronized void invalidateIfUnmodified() {
+            if (content != null && !content.isModified()) {
+                content.setModificationStamp(INVALID_MOD_STAMP);
+            }
+        }
+
+        private boolean isEvictable() {
+            IpsSrcFileContent currentContent = content;
+            return currentContent != null && !currentContent.isModified();
+        }
+
+    }
+
+}
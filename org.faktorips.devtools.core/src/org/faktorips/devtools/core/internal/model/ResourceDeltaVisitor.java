@@ -61,6 +61,9 @@ class ResourceDeltaVisitor implements IResourceDeltaVisitor {
             } else if (delta.getKind() == IResourceDelta.REMOVED) {
                 handleRemoved(resource);
             } else {
+                if (delta.getKind() == IResourceDelta.ADDED) {
+                    handleAdded(resource);
+                }
                 handleOtherResourceChange(resource);
             }
         }
@@ -73,13 +76,30 @@ class ResourceDeltaVisitor implements IResourceDeltaVisitor {
         ipsModel.getValidationResultCache().clear();
     }
 
+    /**
+     * The dependency graphs do not cover the validations and identifiers that depend on the names
+     * of all IPS objects, e.g. whether there is another IPS object with the same name, so the
+     * caches are cleared completely if a file is added or removed.
+     */
+    private void handleAdded(IResource resource) {
+        if (ipsModel.getIpsElement(resource) instanceof IIpsSrcFile) {
+            clearCachedResults();
+        }
+    }
+
     private void handleRemoved(IResource resource) {
         IIpsElement ipsElement = ipsModel.getIpsElement(resource);
         if (ipsElement instanceof IIpsSrcFile) {
             ipsModel.removeIpsSrcFileContent((IIpsSrcFile)ipsElement);
+            clearCachedResults();
         }
     }
 
+    private void clearCachedResults() {
+        ipsModel.getValidationResultCache().clear();
+        ipsModel.getCompilationResultCache().clear();
+    }
+
     private boolean handleOtherResourceChange(IResource resource) {
         final IIpsElement element = ipsModel.findIpsElement(resource);
         if (element instanceof IpsSrcFile && ((IpsSrcFile)element).isContainedInIpsRoot()) {
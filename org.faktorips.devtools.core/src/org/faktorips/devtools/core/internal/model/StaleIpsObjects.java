@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.core.internal.model;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.faktorips.devtools.core.builder.IDependencyGraph;
+import org.faktorips.devtools.core.model.IDependency;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
+
+/**
+ * Finds the IPS objects whose cached data becomes stale if the content of IPS source files changes,
+ * used by the caches of the model that group their data by IPS object.
+ * <p>
+ * The dependency graphs only contain the dependencies of a file as they were when the graph was
+ * last updated for it. A file whose content has changed since may depend on other IPS objects
+ * now, so the data of such a file has to be treated as stale whenever any file changes. The
+ * graphs do not cover dependencies on the names of IPS objects either, for example the check that
+ * there is no other type with the same name. Hence the caches have to be cleared completely if
+ * files are added or removed.
+ * 
+ * @see ValidationResultCache
+ * @see CompilationResultCache
+ */
+final class StaleIpsObjects {
+
+    private StaleIpsObjects() {
+        // Utility class not to be instantiated.
+    }
+
+    /**
+     * Returns the qualified name types of the IPS objects of the given files and of all IPS
+     * objects that depend on them or <code>null</code> if a required dependency graph is missing.
+     * 
+     * @param changedFiles the file whose content has changed and all files whose content has
+     *            changed since their dependencies were last updated in the dependency graphs
+     * @param dependencyGraphs the available dependency graphs
+     */
+    static Set<QualifiedNameType> collect(Collection<IIpsSrcFile> changedFiles, IDependencyGraph[] dependencyGraphs) {
+        Map<IIpsProject, IDependencyGraph> graphsByProject = new HashMap<IIpsProject, IDependencyGraph>();
+        for (IDependencyGraph graph : dependencyGraphs) {
+            graphsByProject.put(graph.getIpsProject(), graph);
+        }
+        Set<IDependencyGraph> graphs = new HashSet<IDependencyGraph>();
+        Deque<QualifiedNameType> toVisit = new ArrayDeque<QualifiedNameType>();
+        for (IIpsSrcFile file : changedFiles) {
+            if (!addGraphs(graphs, graphsByProject, file.getIpsProject())) {
+                return null;
+            }
+            toVisit.add(file.getQualifiedNameType());
+        }
+
+        Set<QualifiedNameType> staleIpsObjects = new HashSet<QualifiedNameType>();
+        while (!toVisit.isEmpty()) {
+            QualifiedNameType qualifiedNameType = toVisit.poll();
+            if (staleIpsObjects.add(qualifiedNameType)) {
+                for (IDependencyGraph graph : graphs) {
+                    for (IDependency dependency : graph.getDependants(qualifiedNameType)) {
+                        toVisit.add(dependency.getSource());
+                    }
+                }
+            }
+        }
+        return staleIpsObjects;
+    }
+
+    private static boolean addGraphs(Set<IDependencyGraph> graphs,
+            Map<IIpsProject, IDependencyGraph> graphsByProject,
+            IIpsProject ipsProject) {
+        if (ipsProject == null || !addGraph(graphs, graphsByProject, ipsProject)) {
+            return false;
+        }
+        for (IIpsProject referencingProject : ipsProject.findReferencingProjects(true)) {
+            if (!addGraph(graphs, graphsByProject, referencingProject)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean addGraph(Set<IDependencyGraph> graphs,
+            Map<IIpsProject, IDependencyGraph> graphsByProject,
+            IIpsProject ipsProject) {
+        IDependencyGraph graph = graphsByProject.get(ipsProject);
+        if (graph == null) {
+            return false;
+        }
+        graphs.add(graph);
+        return true;
+    }
+
+}
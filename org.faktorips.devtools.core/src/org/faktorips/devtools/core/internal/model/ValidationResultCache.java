@@ -10,20 +10,47 @@
 
 package org.faktorips.devtools.core.internal.model;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.faktorips.devtools.core.builder.IDependencyGraph;
 import org.faktorips.devtools.core.model.ipsobject.IIpsObjectPartContainer;
 import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.QualifiedNameType;
 import org.faktorips.util.message.MessageList;
 
 /**
  * A cache for the results of the validation.
+ * <p>
+ * The results are grouped by the IPS object the validated container belongs to. If the content of
+ * an IPS source file changes, only the results of its own IPS object and of the IPS objects that
+ * depend on it directly or indirectly are removed. The dependencies are taken from the dependency
+ * graphs. As the graphs are only updated by the builder, the dependencies of files that have
+ * changed since are not known, so the results of these files and their dependants are removed, too.
+ * If a graph that is needed to find the dependants is not available, the whole cache is cleared.
+ * The whole cache has to be cleared as well if IPS source files are added or removed, as the
+ * validation checks for example whether there is another IPS object with the same name.
+ * <p>
+ * The cache is thread safe without a global lock. The stored results are copies that are never
+ * modified, so they can be read concurrently.
  * 
  * @author Jan Ortmann
  */
 public class ValidationResultCache {
 
-    private HashMap<IIpsObjectPartContainer, MessageList> data = new HashMap<IIpsObjectPartContainer, MessageList>(1000);
+    /** The results grouped by the qualified name type of the IPS object they belong to. */
+    private final ConcurrentMap<QualifiedNameType, ConcurrentMap<IIpsObjectPartContainer, MessageList>> data = new ConcurrentHashMap<QualifiedNameType, ConcurrentMap<IIpsObjectPartContainer, MessageList>>(
+            1000);
+
+    /** The results of containers that do not belong to an IPS source file. */
+    private final ConcurrentMap<IIpsObjectPartContainer, MessageList> containersWithoutSrcFile = new ConcurrentHashMap<IIpsObjectPartContainer, MessageList>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
 
     /**
      * Puts a copy of the given the validation result for the given IPS object part container into
@@ -35,52 +62,108 @@ public class ValidationResultCache {
      * 
      * @throws NullPointerException if container is <code>null</code>.
      */
-    public synchronized void putResult(IIpsObjectPartContainer container, MessageList result) {
+    public void putResult(IIpsObjectPartContainer container, MessageList result) {
+        ConcurrentMap<IIpsObjectPartContainer, MessageList> results = getResults(container, result != null);
+        if (results == null) {
+            return;
+        }
         if (result == null) {
-            data.remove(container);
+            results.remove(container);
             return;
         }
         // Cache a defensive copy.
-        MessageList copy = new MessageList();
-        copy.add(result);
-        data.put(container, copy);
+        results.put(container, copy(result));
     }
 
     /**
      * Returns the cached validation result for the given container or <code>null</code> if the
      * cache does not contain a result for the container.
      */
-    public synchronized MessageList getResult(IIpsObjectPartContainer c) {
-        MessageList cached = data.get(c);
+    public MessageList getResult(IIpsObjectPartContainer c) {
+        ConcurrentMap<IIpsObjectPartContainer, MessageList> results = getResults(c, false);
+        MessageList cached = results == null ? null : results.get(c);
         if (cached == null) {
+            missCount.incrementAndGet();
             return null;
         }
+        hitCount.incrementAndGet();
         // Return a defensive copy.
-        MessageList result = new MessageList();
-        result.add(cached);
-        return result;
+        return copy(cached);
+    }
+
+    private ConcurrentMap<IIpsObjectPartContainer, MessageList> getResults(IIpsObjectPartContainer container,
+            boolean create) {
+        IIpsSrcFile srcFile = container.getIpsSrcFile();
+        if (srcFile == null) {
+            return containersWithoutSrcFile;
+        }
+        QualifiedNameType qualifiedNameType = srcFile.getQualifiedNameType();
+        ConcurrentMap<IIpsObjectPartContainer, MessageList> results = data.get(qualifiedNameType);
+        if (results == null && create) {
+            ConcurrentMap<IIpsObjectPartContainer, MessageList> newResults = new ConcurrentHashMap<IIpsObjectPartContainer, MessageList>();
+            results = data.putIfAbsent(qualifiedNameType, newResults);
+            if (results == null) {
+                results = newResults;
+            }
+        }
+        return results;
+    }
+
+    private MessageList copy(MessageList messageList) {
+        MessageList copy = new MessageList();
+        copy.add(messageList);
+        return copy;
     }
 
     /**
-     * Removes the data from the cache that is stale because the given IPS source file has changed.
-     * Does nothing if the given file is <code>null</code>.
+     * Removes the data from the cache that is stale because the content of IPS source files has
+     * changed. Does nothing if no file is given. Must not be used if files have been added or
+     * removed, the cache has to be cleared in this case.
      * <p>
-     * Implementation note: At the moment we clear the whole cache if a file changes, as due to the
-     * dependencies between objects the validation result of other objects can also change if one
-     * object is changed. We might use the exact dependencies between objects to solve this more
-     * efficiently in a later version.
+     * The results of the IPS objects in the given files and of all IPS objects depending on them
+     * are removed. To find the dependants the dependency graphs of the files' projects and all
+     * projects referencing them are needed. If one of them is not contained in the given graphs,
+     * the whole cache is cleared.
      * 
-     * @param file The ips source file that has changed.
+     * @param changedFiles The ips source file that has changed and all files that have changed
+     *            since their dependencies were last updated in the dependency graphs.
+     * @param dependencyGraphs The available dependency graphs, e.g. the graphs cached by the model
      */
-    public synchronized void removeStaleData(IIpsSrcFile file) {
-        clear();
+    public void removeStaleData(Collection<IIpsSrcFile> changedFiles, IDependencyGraph[] dependencyGraphs) {
+        if (changedFiles.isEmpty()) {
+            return;
+        }
+        containersWithoutSrcFile.clear();
+        Set<QualifiedNameType> staleIpsObjects = StaleIpsObjects.collect(changedFiles, dependencyGraphs);
+        if (staleIpsObjects == null) {
+            clear();
+            return;
+        }
+        for (QualifiedNameType qualifiedNameType : staleIpsObjects) {
+            data.remove(qualifiedNameType);
+        }
     }
 
     /**
      * Clears the whole cache.
      */
-    public synchronized void clear() {
+    public void clear() {
         data.clear();
+        containersWithoutSrcFile.clear();
+    }
+
+    /**
+     * Returns the number of requests that were answered by a cached result.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests for which no result was cached.
+     */
+    public long getMissCount() {
+        return missCount.get();
     }
 
 }
@@ -14,9 +14,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.core.resources.IFile;
@@ -71,8 +71,12 @@ public class IpsObjectPath implements IIpsObjectPath {
 
     private IIpsProject ipsProject;
 
-    /** map with QualifiedNameTypes as keys and cached IpsSrcFiles as values. */
-    private Map<QualifiedNameType, IIpsSrcFile> lookupCache = new HashMap<QualifiedNameType, IIpsSrcFile>(1000);
+    /**
+     * map with QualifiedNameTypes as keys and cached IpsSrcFiles as values. Concurrent because the
+     * build looks up IPS source files from several threads.
+     */
+    private ConcurrentMap<QualifiedNameType, IIpsSrcFile> lookupCache = new ConcurrentHashMap<QualifiedNameType, IIpsSrcFile>(
+            1000);
 
     /**
      * if set to true, the {@link IIpsObjectPathEntry entries} are read from the manifest.mf and if
@@ -420,7 +424,7 @@ public class IpsObjectPath implements IIpsObjectPath {
         IIpsSrcFile cachedSrcFile = lookupCache.get(nameType);
         if (cachedSrcFile != null) {
             if (!cachedSrcFile.exists()) {
-                lookupCache.remove(nameType);
+                lookupCache.remove(nameType, cachedSrcFile);
             } else {
                 return cachedSrcFile;
             }
@@ -25,6 +25,8 @@ import org.faktorips.datatype.EnumDatatype;
 import org.faktorips.datatype.ValueDatatype;
 import org.faktorips.devtools.core.builder.ExtendedExprCompiler;
 import org.faktorips.devtools.core.exception.CoreRuntimeException;
+import org.faktorips.devtools.core.internal.model.CompilationResultCache;
+import org.faktorips.devtools.core.internal.model.IpsModel;
 import org.faktorips.devtools.core.internal.model.ipsobject.BaseIpsObjectPart;
 import org.faktorips.devtools.core.model.IDependency;
 import org.faktorips.devtools.core.model.ipsobject.IIpsObjectPartContainer;
@@ -178,6 +180,30 @@ public abstract class Expression extends BaseIpsObjectPart implements IExpressio
         return compiler;
     }
 
+    /**
+     * Compiles the formula expression with the given compiler, that must have been created by
+     * {@link #newExprCompiler(IIpsProject)} for the given project. The result of a successful
+     * compilation is reused until the expression, this element's IPS object or one of the IPS
+     * objects it depends on changes.
+     * <p>
+     * This method is not part of the published interface.
+     * 
+     * @param ipsProject the project used to create the compiler
+     * @param compiler the compiler created by {@link #newExprCompiler(IIpsProject)}
+     * 
+     * @see CompilationResultCache
+     */
+    public CompilationResult<JavaCodeFragment> compile(IIpsProject ipsProject, JavaExprCompiler compiler) {
+        String expressionToCompile = getExpression();
+        CompilationResultCache cache = ((IpsModel)getIpsModel()).getCompilationResultCache();
+        CompilationResult<JavaCodeFragment> result = cache.getResult(this, ipsProject, compiler, expressionToCompile);
+        if (result == null) {
+            result = compiler.compile(expressionToCompile);
+            cache.putResult(this, ipsProject, compiler, expressionToCompile, result);
+        }
+        return result;
+    }
+
     /**
      * Returns all {@link ITableContentUsage}s available for this expression.
      * 
@@ -307,7 +333,7 @@ public abstract class Expression extends BaseIpsObjectPart implements IExpressio
             return;
         }
         JavaExprCompiler compiler = newExprCompiler(ipsProject);
-        CompilationResult<JavaCodeFragment> result = compiler.compile(expressionToValidate);
+        CompilationResult<JavaCodeFragment> result = compile(ipsProject, compiler);
         validateCompilationResult(list, result);
         if (list.containsErrorMsg()) {
             return;
@@ -73,6 +73,26 @@ public class TableRows extends IpsObjectPart implements ITableRows {
         return newRow;
     }
 
+    @Override
+    public void newRows(List<String[]> rowValues) {
+        if (rowValues.isEmpty()) {
+            return;
+        }
+        ITableStructure tableStructure = findTableStructure();
+        IIndex[] uniqueKeys = tableStructure == null ? null : tableStructure.getUniqueKeys();
+        for (String[] values : rowValues) {
+            Row newRow = newRowInternal(getNextPartId());
+            int numOfColumns = Math.min(values.length, newRow.getNoOfColumns());
+            for (int column = 0; column < numOfColumns; column++) {
+                newRow.setValueInternal(column, values[column]);
+            }
+            if (uniqueKeys != null) {
+                updateUniqueKeyCacheFor(newRow, uniqueKeys);
+            }
+        }
+        objectHasChanged();
+    }
+
     /**
      * This method is used by the table contents sax handler, after finishing a row node
      */
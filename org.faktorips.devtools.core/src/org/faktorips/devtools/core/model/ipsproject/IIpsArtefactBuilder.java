@@ -130,6 +130,24 @@ public interface IIpsArtefactBuilder {
      */
     public boolean isBuildingInternalArtifacts();
 
+    /**
+     * Indicates if this builder can build several IpsSrcFiles at the same time. The methods
+     * {@link #beforeBuild(IIpsSrcFile, MultiStatus)}, {@link #build(IIpsSrcFile)} and
+     * {@link #afterBuild(IIpsSrcFile)} of a thread safe builder may be called by worker threads
+     * for different IpsSrcFiles concurrently and before the builders that are not thread safe are
+     * applied. All other methods are still called by the thread running the build.
+     * <p>
+     * A thread safe builder must not keep the state of the file it builds in fields. As the
+     * workspace may only be modified by the thread running the build, it modifies the workspace
+     * only by means of the methods of
+     * {@link org.faktorips.devtools.core.builder.AbstractArtefactBuilder} creating, writing and
+     * deleting files.
+     * 
+     * @return <code>true</code> if this builder is thread safe, <code>false</code> if it is only
+     *         applied by the thread running the build
+     */
+    public boolean isThreadSafe();
+
     /**
      * Deletes the artifact that is created by this builder upon the provided IpsSrcFile.
      * 
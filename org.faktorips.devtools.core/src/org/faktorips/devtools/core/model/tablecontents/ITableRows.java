@@ -10,6 +10,8 @@
 
 package org.faktorips.devtools.core.model.tablecontents;
 
+import java.util.List;
+
 import org.faktorips.devtools.core.model.ipsobject.IIpsObjectPart;
 
 public interface ITableRows extends IIpsObjectPart {
@@ -46,6 +48,15 @@ public interface ITableRows extends IIpsObjectPart {
      */
     public IRow newRow();
 
+    /**
+     * Creates a new row at the end of the table for each of the given arrays of values. The value
+     * at index i of an array is set as the value of column i, values for columns that do not exist
+     * are ignored. In contrast to creating the rows with {@link #newRow()} and setting the values
+     * with {@link IRow#setValue(int, String)}, only a single change event is fired for all rows.
+     * This method is intended for importing a large number of rows.
+     */
+    public void newRows(List<String[]> rowValues);
+
     /**
      * Creates a new row after the given row index.<br>
      * If the index is greater than the number of rows the row will be added at the end.
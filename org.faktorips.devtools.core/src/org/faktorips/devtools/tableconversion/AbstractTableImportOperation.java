@@ -10,10 +10,14 @@
 
 package org.faktorips.devtools.tableconversion;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.faktorips.datatype.Datatype;
+import org.faktorips.devtools.core.model.tablecontents.ITableRows;
 import org.faktorips.util.message.MessageList;
 
 /**
@@ -26,6 +30,12 @@ import org.faktorips.util.message.MessageList;
  */
 public abstract class AbstractTableImportOperation implements IWorkspaceRunnable {
 
+    /**
+     * The number of rows that are collected by {@link #addRow(ITableRows, String[])} before they
+     * are added to the table rows at once.
+     */
+    protected static final int ROW_BATCH_SIZE = 1000;
+
     /**
      * The qualified name of the file to import from.
      */
@@ -60,6 +70,8 @@ public abstract class AbstractTableImportOperation implements IWorkspaceRunnable
      */
     protected boolean ignoreColumnHeaderRow;
 
+    private final List<String[]> rowBuffer = new ArrayList<String[]>(ROW_BATCH_SIZE);
+
     public AbstractTableImportOperation(String sourceFile, ITableFormat format, String nullRepresentationString,
             boolean ignoreColumnHeaderRow, MessageList list, boolean importIntoExisting) {
 
@@ -74,4 +86,31 @@ public abstract class AbstractTableImportOperation implements IWorkspaceRunnable
     @Override
     public abstract void run(IProgressMonitor monitor) throws CoreException;
 
+    /**
+     * Adds a row with the given values to the given table rows. The rows are collected and added
+     * in batches of {@value #ROW_BATCH_SIZE} rows by {@link ITableRows#newRows(List)}, so the
+     * import does not fire a change event for every single row and value. Subclasses must call
+     * {@link #flushRows(ITableRows)} after the last row has been added.
+     * 
+     * @param tableRows the table rows the imported row is added to
+     * @param values the values of the row, the value at index i is the value of column i
+     */
+    protected void addRow(ITableRows tableRows, String[] values) {
+        rowBuffer.add(values);
+        if (rowBuffer.size() >= ROW_BATCH_SIZE) {
+            flushRows(tableRows);
+        }
+    }
+
+    /**
+     * Adds the rows that have been collected by {@link #addRow(ITableRows, String[])} to the given
+     * table rows.
+     */
+    protected void flushRows(ITableRows tableRows) {
+        if (!rowBuffer.isEmpty()) {
+            tableRows.newRows(rowBuffer);
+            rowBuffer.clear();
+        }
+    }
+
 }
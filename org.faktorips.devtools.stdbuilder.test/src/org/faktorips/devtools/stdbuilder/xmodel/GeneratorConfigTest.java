@@ -52,6 +52,30 @@ public class GeneratorConfigTest {
         assertFalse(generatorConfig.isGenerateSerializablePolicyCmptSupport());
     }
 
+    @Test
+    public void testIsCompactTableIndices_Default() {
+        assertFalse(generatorConfig.isCompactTableIndices());
+    }
+
+    @Test
+    public void testIsCompactTableIndices() {
+        when(config.getPropertyValueAsBoolean(StandardBuilderSet.CONFIG_PROPERTY_COMPACT_TABLE_INDICES))
+                .thenReturn(true);
+        assertThat(generatorConfig.isCompactTableIndices(), is(true));
+    }
+
+    @Test
+    public void testIsBinaryTableContents_Default() {
+        assertFalse(generatorConfig.isBinaryTableContents());
+    }
+
+    @Test
+    public void testIsBinaryTableContents() {
+        when(config.getPropertyValueAsBoolean(StandardBuilderSet.CONFIG_PROPERTY_BINARY_TABLE_CONTENTS))
+                .thenReturn(true);
+        assertThat(generatorConfig.isBinaryTableContents(), is(true));
+    }
+
     @Test
     public void testGetBaseClassPolicyCmptType() {
         when(config.getPropertyValueAsString(StandardBuilderSet.CONFIG_PROPERTY_BASE_CLASS_POLICY_CMPT_TYPE))
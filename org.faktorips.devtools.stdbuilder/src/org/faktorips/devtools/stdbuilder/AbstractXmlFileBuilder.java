@@ -16,8 +16,10 @@ import java.io.UnsupportedEncodingException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.faktorips.devtools.core.IpsStatus;
 import org.faktorips.devtools.core.builder.AbstractArtefactBuilder;
@@ -124,9 +126,16 @@ public abstract class AbstractXmlFileBuilder extends AbstractArtefactBuilder {
      */
     @Override
     public void delete(IIpsSrcFile ipsSrcFile) throws CoreException {
-        IFile file = getXmlContentFile(ipsSrcFile);
+        final IFile file = getXmlContentFile(ipsSrcFile);
         if (file.exists()) {
-            file.delete(true, null);
+            runInBuildThread(new IWorkspaceRunnable() {
+
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    file.delete(true, null);
+                }
+
+            });
         }
     }
 
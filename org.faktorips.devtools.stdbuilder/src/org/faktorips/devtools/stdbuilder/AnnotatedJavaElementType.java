@@ -29,6 +29,12 @@ public enum AnnotatedJavaElementType {
 
     PRODUCT_CMPT_DECL_CLASS_ATTRIBUTE_SETTER,
 
+    /**
+     * Represents the static field holding the accessor of an attribute. The field is always declared
+     * in the implementation class.
+     */
+    PRODUCT_CMPT_IMPL_CLASS_ATTRIBUTE_ACCESSOR,
+
     /**
      * Represents the declaration of association getter methods. The getters are either declared in
      * the published interface or in the implementation class, in case no published interfaces are
@@ -58,6 +64,12 @@ public enum AnnotatedJavaElementType {
 
     POLICY_CMPT_DECL_CLASS_ATTRIBUTE_SETTER,
 
+    /**
+     * Represents the static field holding the accessor of an attribute. The field is always declared
+     * in the implementation class.
+     */
+    POLICY_CMPT_IMPL_CLASS_ATTRIBUTE_ACCESSOR,
+
     POLICY_CMPT_IMPL_CLASS_TRANSIENT_FIELD,
 
     POLICY_CMPT_IMPL_CLASS_ASSOCIATION_FIELD,
@@ -111,6 +123,12 @@ public enum AnnotatedJavaElementType {
 
     ENUM_ATTRIBUTE_GETTER,
 
+    /**
+     * Represents the static field holding the factory that creates the values of an extensible
+     * enumeration defined in an enumeration content.
+     */
+    ENUM_VALUE_FACTORY,
+
     /**
      * Using this type the annotation generator provides java doc tags for any {@link IIpsElement}.
      */
@@ -40,6 +40,8 @@ public enum BuilderKindIds implements IBuilderKindId {
 
     TABLE_CONTENT(),
 
+    TABLE_CONTENT_BINARY,
+
     TEST_CASE_TYPE,
 
     TEST_CASE,
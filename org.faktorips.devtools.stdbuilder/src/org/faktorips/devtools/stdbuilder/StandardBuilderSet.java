@@ -78,6 +78,7 @@ import org.faktorips.devtools.stdbuilder.persistence.GenericJPA2_1PersistencePro
 import org.faktorips.devtools.stdbuilder.policycmpttype.validationrule.ValidationRuleMessagesPropertiesBuilder;
 import org.faktorips.devtools.stdbuilder.productcmpt.ProductCmptBuilder;
 import org.faktorips.devtools.stdbuilder.productcmpt.ProductCmptXMLBuilder;
+import org.faktorips.devtools.stdbuilder.table.TableContentBinaryBuilder;
 import org.faktorips.devtools.stdbuilder.table.TableContentBuilder;
 import org.faktorips.devtools.stdbuilder.testcase.TestCaseBuilder;
 import org.faktorips.devtools.stdbuilder.testcasetype.TestCaseTypeClassBuilder;
@@ -180,6 +181,22 @@ public class StandardBuilderSet extends DefaultBuilderSet implements IJavaBuilde
      */
     public static final String CONFIG_PROPERTY_GENERATE_CONVENIENCE_GETTERS = "generateConvenienceGetters"; //$NON-NLS-1$
 
+    /**
+     * Configuration property that enables/disables the compaction of the search structures of
+     * generated table classes after they are initialized.
+     * 
+     * @see org.faktorips.runtime.internal.tableindex.SearchStructure#compact()
+     */
+    public static final String CONFIG_PROPERTY_COMPACT_TABLE_INDICES = "compactTableIndices"; //$NON-NLS-1$
+
+    /**
+     * Configuration property that enables/disables the conversion of table contents into a binary
+     * file that is loaded by the runtime repository instead of the XML file.
+     * 
+     * @see org.faktorips.runtime.internal.BinaryTableContent
+     */
+    public static final String CONFIG_PROPERTY_BINARY_TABLE_CONTENTS = "binaryTableContents"; //$NON-NLS-1$
+
     /**
      * Name of the configuration property that indicates whether to generate camel case constant
      * names with underscore separator or without. For example if this property is true, the
@@ -368,6 +385,7 @@ public class StandardBuilderSet extends DefaultBuilderSet implements IJavaBuilde
 
         // table content builders
         builders.put(BuilderKindIds.TABLE_CONTENT, new TableContentBuilder(this));
+        builders.put(BuilderKindIds.TABLE_CONTENT_BINARY, new TableContentBinaryBuilder(this));
 
         // test case type builders
         builders.put(BuilderKindIds.TEST_CASE_TYPE, new TestCaseTypeClassBuilder(this));
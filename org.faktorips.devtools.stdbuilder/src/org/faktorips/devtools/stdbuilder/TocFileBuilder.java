@@ -59,6 +59,7 @@ import org.faktorips.devtools.core.util.XmlUtil;
 import org.faktorips.devtools.stdbuilder.enumtype.EnumContentBuilder;
 import org.faktorips.devtools.stdbuilder.enumtype.EnumXmlAdapterBuilder;
 import org.faktorips.devtools.stdbuilder.productcmpt.ProductCmptXMLBuilder;
+import org.faktorips.devtools.stdbuilder.table.TableContentBinaryBuilder;
 import org.faktorips.devtools.stdbuilder.table.TableContentBuilder;
 import org.faktorips.devtools.stdbuilder.testcase.TestCaseBuilder;
 import org.faktorips.devtools.stdbuilder.testcasetype.TestCaseTypeClassBuilder;
@@ -402,8 +403,12 @@ public class TocFileBuilder extends AbstractArtefactBuilder {
         IPath xmlRelativeFile = tableContentBuilder.getXmlContentRelativeFile(tableContents.getIpsSrcFile());
         String tableStructureName = getBuilderSet().getTableBuilder()
                 .getQualifiedClassName(tableStructure.getIpsSrcFile());
+        Long xmlChecksum = null;
+        if (GeneratorConfig.forIpsSrcFile(tableContents.getIpsSrcFile()).isBinaryTableContents()) {
+            xmlChecksum = Long.valueOf(TableContentBinaryBuilder.computeChecksum(tableContents.getIpsSrcFile()));
+        }
         TocEntryObject entry = new TableContentTocEntry(tableContents.getQualifiedName(),
-                tableContents.getQualifiedName(), xmlRelativeFile.toString(), tableStructureName);
+                tableContents.getQualifiedName(), xmlRelativeFile.toString(), tableStructureName, xmlChecksum);
         return entry;
     }
 
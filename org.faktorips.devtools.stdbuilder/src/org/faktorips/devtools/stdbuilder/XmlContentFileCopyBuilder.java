@@ -59,4 +59,14 @@ public abstract class XmlContentFileCopyBuilder extends AbstractXmlFileBuilder {
     public boolean buildsDerivedArtefacts() {
         return true;
     }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Returns true as the file is only copied.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -17,6 +17,7 @@ import org.faktorips.codegen.ConversionCodeGenerator;
 import org.faktorips.codegen.JavaCodeFragment;
 import org.faktorips.datatype.Datatype;
 import org.faktorips.devtools.core.IpsStatus;
+import org.faktorips.devtools.core.internal.model.productcmpt.Expression;
 import org.faktorips.devtools.core.model.ipsproject.IIpsArtefactBuilder;
 import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
 import org.faktorips.devtools.core.model.method.IBaseMethod;
@@ -55,7 +56,7 @@ public class ExpressionBuilderHelper {
         try {
             IIpsProject ipsProject = formula.getIpsProject();
             JavaExprCompiler compiler = formula.newExprCompiler(ipsProject);
-            CompilationResult<JavaCodeFragment> result = compiler.compile(expression);
+            CompilationResult<JavaCodeFragment> result = compile(formula, ipsProject, compiler);
             if (result.successfull()) {
                 Datatype attributeDatatype = formulaSignature.findDatatype(ipsProject);
                 if (result.getDatatype().equals(attributeDatatype)) {
@@ -92,4 +93,17 @@ public class ExpressionBuilderHelper {
             return fragment;
         }
     }
+
+    /**
+     * Compiles the given formula with the given compiler. Formulas of the model implementation
+     * reuse the results of previous compilations.
+     */
+    private static CompilationResult<JavaCodeFragment> compile(IExpression formula,
+            IIpsProject ipsProject,
+            JavaExprCompiler compiler) {
+        if (formula instanceof Expression) {
+            return ((Expression)formula).compile(ipsProject, compiler);
+        }
+        return compiler.compile(formula.getExpression());
+    }
 }
\ No newline at end of file
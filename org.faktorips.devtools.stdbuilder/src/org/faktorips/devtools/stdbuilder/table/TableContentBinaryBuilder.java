@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.stdbuilder.table;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.faktorips.devtools.core.IpsStatus;
+import org.faktorips.devtools.core.builder.DefaultBuilderSet;
+import org.faktorips.devtools.core.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.stdbuilder.AbstractXmlFileBuilder;
+import org.faktorips.devtools.stdbuilder.xmodel.GeneratorConfig;
+import org.faktorips.runtime.internal.BinaryTableContent;
+import org.faktorips.runtime.internal.BinaryTableContentWriter;
+import org.faktorips.util.IoUtil;
+import org.faktorips.util.StreamUtil;
+
+/**
+ * Converts table contents into the columnar binary format read by {@link BinaryTableContent}. The
+ * binary file is written next to the XML file created by the {@link TableContentBuilder}. The
+ * runtime repository prefers the binary file and maps it into memory instead of parsing the XML
+ * file.
+ * <p>
+ * The binary file is created from the XML file, that is a copy of the table contents file, and
+ * records its checksum. The checksum is also written to the table of contents by the
+ * {@link org.faktorips.devtools.stdbuilder.TocFileBuilder}, so the runtime repository ignores
+ * binary files that are older than the XML file without reading the XML file. The binary file
+ * is only written if the builder set property
+ * {@link org.faktorips.devtools.stdbuilder.StandardBuilderSet#CONFIG_PROPERTY_BINARY_TABLE_CONTENTS}
+ * is enabled, otherwise a binary file written before is deleted.
+ */
+public class TableContentBinaryBuilder extends AbstractXmlFileBuilder {
+
+    public TableContentBinaryBuilder(DefaultBuilderSet builderSet) {
+        super(IpsObjectType.TABLE_CONTENTS, builderSet);
+    }
+
+    @Override
+    public void build(IIpsSrcFile ipsSrcFile) throws CoreException {
+        if (!GeneratorConfig.forIpsSrcFile(ipsSrcFile).isBinaryTableContents()) {
+            delete(ipsSrcFile);
+            return;
+        }
+        // the rows are read from the same data as the checksum, the table contents object may
+        // contain changes that are not saved yet
+        byte[] xmlData = readContents(ipsSrcFile);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            BinaryTableContentWriter.createFromXml(xmlData).write(out);
+        } catch (IOException e) {
+            throw new CoreException(new IpsStatus("Unable to write the binary table contents for the file: " //$NON-NLS-1$
+                    + ipsSrcFile.getName(), e));
+        } catch (IllegalArgumentException e) {
+            throw new CoreException(new IpsStatus("Unable to write the binary table contents for the file: " //$NON-NLS-1$
+                    + ipsSrcFile.getName(), e));
+        }
+        build(ipsSrcFile, new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    /**
+     * Returns the checksum of the table contents file, that is the checksum of the XML file
+     * recorded in the binary file.
+     * 
+     * @see BinaryTableContent#getSourceChecksum()
+     */
+    public static long computeChecksum(IIpsSrcFile ipsSrcFile) throws CoreException {
+        return BinaryTableContent.computeChecksum(readContents(ipsSrcFile));
+    }
+
+    private static byte[] readContents(IIpsSrcFile ipsSrcFile) throws CoreException {
+        InputStream is = ((IFile)ipsSrcFile.getEnclosingResource()).getContents(true);
+        try {
+            return StreamUtil.toByteArrayOutputStream(is).toByteArray();
+        } catch (IOException e) {
+            throw new CoreException(new IpsStatus("Unable to read the table contents file: " //$NON-NLS-1$
+                    + ipsSrcFile.getName(), e));
+        } finally {
+            IoUtil.close(is);
+        }
+    }
+
+    /**
+     * Returns the relative path to the generated binary file. It has the same name as the XML file
+     * but the file extension {@value BinaryTableContent#FILE_EXTENSION}.
+     */
+    @Override
+    public IPath getXmlContentRelativeFile(IIpsSrcFile ipsSrcFile) {
+        return super.getXmlContentRelativeFile(ipsSrcFile).removeFileExtension()
+                .addFileExtension(BinaryTableContent.FILE_EXTENSION);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Returns true.
+     */
+    @Override
+    public boolean buildsDerivedArtefacts() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Returns true as the binary file only depends on the table contents file.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "TableContentBinaryBuilder"; //$NON-NLS-1$
+    }
+
+}
@@ -160,6 +160,30 @@ public class GeneratorConfig {
         return propertyValueAsBoolean == null ? true : propertyValueAsBoolean;
     }
 
+    /**
+     * Returns whether generated table classes compact their search structures after they are
+     * initialized.
+     * 
+     * @see StandardBuilderSet#CONFIG_PROPERTY_COMPACT_TABLE_INDICES
+     */
+    public boolean isCompactTableIndices() {
+        Boolean propertyValueAsBoolean = config
+                .getPropertyValueAsBoolean(StandardBuilderSet.CONFIG_PROPERTY_COMPACT_TABLE_INDICES);
+        return propertyValueAsBoolean == null ? false : propertyValueAsBoolean;
+    }
+
+    /**
+     * Returns whether table contents are additionally converted into the binary format that is
+     * loaded by the runtime repository.
+     * 
+     * @see StandardBuilderSet#CONFIG_PROPERTY_BINARY_TABLE_CONTENTS
+     */
+    public boolean isBinaryTableContents() {
+        Boolean propertyValueAsBoolean = config
+                .getPropertyValueAsBoolean(StandardBuilderSet.CONFIG_PROPERTY_BINARY_TABLE_CONTENTS);
+        return propertyValueAsBoolean == null ? false : propertyValueAsBoolean;
+    }
+
     public boolean isGeneratePolicyBuilder() {
         String propertyValue = config.getPropertyValueAsString(StandardBuilderSet.CONFIG_PROPERTY_BUILDER_GENERATOR);
         return (StandardBuilderSet.CONFIG_PROPERTY_BUILDER_GENERATOR_ALL.equals(propertyValue)
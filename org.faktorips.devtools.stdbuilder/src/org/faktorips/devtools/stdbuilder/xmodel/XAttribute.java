@@ -191,6 +191,10 @@ public abstract class XAttribute extends AbstractGeneratorModelNode {
         return "PROPERTY_" + StringUtils.upperCase(getFieldName());
     }
 
+    public String getConstantNameAccessor() {
+        return "ACCESSOR_" + StringUtils.upperCase(getFieldName());
+    }
+
     /**
      * Extension to {@link #getAnnotationsForPublishedInterface(AnnotatedJavaElementType, boolean)}
      * for attribute methods that are generated in either published interface or implementation
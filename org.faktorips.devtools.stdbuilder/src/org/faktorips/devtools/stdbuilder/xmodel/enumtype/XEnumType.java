@@ -486,6 +486,31 @@ public class XEnumType extends XClass {
         return parameters;
     }
 
+    /**
+     * Returns the arguments for the constructor with (International)String parameters that the
+     * generated enum value factory reads from its list of attribute values. The index and the
+     * runtime repository are not included.
+     */
+    public String getEnumValueFactoryConstructorArguments() {
+        StringBuilder arguments = new StringBuilder();
+        int i = 0;
+        for (XEnumAttribute attribute : getAllAttributesWithField()) {
+            Class<?> parameterClass = attribute.isMultilingual() ? InternationalString.class : String.class;
+            arguments.append('(').append(addImport(parameterClass)).append(')');
+            arguments.append(getVarNameAttributeValues()).append(".get(").append(i).append("), "); //$NON-NLS-1$ //$NON-NLS-2$
+            i++;
+        }
+        return arguments.toString();
+    }
+
+    public String getVarNameEnumValueFactory() {
+        return "ENUM_VALUE_FACTORY";
+    }
+
+    public String getVarNameAttributeValues() {
+        return "attributeValues";
+    }
+
     public String getVarNameMessageHelper() {
         return "MESSAGE_HELPER";
     }
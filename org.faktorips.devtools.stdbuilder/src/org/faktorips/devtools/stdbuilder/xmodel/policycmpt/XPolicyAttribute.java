@@ -17,6 +17,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.osgi.util.NLS;
 import org.faktorips.codegen.DatatypeHelper;
 import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.codegen.PrimitiveDatatypeHelper;
 import org.faktorips.datatype.EnumDatatype;
 import org.faktorips.devtools.core.builder.naming.BuilderAspect;
 import org.faktorips.devtools.core.exception.CoreRuntimeException;
@@ -113,6 +114,37 @@ public class XPolicyAttribute extends XAttribute {
         }
     }
 
+    /**
+     * Returns <code>true</code> if an accessor is to be generated for this attribute. That is the
+     * case for all attributes except for constant attributes, which are read from their field. The
+     * getter of an overwritten attribute may be inherited from the supertype.
+     */
+    public boolean isGenerateAccessor() {
+        return !isConstant();
+    }
+
+    /**
+     * Returns <code>true</code> if the generated accessor of this attribute can set the value. That
+     * is the case for all attributes except for derived and constant attributes. Overwritten
+     * attributes use the setter inherited from the supertype.
+     */
+    public boolean isGenerateAccessorSetter() {
+        return !isDerived() && !isConstant();
+    }
+
+    /**
+     * Returns the name of the class the generated accessor casts a new value to before calling the
+     * setter. For primitive datatypes this is the wrapper class because an {@link Object} cannot
+     * be cast to a primitive type directly.
+     */
+    public String getJavaClassNameForAccessor() {
+        DatatypeHelper datatypeHelper = getDatatypeHelper();
+        if (datatypeHelper instanceof PrimitiveDatatypeHelper) {
+            return addImport(((PrimitiveDatatypeHelper)datatypeHelper).getWrapperTypeHelper().getJavaClassName());
+        }
+        return getJavaClassName();
+    }
+
     /**
      * Returns true for all attributes except for derived, constant and overridden attributes.
      */
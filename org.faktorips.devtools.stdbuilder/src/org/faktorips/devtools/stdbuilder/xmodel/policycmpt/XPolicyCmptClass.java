@@ -11,6 +11,7 @@
 package org.faktorips.devtools.stdbuilder.xmodel.policycmpt;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -403,6 +404,20 @@ public class XPolicyCmptClass extends XType {
         return getJavaNamingConvention().getMemberVarName("other" + StringUtils.capitalize(getName()));
     }
 
+    /**
+     * Returns the attributes that get an accessor in this class. The index of an attribute in the
+     * list identifies the attribute in the generated accessor class.
+     */
+    public List<XPolicyAttribute> getAttributesWithAccessor() {
+        List<XPolicyAttribute> result = new ArrayList<XPolicyAttribute>();
+        for (XPolicyAttribute attribute : getAttributes()) {
+            if (attribute.isGenerateAccessor()) {
+                result.add(attribute);
+            }
+        }
+        return result;
+    }
+
     public Set<XPolicyAttribute> getAttributesToCopy() {
         Set<XPolicyAttribute> resultingSet = new LinkedHashSet<XPolicyAttribute>();
         for (XPolicyAttribute attribute : getAttributes()) {
@@ -10,6 +10,7 @@
 
 package org.faktorips.devtools.stdbuilder.xmodel.productcmpt;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -106,6 +107,14 @@ public abstract class XProductClass extends XType {
         return result;
     }
 
+    /**
+     * Returns the attributes that get an accessor in this class. The index of an attribute in the
+     * list identifies the attribute in the generated accessor class.
+     */
+    public List<XProductAttribute> getAttributesWithAccessor() {
+        return new ArrayList<XProductAttribute>(getAttributes());
+    }
+
     public Set<XProductAttribute> getAttributesInclOverwritten() {
         if (isCached(XProductAttribute.class)) {
             return getCachedObjects(XProductAttribute.class);
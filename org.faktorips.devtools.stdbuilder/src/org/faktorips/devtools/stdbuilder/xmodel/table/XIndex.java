@@ -33,6 +33,7 @@ import org.faktorips.runtime.internal.tableindex.KeyStructure;
 import org.faktorips.runtime.internal.tableindex.RangeStructure;
 import org.faktorips.runtime.internal.tableindex.RangeType;
 import org.faktorips.runtime.internal.tableindex.ResultStructure;
+import org.faktorips.runtime.internal.tableindex.SearchStructure;
 import org.faktorips.runtime.internal.tableindex.TwoColumnRangeStructure;
 import org.faktorips.runtime.internal.tableindex.UniqueResultStructure;
 
@@ -116,6 +117,15 @@ public class XIndex extends AbstractGeneratorModelNode {
         return "key" + indexInList + FIELD_NAME_SEARCHSTRUCTURE;
     }
 
+    /**
+     * Returns the name of the method initializing the search structure of this index. The method
+     * is only generated if the table has more than one index, so the indices can be initialized in
+     * parallel.
+     */
+    public String getMethodNameInitKeySearchStructure() {
+        return "init" + StringUtils.capitalize(getKeySearchStructureName());
+    }
+
     public List<String> getRangeKeyNames() {
         return rangeKeyNames;
     }
@@ -124,6 +134,18 @@ public class XIndex extends AbstractGeneratorModelNode {
         return StringUtils.join(columnKeyNames, ",");
     }
 
+    /**
+     * @return the column key names accessing the element <code>i</code> of the arrays given to the
+     *         method searching the rows for many keys at once
+     */
+    public String getColumnKeyArrayElements() {
+        List<String> elements = new ArrayList<String>();
+        for (String columnKeyName : columnKeyNames) {
+            elements.add(columnKeyName + "[i]");
+        }
+        return StringUtils.join(elements, ",");
+    }
+
     public List<XColumn> getColumnKeys() {
         return columnKeys;
     }
@@ -235,6 +257,29 @@ public class XIndex extends AbstractGeneratorModelNode {
         }
     }
 
+    /**
+     * Returns <code>true</code> if the search structure of this index is compacted after it is
+     * initialized.
+     * 
+     * @see SearchStructure#compact()
+     */
+    public boolean isCompactIndex() {
+        return getGeneratorConfig().isCompactTableIndices();
+    }
+
+    /**
+     * Returns the class of the field holding the search structure of this index. If the index is
+     * compacted it is the {@link SearchStructure} interface, otherwise it is the
+     * {@link #getStructureClass() structure class}.
+     */
+    public String getFieldClass() {
+        if (isCompactIndex()) {
+            return addImport(SearchStructure.class) + "<" + tableRowClass + ">";
+        } else {
+            return getStructureClass().toString();
+        }
+    }
+
     public boolean hasRangeKeysNotFirst() {
         return getRangeKeysNotFirst().size() > 0;
     }
@@ -337,6 +382,19 @@ public class XIndex extends AbstractGeneratorModelNode {
         return params;
     }
 
+    /**
+     * @return parameters for the method searching the rows for many keys at once: an array for
+     *         every parameter of the find row methods and the array receiving the found rows
+     */
+    public List<MethodParameter> getMethodParametersFindRowsInBatch() {
+        List<MethodParameter> params = new ArrayList<MethodParameter>();
+        for (MethodParameter param : getMethodParametersFindRow()) {
+            params.add(new MethodParameter(param.getType() + "[]", param.getName()));
+        }
+        params.add(new MethodParameter(tableRowClass + "[]", "results"));
+        return params;
+    }
+
     public String getFindExistingRowExceptionMessage() {
         StringBuilder text = new StringBuilder();
         text.append("\"");
@@ -39,6 +39,7 @@ import org.faktorips.runtime.internal.Table;
 public class XTable extends XTableStructure {
 
     private static final String METHOD_NAME_SUFFIX_FOR_NULL_VALUE_ROW = "NullRowReturnedForEmtpyResult";
+    private static final String METHOD_NAME_SUFFIX_IN_BATCH = "InBatch";
     private static final String METHOD_NAME_FIND = "find";
     private static final String METHOD_NAME_EXISTING = "Existing";
     private static final String METHOD_NAME_ROW = "Row";
@@ -240,6 +241,15 @@ public class XTable extends XTableStructure {
         return METHOD_NAME_FIND_ROW + buildMethodNameSuffix(index) + METHOD_NAME_SUFFIX_FOR_NULL_VALUE_ROW;
     }
 
+    /**
+     * 
+     * @param index that is needed for name's building of findRowsInBatch method
+     * @return name of the method searching the rows for many keys at once for given index
+     */
+    public String getMethodNameFindRowsInBatch(XIndex index) {
+        return METHOD_NAME_FIND_ROW + "s" + buildMethodNameSuffix(index) + METHOD_NAME_SUFFIX_IN_BATCH;
+    }
+
     /**
      * 
      * @param index that is needed for name's building of findExistingRow method
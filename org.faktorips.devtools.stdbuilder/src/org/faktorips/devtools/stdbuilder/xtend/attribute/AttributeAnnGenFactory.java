@@ -34,6 +34,9 @@ public class AttributeAnnGenFactory implements IAnnotationGeneratorFactory {
             case POLICY_CMPT_DECL_CLASS_ATTRIBUTE_SETTER:
             case PRODUCT_CMPT_DECL_CLASS_ATTRIBUTE_SETTER:
                 return new AttributeSetterAnnGen();
+            case POLICY_CMPT_IMPL_CLASS_ATTRIBUTE_ACCESSOR:
+            case PRODUCT_CMPT_IMPL_CLASS_ATTRIBUTE_ACCESSOR:
+                return new AttributeAccessorAnnGen();
             case POLICY_CMPT_DECL_CLASS_ATTRIBUTE_ALLOWED_VALUES:
             case PRODUCT_CMPT_DECL_CLASS_ATTRIBUTE_ALLOWED_VALUES:
                 return new AttributeAllowedValuesAnnGen();
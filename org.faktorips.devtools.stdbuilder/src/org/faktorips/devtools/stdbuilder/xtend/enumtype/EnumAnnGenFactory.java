@@ -28,6 +28,8 @@ public class EnumAnnGenFactory implements IAnnotationGeneratorFactory {
                 return new EnumDeclClassAnnGen();
             case ENUM_ATTRIBUTE_GETTER:
                 return new EnumAttributeAnnGen();
+            case ENUM_VALUE_FACTORY:
+                return new EnumValueFactoryAnnGen();
 
             default:
                 return null;
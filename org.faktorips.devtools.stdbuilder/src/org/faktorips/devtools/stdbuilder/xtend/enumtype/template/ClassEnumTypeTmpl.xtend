@@ -31,6 +31,7 @@ class ClassEnumTypeTmpl {
             «indexField»
             «fields»
             «constructors»
+            «enumValueFactory»
             «getters»
             «toString(it)»
             «equals(it)»
@@ -122,6 +123,22 @@ class ClassEnumTypeTmpl {
         }
     '''
 
+    def private static enumValueFactory(XEnumType it) '''
+        /**
+        * «localizedJDoc("FIELD_ENUM_VALUE_FACTORY", name)»
+        *
+        * @generated
+        */
+        «getAnnotations(ENUM_VALUE_FACTORY)»
+        public static final «IEnumValueFactory»<«name»> «varNameEnumValueFactory» = new «IEnumValueFactory»<«name»>() {
+
+            @Override
+            public «name» createEnumValue(int «varNameIndex», «List_("Object")» «varNameAttributeValues», «IRuntimeRepository» «varnameProductRepository») {
+                return new «name»(«varNameIndex», «enumValueFactoryConstructorArguments»«varnameProductRepository»);
+            }
+        };
+    '''
+
     def private static stringFieldInitializations(XEnumType it) '''
         this.«varNameIndex» = «varNameIndex»;
         «FOR it : allAttributesWithField»
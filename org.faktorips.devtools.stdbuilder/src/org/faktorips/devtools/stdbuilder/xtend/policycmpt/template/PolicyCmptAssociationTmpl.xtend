@@ -575,6 +575,18 @@ def package static validateDependents (XPolicyAssociation it) '''
     «ENDIF»
 '''
 
+def package static addDependantToValidate (XPolicyAssociation it) '''
+    «IF considerInValidateDependents»
+        «IF oneToMany»
+            dependants.addAll(«methodNameGetter»());
+        «ELSE»
+            if («fieldName» != null) {
+                dependants.add(«fieldName»);
+            }
+        «ENDIF»
+    «ENDIF»
+'''
+
 def package static createTargetFromXmlMethodCall (XPolicyAssociation it) '''
     «IF considerInCreateChildFromXML»
         if ("«name»".equals(childEl.getNodeName())) {
@@ -43,6 +43,16 @@ def package static constantField (XPolicyAttribute it) '''
     «ENDIF»
 '''
 
+def package static accessorField (XPolicyAttribute it, int index) '''
+    /**
+     * «localizedJDoc("FIELD_ACCESSOR", name)»
+     * «getAnnotations(AnnotatedJavaElementType.ELEMENT_JAVA_DOC)»
+     * @generated
+     */
+    «getAnnotations(AnnotatedJavaElementType.POLICY_CMPT_IMPL_CLASS_ATTRIBUTE_ACCESSOR)»
+    public static final «IAttributeAccessor» «field(constantNameAccessor)» = new AttributeAccessor(«index»);
+'''
+
 def package static memberField (XPolicyAttribute it) '''
     «IF generateField»
         /**
@@ -55,6 +55,10 @@ def static  String body (XPolicyCmptClass it) '''
             «ENDIF»
         «ENDFOR»
 
+        «FOR attribute : attributesWithAccessor»
+            «PolicyCmptAttributeTmpl.accessorField(attribute, attributesWithAccessor.indexOf(attribute))»
+        «ENDFOR»
+
         «IF generateSerializablePolicyCmptsSupport»
             /**
              * @generated
@@ -145,9 +149,67 @@ def static  String body (XPolicyCmptClass it) '''
                 «PolicyCmptCreateBuilderTmpl.with(true, policyBuilderModelNode)»
             «ENDIF»
         «ENDIF»
+
+        «IF !attributesWithAccessor.empty»
+            «attributeAccessorClass(it)»
+        «ENDIF»
         }
 '''
 
+def private static attributeAccessorClass (XPolicyCmptClass it) '''
+    /**
+     * «localizedJDoc("CLASS_ATTRIBUTE_ACCESSOR")»
+     *
+     * @generated
+     */
+    private static final class AttributeAccessor implements «IAttributeAccessor» {
+
+        private final int index;
+
+        private AttributeAccessor(int index) {
+            this.index = index;
+        }
+
+        /**
+         * «inheritDoc»
+         *
+         * @generated
+         */
+        @Override
+        public Object getValue(Object source) {
+            switch (index) {
+                «FOR attribute : attributesWithAccessor»
+                    case «attributesWithAccessor.indexOf(attribute)»:
+                        return ((«implClassName»)source).«attribute.methodNameGetter»();
+                «ENDFOR»
+                default:
+                    throw new IllegalStateException("Unknown attribute index " + index);
+            }
+        }
+
+        /**
+         * «inheritDoc»
+         *
+         * @generated
+         */
+        @Override
+        public void setValue(Object target, Object value) {
+            switch (index) {
+                «FOR attribute : attributesWithAccessor»
+                    «IF attribute.generateAccessorSetter»
+                        case «attributesWithAccessor.indexOf(attribute)»:
+                            ((«implClassName»)target).«attribute.methodNameSetter»((«attribute.javaClassNameForAccessor»)value);
+                            break;
+                    «ENDIF»
+                «ENDFOR»
+                default:
+                    throw new UnsupportedOperationException("The attribute with index " + index + " can not be set");
+            }
+        }
+
+    }
+'''
+
 def private static  initializeAttributes(String methodNameGetProductConfiguration, boolean changingOverTime, XPolicyCmptClass it) '''
     «IF isGenerateAttributeInitCode(changingOverTime)»
         if («methodNameGetProductConfiguration»() != null) {
@@ -529,6 +591,25 @@ def private static  validateMethods (XPolicyCmptClass it) '''
         super.«validateDependants("ml", "context")»;
         «FOR it : associations» «PolicyCmptAssociationTmpl.validateDependents(it)» «ENDFOR»
     }
+
+    /**
+     * «localizedJDoc("GET_DEPENDANTS_TO_VALIDATE")»
+     *
+     * @generated
+     */
+    @Override
+    protected «List_(IModelObject())» «getDependantsToValidate()» {
+        «IF hasSupertype()»
+            «List_(IModelObject())» dependants = super.«getDependantsToValidate()»;
+            if (dependants == null) {
+                return null;
+            }
+        «ELSE»
+            «List_(IModelObject())» dependants = new «ArrayList(IModelObject())»();
+        «ENDIF»
+        «FOR it : associations» «PolicyCmptAssociationTmpl.addDependantToValidate(it)» «ENDFOR»
+        return dependants;
+    }
 '''
 
 }
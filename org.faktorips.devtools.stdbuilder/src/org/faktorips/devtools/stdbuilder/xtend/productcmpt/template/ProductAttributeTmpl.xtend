@@ -22,6 +22,16 @@ class ProductAttributeTmpl {
             public static final String «field(constantNamePropertyName)» = "«name»";
     '''
 
+    def package static accessorField (XProductAttribute it, int index) '''
+            /**
+             * «localizedJDoc("FIELD_ACCESSOR", name)»
+             * «getAnnotations(ELEMENT_JAVA_DOC)»
+             * @generated
+             */
+            «getAnnotations(PRODUCT_CMPT_IMPL_CLASS_ATTRIBUTE_ACCESSOR)»
+            public static final «IAttributeAccessor» «field(constantNameAccessor)» = new AttributeAccessor(«index»);
+    '''
+
     def package static memberField (XProductAttribute it) '''
             /**
              * «localizedJDoc("FIELD_VALUE", name.toFirstUpper)»
@@ -73,4 +73,56 @@ class ProductCommonsTmpl {
             «ENDIF»
         «ENDIF»
     '''
-}
\ No newline at end of file
+
+    def package static attributeAccessorFields (XProductClass it) '''
+        «FOR attribute : attributesWithAccessor»
+            «accessorField(attribute, attributesWithAccessor.indexOf(attribute))»
+        «ENDFOR»
+    '''
+
+    def package static attributeAccessorClass (XProductClass it) '''
+        «IF !attributesWithAccessor.empty»
+            /**
+             * «localizedJDoc("CLASS_ATTRIBUTE_ACCESSOR")»
+             *
+             * @generated
+             */
+            private static final class AttributeAccessor implements «IAttributeAccessor» {
+
+                private final int index;
+
+                private AttributeAccessor(int index) {
+                    this.index = index;
+                }
+
+                /**
+                 * «inheritDoc»
+                 *
+                 * @generated
+                 */
+                @Override
+                public Object getValue(Object source) {
+                    switch (index) {
+                        «FOR attribute : attributesWithAccessor»
+                            case «attributesWithAccessor.indexOf(attribute)»:
+                                return ((«implClassName»)source).«attribute.methodNameGetter»();
+                        «ENDFOR»
+                        default:
+                            throw new IllegalStateException("Unknown attribute index " + index);
+                    }
+                }
+
+                /**
+                 * «inheritDoc»
+                 *
+                 * @generated
+                 */
+                @Override
+                public void setValue(Object target, Object value) {
+                    throw new UnsupportedOperationException("The attributes of a product component can not be set");
+                }
+
+            }
+        «ENDIF»
+    '''
+}
@@ -50,6 +50,8 @@ class ProductComponentGenTmpl {
                      «ENDIF»
                  «ENDFOR»
 
+                «attributeAccessorFields»
+
                 «FOR it : attributes» «memberField» «ENDFOR»
                 «FOR it : configuredAttributes» «defaultAndAllowedValuesFields» «ENDFOR»
 
@@ -162,6 +164,8 @@ class ProductComponentGenTmpl {
 
                 «FOR it : tables» «getterAndSetter» «ENDFOR»
 
+                «attributeAccessorClass»
+
     «««            «IF generateProductBuilder && !abstract»
     «««                «ProductCmptGenCreateBuilder.builder(productGenBuilderModelNode)»
     «««            «ENDIF»
@@ -47,6 +47,8 @@ class ProductComponentTmpl {
                  «ENDIF»
              «ENDFOR»
 
+             «attributeAccessorFields»
+
              «FOR it : attributes» «memberField» «ENDFOR»
 
              «FOR it : configuredAttributes» «defaultAndAllowedValuesFields» «ENDFOR»
@@ -177,6 +179,8 @@ class ProductComponentTmpl {
                         «with(true, productBuilderModelNode)»
                     «ENDIF»
                 «ENDIF»
+
+                «attributeAccessorClass»
             }
     '''
 
@@ -27,6 +27,7 @@ class TableTmpl {
 
             «constructors»
             «addRow»
+            «createRow»
 
             «initKeyMaps»
 
@@ -48,7 +49,7 @@ class TableTmpl {
         * «getAnnotations(ELEMENT_JAVA_DOC)»
         * @generated
         */
-        private «structureClass» «keySearchStructureName»;
+        private «fieldClass» «keySearchStructureName»;
     '''
 
     def private static  constructors(XTable it) '''
@@ -83,12 +84,24 @@ class TableTmpl {
         */
         @Override
         protected void addRow(«List_("String")» values, «IRuntimeRepository()» productRepository) {
+            rows.add(createRow(values, productRepository));
+        }
+    '''
+
+    def private static  createRow(XTable it) '''
+        /**
+        * «localizedJDoc("METHOD_CREATE_ROW")»
+        *
+        * @generated
+        */
+        @Override
+        protected «tableRowName» createRow(«List_("String")» values, «IRuntimeRepository()» productRepository) {
             «IF validColumns.size > 0»
                     String «FOR it : validColumns.indexed» columnValue = values.get(«key»);
                     «value.datatypeName» «value.attributeName» = «value.getNewInstanceFromExpression("columnValue", "productRepository")»;
                 «ENDFOR»
             «ENDIF»
-            rows.add(new «tableRowName» («columnNames»));
+            return new «tableRowName» («columnNames»);
         }
     '''
 
@@ -100,17 +113,55 @@ class TableTmpl {
         */
         @Override
         protected final void «method("initKeyMaps")»{
-            «IF hasIndices»
+            «IF indexModelNodes.size > 1»
+                initKeyMapsInParallel(
+                    «FOR it : indexModelNodes SEPARATOR ","»
+                        new Runnable() {
+
+                            @Override
+                            public void run() {
+                                «methodNameInitKeySearchStructure»();
+                            }
+                        }
+                    «ENDFOR»
+                );
+            «ELSEIF hasIndices»
                 «FOR node : indexModelNodes» «keyMapInitialization(node)» «ENDFOR»
                 for(«tableRowName» row : rows){
                         «FOR it : indexModelNodes » «forLoop» «ENDFOR»
                 }
+                «FOR it : indexModelNodes» «compaction» «ENDFOR»
             «ENDIF»
         }
+
+        «IF indexModelNodes.size > 1»
+            «FOR node : indexModelNodes» «initKeySearchStructure(node)» «ENDFOR»
+        «ENDIF»
+    '''
+
+    def private static  initKeySearchStructure(XTable table, XIndex it) '''
+        /**
+        * «localizedJDoc("METHOD_INIT_KEY_SEARCH_STRUCTURE")»
+        *
+        * @generated
+        */
+        private void «method(methodNameInitKeySearchStructure)»{
+            «keyMapInitialization(table, it)»
+            for(«table.tableRowName» row : rows){
+                «forLoop»
+            }
+            «compaction»
+        }
     '''
 
     def private static  keyMapInitialization(XTable table, XIndex it) '''
-        «keySearchStructureName» = «structureClass.genericClass».«structureClass.paramsWithBracket()» create(«rangeStructureParameter»);
+        «IF compactIndex»«structureClass» «ENDIF»«keySearchStructureName» = «structureClass.genericClass».«structureClass.paramsWithBracket()» create(«rangeStructureParameter»);
+    '''
+
+    def private static compaction(XIndex it) '''
+        «IF compactIndex»
+            this.«keySearchStructureName» = «keySearchStructureName».compact();
+        «ENDIF»
     '''
 
     def private static forLoop(XIndex it) '''
@@ -180,6 +231,7 @@ class TableTmpl {
         «IF uniqueKey»
             «findRowNullRowReturnedForEmtpyResult(table, it)»
             «findExistingRow(table, it)»
+            «findRowsInBatch(table, it)»
         «ENDIF»
     '''
 
@@ -225,6 +277,23 @@ class TableTmpl {
         }
     '''
 
+    def private static  findRowsInBatch(XTable table, XIndex it) '''
+        /**
+        * «localizedJDoc("METHOD_FIND_ROWS_IN_BATCH")»
+        * «getAnnotations(ELEMENT_JAVA_DOC)»
+        * @generated
+        */
+        public void «method(table.getMethodNameFindRowsInBatch(it), methodParametersFindRowsInBatch)»{
+            «IF hasColumnKeys()»
+                «classOrTypeName»[] keys = new «classOrTypeName»[results.length];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = new «classOrTypeName»(«columnKeyArrayElements»);
+                }
+            «ENDIF»
+            «BatchSearch()».getUnique(«keySearchStructureName», results, null«IF hasColumnKeys()», keys«ENDIF»«FOR rangeName : rangeKeyNames», «rangeName»«ENDFOR»);
+        }
+    '''
+
     def private static  findRowMethodPart(XIndex it) '''
         return «keySearchStructureName»
         «IF hasColumnKeys()».get(new «classOrTypeName» («columnKeyNames»))
@@ -42,6 +42,7 @@ import org.faktorips.runtime.ObjectProperty
 import org.faktorips.runtime.internal.AbstractModelObject
 import org.faktorips.runtime.internal.DateTime
 import org.faktorips.runtime.internal.EnumValues
+import org.faktorips.runtime.internal.IEnumValueFactory
 import org.faktorips.runtime.internal.IXmlPersistenceSupport
 import org.faktorips.runtime.internal.ModelObjectDelta
 import org.faktorips.runtime.internal.MultiValueXmlHelper
@@ -50,7 +51,9 @@ import org.faktorips.runtime.internal.ProductConfiguration
 import org.faktorips.runtime.internal.Table
 import org.faktorips.runtime.internal.ValueToXmlHelper
 import org.faktorips.runtime.internal.XmlCallback
+import org.faktorips.runtime.internal.tableindex.BatchSearch
 import org.faktorips.runtime.jaxb.ProductConfigurationXmlAdapter
+import org.faktorips.runtime.model.type.IAttributeAccessor
 import org.faktorips.runtime.util.MessagesHelper
 import org.faktorips.values.DefaultInternationalString
 import org.faktorips.values.InternationalString
@@ -74,6 +77,8 @@ class ClassNames {
 
     def static IModelObject(AbstractGeneratorModelNode it) { addImport(typeof(IModelObject)) }
 
+    def static IAttributeAccessor(AbstractGeneratorModelNode it) { addImport(typeof(IAttributeAccessor)) }
+
     def static IModelObjectDelta(AbstractGeneratorModelNode it) { addImport(typeof(IModelObjectDelta)) }
 
     def static IModelObjectVisitor(AbstractGeneratorModelNode it) { addImport(typeof(IModelObjectVisitor)) }
@@ -183,6 +188,8 @@ class ClassNames {
 
     def static TimeZone(AbstractGeneratorModelNode it) { addImport(typeof(TimeZone)) }
 
+    def static IEnumValueFactory(AbstractGeneratorModelNode it) { addImport(typeof(IEnumValueFactory)) }
+
     def static IXmlPersistenceSupport(AbstractGeneratorModelNode it) { addImport(typeof(IXmlPersistenceSupport)) }
 
     def static ValueToXmlHelper(AbstractGeneratorModelNode it) { addImport(typeof(ValueToXmlHelper)) }
@@ -229,6 +236,8 @@ class ClassNames {
         addImport(Table.name) + "<" + genericType + ">"
     }
 
+    def static BatchSearch(AbstractGeneratorModelNode it) { addImport(typeof(BatchSearch)) }
+
     def static MessagesHelper(AbstractGeneratorModelNode it) { addImport(typeof(MessagesHelper)) }
 
     // EXECPTIONS
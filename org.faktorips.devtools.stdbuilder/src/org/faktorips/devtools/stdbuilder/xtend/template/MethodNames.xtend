@@ -110,6 +110,8 @@ class MethodNames {
 
     def static validateDependants(String argument1, String argument2) {     "validateDependants("+argument1+", "+argument2+")"    }
 
+    def static getDependantsToValidate() {     "getDependantsToValidate()"    }
+
     // ---------------------------------
     // Methods in IRuntimeRepository
     // ---------------------------------
@@ -22,6 +22,12 @@ import org.apache.poi.hssf.usermodel.HSSFCellStyle;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.faktorips.devtools.core.model.ipsobject.IpsObjectType;
 import org.faktorips.devtools.core.model.ipsproject.IIpsProject;
@@ -120,6 +126,23 @@ public class ExcelTableImportOperationTest extends AbstractTableTest {
         assertRow(row2, importTarget.getRow(2));
     }
 
+    @Test
+    public void testImportValid_OfficeOpenXml() throws Exception {
+        MessageList ml = new MessageList();
+        structure = createTableStructure(ipsProject);
+        createValid(new XSSFWorkbook());
+        ExcelTableImportOperation op = new ExcelTableImportOperation(structure, file.getName(), importTarget, format,
+                "NULL", true, ml, true);
+        op.run(new NullProgressMonitor());
+        assertTrue(ml.isEmpty());
+        assertEquals(3, importTarget.getRows().length);
+        String[] row0 = new String[] { "true", "12.3", "1.79769313486231E308", "1970-01-01", "2147483647",
+                "922337203685477000", "123.45 EUR", "einfacher text" };
+        assertRow(row0, importTarget.getRow(0));
+        String[] row2 = new String[] { null, null, null, null, null, null, null, null };
+        assertRow(row2, importTarget.getRow(2));
+    }
+
     @Test
     public void testImportFirstRowContainsNoColumnHeader() throws Exception {
         MessageList ml = new MessageList();
@@ -210,21 +233,24 @@ public class ExcelTableImportOperationTest extends AbstractTableTest {
     }
 
     private void createValid() throws Exception {
-        HSSFWorkbook wb = new HSSFWorkbook();
-        HSSFSheet sheet = wb.createSheet();
+        createValid(new HSSFWorkbook());
+    }
+
+    private void createValid(Workbook wb) throws Exception {
+        Sheet sheet = wb.createSheet();
 
         sheet.createRow(0); // header
-        HSSFRow row1 = sheet.createRow(1);
-        HSSFRow row2 = sheet.createRow(2);
-        HSSFRow row3 = sheet.createRow(3);
+        Row row1 = sheet.createRow(1);
+        Row row2 = sheet.createRow(2);
+        Row row3 = sheet.createRow(3);
 
-        HSSFCellStyle dateStyle = wb.createCellStyle();
+        CellStyle dateStyle = wb.createCellStyle();
         dateStyle.setDataFormat((short)27);
 
         row1.createCell(0).setCellValue(true);
         row1.createCell(1).setCellValue(12.3);
         row1.createCell(2).setCellValue(1.79769313486231E308);
-        HSSFCell cell = row1.createCell(3);
+        Cell cell = row1.createCell(3);
         cell.setCellValue(new GregorianCalendar(2001, 03, 26).getTime());
         cell.setCellStyle(dateStyle);
         row1.createCell(4).setCellValue(Integer.MAX_VALUE);
@@ -23,7 +23,6 @@ import org.eclipse.osgi.util.NLS;
 import org.faktorips.datatype.Datatype;
 import org.faktorips.devtools.core.IpsPlugin;
 import org.faktorips.devtools.core.IpsStatus;
-import org.faktorips.devtools.core.model.tablecontents.IRow;
 import org.faktorips.devtools.core.model.tablecontents.ITableRows;
 import org.faktorips.devtools.core.model.tablestructure.IColumn;
 import org.faktorips.devtools.core.model.tablestructure.ITableStructure;
@@ -138,8 +137,8 @@ public class CSVTableImportOperation extends AbstractTableImportOperation {
                     messageList.add(new Message("", msg, Message.ERROR)); //$NON-NLS-1$
                 }
 
-                IRow genRow = targetGeneration.newRow();
-                for (short j = 0; j < Math.min(structure.getNumOfColumns(), readLine.length); j++) {
+                String[] rowValues = new String[expectedFields];
+                for (short j = 0; j < Math.min(expectedFields, readLine.length); j++) {
                     String ipsValue = null;
 
                     String tableField = readLine[j];
@@ -159,10 +158,12 @@ public class CSVTableImportOperation extends AbstractTableImportOperation {
                         messageList.add(new Message("", msg, Message.WARNING)); //$NON-NLS-1$
 
                     }
-                    genRow.setValue(j, ipsValue);
+                    rowValues[j] = ipsValue;
                 }
+                addRow(targetGeneration, rowValues);
                 ++rowNumber;
             }
+            flushRows(targetGeneration);
         } finally {
             try {
                 reader.close();
@@ -79,18 +79,32 @@ public abstract class AbstractExcelImportOperation extends AbstractTableImportOp
                 }
                 return format.getIpsValue(dateCellValue, datatype, messageList);
             }
-            double numericCellValue = cell.getNumericCellValue();
-            BigDecimal roundedResult = roundNumericCellValue(numericCellValue);
-            return format.getIpsValue(roundedResult, datatype, messageList);
+            return readValue(Double.valueOf(cell.getNumericCellValue()), datatype);
         } else if (cell.getCellType() == Cell.CELL_TYPE_BOOLEAN) {
-            return format.getIpsValue(Boolean.valueOf(cell.getBooleanCellValue()), datatype, messageList);
+            return readValue(Boolean.valueOf(cell.getBooleanCellValue()), datatype);
         } else {
-            String value = cell.getStringCellValue();
-            if (nullRepresentationString.equals(value)) {
-                return null;
-            }
-            return format.getIpsValue(value, datatype, messageList);
+            return readValue(cell.getStringCellValue(), datatype);
+        }
+    }
+
+    /**
+     * Converts the given value of a cell to the IPS value of the given datatype. Numeric values
+     * (given as {@link Double}) are rounded like Excel does, a string that equals the null
+     * representation string is converted to <code>null</code>.
+     * 
+     * @param value the value of the cell, a {@link Double}, {@link Date}, {@link Boolean} or
+     *            {@link String} as provided by {@link XlsxSheetReader}
+     * @param datatype the datatype of the column the cell belongs to
+     */
+    protected String readValue(Object value, Datatype datatype) {
+        if (value instanceof Double) {
+            BigDecimal roundedResult = roundNumericCellValue(((Double)value).doubleValue());
+            return format.getIpsValue(roundedResult, datatype, messageList);
+        }
+        if (nullRepresentationString.equals(value)) {
+            return null;
         }
+        return format.getIpsValue(value, datatype, messageList);
     }
 
     /**
@@ -10,7 +10,10 @@
 
 package org.faktorips.devtools.tableconversion.excel;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
@@ -23,7 +26,6 @@ import org.eclipse.osgi.util.NLS;
 import org.faktorips.datatype.Datatype;
 import org.faktorips.devtools.core.IpsPlugin;
 import org.faktorips.devtools.core.IpsStatus;
-import org.faktorips.devtools.core.model.tablecontents.IRow;
 import org.faktorips.devtools.core.model.tablecontents.ITableRows;
 import org.faktorips.devtools.core.model.tablecontents.Messages;
 import org.faktorips.devtools.core.model.tablestructure.IColumn;
@@ -76,14 +78,22 @@ public class ExcelTableImportOperation extends AbstractExcelImportOperation {
             monitor = monitorParameter;
         }
         try {
-            initWorkbookAndSheet();
+            boolean officeOpenXml = isOfficeOpenXml();
+            if (!officeOpenXml) {
+                initWorkbookAndSheet();
+            }
             monitor.beginTask(Messages.ExcelTableImportOperation_labelImportFile + sourceFile,
                     targetGeneration.getNumOfRows() + 2);
 
             // Update datatypes because the structure might be altered if this operation is reused.
             initDatatypes();
             monitor.worked(1);
-            fillGeneration(targetGeneration, getSheet(), monitor);
+            if (officeOpenXml) {
+                fillGeneration(targetGeneration, new XlsxSheetReader(sourceFile, structure.getNumOfColumns()),
+                        monitor);
+            } else {
+                fillGeneration(targetGeneration, getSheet(), monitor);
+            }
 
             if (monitor.isCanceled()) {
                 targetGeneration.getIpsObject().getIpsSrcFile().discardChanges();
@@ -97,6 +107,15 @@ public class ExcelTableImportOperation extends AbstractExcelImportOperation {
         }
     }
 
+    private boolean isOfficeOpenXml() throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(sourceFile));
+        try {
+            return XlsxSheetReader.isOfficeOpenXml(in);
+        } finally {
+            in.close();
+        }
+    }
+
     private void fillGeneration(ITableRows generation, Sheet sheet, IProgressMonitor monitor) {
         // Row 0 is the header if ignoreColumnHeaderRow is true, otherwise row 0 contains data.
         int startRow = ignoreColumnHeaderRow ? 1 : 0;
@@ -109,26 +128,79 @@ public class ExcelTableImportOperation extends AbstractExcelImportOperation {
             writeRow(sheetRow, i, generation);
 
             if (monitor.isCanceled()) {
-                return;
+                break;
             }
             monitor.worked(1);
         }
+        flushRows(generation);
+    }
+
+    /**
+     * Reads the rows of an Office Open XML workbook without loading the whole workbook, so that
+     * even huge tables can be imported. Like {@link #fillGeneration(ITableRows, Sheet,
+     * IProgressMonitor)} the import stops at the first row that does not exist.
+     */
+    private void fillGeneration(final ITableRows generation,
+            XlsxSheetReader sheetReader,
+            final IProgressMonitor monitor) throws IOException {
+        // Row 0 is the header if ignoreColumnHeaderRow is true, otherwise row 0 contains data.
+        final int startRow = ignoreColumnHeaderRow ? 1 : 0;
+        sheetReader.read(new XlsxSheetReader.RowHandler() {
+
+            private int nextRow = startRow;
+
+            @Override
+            public boolean handleRow(int rowIndex, Object[] values) {
+                if (rowIndex < startRow) {
+                    return true;
+                }
+                if (rowIndex != nextRow) {
+                    // No more rows, we are finished with this sheet.
+                    return false;
+                }
+                writeRow(values, rowIndex, generation);
+                nextRow++;
+                if (monitor.isCanceled()) {
+                    return false;
+                }
+                monitor.worked(1);
+                return true;
+            }
+
+        });
+        flushRows(generation);
     }
 
     private void writeRow(Row sheetRow, int rowIndex, ITableRows generation) {
-        IRow genRow = generation.newRow();
+        String[] rowValues = new String[structure.getNumOfColumns()];
         for (int j = 0; j < structure.getNumOfColumns(); j++) {
             Cell cell = sheetRow.getCell(j);
             if (cell == null) {
-                if (StringUtils.isNotEmpty(nullRepresentationString)) {
-                    String msg = NLS.bind(Messages.ExcelTableImportOperation_msgImportEscapevalue, new Object[] {
-                            rowIndex, j, IpsPlugin.getDefault().getIpsPreferences().getNullPresentation() });
-                    messageList.add(new Message("", msg, Message.WARNING)); //$NON-NLS-1$
-                }
-                genRow.setValue(j, null);
+                addMissingValueWarning(rowIndex, j);
             } else {
-                genRow.setValue(j, readCell(cell, datatypes[j]));
+                rowValues[j] = readCell(cell, datatypes[j]);
             }
         }
+        addRow(generation, rowValues);
+    }
+
+    private void writeRow(Object[] values, int rowIndex, ITableRows generation) {
+        String[] rowValues = new String[structure.getNumOfColumns()];
+        for (int j = 0; j < structure.getNumOfColumns(); j++) {
+            if (values[j] == null) {
+                addMissingValueWarning(rowIndex, j);
+            } else {
+                rowValues[j] = readValue(values[j], datatypes[j]);
+            }
+        }
+        addRow(generation, rowValues);
+    }
+
+    private void addMissingValueWarning(int rowIndex, int columnIndex) {
+        if (StringUtils.isNotEmpty(nullRepresentationString)) {
+            String msg = NLS.bind(Messages.ExcelTableImportOperation_msgImportEscapevalue, new Object[] { rowIndex,
+                    columnIndex, IpsPlugin.getDefault().getIpsPreferences().getNullPresentation() });
+            messageList.add(new Message("", msg, Message.WARNING)); //$NON-NLS-1$
+        }
     }
 }
@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.tableconversion.excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.POIXMLDocument;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads the first sheet of an Office Open XML workbook (.xlsx) row by row. In contrast to
+ * {@link WorkbookFactory}, which creates an object for every row and cell of the whole workbook,
+ * the XML of the sheet is parsed with a SAX parser and only the values of the current row are kept
+ * in memory. Only the shared strings of the workbook are read completely.
+ * <p>
+ * The values of the cells are passed to a {@link RowHandler} as the same types the cells of a
+ * workbook provide: numeric values as {@link Double}, numeric values with a date format as
+ * {@link java.util.Date}, boolean values as {@link Boolean} and all other values as
+ * {@link String}. Empty cells are read as empty string, the value of a cell that does not exist is
+ * <code>null</code>.
+ */
+public class XlsxSheetReader {
+
+    private static final String ELEMENT_ROW = "row"; //$NON-NLS-1$
+    private static final String ELEMENT_CELL = "c"; //$NON-NLS-1$
+    private static final String ELEMENT_VALUE = "v"; //$NON-NLS-1$
+    private static final String ELEMENT_INLINE_STRING = "is"; //$NON-NLS-1$
+    private static final String ELEMENT_TEXT = "t"; //$NON-NLS-1$
+    private static final String ELEMENT_WORKBOOK_PROPERTIES = "workbookPr"; //$NON-NLS-1$
+
+    private static final String ATTRIBUTE_REFERENCE = "r"; //$NON-NLS-1$
+    private static final String ATTRIBUTE_TYPE = "t"; //$NON-NLS-1$
+    private static final String ATTRIBUTE_STYLE = "s"; //$NON-NLS-1$
+    private static final String ATTRIBUTE_DATE1904 = "date1904"; //$NON-NLS-1$
+
+    private static final String TYPE_SHARED_STRING = "s"; //$NON-NLS-1$
+    private static final String TYPE_INLINE_STRING = "inlineStr"; //$NON-NLS-1$
+    private static final String TYPE_FORMULA_STRING = "str"; //$NON-NLS-1$
+    private static final String TYPE_BOOLEAN = "b"; //$NON-NLS-1$
+    private static final String TYPE_ERROR = "e"; //$NON-NLS-1$
+
+    /**
+     * The workbook files are provided by the user, so the parsers created by this factory neither
+     * read document type definitions nor resolve external entities. Creating a factory is
+     * expensive, so all readers share one factory.
+     */
+    private static final SAXParserFactory SAX_PARSER_FACTORY = createSaxParserFactory();
+
+    private final String fileName;
+
+    private final int numOfColumns;
+
+    /**
+     * @param fileName the name of the workbook file
+     * @param numOfColumns the number of columns that are read, the values of all other columns
+     *            are ignored
+     */
+    public XlsxSheetReader(String fileName, int numOfColumns) {
+        this.fileName = fileName;
+        this.numOfColumns = numOfColumns;
+    }
+
+    /**
+     * Returns <code>true</code> if the given stream contains an Office Open XML document and
+     * hence can be read by this reader, <code>false</code> if it contains e.g. an Excel 97-2003
+     * workbook (.xls). The stream must support {@link InputStream#mark(int)}.
+     */
+    public static boolean isOfficeOpenXml(InputStream in) throws IOException {
+        return POIXMLDocument.hasOOXMLHeader(in);
+    }
+
+    /**
+     * Reads the rows of the first sheet in the order they are stored in the workbook and passes
+     * them to the given handler. Rows that do not exist in the workbook are skipped, so the index
+     * of a row may be greater than the index of the previous row plus one.
+     * 
+     * @throws IOException if the file cannot be read or is not a valid workbook
+     */
+    public void read(RowHandler handler) throws IOException {
+        OPCPackage opcPackage = null;
+        try {
+            opcPackage = OPCPackage.open(fileName, PackageAccess.READ);
+            XSSFReader xssfReader = new XSSFReader(opcPackage);
+            boolean date1904 = isDate1904(xssfReader);
+            SheetHandler sheetHandler = new SheetHandler(new ReadOnlySharedStringsTable(opcPackage),
+                    xssfReader.getStylesTable(), date1904, handler);
+            InputStream sheet = xssfReader.getSheetsData().next();
+            try {
+                parse(sheet, sheetHandler);
+            } catch (StopReadingException e) {
+                // the handler does not need any further rows
+            } finally {
+                sheet.close();
+            }
+        } catch (OpenXML4JException e) {
+            throw new IOException(e);
+        } catch (SAXException e) {
+            throw new IOException(e);
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        } finally {
+            if (opcPackage != null) {
+                // closes the package without saving it
+                opcPackage.revert();
+            }
+        }
+    }
+
+    private boolean isDate1904(XSSFReader xssfReader) throws IOException, OpenXML4JException, SAXException,
+            ParserConfigurationException {
+        WorkbookPropertiesHandler workbookHandler = new WorkbookPropertiesHandler();
+        InputStream workbook = xssfReader.getWorkbookData();
+        try {
+            parse(workbook, workbookHandler);
+        } finally {
+            workbook.close();
+        }
+        return workbookHandler.date1904;
+    }
+
+    private static SAXParserFactory createSaxParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true); //$NON-NLS-1$
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false); //$NON-NLS-1$
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false); //$NON-NLS-1$
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false); //$NON-NLS-1$
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        } catch (SAXException e) {
+            throw new IllegalStateException(e);
+        }
+        return factory;
+    }
+
+    private void parse(InputStream in, DefaultHandler contentHandler) throws SAXException, IOException,
+            ParserConfigurationException {
+        SAXParser saxParser;
+        synchronized (SAX_PARSER_FACTORY) {
+            // the factory is not guaranteed to be thread safe
+            saxParser = SAX_PARSER_FACTORY.newSAXParser();
+        }
+        XMLReader xmlReader = saxParser.getXMLReader();
+        xmlReader.setContentHandler(contentHandler);
+        xmlReader.parse(new InputSource(in));
+    }
+
+    /**
+     * Receives the rows read by an {@link XlsxSheetReader}.
+     */
+    public interface RowHandler {
+
+        /**
+         * Handles the values of a row.
+         * 
+         * @param rowIndex the zero based index of the row in the sheet
+         * @param values the values of the columns of the row, the array is not reused for the next
+         *            row
+         * 
+         * @return <code>true</code> to continue reading, <code>false</code> to stop reading
+         */
+        public boolean handleRow(int rowIndex, Object[] values);
+
+    }
+
+    private static class StopReadingException extends SAXException {
+
+        private static final long serialVersionUID = 1L;
+
+    }
+
+    private static class WorkbookPropertiesHandler extends DefaultHandler {
+
+        private boolean date1904;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (ELEMENT_WORKBOOK_PROPERTIES.equals(localName)) {
+                String value = attributes.getValue(ATTRIBUTE_DATE1904);
+                date1904 = "1".equals(value) || "true".equals(value); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+
+    }
+
+    private class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+
+        private final StylesTable styles;
+
+        private final boolean date1904;
+
+        private final RowHandler rowHandler;
+
+        private final Map<Integer, Boolean> dateFormattedStyles = new HashMap<Integer, Boolean>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private Object[] values;
+
+        private int rowIndex = -1;
+
+        private int columnIndex;
+
+        private String cellType;
+
+        private String cellStyle;
+
+        private boolean readingText;
+
+        private boolean inInlineString;
+
+        public SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904,
+                RowHandler rowHandler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (ELEMENT_ROW.equals(localName)) {
+                String reference = attributes.getValue(ATTRIBUTE_REFERENCE);
+                rowIndex = reference == null ? rowIndex + 1 : Integer.parseInt(reference) - 1;
+                values = new Object[numOfColumns];
+                columnIndex = -1;
+            } else if (ELEMENT_CELL.equals(localName)) {
+                String reference = attributes.getValue(ATTRIBUTE_REFERENCE);
+                columnIndex = reference == null ? columnIndex + 1 : new CellReference(reference).getCol();
+                cellType = attributes.getValue(ATTRIBUTE_TYPE);
+                cellStyle = attributes.getValue(ATTRIBUTE_STYLE);
+                text.setLength(0);
+            } else if (ELEMENT_INLINE_STRING.equals(localName)) {
+                inInlineString = true;
+            } else if (ELEMENT_VALUE.equals(localName) || (inInlineString && ELEMENT_TEXT.equals(localName))) {
+                readingText = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (readingText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (ELEMENT_VALUE.equals(localName) || ELEMENT_TEXT.equals(localName)) {
+                readingText = false;
+            } else if (ELEMENT_INLINE_STRING.equals(localName)) {
+                inInlineString = false;
+            } else if (ELEMENT_CELL.equals(localName)) {
+                if (columnIndex < numOfColumns) {
+                    values[columnIndex] = getCellValue(text.toString());
+                }
+            } else if (ELEMENT_ROW.equals(localName)) {
+                if (!rowHandler.handleRow(rowIndex, values)) {
+                    throw new StopReadingException();
+                }
+            }
+        }
+
+        private Object getCellValue(String value) {
+            if (value.length() == 0 || TYPE_INLINE_STRING.equals(cellType) || TYPE_FORMULA_STRING.equals(cellType)
+                    || TYPE_ERROR.equals(cellType)) {
+                return value;
+            } else if (TYPE_SHARED_STRING.equals(cellType)) {
+                return sharedStrings.getEntryAt(Integer.parseInt(value));
+            } else if (TYPE_BOOLEAN.equals(cellType)) {
+                return Boolean.valueOf("1".equals(value)); //$NON-NLS-1$
+            } else {
+                double numericValue = Double.parseDouble(value);
+                if (isDateFormatted() && DateUtil.isValidExcelDate(numericValue)) {
+                    return DateUtil.getJavaDate(numericValue, date1904);
+                }
+                return Double.valueOf(numericValue);
+            }
+        }
+
+        private boolean isDateFormatted() {
+            if (cellStyle == null) {
+                return false;
+            }
+            Integer styleIndex = Integer.valueOf(cellStyle);
+            Boolean dateFormatted = dateFormattedStyles.get(styleIndex);
+            if (dateFormatted == null) {
+                XSSFCellStyle style = styles.getStyleAt(styleIndex.intValue());
+                dateFormatted = Boolean.valueOf(style != null
+                        && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString()));
+                dateFormattedStyles.put(styleIndex, dateFormatted);
+            }
+            return dateFormatted.booleanValue();
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.datatype.Datatype;
+import org.faktorips.fl.DefaultFunctionResolverTest.AbstractTestFlFunction;
+import org.junit.Test;
+
+public class FunctionIndexTest {
+
+    @Test
+    public void testGetFunctions() {
+        DefaultFunctionResolver<JavaCodeFragment> resolver = new DefaultFunctionResolver<JavaCodeFragment>();
+        AbstractTestFlFunction fct1 = new AbstractTestFlFunction("fct", Datatype.DECIMAL, new Datatype[0]);
+        AbstractTestFlFunction other = new AbstractTestFlFunction("other", Datatype.DECIMAL, new Datatype[0]);
+        AbstractTestFlFunction fct2 = new AbstractTestFlFunction("fct", Datatype.DECIMAL,
+                new Datatype[] { Datatype.DECIMAL });
+        resolver.add(fct1);
+        resolver.add(other);
+        resolver.add(fct2);
+
+        FunctionIndex<JavaCodeFragment> index = new FunctionIndex<JavaCodeFragment>(resolver);
+
+        assertEquals(2, index.getFunctions("fct").size());
+        assertSame(fct1, index.getFunctions("fct").get(0));
+        assertSame(fct2, index.getFunctions("fct").get(1));
+        assertEquals(1, index.getFunctions("other").size());
+        assertTrue(index.getFunctions("unknown").isEmpty());
+    }
+
+    @Test
+    public void testGetFunctions_FunctionWithoutName() {
+        AbstractTestFlFunction fct = new AbstractTestFlFunction("fct", Datatype.DECIMAL, new Datatype[0]);
+        AbstractTestFlFunction withoutName = new AbstractTestFlFunction(null, Datatype.DECIMAL, new Datatype[0]);
+        @SuppressWarnings("unchecked")
+        FlFunction<JavaCodeFragment>[] functions = new FlFunction[] { withoutName, fct };
+
+        FunctionIndex<JavaCodeFragment> index = new FunctionIndex<JavaCodeFragment>(functions);
+
+        assertEquals(2, index.getFunctions("fct").size());
+        assertSame(withoutName, index.getFunctions("fct").get(0));
+        assertSame(fct, index.getFunctions("fct").get(1));
+        assertEquals(1, index.getFunctions("unknown").size());
+    }
+
+}
@@ -22,6 +22,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.faktorips.codegen.BaseDatatypeHelper;
 import org.faktorips.codegen.CodeFragment;
@@ -164,6 +165,12 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     // list of function resolvers
     private List<FunctionResolver<T>> functionResolvers = new ArrayList<FunctionResolver<T>>(2);
 
+    // the indices of the function resolvers that do not provide their own index
+    private Map<FunctionResolver<T>, FunctionIndex<T>> functionIndices = new HashMap<FunctionResolver<T>, FunctionIndex<T>>();
+
+    // Map containing the functions of all resolvers and the ambiguous ones among them per name.
+    private Map<String, FunctionCandidates<T>> functionCandidates = new HashMap<String, FunctionCandidates<T>>();
+
     // ConversionCodeGenerator that defines the implizit datatype conversion performed
     // by the compiler and can generate the appropriate Java sourcecode.
     private ConversionCodeGenerator<T> conversionCg;
@@ -388,6 +395,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
         for (FlFunction<T> function : functions) {
             function.setCompiler(this);
         }
+        functionCandidates.clear();
     }
 
     /**
@@ -399,6 +407,20 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     public void remove(FunctionResolver<T> fctResolver) {
         ArgumentCheck.notNull(fctResolver);
         functionResolvers.remove(fctResolver);
+        functionsChanged(fctResolver);
+    }
+
+    /**
+     * Discards the indexed functions of the given resolver, the functions of the other resolvers
+     * are kept. This method must be called if the functions returned by an added resolver have
+     * changed. An {@link IndexedFunctionResolver} has to update its own index before.
+     * 
+     * @throws IllegalArgumentException if fctResolver is null.
+     */
+    public void functionsChanged(FunctionResolver<T> fctResolver) {
+        ArgumentCheck.notNull(fctResolver);
+        functionIndices.remove(fctResolver);
+        functionCandidates.clear();
     }
 
     /**
@@ -586,31 +608,59 @@ public abstract class ExprCompiler<T extends CodeFragment> {
             Datatype[] argTypes,
             String fctName) {
         FlFunction<T> function = null;
-        boolean functionFoundByName = false;
-        FlFunction<T>[] functions = getFunctions();
-        LinkedHashSet<FlFunction<T>> ambiguousFunctions = getAmbiguousFunctions(functions);
+        FunctionCandidates<T> candidates = getFunctionCandidates(fctName);
 
-        for (FlFunction<T> function2 : functions) {
+        for (FlFunction<T> function2 : candidates.functions) {
             if (function2.match(fctName, argTypes)) {
-                if (ambiguousFunctions.contains(function2)) {
+                if (candidates.ambiguousFunctions.contains(function2)) {
                     return createAmbiguousFunctionCompilationResultImpl(function2);
                 }
                 return function2.compile(argResults);
             } else if (function2.matchUsingConversion(fctName, argTypes, getConversionCodeGenerator())) {
                 function = function2;
-            } else if (!functionFoundByName && function2.getName().equals(fctName)) {
-                functionFoundByName = true;
             }
         }
 
         if (function != null) {
-            if (ambiguousFunctions.contains(function)) {
+            if (candidates.ambiguousFunctions.contains(function)) {
                 return createAmbiguousFunctionCompilationResultImpl(function);
             }
             return function.compile(convert(function, argResults));
         }
 
-        return createErrorCompilationResult(argResults, fctName, functionFoundByName);
+        return createErrorCompilationResult(argResults, fctName, !candidates.functions.isEmpty());
+    }
+
+    /**
+     * Returns the functions with the given name in the order of {@link #getFunctions()}. Only
+     * functions with the same name can be ambiguous, so the ambiguous functions are determined
+     * among them.
+     */
+    private FunctionCandidates<T> getFunctionCandidates(String fctName) {
+        FunctionCandidates<T> candidates = functionCandidates.get(fctName);
+        if (candidates == null) {
+            List<FlFunction<T>> functions = new ArrayList<FlFunction<T>>();
+            for (FunctionResolver<T> resolver : functionResolvers) {
+                functions.addAll(getFunctionIndex(resolver).getFunctions(fctName));
+            }
+            @SuppressWarnings("unchecked")
+            FlFunction<T>[] flFunctions = functions.toArray(new FlFunction[functions.size()]);
+            candidates = new FunctionCandidates<T>(functions, getAmbiguousFunctions(flFunctions));
+            functionCandidates.put(fctName, candidates);
+        }
+        return candidates;
+    }
+
+    private FunctionIndex<T> getFunctionIndex(FunctionResolver<T> resolver) {
+        if (resolver instanceof IndexedFunctionResolver) {
+            return ((IndexedFunctionResolver<T>)resolver).getFunctionIndex();
+        }
+        FunctionIndex<T> index = functionIndices.get(resolver);
+        if (index == null) {
+            index = new FunctionIndex<T>(resolver);
+            functionIndices.put(resolver, index);
+        }
+        return index;
     }
 
     public CompilationResult<T> getMatchingFunctionUsingConversionSingleArgument(AbstractCompilationResult<T> argResult,
@@ -736,6 +786,19 @@ public abstract class ExprCompiler<T extends CodeFragment> {
                 && getConversionCodeGenerator().canConvert(rhsResult.getDatatype(), operation2.getRhsDatatype());
     }
 
+    private static class FunctionCandidates<T extends CodeFragment> {
+
+        private final List<FlFunction<T>> functions;
+
+        private final Set<FlFunction<T>> ambiguousFunctions;
+
+        public FunctionCandidates(List<FlFunction<T>> functions, Set<FlFunction<T>> ambiguousFunctions) {
+            this.functions = functions;
+            this.ambiguousFunctions = ambiguousFunctions;
+        }
+
+    }
+
     private static class FunctionComparator implements Comparator<FlFunction<?>>, Serializable {
 
         /**
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.faktorips.codegen.CodeFragment;
+
+/**
+ * The functions of a {@link FunctionResolver} indexed by their names. Function calls can only match
+ * functions with the same name, so the compiler only has to check the few functions returned by
+ * {@link #getFunctions(String)} instead of all functions of the resolver. Functions without a name
+ * are returned for every name.
+ * <p>
+ * The index is created from the functions the resolver returns at the time of creation. It does
+ * not change afterwards.
+ *
+ * @param <T> a {@link CodeFragment} implementation for a specific target language
+ *
+ * @see IndexedFunctionResolver
+ */
+public class FunctionIndex<T extends CodeFragment> {
+
+    private final Map<String, List<FlFunction<T>>> functionsByName = new HashMap<String, List<FlFunction<T>>>();
+
+    /**
+     * All functions in the given order, only kept if there are functions without a name. These
+     * functions may match any name and hence are candidates for every call.
+     */
+    private final List<FlFunction<T>> allFunctions;
+
+    /**
+     * Creates an index of the given functions. The functions with the same name are kept in the
+     * given order.
+     */
+    public FunctionIndex(FlFunction<T>[] functions) {
+        boolean functionWithoutName = false;
+        for (FlFunction<T> function : functions) {
+            if (function.getName() == null) {
+                functionWithoutName = true;
+                continue;
+            }
+            List<FlFunction<T>> functionsWithName = functionsByName.get(function.getName());
+            if (functionsWithName == null) {
+                functionsWithName = new ArrayList<FlFunction<T>>(1);
+                functionsByName.put(function.getName(), functionsWithName);
+            }
+            functionsWithName.add(function);
+        }
+        allFunctions = functionWithoutName ? Arrays.asList(functions) : null;
+    }
+
+    /**
+     * Creates an index of the functions the given resolver returns.
+     */
+    public FunctionIndex(FunctionResolver<T> resolver) {
+        this(resolver.getFunctions());
+    }
+
+    /**
+     * Returns the functions with the given name. Returns an empty list if there is none.
+     */
+    public List<FlFunction<T>> getFunctions(String name) {
+        if (allFunctions != null) {
+            return getFunctionsWithNameOrWithoutName(name);
+        }
+        List<FlFunction<T>> functionsWithName = functionsByName.get(name);
+        if (functionsWithName == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(functionsWithName);
+    }
+
+    private List<FlFunction<T>> getFunctionsWithNameOrWithoutName(String name) {
+        List<FlFunction<T>> result = new ArrayList<FlFunction<T>>();
+        for (FlFunction<T> function : allFunctions) {
+            if (function.getName() == null || function.getName().equals(name)) {
+                result.add(function);
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import org.faktorips.codegen.CodeFragment;
+
+/**
+ * A {@link FunctionResolver} that provides the index of its functions itself. Resolvers with many
+ * functions that are used by many compilers, for example the resolvers of table functions, should
+ * implement this interface and keep the index as long as their functions do not change. For other
+ * resolvers every compiler creates an index when a function is called for the first time.
+ *
+ * @param <T> a {@link CodeFragment} implementation for a specific target language
+ */
+public interface IndexedFunctionResolver<T extends CodeFragment> extends FunctionResolver<T> {
+
+    /**
+     * Returns the index of the functions returned by {@link #getFunctions()}.
+     */
+    public FunctionIndex<T> getFunctionIndex();
+
+}
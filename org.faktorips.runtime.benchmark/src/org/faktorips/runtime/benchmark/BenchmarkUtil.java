@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.util.Random;
+
+/**
+ * Utility methods for the benchmarks.
+ */
+public class BenchmarkUtil {
+
+    /**
+     * The seed of all random numbers, so every run of a benchmark uses the same keys.
+     */
+    public static final long SEED = 4711;
+
+    private BenchmarkUtil() {
+        // utility class
+    }
+
+    /**
+     * Returns the numbers from 0 to <code>size - 1</code> in a random order. Benchmarks iterating
+     * over the keys in this order do not profit from accessing neighboring data.
+     */
+    public static int[] randomOrder(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(SEED);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+}
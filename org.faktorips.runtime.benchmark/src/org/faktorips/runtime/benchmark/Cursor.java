@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The position of every benchmark thread in the precomputed arrays of lookup keys, so the threads
+ * do not share a counter.
+ */
+@State(Scope.Thread)
+public class Cursor {
+
+    private int position;
+
+    /**
+     * Returns the next index in the range from 0 to <code>size - 1</code>, starting with 0 again
+     * after the last one.
+     */
+    public int next(int size) {
+        position++;
+        if (position >= size) {
+            position = 0;
+        }
+        return position;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.DeltaComputationOptionsByPosition;
+import org.faktorips.runtime.IDeltaComputationOptions;
+import org.faktorips.runtime.IDeltaComputationOptions.ComputationMethod;
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IModelObjectDelta;
+import org.faktorips.runtime.benchmark.model.BenchmarkCoverage;
+import org.faktorips.runtime.benchmark.model.BenchmarkPolicy;
+import org.faktorips.values.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the delta computation between two policies with the given number of coverages. Every
+ * tenth coverage of the second policy has a different sum insured and the second policy has one
+ * additional coverage. Coverages with the same name are considered to be the same object, the
+ * coverages are compared using the given {@link ComputationMethod}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeltaBenchmark {
+
+    @Param({ "10", "1000" })
+    public int coverageCount;
+
+    @Param({ "BY_POSITION", "BY_OBJECT" })
+    public ComputationMethod computationMethod;
+
+    private BenchmarkPolicy policy;
+
+    private BenchmarkPolicy changedPolicy;
+
+    private IDeltaComputationOptions options;
+
+    @Setup
+    public void setUp() {
+        policy = new BenchmarkPolicy("4711", Money.euro(1000));
+        changedPolicy = new BenchmarkPolicy("4711", Money.euro(1200));
+        for (int i = 0; i < coverageCount; i++) {
+            policy.addCoverage(new BenchmarkCoverage("Coverage" + i, Money.euro(10000, i % 100)));
+            Money changedSumInsured = Money.euro(i % 10 == 0 ? 20000 : 10000, i % 100);
+            changedPolicy.addCoverage(new BenchmarkCoverage("Coverage" + i, changedSumInsured));
+        }
+        changedPolicy.addCoverage(new BenchmarkCoverage("Additional", Money.euro(5000)));
+        options = new SameNameOptions(computationMethod);
+    }
+
+    @Benchmark
+    public IModelObjectDelta computeDelta() {
+        return policy.computeDelta(changedPolicy, options);
+    }
+
+    private static class SameNameOptions extends DeltaComputationOptionsByPosition {
+
+        private final ComputationMethod computationMethod;
+
+        public SameNameOptions(ComputationMethod computationMethod) {
+            this.computationMethod = computationMethod;
+        }
+
+        @Override
+        public ComputationMethod getMethod(String association) {
+            return computationMethod;
+        }
+
+        @Override
+        public boolean isSame(IModelObject object1, IModelObject object2) {
+            if (object1 instanceof BenchmarkCoverage && object2 instanceof BenchmarkCoverage) {
+                return ((BenchmarkCoverage)object1).getName().equals(((BenchmarkCoverage)object2).getName());
+            }
+            return super.isSame(object1, object2);
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.benchmark.model.BenchmarkRiskClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of the values of an extensible enumeration by their ID, as done by the
+ * generated code when reading product data or unmarshalling policies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnumBenchmark {
+
+    @Param({ "10", "1000" })
+    public int valueCount;
+
+    private SyntheticRepository syntheticRepository;
+
+    private IRuntimeRepository repository;
+
+    private String[] ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        syntheticRepository = new SyntheticRepository(0, 0, 0, valueCount);
+        repository = syntheticRepository.createRepository();
+        int[] order = BenchmarkUtil.randomOrder(valueCount);
+        ids = new String[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+            ids[i] = SyntheticRepository.RISK_CLASS_ID_PREFIX + order[i];
+        }
+        repository.getEnumValues(BenchmarkRiskClass.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        syntheticRepository.delete();
+    }
+
+    @Benchmark
+    public BenchmarkRiskClass getEnumValue(Cursor cursor) {
+        return repository.getEnumValue(BenchmarkRiskClass.class, ids[cursor.next(valueCount)]);
+    }
+
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.benchmark.model.BenchmarkProductGen;
+import org.faktorips.runtime.formula.CompilingFormulaEvaluatorFactory;
+import org.faktorips.runtime.formula.IFormulaEvaluator;
+import org.faktorips.values.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of a formula of a product component generation by the
+ * {@link CompilingFormulaEvaluatorFactory}. The benchmark <code>computeDirectly</code> executes the
+ * same code as the formula without any formula evaluator as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormulaBenchmark {
+
+    private static final String FORMULA_NAME = "computePremium";
+
+    private static final String FORMULA = "import java.math.BigDecimal;\n"
+            + "import org.faktorips.values.Money;\n\n"
+            + "public Money computePremium(Money sumInsured) {\n"
+            + "return sumInsured.multiply(getRate(), BigDecimal.ROUND_HALF_UP);\n}\n";
+
+    private SyntheticRepository syntheticRepository;
+
+    private BenchmarkProductGen generation;
+
+    private IFormulaEvaluator formulaEvaluator;
+
+    private Money sumInsured;
+
+    @Setup
+    public void setUp() throws IOException {
+        syntheticRepository = new SyntheticRepository(1, 1, 0, 0);
+        IRuntimeRepository repository = syntheticRepository.createRepository();
+        generation = (BenchmarkProductGen)repository.getProductComponentGeneration(
+                SyntheticRepository.getProductId(0), new GregorianCalendar(SyntheticRepository.LATEST_GENERATION_YEAR,
+                        6, 1));
+        formulaEvaluator = new CompilingFormulaEvaluatorFactory().createFormulaEvaluator(generation,
+                Collections.singletonMap(FORMULA_NAME, FORMULA));
+        sumInsured = Money.euro(100000);
+        // compile the formula
+        formulaEvaluator.evaluate(FORMULA_NAME, sumInsured);
+    }
+
+    @TearDown
+    public void tearDown() {
+        syntheticRepository.delete();
+    }
+
+    @Benchmark
+    public Object evaluateFormula() {
+        return formulaEvaluator.evaluate(FORMULA_NAME, sumInsured);
+    }
+
+    @Benchmark
+    public Money computeDirectly() {
+        return sumInsured.multiply(generation.getRate(), BigDecimal.ROUND_HALF_UP);
+    }
+
+}
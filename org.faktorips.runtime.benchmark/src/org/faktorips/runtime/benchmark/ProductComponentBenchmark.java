@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IProductComponent;
+import org.faktorips.runtime.IProductComponentGeneration;
+import org.faktorips.runtime.IRuntimeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of product components and product component generations in a repository
+ * whose caches are already filled, that means the cost of the caches and the table of contents.
+ * The lookups are distributed randomly over all product components and generations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductComponentBenchmark {
+
+    @Param({ "100", "10000" })
+    public int productCount;
+
+    @Param({ "1", "10" })
+    public int generationCount;
+
+    private SyntheticRepository syntheticRepository;
+
+    private IRuntimeRepository repository;
+
+    private String[] ids;
+
+    private Calendar[] effectiveDates;
+
+    @Setup
+    public void setUp() throws IOException {
+        syntheticRepository = new SyntheticRepository(productCount, generationCount, 0, 0);
+        repository = syntheticRepository.createRepository();
+        int[] order = BenchmarkUtil.randomOrder(productCount);
+        ids = new String[productCount];
+        effectiveDates = new Calendar[productCount];
+        for (int i = 0; i < productCount; i++) {
+            ids[i] = SyntheticRepository.getProductId(order[i]);
+            Calendar validFrom = syntheticRepository.getValidFrom(order[i] % generationCount);
+            effectiveDates[i] = new GregorianCalendar(validFrom.get(Calendar.YEAR), Calendar.JULY, 1);
+            // fill the caches
+            repository.getProductComponentGeneration(ids[i], effectiveDates[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        syntheticRepository.delete();
+    }
+
+    @Benchmark
+    public IProductComponent getProductComponent(Cursor cursor) {
+        return repository.getProductComponent(ids[cursor.next(productCount)]);
+    }
+
+    @Benchmark
+    public IProductComponentGeneration getProductComponentGeneration(Cursor cursor) {
+        int index = cursor.next(productCount);
+        return repository.getProductComponentGeneration(ids[index], effectiveDates[index]);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.ClassloaderRuntimeRepository;
+import org.faktorips.runtime.PreloadFilter;
+import org.faktorips.runtime.PreloadResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the creation of a new repository, that means reading the table of contents, and the
+ * time needed to load all product data into a new repository.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryStartupBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int productCount;
+
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    private SyntheticRepository syntheticRepository;
+
+    @Setup
+    public void setUp() throws IOException {
+        syntheticRepository = new SyntheticRepository(productCount, 3, 1000, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        syntheticRepository.delete();
+    }
+
+    @Benchmark
+    public ClassloaderRuntimeRepository createRepository() {
+        return syntheticRepository.createRepository();
+    }
+
+    @Benchmark
+    public PreloadResult createAndPreloadRepository() throws InterruptedException {
+        ClassloaderRuntimeRepository repository = syntheticRepository.createRepository();
+        PreloadResult result = repository.preload(new PreloadFilter(), parallelism);
+        if (!result.isSuccessful()) {
+            throw new IllegalStateException("Preloading failed: " + result.getFailures());
+        }
+        return result;
+    }
+
+}
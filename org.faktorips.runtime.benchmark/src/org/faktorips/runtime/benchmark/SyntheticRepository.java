@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.faktorips.runtime.ClassloaderRuntimeRepository;
+import org.faktorips.runtime.DefaultCacheFactory;
+import org.faktorips.runtime.benchmark.model.BenchmarkProduct;
+import org.faktorips.runtime.benchmark.model.BenchmarkProductGen;
+import org.faktorips.runtime.benchmark.model.BenchmarkRateTable;
+import org.faktorips.runtime.benchmark.model.BenchmarkRiskClass;
+
+/**
+ * Writes the table of contents and the XML files of a synthetic product model with a configurable
+ * number of product components, generations, table rows and enumeration values into a temporary
+ * directory. Repositories reading this data are created by {@link #createRepository()}.
+ * <p>
+ * The product components are called <code>benchmark.Product0</code> to
+ * <code>benchmark.ProductN</code>. Every product component has the given number of generations,
+ * the latest one is valid from {@link #LATEST_GENERATION_YEAR}, the previous ones one year earlier
+ * each. The rate table <code>benchmark.RateTable</code> contains rows with the IDs <code>R0</code>
+ * to <code>RN</code> for the tariffs <code>T0</code> to <code>TN</code>, every tariff has
+ * {@link #AGE_RANGES_PER_TARIFF} age ranges of ten years. The IDs of the risk classes are
+ * <code>RC0</code> to <code>RCN</code>.
+ */
+public class SyntheticRepository {
+
+    public static final String PRODUCT_ID_PREFIX = "benchmark.Product";
+
+    public static final String TABLE_NAME = "benchmark.RateTable";
+
+    public static final String ROW_ID_PREFIX = "R";
+
+    public static final String TARIFF_PREFIX = "T";
+
+    public static final String RISK_CLASS_ID_PREFIX = "RC";
+
+    public static final int LATEST_GENERATION_YEAR = 2020;
+
+    public static final int AGE_RANGES_PER_TARIFF = 10;
+
+    private static final String BASE_PATH = "org/faktorips/runtime/benchmark/data/";
+
+    private static final String TOC_RESOURCE = BASE_PATH + "faktorips-repository-toc.xml";
+
+    private static final String TABLE_RESOURCE = BASE_PATH + "RateTable.xml";
+
+    private static final String ENUM_RESOURCE = BASE_PATH + "RiskClass.xml";
+
+    private static final String ENCODING = "UTF-8";
+
+    private final File rootDir;
+
+    private final int productCount;
+
+    private final int generationCount;
+
+    private final int tableRowCount;
+
+    private final int enumValueCount;
+
+    /**
+     * Creates the XML files of the synthetic product model in a new temporary directory.
+     * 
+     * @param productCount the number of product components
+     * @param generationCount the number of generations of every product component
+     * @param tableRowCount the number of rows of the rate table
+     * @param enumValueCount the number of risk classes
+     * 
+     * @throws IOException if the files can not be written
+     */
+    public SyntheticRepository(int productCount, int generationCount, int tableRowCount, int enumValueCount)
+            throws IOException {
+        this.productCount = productCount;
+        this.generationCount = generationCount;
+        this.tableRowCount = tableRowCount;
+        this.enumValueCount = enumValueCount;
+        rootDir = File.createTempFile("faktorips-benchmark", "");
+        if (!rootDir.delete() || !rootDir.mkdir()) {
+            throw new IOException("Can't create the directory " + rootDir);
+        }
+        File baseDir = new File(rootDir, BASE_PATH);
+        if (!baseDir.mkdirs()) {
+            throw new IOException("Can't create the directory " + baseDir);
+        }
+        writeTableOfContents();
+        for (int i = 0; i < productCount; i++) {
+            writeProductCmpt(i);
+        }
+        writeTableContent();
+        writeEnumContent();
+    }
+
+    /**
+     * Creates a new repository for the synthetic product model. Every repository has its own
+     * caches, so nothing is loaded yet.
+     */
+    public ClassloaderRuntimeRepository createRepository() {
+        ClassLoader classLoader = createClassLoader();
+        return ClassloaderRuntimeRepository.create(TOC_RESOURCE, classLoader, new DefaultCacheFactory(classLoader));
+    }
+
+    private ClassLoader createClassLoader() {
+        try {
+            return new URLClassLoader(new URL[] { rootDir.toURI().toURL() }, getClass().getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the file containing the content of the rate table.
+     */
+    public File getTableContentFile() {
+        return new File(rootDir, TABLE_RESOURCE);
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public int getGenerationCount() {
+        return generationCount;
+    }
+
+    public int getTableRowCount() {
+        return tableRowCount;
+    }
+
+    public int getEnumValueCount() {
+        return enumValueCount;
+    }
+
+    /**
+     * Returns the ID of the product component with the given index.
+     */
+    public static String getProductId(int index) {
+        return PRODUCT_ID_PREFIX + index;
+    }
+
+    /**
+     * Returns the valid from date of the generation with the given index. The generation with the
+     * highest index is the latest one.
+     */
+    public Calendar getValidFrom(int generationIndex) {
+        return new GregorianCalendar(LATEST_GENERATION_YEAR - generationCount + 1 + generationIndex, 0, 1);
+    }
+
+    /**
+     * Returns the number of tariffs in the rate table.
+     */
+    public int getTariffCount() {
+        return (tableRowCount + AGE_RANGES_PER_TARIFF - 1) / AGE_RANGES_PER_TARIFF;
+    }
+
+    /**
+     * Deletes all files of the synthetic product model.
+     */
+    public void delete() {
+        delete(rootDir);
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private void writeTableOfContents() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"").append(ENCODING).append("\"?>\n");
+        sb.append("<FaktorIps-TableOfContents>\n");
+        for (int i = 0; i < productCount; i++) {
+            String id = getProductId(i);
+            sb.append("  <ProductComponent ipsObjectId=\"").append(id).append("\" ipsObjectQualifiedName=\"")
+                    .append(id).append("\" kindId=\"").append(id).append("\" versionId=\"")
+                    .append(LATEST_GENERATION_YEAR).append("\" xmlResource=\"").append(getProductResource(i))
+                    .append("\" implementationClass=\"").append(BenchmarkProduct.class.getName())
+                    .append("\" generationImplClassName=\"").append(BenchmarkProductGen.class.getName())
+                    .append("\">\n");
+            for (int g = 0; g < generationCount; g++) {
+                sb.append("    <Generation validFrom=\"").append(getValidFromIso(g)).append("\" xmlResource=\"")
+                        .append(getProductResource(i)).append("\" implementationClass=\"")
+                        .append(BenchmarkProductGen.class.getName()).append("\"/>\n");
+            }
+            sb.append("  </ProductComponent>\n");
+        }
+        sb.append("  <TableContent ipsObjectId=\"").append(TABLE_NAME).append("\" ipsObjectQualifiedName=\"")
+                .append(TABLE_NAME).append("\" xmlResource=\"").append(TABLE_RESOURCE)
+                .append("\" implementationClass=\"").append(BenchmarkRateTable.class.getName()).append("\"/>\n");
+        sb.append("  <EnumContent ipsObjectId=\"benchmark.RiskClass\" ipsObjectQualifiedName=\"benchmark.RiskClass\"")
+                .append(" xmlResource=\"").append(ENUM_RESOURCE).append("\" implementationClass=\"")
+                .append(BenchmarkRiskClass.class.getName()).append("\"/>\n");
+        sb.append("</FaktorIps-TableOfContents>\n");
+        write(TOC_RESOURCE, sb);
+    }
+
+    private void writeProductCmpt(int index) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"").append(ENCODING).append("\"?>\n");
+        sb.append("<ProductCmpt productCmptType=\"benchmark.Product\">\n");
+        for (int g = 0; g < generationCount; g++) {
+            sb.append("  <Generation validFrom=\"").append(getValidFromIso(g)).append("\">\n");
+            sb.append("    <AttributeValue attribute=\"").append(BenchmarkProductGen.PROPERTY_RATE)
+                    .append("\">\n");
+            sb.append("      <Value isNull=\"false\">").append(1 + index % 100).append('.').append(g)
+                    .append("</Value>\n");
+            sb.append("    </AttributeValue>\n");
+            sb.append("  </Generation>\n");
+        }
+        sb.append("</ProductCmpt>\n");
+        write(getProductResource(index), sb);
+    }
+
+    private void writeTableContent() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"").append(ENCODING).append("\"?>\n");
+        sb.append("<TableContents tableStructure=\"benchmark.RateTableStructure\" numOfColumns=\"4\">\n");
+        sb.append("  <Rows>\n");
+        for (int i = 0; i < tableRowCount; i++) {
+            sb.append("    <Row><Value>").append(ROW_ID_PREFIX).append(i).append("</Value><Value>")
+                    .append(TARIFF_PREFIX).append(i / AGE_RANGES_PER_TARIFF).append("</Value><Value>")
+                    .append(i % AGE_RANGES_PER_TARIFF * 10).append("</Value><Value>0.")
+                    .append(1000 + i % 9000).append("</Value></Row>\n");
+        }
+        sb.append("  </Rows>\n");
+        sb.append("</TableContents>\n");
+        write(TABLE_RESOURCE, sb);
+    }
+
+    private void writeEnumContent() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"").append(ENCODING).append("\"?>\n");
+        sb.append("<EnumContent enumType=\"benchmark.RiskClass\">\n");
+        for (int i = 0; i < enumValueCount; i++) {
+            sb.append("  <EnumValue><EnumAttributeValue>").append(RISK_CLASS_ID_PREFIX).append(i)
+                    .append("</EnumAttributeValue><EnumAttributeValue>Risk class ").append(i)
+                    .append("</EnumAttributeValue></EnumValue>\n");
+        }
+        sb.append("</EnumContent>\n");
+        write(ENUM_RESOURCE, sb);
+    }
+
+    private String getProductResource(int index) {
+        return BASE_PATH + "products/Product" + index + ".ipsproduct";
+    }
+
+    private String getValidFromIso(int generationIndex) {
+        return (LATEST_GENERATION_YEAR - generationCount + 1 + generationIndex) + "-01-01";
+    }
+
+    private void write(String resource, CharSequence content) throws IOException {
+        File file = new File(rootDir, resource);
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Can't create the directory " + parent);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), ENCODING);
+        try {
+            writer.write(content.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+}
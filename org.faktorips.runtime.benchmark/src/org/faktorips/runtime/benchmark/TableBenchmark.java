@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.benchmark.model.BenchmarkRateTable;
+import org.faktorips.runtime.benchmark.model.BenchmarkRateTableRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of table rows by a unique key and by a key with a range column, and the time
+ * needed to read a table content from XML including building its indices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rowCount;
+
+    private SyntheticRepository syntheticRepository;
+
+    private IRuntimeRepository repository;
+
+    private BenchmarkRateTable table;
+
+    private String[] rowIds;
+
+    private String[] tariffs;
+
+    private Integer[] ages;
+
+    @Setup
+    public void setUp() throws IOException {
+        syntheticRepository = new SyntheticRepository(0, 0, rowCount, 0);
+        repository = syntheticRepository.createRepository();
+        table = repository.getTable(BenchmarkRateTable.class);
+        int[] order = BenchmarkUtil.randomOrder(rowCount);
+        rowIds = new String[rowCount];
+        tariffs = new String[rowCount];
+        ages = new Integer[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rowIds[i] = SyntheticRepository.ROW_ID_PREFIX + order[i];
+            tariffs[i] = SyntheticRepository.TARIFF_PREFIX + order[i] / SyntheticRepository.AGE_RANGES_PER_TARIFF;
+            // an age inside the range of the row
+            ages[i] = Integer.valueOf(order[i] % SyntheticRepository.AGE_RANGES_PER_TARIFF * 10 + 5);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        syntheticRepository.delete();
+    }
+
+    @Benchmark
+    public BenchmarkRateTableRow findRowByUniqueKey(Cursor cursor) {
+        return table.findRow(rowIds[cursor.next(rowCount)]);
+    }
+
+    @Benchmark
+    public BenchmarkRateTableRow findRowByRange(Cursor cursor) {
+        int index = cursor.next(rowCount);
+        return table.findRow(tariffs[index], ages[index]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public BenchmarkRateTable loadFromXml() throws Exception {
+        BenchmarkRateTable newTable = new BenchmarkRateTable();
+        InputStream is = new BufferedInputStream(new FileInputStream(syntheticRepository.getTableContentFile()));
+        try {
+            newTable.initFromXml(is, repository, SyntheticRepository.TABLE_NAME);
+        } finally {
+            is.close();
+        }
+        return newTable;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.values.Decimal;
+import org.faktorips.values.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the arithmetic of {@link Money} and {@link Decimal} as used in typical premium
+ * calculations, and parsing decimal values as done when reading product data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueTypesBenchmark {
+
+    private Money premium;
+
+    private Money fee;
+
+    private Decimal rate;
+
+    private Decimal factor;
+
+    private String decimalString;
+
+    @Setup
+    public void setUp() {
+        premium = Money.euro(1234, 56);
+        fee = Money.euro(12, 50);
+        rate = Decimal.valueOf("0.0375");
+        factor = Decimal.valueOf("1.19");
+        decimalString = "12345.6789";
+    }
+
+    @Benchmark
+    public Money addMoney() {
+        return premium.add(fee);
+    }
+
+    @Benchmark
+    public Money multiplyMoney() {
+        return premium.multiply(rate, BigDecimal.ROUND_HALF_UP);
+    }
+
+    @Benchmark
+    public Decimal addDecimal() {
+        return rate.add(factor);
+    }
+
+    @Benchmark
+    public Decimal multiplyDecimal() {
+        return rate.multiply(factor);
+    }
+
+    @Benchmark
+    public Decimal divideDecimal() {
+        return factor.divide(rate, 10, BigDecimal.ROUND_HALF_UP);
+    }
+
+    @Benchmark
+    public Decimal parseDecimal() {
+        return Decimal.valueOf(decimalString);
+    }
+
+}
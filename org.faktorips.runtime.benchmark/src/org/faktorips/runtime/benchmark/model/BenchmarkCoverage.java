@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import org.faktorips.runtime.IDeltaComputationOptions;
+import org.faktorips.runtime.IDeltaSupport;
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IModelObjectDelta;
+import org.faktorips.runtime.internal.AbstractModelObject;
+import org.faktorips.runtime.internal.ModelObjectDelta;
+import org.faktorips.values.Money;
+
+/**
+ * A coverage of a {@link BenchmarkPolicy}, implementing the delta computation the way generated
+ * policy component classes do.
+ */
+public class BenchmarkCoverage extends AbstractModelObject implements IDeltaSupport {
+
+    public static final String PROPERTY_NAME = "name";
+
+    public static final String PROPERTY_SUM_INSURED = "sumInsured";
+
+    private String name;
+
+    private Money sumInsured;
+
+    public BenchmarkCoverage(String name, Money sumInsured) {
+        this.name = name;
+        this.sumInsured = sumInsured;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Money getSumInsured() {
+        return sumInsured;
+    }
+
+    public void setSumInsured(Money sumInsured) {
+        this.sumInsured = sumInsured;
+    }
+
+    @Override
+    public IModelObjectDelta computeDelta(IModelObject otherObject, IDeltaComputationOptions options) {
+        ModelObjectDelta delta = ModelObjectDelta.newEmptyDelta(this, otherObject);
+        if (!BenchmarkCoverage.class.isAssignableFrom(otherObject.getClass())) {
+            return delta;
+        }
+        BenchmarkCoverage otherCoverage = (BenchmarkCoverage)otherObject;
+        delta.checkPropertyChange(PROPERTY_NAME, name, otherCoverage.name, options);
+        delta.checkPropertyChange(PROPERTY_SUM_INSURED, sumInsured, otherCoverage.sumInsured, options);
+        return delta;
+    }
+
+}
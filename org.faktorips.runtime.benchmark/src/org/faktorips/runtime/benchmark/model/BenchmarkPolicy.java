@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.faktorips.runtime.IDeltaComputationOptions;
+import org.faktorips.runtime.IDeltaSupport;
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IModelObjectDelta;
+import org.faktorips.runtime.internal.AbstractModelObject;
+import org.faktorips.runtime.internal.ModelObjectDelta;
+import org.faktorips.values.Money;
+
+/**
+ * A policy with a composition of {@link BenchmarkCoverage coverages}, implementing the delta
+ * computation the way generated policy component classes do.
+ */
+public class BenchmarkPolicy extends AbstractModelObject implements IDeltaSupport {
+
+    public static final String PROPERTY_POLICY_NUMBER = "policyNumber";
+
+    public static final String PROPERTY_PREMIUM = "premium";
+
+    public static final String ASSOCIATION_COVERAGES = "coverages";
+
+    private String policyNumber;
+
+    private Money premium;
+
+    private final List<BenchmarkCoverage> coverages = new ArrayList<BenchmarkCoverage>();
+
+    public BenchmarkPolicy(String policyNumber, Money premium) {
+        this.policyNumber = policyNumber;
+        this.premium = premium;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public void setPolicyNumber(String policyNumber) {
+        this.policyNumber = policyNumber;
+    }
+
+    public Money getPremium() {
+        return premium;
+    }
+
+    public void setPremium(Money premium) {
+        this.premium = premium;
+    }
+
+    public List<BenchmarkCoverage> getCoverages() {
+        return coverages;
+    }
+
+    public void addCoverage(BenchmarkCoverage coverage) {
+        coverages.add(coverage);
+    }
+
+    @Override
+    public IModelObjectDelta computeDelta(IModelObject otherObject, IDeltaComputationOptions options) {
+        ModelObjectDelta delta = ModelObjectDelta.newEmptyDelta(this, otherObject);
+        if (!BenchmarkPolicy.class.isAssignableFrom(otherObject.getClass())) {
+            return delta;
+        }
+        BenchmarkPolicy otherPolicy = (BenchmarkPolicy)otherObject;
+        delta.checkPropertyChange(PROPERTY_POLICY_NUMBER, policyNumber, otherPolicy.policyNumber, options);
+        delta.checkPropertyChange(PROPERTY_PREMIUM, premium, otherPolicy.premium, options);
+        ModelObjectDelta.createChildDeltas(delta, coverages, otherPolicy.coverages, ASSOCIATION_COVERAGES, options);
+        return delta;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import org.faktorips.runtime.IConfigurableModelObject;
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.internal.ProductComponent;
+
+/**
+ * A product component class like the ones generated by Faktor-IPS. The product components of the
+ * synthetic benchmark model are instances of this class.
+ */
+public class BenchmarkProduct extends ProductComponent {
+
+    public BenchmarkProduct(IRuntimeRepository repository, String id, String kindId, String versionId) {
+        super(repository, id, kindId, versionId);
+    }
+
+    @Override
+    public boolean isChangingOverTime() {
+        return true;
+    }
+
+    @Override
+    public IConfigurableModelObject createPolicyComponent() {
+        throw new UnsupportedOperationException();
+    }
+
+}
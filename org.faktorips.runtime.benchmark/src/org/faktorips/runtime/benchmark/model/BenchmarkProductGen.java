@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import java.util.Map;
+
+import org.faktorips.runtime.IConfigurableModelObject;
+import org.faktorips.runtime.internal.ProductComponentGeneration;
+import org.faktorips.runtime.internal.ValueToXmlHelper;
+import org.faktorips.values.Decimal;
+import org.w3c.dom.Element;
+
+/**
+ * The generation class of {@link BenchmarkProduct} with a single attribute <code>rate</code>.
+ */
+public class BenchmarkProductGen extends ProductComponentGeneration {
+
+    public static final String PROPERTY_RATE = "rate";
+
+    private Decimal rate = Decimal.NULL;
+
+    public BenchmarkProductGen(BenchmarkProduct productCmpt) {
+        super(productCmpt);
+    }
+
+    public Decimal getRate() {
+        return rate;
+    }
+
+    @Override
+    protected void doInitPropertiesFromXml(Map<String, Element> configMap) {
+        super.doInitPropertiesFromXml(configMap);
+        Element configElement = configMap.get(PROPERTY_RATE);
+        if (configElement != null) {
+            rate = Decimal.valueOf(ValueToXmlHelper.getValueFromElement(configElement, "Value"));
+        }
+    }
+
+    @Override
+    public IConfigurableModelObject createPolicyComponent() {
+        throw new UnsupportedOperationException();
+    }
+
+}
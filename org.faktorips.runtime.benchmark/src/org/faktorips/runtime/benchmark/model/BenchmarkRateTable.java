@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.internal.Table;
+import org.faktorips.runtime.internal.tableindex.KeyStructure;
+import org.faktorips.runtime.internal.tableindex.RangeStructure;
+import org.faktorips.runtime.internal.tableindex.RangeType;
+import org.faktorips.runtime.internal.tableindex.UniqueResultStructure;
+import org.faktorips.values.Decimal;
+
+/**
+ * A table class like the ones generated by Faktor-IPS with a unique key on the column
+ * <code>id</code> and a second unique key consisting of the column <code>tariff</code> and the
+ * range column <code>ageFrom</code>.
+ */
+public class BenchmarkRateTable extends Table<BenchmarkRateTableRow> {
+
+    private KeyStructure<String, UniqueResultStructure<BenchmarkRateTableRow>, BenchmarkRateTableRow> idIndex;
+
+    private KeyStructure<String, RangeStructure<Integer, UniqueResultStructure<BenchmarkRateTableRow>, BenchmarkRateTableRow>, BenchmarkRateTableRow> tariffAgeIndex;
+
+    public BenchmarkRateTable() {
+        super();
+        rows = new ArrayList<BenchmarkRateTableRow>();
+        init();
+    }
+
+    @Override
+    protected void addRow(List<String> values, IRuntimeRepository productRepository) {
+        rows.add(createRow(values, productRepository));
+    }
+
+    @Override
+    protected BenchmarkRateTableRow createRow(List<String> values, IRuntimeRepository productRepository) {
+        String id = values.get(0);
+        String tariff = values.get(1);
+        Integer ageFrom = values.get(2) == null ? null : Integer.valueOf(values.get(2));
+        Decimal rate = Decimal.valueOf(values.get(3));
+        return new BenchmarkRateTableRow(id, tariff, ageFrom, rate);
+    }
+
+    @Override
+    protected final void initKeyMaps() {
+        idIndex = KeyStructure.create();
+        tariffAgeIndex = KeyStructure.create();
+        for (BenchmarkRateTableRow row : rows) {
+            idIndex.put(row.getId(), UniqueResultStructure.createWith(row));
+            RangeStructure<Integer, UniqueResultStructure<BenchmarkRateTableRow>, BenchmarkRateTableRow> ageStructure = RangeStructure
+                    .createWith(RangeType.LOWER_BOUND_EQUAL, row.getAgeFrom(), UniqueResultStructure.createWith(row));
+            tariffAgeIndex.put(row.getTariff(), ageStructure);
+        }
+    }
+
+    /**
+     * Returns the row with the given ID or <code>null</code> if there is no such row.
+     */
+    public BenchmarkRateTableRow findRow(String id) {
+        return idIndex.get(id).getUnique(null);
+    }
+
+    /**
+     * Returns the row of the given tariff whose age range contains the given age or
+     * <code>null</code> if there is no such row.
+     */
+    public BenchmarkRateTableRow findRow(String tariff, Integer age) {
+        return tariffAgeIndex.get(tariff).get(age).getUnique(null);
+    }
+
+}
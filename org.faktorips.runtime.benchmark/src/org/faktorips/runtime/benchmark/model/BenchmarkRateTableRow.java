@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import org.faktorips.values.Decimal;
+
+/**
+ * A row of the {@link BenchmarkRateTable}.
+ */
+public class BenchmarkRateTableRow {
+
+    private final String id;
+
+    private final String tariff;
+
+    private final Integer ageFrom;
+
+    private final Decimal rate;
+
+    public BenchmarkRateTableRow(String id, String tariff, Integer ageFrom, Decimal rate) {
+        this.id = id;
+        this.tariff = tariff;
+        this.ageFrom = ageFrom;
+        this.rate = rate;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTariff() {
+        return tariff;
+    }
+
+    public Integer getAgeFrom() {
+        return ageFrom;
+    }
+
+    public Decimal getRate() {
+        return rate;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.benchmark.model;
+
+import org.faktorips.runtime.IRuntimeRepository;
+
+/**
+ * An extensible enumeration class like the ones generated by Faktor-IPS. All values are defined in
+ * the enumeration content of the synthetic repository.
+ */
+public class BenchmarkRiskClass {
+
+    private final int index;
+
+    private final String id;
+
+    private final String name;
+
+    protected BenchmarkRiskClass(int index, String id, String name, IRuntimeRepository productRepository) {
+        this.index = index;
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object getEnumValueId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "BenchmarkRiskClass: " + index + '(' + id + ')';
+    }
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.faktorips.runtime.BoundedCacheFactory.CacheKind;
+import org.faktorips.runtime.caching.AbstractComputable;
+import org.faktorips.runtime.caching.BoundedCache;
+import org.faktorips.runtime.caching.IComputable;
+import org.junit.Test;
+
+public class BoundedCacheFactoryTest {
+
+    @Test
+    public void testCreateProductCmptCache() throws Exception {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        factory.setMaximumWeight(CacheKind.PRODUCT_COMPONENT, 42);
+
+        IComputable<String, IProductComponent> cache = factory
+                .createProductCmptCache(new AbstractComputable<String, IProductComponent>(IProductComponent.class) {
+
+                    @Override
+                    public IProductComponent compute(String key) throws InterruptedException {
+                        return null;
+                    }
+
+                });
+
+        assertTrue(cache instanceof BoundedCache);
+        assertEquals(42, ((BoundedCache<?, ?>)cache).getMaximumWeight());
+    }
+
+    @Test
+    public void testCreateCache_UsesCustomObjectConfiguration() throws Exception {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        factory.setEstimatedEntryWeight(CacheKind.CUSTOM_OBJECT, 10);
+        factory.setMaximumWeight(CacheKind.CUSTOM_OBJECT, 25);
+        IComputable<String, String> cache = factory.createCache(new AbstractComputable<String, String>(String.class) {
+
+            @Override
+            public String compute(String key) throws InterruptedException {
+                return key;
+            }
+
+        });
+
+        cache.compute("a");
+        cache.compute("b");
+        cache.compute("c");
+        cache.compute("c");
+
+        assertEquals(1, factory.getStatistics(CacheKind.CUSTOM_OBJECT).getHitCount());
+        assertEquals(3, factory.getStatistics(CacheKind.CUSTOM_OBJECT).getMissCount());
+        assertEquals(1, factory.getStatistics(CacheKind.CUSTOM_OBJECT).getEvictionCount());
+        assertEquals(20, factory.getStatistics(CacheKind.CUSTOM_OBJECT).getWeight());
+        assertEquals(0, factory.getStatistics(CacheKind.TABLE).getRequestCount());
+    }
+
+    @Test
+    public void testCreateCache_DoesNotPreventGarbageCollection() throws Exception {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        IComputable<String, String> cache = factory.createCache(new AbstractComputable<String, String>(String.class) {
+
+            @Override
+            public String compute(String key) throws InterruptedException {
+                return key;
+            }
+
+        });
+        cache.compute("a");
+        WeakReference<IComputable<String, String>> reference = new WeakReference<IComputable<String, String>>(
+                cache);
+
+        cache = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(reference.get());
+        assertEquals(0, factory.getStatistics(CacheKind.CUSTOM_OBJECT).getRequestCount());
+    }
+
+}
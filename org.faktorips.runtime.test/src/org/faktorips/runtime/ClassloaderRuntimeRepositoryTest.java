@@ -11,18 +11,24 @@
 package org.faktorips.runtime;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.faktorips.runtime.DummyTocEntryFactory.DummyRuntimeObject;
+import org.faktorips.runtime.PreloadFilter.ArtifactType;
 import org.faktorips.runtime.internal.DateTime;
 import org.faktorips.runtime.test.IpsFormulaTestCase;
 import org.faktorips.runtime.test.IpsTest2;
@@ -214,6 +220,22 @@ public class ClassloaderRuntimeRepositoryTest {
         assertEquals(3, number);
     }
 
+    @Test
+    public void testGetEffectiveProductComponentGeneration() {
+        assertNull(repository.getEffectiveProductComponentGeneration("motor.MotorPlus", new DateTime(2004, 12, 31)));
+        assertNull(repository.getEffectiveProductComponentGeneration("unknown", new DateTime(2005, 2, 1)));
+        assertNull(repository.getEffectiveProductComponentGeneration("motor.MotorPlus", null));
+
+        IProductComponentGeneration gen = repository.getEffectiveProductComponentGeneration("motor.MotorPlus",
+                new DateTime(2005, 2, 1));
+        assertSame(repository.getProductComponentGeneration("motor.MotorPlus", new GregorianCalendar(2005, 1, 1)), gen);
+        assertSame(gen, repository.getEffectiveProductComponentGeneration("motor.MotorPlus", new DateTime(2005, 2, 1)));
+        assertEquals(new DateTime(2005, 1, 1), gen.getValidFrom());
+
+        gen = repository.getEffectiveProductComponentGeneration("motor.MotorPlus", new DateTime(2006, 1, 1));
+        assertEquals(new DateTime(2006, 1, 1), gen.getValidFrom());
+    }
+
     @Test
     public void testGetNextProductComponentGeneration() {
         IProductComponent productComponent = repository.getProductComponent("motor.MotorPlus");
@@ -317,4 +339,85 @@ public class ClassloaderRuntimeRepositoryTest {
         NoClass noClassObject = repository.getCustomRuntimeObject(NoClass.class, "dummy.DummyRuntimeObject");
         assertNull(noClassObject);
     }
+
+    @Test
+    public void testPreload() throws Exception {
+        PreloadResult result = repository.preload(new PreloadFilter(), 2);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(3, result.getCount(ArtifactType.PRODUCT_COMPONENT));
+        assertEquals(5, result.getCount(ArtifactType.PRODUCT_COMPONENT_GENERATION));
+        assertEquals(2, result.getCount(ArtifactType.TABLE));
+        assertEquals(0, result.getCount(ArtifactType.ENUM));
+        assertEquals(10, result.getCount());
+        assertEquals(3, result.getSlowest(3).size());
+        assertTrue(result.getSlowest(1).get(0).getDurationNanos() >= result.getSlowest(3).get(2)
+                .getDurationNanos());
+    }
+
+    @Test
+    public void testPreload_FilterByIdPrefixAndType() throws Exception {
+        PreloadFilter filter = new PreloadFilter();
+        filter.setIdPrefix("motor.");
+        filter.setArtifactTypes(ArtifactType.PRODUCT_COMPONENT, ArtifactType.TABLE);
+
+        PreloadResult result = repository.preload(filter, 1);
+
+        assertEquals(2, result.getCount(ArtifactType.PRODUCT_COMPONENT));
+        assertEquals(0, result.getCount(ArtifactType.PRODUCT_COMPONENT_GENERATION));
+        assertEquals(2, result.getCount(ArtifactType.TABLE));
+    }
+
+    @Test
+    public void testPreload_FilterByProductComponentType() throws Exception {
+        PreloadFilter filter = new PreloadFilter();
+        filter.setProductComponentType(HomeProduct.class);
+
+        PreloadResult result = repository.preload(filter, 1);
+
+        assertEquals(1, result.getCount(ArtifactType.PRODUCT_COMPONENT));
+        assertEquals("home.HomeBasic", result.getTimings().get(0).getId());
+        assertEquals(1, result.getCount(ArtifactType.PRODUCT_COMPONENT_GENERATION));
+    }
+
+    @Test
+    public void testPreload_FilterByEffectiveDateWindow() throws Exception {
+        PreloadFilter filter = new PreloadFilter();
+        filter.setIdPrefix("motor.MotorPlus");
+        filter.setEffectiveDateWindow(new GregorianCalendar(2006, 5, 1), new GregorianCalendar(2007, 0, 1));
+
+        PreloadResult result = repository.preload(filter, 1);
+
+        assertEquals(1, result.getCount(ArtifactType.PRODUCT_COMPONENT));
+        assertEquals(2, result.getCount(ArtifactType.PRODUCT_COMPONENT_GENERATION));
+
+        filter.setEffectiveDateWindow(new GregorianCalendar(2010, 0, 17), null);
+        assertEquals(0, repository.preload(filter, 1).getCount());
+    }
+
+    @Test
+    public void testPreload_Listener() throws Exception {
+        final List<String> progress = new ArrayList<String>();
+        PreloadFilter filter = new PreloadFilter();
+        filter.setArtifactTypes(ArtifactType.TABLE);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PreloadResult result = repository.preload(filter, executor, new IPreloadListener() {
+
+                @Override
+                public void artifactLoaded(PreloadTiming timing, int completedCount, int totalCount) {
+                    progress.add(completedCount + "/" + totalCount);
+                }
+
+            });
+
+            assertEquals(2, result.getCount());
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("[1/2, 2/2]", progress.toString());
+        assertNotNull(repository.getTable("motor.RateTable"));
+    }
+
 }
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.GregorianCalendar;
+
+import org.faktorips.runtime.PreloadFilter.ArtifactType;
+import org.junit.Test;
+
+public class PreloadFilterTest {
+
+    @Test
+    public void testAcceptAll() {
+        PreloadFilter filter = new PreloadFilter();
+
+        assertTrue(filter.isIncluded(ArtifactType.ENUM));
+        assertTrue(filter.acceptId("any"));
+        assertTrue(filter.acceptProductComponentType(Object.class));
+        assertTrue(filter.acceptValidityPeriod(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testSetArtifactTypes() {
+        PreloadFilter filter = new PreloadFilter();
+
+        filter.setArtifactTypes(ArtifactType.TABLE);
+
+        assertTrue(filter.isIncluded(ArtifactType.TABLE));
+        assertFalse(filter.isIncluded(ArtifactType.PRODUCT_COMPONENT));
+    }
+
+    @Test
+    public void testAcceptId() {
+        PreloadFilter filter = new PreloadFilter();
+
+        filter.setIdPrefix("motor.");
+
+        assertTrue(filter.acceptId("motor.MotorBasic"));
+        assertFalse(filter.acceptId("home.HomeBasic"));
+        assertFalse(filter.acceptId(null));
+    }
+
+    @Test
+    public void testAcceptValidityPeriod() {
+        PreloadFilter filter = new PreloadFilter();
+        GregorianCalendar from = new GregorianCalendar(2010, 0, 1);
+        GregorianCalendar to = new GregorianCalendar(2010, 11, 31);
+
+        filter.setEffectiveDateWindow(from, to);
+
+        assertTrue(filter.acceptValidityPeriod(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertTrue(filter.acceptValidityPeriod(to.getTimeInMillis(), Long.MAX_VALUE));
+        assertFalse(filter.acceptValidityPeriod(to.getTimeInMillis() + 1, Long.MAX_VALUE));
+        assertTrue(filter.acceptValidityPeriod(Long.MIN_VALUE, from.getTimeInMillis() + 1));
+        assertFalse(filter.acceptValidityPeriod(Long.MIN_VALUE, from.getTimeInMillis()));
+    }
+
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.faktorips.runtime.ProductStructureGraph.ProductTree;
+import org.faktorips.runtime.internal.DateTime;
+import org.faktorips.runtime.internal.ProductComponent;
+import org.faktorips.runtime.internal.ProductComponentLink;
+import org.faktorips.runtime.internal.TestProductCmptGeneration;
+import org.faktorips.runtime.internal.TestProductComponent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProductStructureGraphTest {
+
+    private InMemoryRuntimeRepository repository;
+
+    private LinkedProductComponent root;
+
+    private LinkedProductComponent coverageA;
+
+    private LinkedProductComponent coverageB;
+
+    private LinkedProductComponent tariff;
+
+    private LinkedGeneration rootGen2010;
+
+    private LinkedGeneration rootGen2015;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryRuntimeRepository();
+        root = new LinkedProductComponent(repository, "root", true);
+        coverageA = new LinkedProductComponent(repository, "coverageA", false);
+        coverageB = new LinkedProductComponent(repository, "coverageB", false);
+        tariff = new LinkedProductComponent(repository, "tariff", false);
+        rootGen2010 = new LinkedGeneration(root, new DateTime(2010, 1, 1));
+        rootGen2015 = new LinkedGeneration(root, new DateTime(2015, 1, 1));
+        repository.putProductCmptGeneration(rootGen2015);
+        repository.putProductCmptGeneration(rootGen2010);
+        repository.putProductComponent(coverageA);
+        repository.putProductComponent(coverageB);
+        repository.putProductComponent(tariff);
+
+        rootGen2010.addLink(coverageA, "coverages");
+        rootGen2015.addLink(coverageA, "coverages");
+        rootGen2015.addLink(coverageB, "coverages");
+        coverageA.addLink(tariff, "tariff");
+    }
+
+    @Test
+    public void testGetProductTree() {
+        ProductTree tree = new ProductStructureGraph(repository).getProductTree("root", new DateTime(2016, 1, 1));
+
+        assertEquals(4, tree.size());
+        assertEquals("root", tree.getProductComponentId(0));
+        assertEquals(-1, tree.getParentIndex(0));
+        assertNull(tree.getAssociationName(0));
+        assertEquals("coverageA", tree.getProductComponentId(1));
+        assertEquals(0, tree.getParentIndex(1));
+        assertEquals("coverages", tree.getAssociationName(1));
+        assertEquals("tariff", tree.getProductComponentId(2));
+        assertEquals(1, tree.getParentIndex(2));
+        assertEquals("tariff", tree.getAssociationName(2));
+        assertEquals("coverageB", tree.getProductComponentId(3));
+        assertEquals(0, tree.getParentIndex(3));
+        assertSame(coverageB, tree.getProductComponent(3));
+    }
+
+    @Test
+    public void testGetProductTree_UsesEffectiveGeneration() {
+        ProductStructureGraph graph = new ProductStructureGraph(repository);
+
+        ProductTree tree = graph.getProductTree("root", new DateTime(2014, 12, 31));
+
+        assertEquals(3, tree.size());
+        assertEquals("coverageA", tree.getProductComponentId(1));
+        assertEquals("tariff", tree.getProductComponentId(2));
+        assertNull(graph.getProductTree("root", new DateTime(2009, 12, 31)));
+    }
+
+    @Test
+    public void testGetProductTree_LeavesOutProductsNoLongerValid() {
+        coverageA.setValidTo(new DateTime(2016, 1, 1));
+
+        ProductTree tree = new ProductStructureGraph(repository).getProductTree("root", new DateTime(2016, 1, 2));
+
+        assertEquals(2, tree.size());
+        assertEquals("coverageB", tree.getProductComponentId(1));
+    }
+
+    @Test
+    public void testGetProductTree_ContainsCyclesOnce() {
+        tariff.addLink(root, "product");
+        tariff.addLink(coverageB, "coverage");
+
+        ProductTree tree = new ProductStructureGraph(repository).getProductTree("root", new DateTime(2016, 1, 1));
+
+        assertEquals(4, tree.size());
+        assertEquals("tariff", tree.getProductComponentId(2));
+        assertArrayEquals(new int[] { 0, 3 }, tree.getTargetIndices(2));
+        assertArrayEquals(new String[] { "product", "coverage" }, tree.getTargetAssociationNames(2));
+        assertEquals("coverageB", tree.getProductComponentId(3));
+        assertEquals(0, tree.getParentIndex(3));
+    }
+
+    @Test
+    public void testGetProductTree_ContainsSharedProductComponentsOnce() {
+        coverageB.addLink(tariff, "tariff");
+
+        ProductTree tree = new ProductStructureGraph(repository).getProductTree("root", new DateTime(2016, 1, 1));
+
+        assertEquals(4, tree.size());
+        assertArrayEquals(new int[] { 1, 3 }, tree.getTargetIndices(0));
+        assertEquals("tariff", tree.getProductComponentId(2));
+        assertEquals(1, tree.getParentIndex(2));
+        assertArrayEquals(new int[] { 2 }, tree.getTargetIndices(1));
+        assertArrayEquals(new int[] { 2 }, tree.getTargetIndices(3));
+    }
+
+    @Test
+    public void testGetProductTree_LoadsEffectiveGenerationOnly() {
+        ProductStructureGraph graph = new ProductStructureGraph(repository);
+        rootGen2010.addLink(tariff, "tariff");
+
+        ProductTree tree = graph.getProductTree("root", new DateTime(2016, 1, 1));
+        rootGen2010.addLink(coverageB, "coverages");
+
+        assertEquals(4, tree.size());
+        assertEquals(4, graph.getProductTree("root", new DateTime(2016, 1, 1)).size());
+        assertEquals(4, graph.getProductTree("root", new DateTime(2014, 1, 1)).size());
+    }
+
+    @Test
+    public void testGetProductTree_UnknownProductComponent() {
+        ProductStructureGraph graph = new ProductStructureGraph(repository);
+
+        assertNull(graph.getProductTree("unknown", new DateTime(2016, 1, 1)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetProductTree_NullDate() {
+        new ProductStructureGraph(repository).getProductTree("root", null);
+    }
+
+    @Test
+    public void testGetProductStructureGraph_ModifiableRepository() {
+        ProductStructureGraph graph = repository.getProductStructureGraph();
+
+        assertNotSame(graph, repository.getProductStructureGraph());
+        assertSame(repository, graph.getRepository());
+    }
+
+    private static class LinkedProductComponent extends TestProductComponent {
+
+        private final List<IProductComponentLink<? extends IProductComponent>> links = new ArrayList<IProductComponentLink<? extends IProductComponent>>();
+
+        private final boolean changingOverTime;
+
+        public LinkedProductComponent(IRuntimeRepository repository, String id, boolean changingOverTime) {
+            super(repository, id, id, "");
+            this.changingOverTime = changingOverTime;
+        }
+
+        public void addLink(IProductComponent target, String associationName) {
+            links.add(new ProductComponentLink<IProductComponent>(this, target, associationName));
+        }
+
+        @Override
+        public List<IProductComponentLink<? extends IProductComponent>> getLinks() {
+            return links;
+        }
+
+        @Override
+        public boolean isChangingOverTime() {
+            return changingOverTime;
+        }
+
+    }
+
+    private static class LinkedGeneration extends TestProductCmptGeneration {
+
+        private final List<IProductComponentLink<? extends IProductComponent>> links = new ArrayList<IProductComponentLink<? extends IProductComponent>>();
+
+        public LinkedGeneration(ProductComponent productCmpt, DateTime validFrom) {
+            super(productCmpt);
+            setValidFrom(validFrom);
+        }
+
+        public void addLink(IProductComponent target, String associationName) {
+            links.add(new ProductComponentLink<IProductComponent>(this, target, associationName));
+        }
+
+        @Override
+        public List<IProductComponentLink<? extends IProductComponent>> getLinks() {
+            return links;
+        }
+
+    }
+
+}
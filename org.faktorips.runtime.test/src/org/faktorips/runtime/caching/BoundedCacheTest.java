@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+    private final CountingComputable computable = new CountingComputable();
+
+    private final IWeigher<String, String> lengthWeigher = new IWeigher<String, String>() {
+
+        @Override
+        public int weigh(String key, String value) {
+            return value.length();
+        }
+
+    };
+
+    @Test
+    public void testCompute_Hit() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(computable, lengthWeigher, 100, 16);
+
+        String first = cache.compute("a");
+        String second = cache.compute("a");
+
+        assertSame(first, second);
+        assertEquals(1, computable.count.get());
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getLoadCount());
+        assertEquals(1, statistics.getSize());
+        assertEquals(6, statistics.getWeight());
+    }
+
+    @Test
+    public void testCompute_Null() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(computable, lengthWeigher, 100, 16);
+
+        assertNull(cache.compute("none"));
+        assertNull(cache.compute("none"));
+
+        assertEquals(2, computable.count.get());
+        assertEquals(0, cache.getStatistics().getSize());
+    }
+
+    @Test
+    public void testCompute_EvictsLeastRecentlyUsedFromProbation() throws Exception {
+        // every value has weight 6, 3 fit into the cache
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(computable, lengthWeigher, 18, 16);
+        cache.compute("a");
+        cache.compute("b");
+        cache.compute("c");
+
+        cache.compute("d");
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(6, statistics.getEvictionWeight());
+        assertEquals(3, statistics.getSize());
+        assertEquals(18, statistics.getWeight());
+        cache.compute("b");
+        cache.compute("c");
+        cache.compute("d");
+        assertEquals(4, computable.count.get());
+        cache.compute("a");
+        assertEquals(5, computable.count.get());
+    }
+
+    @Test
+    public void testCompute_ProtectedEntriesSurviveScan() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(computable, lengthWeigher, 30, 16);
+        cache.compute("hot");
+        cache.compute("hot");
+
+        for (int i = 0; i < 10; i++) {
+            cache.compute("cold" + i);
+        }
+
+        int loads = computable.count.get();
+        cache.compute("hot");
+        assertEquals(loads, computable.count.get());
+    }
+
+    @Test
+    public void testCompute_TooHeavyValueIsNotCached() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(computable, lengthWeigher, 5, 16);
+
+        cache.compute("a");
+        cache.compute("a");
+
+        assertEquals(2, computable.count.get());
+        assertEquals(0, cache.getStatistics().getSize());
+    }
+
+    @Test
+    public void testCompute_SingleFlight() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        IComputable<String, String> slowComputable = new AbstractComputable<String, String>(String.class) {
+
+            @Override
+            public String compute(String key) throws InterruptedException {
+                count.incrementAndGet();
+                started.countDown();
+                release.await();
+                return key;
+            }
+
+        };
+        final BoundedCache<String, String> cache = new BoundedCache<String, String>(slowComputable, lengthWeigher,
+                100, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() throws Exception {
+                        return cache.compute("key");
+                    }
+
+                }));
+            }
+            started.await(5, TimeUnit.SECONDS);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("key", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(computable, lengthWeigher, 100, 16);
+        cache.compute("a");
+
+        cache.clear();
+        cache.compute("a");
+
+        assertEquals(2, computable.count.get());
+        assertEquals(6, cache.getStatistics().getWeight());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCompute_Exception() throws Exception {
+        IComputable<String, String> failing = new AbstractComputable<String, String>(String.class) {
+
+            @Override
+            public String compute(String key) throws InterruptedException {
+                throw new IllegalStateException();
+            }
+
+        };
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(failing, lengthWeigher, 100, 16);
+
+        cache.compute("a");
+    }
+
+    private static class CountingComputable extends AbstractComputable<String, String> {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public CountingComputable() {
+            super(String.class);
+        }
+
+        @Override
+        public String compute(String key) throws InterruptedException {
+            count.incrementAndGet();
+            return "none".equals(key) ? null : "value" + key.charAt(key.length() - 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.faktorips.runtime.FormulaExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompilingFormulaEvaluatorFactoryTest {
+
+    private static final String COMPUTE_PREMIUM = "import java.math.BigDecimal;\n\n"
+            + "public BigDecimal computePremium(BigDecimal sumInsured, int years) {\n"
+            + "return sumInsured.multiply(getRate()).multiply(BigDecimal.valueOf(years));\n}\n";
+
+    private static final String COMPUTE_DISCOUNT = "import java.util.List;\n\n"
+            + "public Integer computeDiscount(List<String> options) {\n"
+            + "return Integer.valueOf(options.size() * getDiscountPerOption());\n}\n";
+
+    private CompilingFormulaEvaluatorFactory factory;
+
+    private Map<String, String> formulas;
+
+    @Before
+    public void setUp() {
+        factory = new CompilingFormulaEvaluatorFactory();
+        formulas = new LinkedHashMap<String, String>();
+        formulas.put("computePremium", COMPUTE_PREMIUM);
+        formulas.put("computeDiscount", COMPUTE_DISCOUNT);
+    }
+
+    @Test
+    public void testEvaluate() {
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(new TestProductCmptGeneration(), formulas);
+
+        assertEquals(new BigDecimal("60.0"), evaluator.evaluate("computePremium", new BigDecimal(100), 3));
+        assertEquals(Integer.valueOf(10), evaluator.evaluate("computeDiscount", Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void testEvaluate_UnknownFormula() {
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(new TestProductCmptGeneration(), formulas);
+
+        try {
+            evaluator.evaluate("computeTax", new BigDecimal(100));
+            fail();
+        } catch (FormulaExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testEvaluate_CompilationError() {
+        formulas.put("computeTax", "public Integer computeTax() {\nreturn getUnknown();\n}\n");
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(new TestProductCmptGeneration(), formulas);
+
+        try {
+            evaluator.evaluate("computeDiscount", Arrays.asList("a"));
+            fail();
+        } catch (FormulaExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+            assertTrue(e.getCause().getMessage().contains("getUnknown"));
+        }
+    }
+
+    @Test
+    public void testCreateCompiledFormulas_SameFormulasShareClass() {
+        CompiledFormulas compiledFormulas1 = factory.createCompiledFormulas(new TestProductCmptGeneration(), formulas);
+        CompiledFormulas compiledFormulas2 = factory.createCompiledFormulas(new TestProductCmptGeneration(), formulas);
+
+        assertNotSame(compiledFormulas1, compiledFormulas2);
+        assertSame(compiledFormulas1.getClass(), compiledFormulas2.getClass());
+
+        formulas.remove("computeDiscount");
+        CompiledFormulas compiledFormulas3 = factory.createCompiledFormulas(new TestProductCmptGeneration(), formulas);
+        assertNotSame(compiledFormulas1.getClass(), compiledFormulas3.getClass());
+    }
+
+    @Test
+    public void testGetNameToExpressionMap() {
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(new TestProductCmptGeneration(), formulas);
+
+        assertEquals(formulas, evaluator.getNameToExpressionMap());
+    }
+
+    @Test
+    public void testEvaluate_DocumentedFormula() {
+        formulas.put("computePremium", "import java.math.BigDecimal;\n\n"
+                + "/**\n * Computes the premium (the sum insured multiplied by the rate).\n */\n"
+                + "@SuppressWarnings(value = \"unused\")\n"
+                + "public BigDecimal computePremium(BigDecimal sumInsured, int years) {\n"
+                + "// the discount (see computeDiscount(List)) is not considered\n"
+                + "return sumInsured.multiply(getRate());\n}\n");
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(new TestProductCmptGeneration(), formulas);
+
+        assertEquals(new BigDecimal("20.0"), evaluator.evaluate("computePremium", new BigDecimal(100), 3));
+    }
+
+    public static class TestProductCmptGeneration {
+
+        public BigDecimal getRate() {
+            return new BigDecimal("0.2");
+        }
+
+        public int getDiscountPerOption() {
+            return 5;
+        }
+
+        public <T extends Comparable<T>> List<T> sort(List<? extends T> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        public BigDecimal computePremium(BigDecimal sumInsured, int years) throws FormulaExecutionException {
+            throw new UnsupportedOperationException();
+        }
+
+        public Integer computeDiscount(List<String> options) throws FormulaExecutionException {
+            throw new UnsupportedOperationException();
+        }
+
+        public Integer computeTax() throws FormulaExecutionException {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -14,6 +14,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -21,11 +22,15 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -37,6 +42,7 @@ import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
 import org.faktorips.runtime.internal.toc.ProductCmptTocEntry;
 import org.faktorips.runtime.internal.toc.TableContentTocEntry;
+import org.faktorips.runtime.model.annotation.IpsEnumValueFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.w3c.dom.Document;
@@ -158,6 +164,21 @@ public class AbstractClassLoadingRuntimeRepositoryTest {
         }
     }
 
+    @Test
+    public void testCreateEnumValues_WithFactory() throws Exception {
+        EnumContentTocEntry tocEntry = mock(EnumContentTocEntry.class);
+        when(tocEntry.getXmlResourceName()).thenReturn("org/faktorips/runtime/internal/EnumSaxHandlerTest.xml");
+
+        List<TestEnumWithFactory> enumValues = repo.createEnumValues(tocEntry, TestEnumWithFactory.class);
+
+        assertThat(enumValues.size(), is(3));
+        for (int i = 0; i < enumValues.size(); i++) {
+            assertThat(enumValues.get(i).index, is(i + 1));
+            assertSame(repo, enumValues.get(i).repository);
+        }
+        assertThat(enumValues.get(0).id, is("a"));
+    }
+
     @Test
     public void testCreateTable() {
         String ipsObjectId = "qualifiedTableName";
@@ -173,6 +194,92 @@ public class AbstractClassLoadingRuntimeRepositoryTest {
         assertEquals(tocEntry.getIpsObjectId(), table.getName());
     }
 
+    @Test
+    public void testCreateTable_BinaryContent() throws Exception {
+        TableContentTocEntry tocEntry = createTableTocEntry(Long.valueOf(42));
+        doReturn(createBinaryContent(42)).when(repo).getBinaryContent(tocEntry);
+
+        ITable<?> table = repo.createTable(tocEntry);
+
+        assertEquals(1, table.getAllRows().size());
+    }
+
+    @Test
+    public void testCreateTable_BinaryContentOutdated() throws Exception {
+        TableContentTocEntry tocEntry = createTableTocEntry(Long.valueOf(43));
+        doReturn(createBinaryContent(42)).when(repo).getBinaryContent(tocEntry);
+
+        ITable<?> table = repo.createTable(tocEntry);
+
+        assertEquals(6, table.getAllRows().size());
+    }
+
+    @Test
+    public void testCreateTable_BinaryContentTruncated() throws Exception {
+        TableContentTocEntry tocEntry = createTableTocEntry(Long.valueOf(42));
+        ByteBuffer binaryContent = createBinaryContent(42);
+        binaryContent.limit(binaryContent.limit() - 4);
+        doReturn(binaryContent).when(repo).getBinaryContent(tocEntry);
+
+        ITable<?> table = repo.createTable(tocEntry);
+
+        assertEquals(6, table.getAllRows().size());
+    }
+
+    @Test
+    public void testCreateTable_XmlChecksumUnknown() throws Exception {
+        TableContentTocEntry tocEntry = createTableTocEntry(null);
+
+        ITable<?> table = repo.createTable(tocEntry);
+
+        assertEquals(6, table.getAllRows().size());
+        verify(repo, never()).getBinaryContent(tocEntry);
+    }
+
+    private TableContentTocEntry createTableTocEntry(Long xmlChecksum) {
+        return new TableContentTocEntry("qualifiedTableName", "qualifiedTableName",
+                "org/faktorips/runtime/internal/TableTest.xml", "org.faktorips.runtime.internal.TestTable",
+                xmlChecksum);
+    }
+
+    private ByteBuffer createBinaryContent(long sourceChecksum) throws IOException {
+        BinaryTableContentWriter writer = new BinaryTableContentWriter(3, sourceChecksum);
+        writer.addRow(Arrays.asList("KQV", "1", "0.15"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    public static class TestEnumWithFactory {
+
+        @IpsEnumValueFactory
+        public static final IEnumValueFactory<TestEnumWithFactory> FACTORY = new IEnumValueFactory<TestEnumWithFactory>() {
+
+            @Override
+            public TestEnumWithFactory createEnumValue(int index,
+                    List<Object> attributeValues,
+                    IRuntimeRepository repository) {
+                return new TestEnumWithFactory(index, (String)attributeValues.get(0), repository);
+            }
+        };
+
+        public static final List<TestEnumWithFactory> VALUES = Arrays.asList(new TestEnumWithFactory(0, "A", null));
+
+        private final int index;
+
+        private final String id;
+
+        private final IRuntimeRepository repository;
+
+        // not protected, so the value can only be created by the factory
+        private TestEnumWithFactory(int index, String id, IRuntimeRepository repository) {
+            this.index = index;
+            this.id = id;
+            this.repository = repository;
+        }
+
+    }
+
     public static class TestEnum {
 
         public static final List<TestEnum> VALUES = Arrays.asList(new TestEnum(0, "A", "A", null),
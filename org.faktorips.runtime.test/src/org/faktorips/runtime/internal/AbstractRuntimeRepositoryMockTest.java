@@ -14,6 +14,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
@@ -35,6 +36,7 @@ import java.util.UUID;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -43,12 +45,14 @@ import javax.xml.bind.annotation.XmlID;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 
+import org.faktorips.runtime.IEnumValueLookupService;
 import org.faktorips.runtime.IModelObject;
 import org.faktorips.runtime.IProductComponent;
 import org.faktorips.runtime.IProductComponentGeneration;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.IRuntimeRepositoryLookup;
 import org.faktorips.runtime.ITable;
+import org.faktorips.runtime.jaxb.IpsJAXBContext;
 import org.faktorips.runtime.jaxb.ProductConfigurationXmlAdapter;
 import org.faktorips.runtime.test.IpsTest2;
 import org.faktorips.runtime.test.IpsTestCaseBase;
@@ -176,6 +180,43 @@ public class AbstractRuntimeRepositoryMockTest {
         assertNotNull(jaxbContext);
     }
 
+    @Test
+    public void testGetJAXBContext() throws JAXBException {
+        AbstractRuntimeRepository repository = new TestAbstractRuntimeRepository(Foo.class);
+
+        IpsJAXBContext jaxbContext = repository.getJAXBContext();
+        Foo foo = new Foo();
+        foo.setX(42);
+        StringWriter writer = new StringWriter();
+        Marshaller marshaller = jaxbContext.acquireMarshaller();
+        marshaller.marshal(foo, writer);
+        jaxbContext.releaseMarshaller(marshaller);
+        Unmarshaller unmarshaller = jaxbContext.acquireUnmarshaller();
+        Foo foo2 = (Foo)unmarshaller.unmarshal(new StringReader(writer.toString()));
+        jaxbContext.releaseUnmarshaller(unmarshaller);
+
+        assertThat(foo2.getX(), is(foo.getX()));
+        assertSame(jaxbContext, repository.getJAXBContext());
+        assertSame(marshaller, jaxbContext.acquireMarshaller());
+        assertSame(unmarshaller, jaxbContext.acquireUnmarshaller());
+        assertNotSame(marshaller, jaxbContext.acquireMarshaller());
+    }
+
+    @Test
+    public void testGetJAXBContext_ResetByEnumValueLookupService() {
+        AbstractRuntimeRepository repository = new TestAbstractRuntimeRepository(Foo.class);
+        IpsJAXBContext jaxbContext = repository.getJAXBContext();
+        IEnumValueLookupService<?> lookupService = mock(IEnumValueLookupService.class);
+        doReturn(EnumTestClass.class).when(lookupService).getEnumTypeClass();
+
+        repository.addEnumValueLookupService(lookupService);
+        IpsJAXBContext jaxbContext2 = repository.getJAXBContext();
+        repository.removeEnumValueLookupService(lookupService);
+
+        assertNotSame(jaxbContext, jaxbContext2);
+        assertNotSame(jaxbContext2, repository.getJAXBContext());
+    }
+
     private final class TestAbstractRuntimeRepository extends AbstractRuntimeRepository {
         private final Class<? extends IModelObject> modelObjectClass;
 
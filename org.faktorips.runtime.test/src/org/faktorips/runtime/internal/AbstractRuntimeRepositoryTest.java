@@ -14,10 +14,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.GregorianCalendar;
@@ -454,6 +456,43 @@ public class AbstractRuntimeRepositoryTest {
         baseRepository.getExistingEnumValue(TestEnumValue.class, "unkownId");
     }
 
+    @Test
+    public void testGetEnumValue() {
+        TestEnumValue value1 = new TestEnumValue("value1");
+        TestEnumValue value2 = new TestEnumValue("value2");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1, value2));
+
+        assertSame(value1, baseRepository.getEnumValue(TestEnumValue.class, "value1"));
+        assertSame(value2, baseRepository.getEnumValue(TestEnumValue.class, "value2"));
+        assertNull(baseRepository.getEnumValue(TestEnumValue.class, "unknownId"));
+        // test if the search through referenced repositories works
+        assertSame(value2, mainRepository.getEnumValue(TestEnumValue.class, "value2"));
+        assertNull(mainRepository.getEnumValue(TestEnumValue.class, "unknownId"));
+    }
+
+    @Test
+    public void testGetEnumValue_ValuesReloaded() {
+        TestEnumValue value1 = new TestEnumValue("value1");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1));
+        assertSame(value1, baseRepository.getEnumValue(TestEnumValue.class, "value1"));
+
+        TestEnumValue newValue1 = new TestEnumValue("value1");
+        TestEnumValue value2 = new TestEnumValue("value2");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(newValue1, value2));
+
+        assertSame(newValue1, baseRepository.getEnumValue(TestEnumValue.class, "value1"));
+        assertSame(value2, baseRepository.getEnumValue(TestEnumValue.class, "value2"));
+    }
+
+    @Test
+    public void testGetEnumValue_FirstValueWithIdWins() {
+        TestEnumValue value1 = new TestEnumValue("value1");
+        TestEnumValue duplicate = new TestEnumValue("value1");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1, duplicate));
+
+        assertSame(value1, baseRepository.getEnumValue(TestEnumValue.class, "value1"));
+    }
+
     @Test
     public void testGetEnumValuesFromLookup() {
         Lookup lookup = new Lookup();
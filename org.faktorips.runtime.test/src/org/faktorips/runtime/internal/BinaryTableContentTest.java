@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.values.Decimal;
+import org.junit.Test;
+
+public class BinaryTableContentTest {
+
+    @Test
+    public void testGetValue() throws Exception {
+        BinaryTableContent content = write(row("KQV", "1", "0.15"), row(null, "0", "0.1"),
+                row("", "1", "0.15"));
+
+        assertEquals(3, content.getColumnCount());
+        assertEquals(3, content.getRowCount());
+        assertEquals("KQV", content.getValue(0, 0));
+        assertEquals("0.15", content.getValue(0, 2));
+        assertNull(content.getValue(1, 0));
+        assertEquals("0", content.getValue(1, 1));
+        assertEquals("", content.getValue(2, 0));
+        assertEquals(Arrays.asList("", "1", "0.15"), content.getRow(2));
+    }
+
+    @Test
+    public void testGetValue_SameStringDecodedOnce() throws Exception {
+        BinaryTableContent content = write(row("Änderung", "x"), row("x", "Änderung"));
+
+        assertEquals("Änderung", content.getValue(0, 0));
+        assertSame(content.getValue(0, 0), content.getValue(1, 1));
+        assertSame(content.getValue(0, 1), content.getValue(1, 0));
+    }
+
+    @Test
+    public void testGetValue_Empty() throws Exception {
+        BinaryTableContent content = write();
+
+        assertEquals(2, content.getColumnCount());
+        assertEquals(0, content.getRowCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetValue_InvalidRow() throws Exception {
+        write(row("a", "b")).getValue(1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinaryTableContent_NoBinaryContent() {
+        new BinaryTableContent(ByteBuffer.wrap("<TableContents/>".getBytes()));
+    }
+
+    @Test
+    public void testBinaryTableContent_Truncated() throws Exception {
+        byte[] data = toByteArray(writer(row("KQV", "1"), row(null, "Änderung")));
+
+        for (int length = 0; length < data.length; length++) {
+            try {
+                new BinaryTableContent(ByteBuffer.wrap(Arrays.copyOf(data, length)));
+                fail("Expected an IllegalArgumentException for " + length + " of " + data.length + " bytes");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinaryTableContent_StringCountOverflow() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(toByteArray(writer(row("a", "b"))));
+        buffer.putInt(20, Integer.MAX_VALUE);
+
+        new BinaryTableContent(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinaryTableContent_NegativeRowCount() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(toByteArray(writer(row("a", "b"))));
+        buffer.putInt(16, -1);
+
+        new BinaryTableContent(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinaryTableContent_DescendingStringOffsets() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(toByteArray(writer(row("a", "bc"))));
+        buffer.putInt(24, 2);
+        buffer.putInt(28, 1);
+
+        new BinaryTableContent(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddRow_WrongColumnCount() {
+        new BinaryTableContentWriter(2, 0).addRow(Arrays.asList("a"));
+    }
+
+    @Test
+    public void testGetSourceChecksum() throws Exception {
+        byte[] xml = "<TableContents/>".getBytes("UTF-8");
+        long checksum = BinaryTableContent.computeChecksum(xml);
+        BinaryTableContentWriter writer = new BinaryTableContentWriter(1, checksum);
+        writer.addRow(Arrays.asList("a"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+
+        BinaryTableContent content = new BinaryTableContent(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(checksum, content.getSourceChecksum());
+        assertEquals("a", content.getValue(0, 0));
+        assertFalse(checksum == BinaryTableContent.computeChecksum("<TableContents />".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void testCreateFromXml() throws Exception {
+        byte[] xml = ("<TableContents numOfColumns=\"2\"><ExtensionProperties><Value id=\"id\">XYZ</Value>"
+                + "</ExtensionProperties><Generation><Row><Value isNull=\"true\"/><Value>Smith &amp; Sons</Value>"
+                + "</Row><Row><Value>KQV</Value><Value isNull=\"false\"></Value></Row></Generation></TableContents>")
+                .getBytes("UTF-8");
+
+        BinaryTableContent content = new BinaryTableContent(ByteBuffer.wrap(toByteArray(BinaryTableContentWriter
+                .createFromXml(xml))));
+
+        assertEquals(BinaryTableContent.computeChecksum(xml), content.getSourceChecksum());
+        assertEquals(2, content.getColumnCount());
+        assertEquals(2, content.getRowCount());
+        assertEquals(Arrays.asList(null, "Smith & Sons"), content.getRow(0));
+        assertEquals(Arrays.asList("KQV", ""), content.getRow(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCreateFromXml_NoTableContents() throws Exception {
+        BinaryTableContentWriter.createFromXml("<EnumContent/>".getBytes("UTF-8"));
+    }
+
+    @Test
+    public void testIsSupported() {
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.putInt(0, BinaryTableContent.MAGIC_NUMBER);
+        buffer.putInt(4, BinaryTableContent.VERSION);
+        assertTrue(BinaryTableContent.isSupported(buffer));
+
+        buffer.putInt(4, BinaryTableContent.VERSION - 1);
+        assertFalse(BinaryTableContent.isSupported(buffer));
+        assertFalse(BinaryTableContent.isSupported(ByteBuffer.wrap("<TableContents/>".getBytes())));
+    }
+
+    @Test
+    public void testGetResourceName() {
+        assertEquals("org/example/Table.bintable", BinaryTableContent.getResourceName("org/example/Table.xml"));
+    }
+
+    @Test
+    public void testInitFromBinary() throws Exception {
+        BinaryTableContent content = write(row(null, "0", "0.1"), row("KQV", "1", "0.15"));
+        CountingTestTable table = new CountingTestTable();
+
+        table.initFromBinary(content, null, "tables.Test");
+
+        assertEquals("tables.Test", table.getName());
+        assertEquals(2, table.getAllRows().size());
+        assertEquals(0, table.createdRows);
+
+        TestTableRow row = table.getAllRows().get(1);
+        assertEquals("KQV", row.getCompany());
+        assertEquals(Integer.valueOf(1), row.getGender());
+        assertEquals(Decimal.valueOf("0.15"), row.getRate());
+        assertSame(row, table.getAllRows().get(1));
+        assertEquals(1, table.createdRows);
+    }
+
+    @Test
+    public void testIsCreateRowSupported() {
+        assertTrue(new TestTable().isCreateRowSupported());
+        assertTrue(new CountingTestTable().isCreateRowSupported());
+        assertFalse(new Table<String>() {
+
+            @Override
+            protected void addRow(List<String> columns, IRuntimeRepository productRepository) {
+                rows.add(columns.get(0));
+            }
+
+            @Override
+            protected void initKeyMaps() {
+                // no indices
+            }
+
+        }.isCreateRowSupported());
+    }
+
+    private BinaryTableContent write(String[]... rows) throws IOException {
+        return new BinaryTableContent(ByteBuffer.wrap(toByteArray(writer(rows))));
+    }
+
+    private BinaryTableContentWriter writer(String[]... rows) {
+        BinaryTableContentWriter writer = new BinaryTableContentWriter(rows.length == 0 ? 2 : rows[0].length, 0);
+        for (String[] row : rows) {
+            writer.addRow(Arrays.asList(row));
+        }
+        return writer;
+    }
+
+    private String[] row(String... values) {
+        return values;
+    }
+
+    private byte[] toByteArray(BinaryTableContentWriter writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+        return out.toByteArray();
+    }
+
+    private static class CountingTestTable extends TestTable {
+
+        private int createdRows;
+
+        @Override
+        protected TestTableRow createRow(List<String> values, IRuntimeRepository productRepository) {
+            createdRows++;
+            return super.createRow(values, productRepository);
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.faktorips.runtime.internal.GenerationOffsetIndex.Range;
+import org.junit.Test;
+
+public class GenerationOffsetIndexTest {
+
+    private static final String GENERATION_2005 = "<Generation validFrom=\"2005-01-01\">\n"
+            + "  <AttributeValue attribute=\"text\"><Value>a &lt; b</Value></AttributeValue>\n"
+            + "  <Formula name=\"compute\"><compiledExpression><![CDATA[return a < b ? \"</Generation>\" : \"]]]]><![CDATA[>\";]]></compiledExpression></Formula>\n"
+            + "  <Generation validFrom=\"2004-01-01\"/>\n" + "</Generation>";
+
+    private static final String GENERATION_2006 = "<Generation description='x > y' validFrom='2006-01-01'/>";
+
+    private static final String GENERATION_2007 = "<Generation\n validFrom=\"2007-01-01\" >äöü</Generation>";
+
+    @Test
+    public void testCreate() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<!-- <Generation validFrom=\"2000-01-01\"/> -->\n"
+                + "<ProductCmpt runtimeId=\"product\">\n" + "  <validTo>2010-01-01</validTo>\n    " + GENERATION_2005
+                + "\n  " + GENERATION_2006 + "\n  <?target data?>\n  " + GENERATION_2007 + "\n</ProductCmpt>\n";
+        byte[] bytes = xml.getBytes("UTF-8");
+
+        GenerationOffsetIndex index = GenerationOffsetIndex.create(new ByteArrayInputStream(bytes));
+
+        assertTrue(index.isSupported());
+        assertEquals("UTF-8", index.getEncoding());
+        assertEquals(3, index.size());
+        assertEquals(GENERATION_2005, getContent(bytes, index.getGeneration(new DateTime(2005, 1, 1))));
+        assertEquals(GENERATION_2006, getContent(bytes, index.getGeneration(new DateTime(2006, 1, 1))));
+        assertEquals(GENERATION_2007, getContent(bytes, index.getGeneration(new DateTime(2007, 1, 1))));
+        assertNull(index.getGeneration(new DateTime(2004, 1, 1)));
+        assertNull(index.getGeneration(new DateTime(2000, 1, 1)));
+    }
+
+    @Test
+    public void testCreate_Encoding() throws IOException {
+        String xml = "<?xml version='1.0' encoding='ISO-8859-1'?><ProductCmpt>" + GENERATION_2007 + "</ProductCmpt>";
+        byte[] bytes = xml.getBytes("ISO-8859-1");
+
+        GenerationOffsetIndex index = GenerationOffsetIndex.create(new ByteArrayInputStream(bytes));
+
+        assertEquals("ISO-8859-1", index.getEncoding());
+        Range range = index.getGeneration(new DateTime(2007, 1, 1));
+        assertEquals(GENERATION_2007, new String(bytes, (int)range.getStart(), range.getLength(), "ISO-8859-1"));
+    }
+
+    @Test
+    public void testCreate_FirstGenerationWins() throws IOException {
+        String xml = "<ProductCmpt><Generation validFrom=\"2006-01-01\"/>" + GENERATION_2006 + "</ProductCmpt>";
+        byte[] bytes = xml.getBytes("UTF-8");
+
+        GenerationOffsetIndex index = GenerationOffsetIndex.create(new ByteArrayInputStream(bytes));
+
+        assertEquals(1, index.size());
+        assertEquals(13, index.getGeneration(new DateTime(2006, 1, 1)).getStart());
+    }
+
+    @Test
+    public void testCreate_Utf16() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-16\"?><ProductCmpt>" + GENERATION_2006 + "</ProductCmpt>";
+
+        GenerationOffsetIndex index = GenerationOffsetIndex.create(new ByteArrayInputStream(xml.getBytes("UTF-16")));
+
+        assertFalse(index.isSupported());
+        assertEquals(0, index.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_Incomplete() throws IOException {
+        GenerationOffsetIndex.create(new ByteArrayInputStream("<ProductCmpt><Generation validFrom=\"2006-01-01\">"
+                .getBytes("UTF-8")));
+    }
+
+    private String getContent(byte[] bytes, Range range) throws IOException {
+        return new String(bytes, (int)range.getStart(), range.getLength(), "UTF-8");
+    }
+
+}
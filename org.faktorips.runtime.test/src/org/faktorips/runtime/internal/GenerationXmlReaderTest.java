@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class GenerationXmlReaderTest {
+
+    private static final String PRODUCT_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<ProductCmpt runtimeId=\"product\">\n"
+            + "  <Generation validFrom=\"2005-01-01\">\n"
+            + "    <AttributeValue attribute=\"rate\"><Value isNull=\"false\">1.5</Value></AttributeValue>\n"
+            + "  </Generation>\n"
+            + "  <Generation validFrom=\"2006-01-01\">\n"
+            + "    <!-- comment -->\n"
+            + "    <AttributeValue attribute=\"text\"><Value isNull=\"false\">a &lt; b ä</Value></AttributeValue>\n"
+            + "    <Formula formulaSignature=\"compute\"><compiledExpression><![CDATA[return 1 < 2;]]></compiledExpression></Formula>\n"
+            + "  </Generation>\n" + "</ProductCmpt>\n";
+
+    private final List<File> files = new ArrayList<File>();
+
+    private File productFile;
+
+    private URL product;
+
+    private GenerationXmlReader reader;
+
+    private DocumentBuilder documentBuilder;
+
+    @Before
+    public void setUp() throws Exception {
+        productFile = createFile(PRODUCT_XML.getBytes("UTF-8"));
+        product = productFile.toURI().toURL();
+        reader = new GenerationXmlReader();
+        documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private File createFile(byte[] content) throws IOException {
+        File file = File.createTempFile("product", ".xml");
+        files.add(file);
+        write(file, content);
+        return file;
+    }
+
+    private void write(File file, byte[] content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void testReadGeneration() {
+        Element genElement = reader.readGeneration(product, new DateTime(2006, 1, 1), documentBuilder);
+
+        assertEquals("Generation", genElement.getNodeName());
+        assertEquals("2006-01-01", genElement.getAttribute("validFrom"));
+        assertSame(genElement, genElement.getOwnerDocument().getDocumentElement());
+        Element attributeValue = (Element)genElement.getElementsByTagName("AttributeValue").item(0);
+        assertEquals("text", attributeValue.getAttribute("attribute"));
+        assertEquals("a < b ä", ValueToXmlHelper.getValueFromElement(attributeValue, "Value"));
+        NodeList expressions = genElement.getElementsByTagName("compiledExpression");
+        assertEquals(1, expressions.getLength());
+        assertEquals("return 1 < 2;", expressions.item(0).getTextContent());
+        assertEquals(Node.CDATA_SECTION_NODE, expressions.item(0).getFirstChild().getNodeType());
+    }
+
+    @Test
+    public void testReadGeneration_SameContentAsDom() throws Exception {
+        Element productElement = documentBuilder.parse(new ByteArrayInputStream(PRODUCT_XML.getBytes("UTF-8")))
+                .getDocumentElement();
+        Element domGenElement = (Element)productElement.getElementsByTagName("Generation").item(0);
+
+        Element genElement = reader.readGeneration(product, new DateTime(2005, 1, 1), documentBuilder);
+
+        assertTrue(domGenElement.isEqualNode(genElement));
+    }
+
+    @Test
+    public void testReadGeneration_EntitiesInValue() throws Exception {
+        String productXml = PRODUCT_XML.replace("a &lt; b ä", "Smith &amp; Sons &lt;GmbH&gt;");
+        URL productWithEntities = createFile(productXml.getBytes("UTF-8")).toURI().toURL();
+
+        Element genElement = reader.readGeneration(productWithEntities, new DateTime(2006, 1, 1), documentBuilder);
+
+        Element attributeValue = (Element)genElement.getElementsByTagName("AttributeValue").item(0);
+        assertEquals("Smith & Sons <GmbH>", XmlUtil.getValueFromNode(attributeValue, "Value"));
+        assertEquals(1, XmlUtil.getFirstElement(attributeValue, "Value").getChildNodes().getLength());
+    }
+
+    @Test
+    public void testReadGeneration_UnknownGeneration() {
+        assertNull(reader.readGeneration(product, new DateTime(2007, 1, 1), documentBuilder));
+    }
+
+    @Test
+    public void testReadGeneration_UnsupportedEncoding() throws IOException {
+        URL product16 = createFile(PRODUCT_XML.replace("UTF-8", "UTF-16").getBytes("UTF-16")).toURI().toURL();
+
+        assertNull(reader.readGeneration(product16, new DateTime(2005, 1, 1), documentBuilder));
+    }
+
+    @Test
+    public void testReadGeneration_ChangedResource() throws IOException {
+        reader.readGeneration(product, new DateTime(2005, 1, 1), documentBuilder);
+        write(productFile, PRODUCT_XML.replace("<ProductCmpt", "<ProductCmpt  ").getBytes("UTF-8"));
+
+        try {
+            reader.readGeneration(product, new DateTime(2006, 1, 1), documentBuilder);
+            fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        reader.clear();
+        assertEquals("2006-01-01", reader.readGeneration(product, new DateTime(2006, 1, 1), documentBuilder)
+                .getAttribute("validFrom"));
+    }
+
+    @Test
+    public void testReadGeneration_MissingResource() {
+        assertNull(reader.readGeneration(null, new DateTime(2005, 1, 1), documentBuilder));
+    }
+
+    @Test
+    public void testReadGeneration_PackedResource() throws Exception {
+        URL packedProduct = new URL("jar:" + product + "!/product.xml");
+
+        assertNull(reader.readGeneration(packedProduct, new DateTime(2005, 1, 1), documentBuilder));
+    }
+
+}
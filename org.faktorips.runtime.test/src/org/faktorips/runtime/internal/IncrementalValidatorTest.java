@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.beans.PropertyChangeEvent;
+
+import org.faktorips.runtime.AssociationChangedEvent;
+import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.ValidationContext;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalValidatorTest {
+
+    private TestValidatedModelObject root;
+
+    private TestValidatedModelObject coverage;
+
+    private TestValidatedModelObject insured1;
+
+    private TestValidatedModelObject insured2;
+
+    private IncrementalValidator validator;
+
+    @Before
+    public void setUp() {
+        root = new TestValidatedModelObject("root");
+        coverage = root.addChild("coverage");
+        insured1 = coverage.addChild("insured1");
+        insured2 = coverage.addChild("insured2");
+        validator = new IncrementalValidator(root, new ValidationContext());
+    }
+
+    @Test
+    public void testValidate() {
+        insured2.setValid(false);
+
+        MessageList list = validator.validate();
+
+        assertEquals(1, list.size());
+        assertEquals("insured2", list.getMessage(0).getCode());
+        assertEquals(1, insured1.getValidateSelfCount());
+    }
+
+    @Test
+    public void testValidate_ReusesMessagesOfUnchangedObjects() {
+        insured2.setValid(false);
+        validator.validate();
+
+        MessageList list = validator.validate();
+
+        assertEquals(1, list.size());
+        assertEquals("insured2", list.getMessage(0).getCode());
+        assertEquals(1, root.getValidateSelfCount());
+        assertEquals(1, insured2.getValidateSelfCount());
+    }
+
+    @Test
+    public void testPropertyChange_RevalidatesChangedObjectAndParents() {
+        validator.validate();
+        insured1.setValid(false);
+
+        validator.propertyChange(new PropertyChangeEvent(insured1, "name", "a", "b"));
+        MessageList list = validator.validate();
+
+        assertEquals(1, list.size());
+        assertEquals("insured1", list.getMessage(0).getCode());
+        assertEquals(2, insured1.getValidateSelfCount());
+        assertEquals(2, coverage.getValidateSelfCount());
+        assertEquals(2, root.getValidateSelfCount());
+        assertEquals(1, insured2.getValidateSelfCount());
+    }
+
+    @Test
+    public void testPropertyChange_AddedAndRemovedObjects() {
+        validator.validate();
+        coverage.removeChild(insured1);
+        TestValidatedModelObject insured3 = coverage.addChild("insured3");
+        insured3.setValid(false);
+
+        validator.propertyChange(new AssociationChangedEvent(coverage, "insured", null, insured3));
+        MessageList list = validator.validate();
+
+        assertEquals(1, list.size());
+        assertEquals("insured3", list.getMessage(0).getCode());
+        assertEquals(1, insured3.getValidateSelfCount());
+        assertEquals(1, insured2.getValidateSelfCount());
+    }
+
+    @Test
+    public void testValidate_StopValidation() {
+        insured1.setValid(false);
+        coverage.setStopValidation(true);
+
+        assertEquals(0, validator.validate().size());
+
+        coverage.setStopValidation(false);
+        validator.invalidate(coverage);
+        assertEquals(1, validator.validate().size());
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        validator.validate();
+
+        validator.invalidateAll();
+        validator.validate();
+
+        assertEquals(2, root.getValidateSelfCount());
+        assertEquals(2, insured2.getValidateSelfCount());
+    }
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ParallelTasksTest {
+
+    @Test
+    public void testRun() {
+        final AtomicInteger[] counters = new AtomicInteger[10];
+        Runnable[] tasks = new Runnable[counters.length];
+        for (int i = 0; i < tasks.length; i++) {
+            final AtomicInteger counter = new AtomicInteger();
+            counters[i] = counter;
+            tasks[i] = new Runnable() {
+
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                }
+            };
+        }
+
+        ParallelTasks.run(tasks);
+
+        for (AtomicInteger counter : counters) {
+            assertEquals(1, counter.get());
+        }
+    }
+
+    @Test
+    public void testRun_Exception() {
+        final AtomicInteger counter = new AtomicInteger();
+        final IllegalStateException exception = new IllegalStateException();
+        Runnable failingTask = new Runnable() {
+
+            @Override
+            public void run() {
+                throw exception;
+            }
+        };
+        Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+
+        try {
+            ParallelTasks.run(failingTask, task, task);
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+        assertEquals(2, counter.get());
+    }
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IValidationContext;
+import org.faktorips.runtime.Message;
+import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.Severity;
+import org.faktorips.runtime.ValidationContext;
+import org.junit.Test;
+
+public class ParallelValidatorTest {
+
+    @Test
+    public void testValidate_SameMessagesAsSequentialValidation() {
+        TestValidatedModelObject root = new TestValidatedModelObject("root");
+        root.setValid(false);
+        for (int i = 0; i < 100; i++) {
+            TestValidatedModelObject child = root.addChild("child" + i);
+            child.setValid(i % 3 != 0);
+            for (int j = 0; j < 20; j++) {
+                child.addChild("child" + i + "." + j).setValid(j % 7 != 0);
+            }
+        }
+        ValidationContext context = new ValidationContext();
+
+        MessageList list = new ParallelValidator(context).validate(root);
+
+        assertEquals(root.validate(context), list);
+        assertEquals("root", list.getMessage(0).getCode());
+        assertEquals("child0", list.getMessage(1).getCode());
+        assertEquals("child0.0", list.getMessage(2).getCode());
+    }
+
+    @Test
+    public void testValidate_StopValidation() {
+        TestValidatedModelObject root = new TestValidatedModelObject("root");
+        TestValidatedModelObject child = root.addChild("child");
+        child.setValid(false);
+        root.setStopValidation(true);
+
+        MessageList list = new ParallelValidator(new ValidationContext()).validate(root);
+
+        assertEquals(0, list.size());
+        assertEquals(0, child.getValidateSelfCount());
+    }
+
+    @Test
+    public void testValidate_ValidatesEveryObjectOnce() {
+        TestValidatedModelObject root = new TestValidatedModelObject("root");
+        for (int i = 0; i < ParallelValidator.MIN_CHILDREN_FOR_PARALLEL_VALIDATION * 4; i++) {
+            root.addChild("child" + i);
+        }
+
+        new ParallelValidator(new ValidationContext()).validate(root);
+
+        assertEquals(1, root.getValidateSelfCount());
+        for (IModelObject child : ParallelValidator.getDependantsToValidate(root)) {
+            assertEquals(1, ((TestValidatedModelObject)child).getValidateSelfCount());
+        }
+    }
+
+    @Test
+    public void testValidate_OverriddenValidateMethod() {
+        int count = ParallelValidator.MIN_CHILDREN_FOR_PARALLEL_VALIDATION;
+        TestValidatedModelObject root = new TestValidatedModelObject("root");
+        for (int i = 0; i < count; i++) {
+            root.addChild("child" + i).setValid(false);
+        }
+        TestValidatedModelObject custom = root.addChild(new CustomValidatedModelObject("custom"));
+        custom.addChild("customChild").setValid(false);
+        ValidationContext context = new ValidationContext();
+
+        MessageList list = new ParallelValidator(context).validate(root);
+
+        assertEquals(root.validate(context), list);
+        assertEquals("custom", list.getMessage(count).getCode());
+        assertEquals("customChild", list.getMessage(count + 1).getCode());
+    }
+
+    @Test
+    public void testGetDependantsToValidate() {
+        TestValidatedModelObject root = new TestValidatedModelObject("root");
+        root.addChild("child");
+
+        assertEquals(1, ParallelValidator.getDependantsToValidate(root).size());
+        assertNull(ParallelValidator.getDependantsToValidate(new CustomValidatedModelObject("custom")));
+        root.setDependantsKnown(false);
+        assertNull(ParallelValidator.getDependantsToValidate(root));
+        assertTrue(new ParallelValidator(new ValidationContext()).validate(root).isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testParallelValidator_NullContext() {
+        new ParallelValidator(null);
+    }
+
+    /**
+     * Adds a message in an overridden validate method, like an object whose validation has been
+     * customized.
+     */
+    private static class CustomValidatedModelObject extends TestValidatedModelObject {
+
+        public CustomValidatedModelObject(String name) {
+            super(name);
+        }
+
+        @Override
+        public void validate(MessageList list, IValidationContext context) {
+            list.add(new Message(getName(), "custom", Severity.ERROR, this));
+            super.validate(list, context);
+        }
+
+    }
+
+}
@@ -11,6 +11,7 @@
 package org.faktorips.runtime.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -108,6 +109,60 @@ public class ProductCmptTocEntryTest extends XmlAbstractTestCase {
         assertSame(genEntry1, entry.getGenerationEntry(new GregorianCalendar(2006, 0, 1)));
     }
 
+    @Test
+    public void testGetEffectiveGenerationEntry() {
+        ProductCmptTocEntry entry = new ProductCmptTocEntry("MotorPolicy", "MotorPolicy", "MotorProduct", "2005-01",
+                "MotorPolice.ipsproduct", "java.lang.String", "java.lang.String", new DateTime(2010, 1, 1));
+        assertNull(entry.getEffectiveGenerationEntry(new DateTime(2005, 1, 1)));
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2006, 1, 1), "class", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry1, genEntry0));
+        assertNull(entry.getEffectiveGenerationEntry(null));
+        assertNull(entry.getEffectiveGenerationEntry(new DateTime(2004, 12, 31, 23, 59, 59)));
+        assertSame(genEntry0, entry.getEffectiveGenerationEntry(new DateTime(2005, 1, 1)));
+        assertSame(genEntry0, entry.getEffectiveGenerationEntry(new DateTime(2005, 12, 31, 23, 59, 59)));
+        assertSame(genEntry1, entry.getEffectiveGenerationEntry(new DateTime(2006, 1, 1)));
+        assertSame(genEntry1, entry.getEffectiveGenerationEntry(new DateTime(2100, 1, 1)));
+    }
+
+    @Test
+    public void testGetGenerationEntry_ValidFrom() {
+        ProductCmptTocEntry entry = new ProductCmptTocEntry("MotorPolicy", "MotorPolicy", "MotorProduct", "2005-01",
+                "MotorPolice.ipsproduct", "java.lang.String", "java.lang.String", new DateTime(2010, 1, 1));
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2006, 1, 1), "class", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry0, genEntry1));
+        assertSame(genEntry0, entry.getGenerationEntry(new DateTime(2005, 1, 1)));
+        assertSame(genEntry1, entry.getGenerationEntry(new DateTime(2006, 1, 1)));
+        assertNull(entry.getGenerationEntry(new DateTime(2005, 6, 1)));
+        assertSame(genEntry1, entry.getLatestGenerationEntry());
+    }
+
+    @Test
+    public void testGetNextAndPreviousGenerationEntry() {
+        ProductCmptTocEntry entry = new ProductCmptTocEntry("MotorPolicy", "MotorPolicy", "MotorProduct", "2005-01",
+                "MotorPolice.ipsproduct", "java.lang.String", "java.lang.String", new DateTime(2010, 1, 1));
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2006, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry2 = new GenerationTocEntry(entry, new DateTime(2007, 1, 1), "class", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry2, genEntry0, genEntry1));
+
+        assertSame(genEntry1, entry.getNextGenerationEntry(new DateTime(2005, 1, 1)));
+        assertSame(genEntry2, entry.getNextGenerationEntry(new DateTime(2006, 1, 1)));
+        assertNull(entry.getNextGenerationEntry(new DateTime(2007, 1, 1)));
+        assertSame(genEntry1, entry.getPreviousGenerationEntry(new DateTime(2007, 1, 1)));
+        assertSame(genEntry0, entry.getPreviousGenerationEntry(new DateTime(2006, 1, 1)));
+        assertNull(entry.getPreviousGenerationEntry(new DateTime(2005, 1, 1)));
+
+        assertSame(genEntry1, entry.getNextGenerationEntry(new GregorianCalendar(2005, 0, 1)));
+        assertNull(entry.getNextGenerationEntry(new GregorianCalendar(2007, 0, 1)));
+        assertSame(genEntry1, entry.getPreviousGenerationEntry(new GregorianCalendar(2007, 0, 1)));
+        assertNull(entry.getPreviousGenerationEntry(new GregorianCalendar(2005, 0, 1)));
+
+        List<GenerationTocEntry> genEntries = entry.getGenerationEntries();
+        assertEquals(Arrays.asList(genEntry2, genEntry1, genEntry0), genEntries);
+    }
+
     @Test
     public void testToString() {
         TocEntryObject entry = new ProductCmptTocEntry("MotorProduct 2005-01", "motor.MotorProduct 2005-01",
@@ -126,4 +181,30 @@ public class ProductCmptTocEntryTest extends XmlAbstractTestCase {
         assertTrue(toc instanceof TableContentTocEntry);
     }
 
+    @Test
+    public void testTableTocEntryToXml_WithXmlChecksum() {
+        TableContentTocEntry entry = new TableContentTocEntry("RateTable", "RateTable", "RateTable.xml", "RateTable",
+                Long.valueOf(4294967295L));
+
+        Element element = entry.toXml(newDocument());
+        TableContentTocEntry readEntry = new AbstractTocEntryFactory.TableContentTocEntryFactory()
+                .createFromXml(element);
+
+        assertEquals(Long.valueOf(4294967295L), readEntry.getXmlChecksum());
+        assertEquals(entry, readEntry);
+    }
+
+    @Test
+    public void testTableTocEntryToXml_WithoutXmlChecksum() {
+        TableContentTocEntry entry = new TableContentTocEntry("RateTable", "RateTable", "RateTable.xml", "RateTable");
+
+        Element element = entry.toXml(newDocument());
+        TableContentTocEntry readEntry = new AbstractTocEntryFactory.TableContentTocEntryFactory()
+                .createFromXml(element);
+
+        assertFalse(element.hasAttribute(TableContentTocEntry.PROPERTY_XML_CHECKSUM));
+        assertNull(readEntry.getXmlChecksum());
+        assertEquals(entry, readEntry);
+    }
+
 }
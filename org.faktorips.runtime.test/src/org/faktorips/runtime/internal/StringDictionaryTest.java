@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void testGet() {
+        StringDictionary dictionary = new StringDictionary(10);
+        char[] chars = "xabcabcab".toCharArray();
+
+        String abc = dictionary.get(chars, 1, 3);
+        assertEquals("abc", abc);
+        assertSame(abc, dictionary.get(chars, 4, 3));
+        assertEquals("ab", dictionary.get(chars, 7, 2));
+        assertEquals("", dictionary.get(chars, 0, 0));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    public void testGet_Resize() {
+        StringDictionary dictionary = new StringDictionary(1000);
+        String[] values = new String[500];
+        for (int i = 0; i < values.length; i++) {
+            char[] chars = Integer.toString(i).toCharArray();
+            values[i] = dictionary.get(chars, 0, chars.length);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            char[] chars = Integer.toString(i).toCharArray();
+            assertSame(values[i], dictionary.get(chars, 0, chars.length));
+        }
+        assertEquals(500, dictionary.size());
+    }
+
+    @Test
+    public void testGet_MaxSize() {
+        StringDictionary dictionary = new StringDictionary(2);
+        char[] chars = "abc".toCharArray();
+        String a = dictionary.get(chars, 0, 1);
+        dictionary.get(chars, 1, 1);
+
+        String c = dictionary.get(chars, 2, 1);
+
+        assertEquals("c", c);
+        assertNotSame(c, dictionary.get(chars, 2, 1));
+        assertSame(a, dictionary.get(chars, 0, 1));
+        assertEquals(2, dictionary.size());
+    }
+
+}
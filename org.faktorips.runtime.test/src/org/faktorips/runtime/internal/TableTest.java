@@ -12,6 +12,7 @@ package org.faktorips.runtime.internal;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
@@ -68,6 +69,9 @@ public class TableTest extends XmlAbstractTestCase {
         assertEquals(Integer.valueOf("1"), row.getGender());
         assertEquals(Decimal.valueOf("0.15"), row.getRate());
 
+        // repeated values share the same string
+        assertSame(table.rows.get(2).getCompany(), table.rows.get(3).getCompany());
+
         row = table.rows.get(5);
         assertEquals("BBV", row.getCompany());
         assertEquals(Integer.valueOf("1"), row.getGender());
@@ -56,6 +56,17 @@ public class TestTable extends Table<TestTableRow> {
      */
     @Override
     protected void addRow(List<String> values, IRuntimeRepository productRepository) {
+        rows.add(createRow(values, productRepository));
+    }
+
+    /**
+     * Diese Methode wird waehrend der Initialisierung verwendet. Sie erzeugt eine neue
+     * Tabellenzeile.
+     * 
+     * @generated
+     */
+    @Override
+    protected TestTableRow createRow(List<String> values, IRuntimeRepository productRepository) {
         String columnValue = values.get(0);
         String company = columnValue == null ? null : columnValue;
         columnValue = values.get(1);
@@ -63,7 +74,7 @@ public class TestTable extends Table<TestTableRow> {
                 : IpsStringUtils.isEmpty(columnValue) ? null : Integer.valueOf(columnValue);
         columnValue = values.get(2);
         Decimal rate = columnValue == null ? Decimal.NULL : Decimal.valueOf(columnValue);
-        rows.add(new TestTableRow(company, gender, rate));
+        return new TestTableRow(company, gender, rate);
     }
 
     /**
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.faktorips.runtime.IDependantObject;
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IModelObjectVisitor;
+import org.faktorips.runtime.IValidationContext;
+import org.faktorips.runtime.IVisitorSupport;
+import org.faktorips.runtime.Message;
+import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.Severity;
+
+/**
+ * A model object for validation tests. It reports an error with its name as code if it is invalid
+ * and validates its children like generated code.
+ */
+public class TestValidatedModelObject extends AbstractModelObject implements IVisitorSupport, IDependantObject {
+
+    private final String name;
+
+    private final List<TestValidatedModelObject> children = new ArrayList<TestValidatedModelObject>();
+
+    private final AtomicInteger validateSelfCount = new AtomicInteger();
+
+    private TestValidatedModelObject parent;
+
+    private boolean valid = true;
+
+    private boolean stopValidation;
+
+    private boolean dependantsKnown = true;
+
+    public TestValidatedModelObject(String name) {
+        this.name = name;
+    }
+
+    public TestValidatedModelObject addChild(String childName) {
+        return addChild(new TestValidatedModelObject(childName));
+    }
+
+    public <T extends TestValidatedModelObject> T addChild(T child) {
+        ((TestValidatedModelObject)child).parent = this;
+        children.add(child);
+        return child;
+    }
+
+    public void removeChild(TestValidatedModelObject child) {
+        children.remove(child);
+        child.parent = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public void setStopValidation(boolean stopValidation) {
+        this.stopValidation = stopValidation;
+    }
+
+    public void setDependantsKnown(boolean dependantsKnown) {
+        this.dependantsKnown = dependantsKnown;
+    }
+
+    public int getValidateSelfCount() {
+        return validateSelfCount.get();
+    }
+
+    @Override
+    public IModelObject getParentModelObject() {
+        return parent;
+    }
+
+    @Override
+    protected boolean validateSelf(MessageList list, IValidationContext context) {
+        validateSelfCount.incrementAndGet();
+        if (!valid) {
+            list.add(new Message(name, "invalid", Severity.ERROR, this));
+        }
+        return stopValidation ? STOP_VALIDATION : CONTINUE_VALIDATION;
+    }
+
+    @Override
+    protected void validateDependants(MessageList list, IValidationContext context) {
+        for (TestValidatedModelObject child : children) {
+            list.add(child.validate(context));
+        }
+    }
+
+    @Override
+    protected List<IModelObject> getDependantsToValidate() {
+        return dependantsKnown ? new ArrayList<IModelObject>(children) : null;
+    }
+
+    @Override
+    public boolean accept(IModelObjectVisitor visitor) {
+        if (!visitor.visit(this)) {
+            return false;
+        }
+        for (TestValidatedModelObject child : children) {
+            child.accept(visitor);
+        }
+        return true;
+    }
+
+}
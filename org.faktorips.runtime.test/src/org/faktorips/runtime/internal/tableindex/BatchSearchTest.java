@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchSearchTest {
+
+    private KeyStructure<String, RangeStructure<Integer, UniqueResultStructure<String>, String>, String> structure;
+
+    @Before
+    public void setUp() {
+        structure = KeyStructure.create();
+        structure.put("a", createRangeStructure("a", 0, 10, 20));
+        structure.put("b", createRangeStructure("b", 0, 5));
+        // "Aa" and "BB" have the same hash code
+        structure.put("Aa", createRangeStructure("Aa", 0));
+        structure.put("BB", createRangeStructure("BB", 0));
+    }
+
+    private RangeStructure<Integer, UniqueResultStructure<String>, String> createRangeStructure(String prefix,
+            int... lowerBounds) {
+        RangeStructure<Integer, UniqueResultStructure<String>, String> rangeStructure = RangeStructure
+                .create(RangeType.LOWER_BOUND_EQUAL);
+        for (int lowerBound : lowerBounds) {
+            rangeStructure.put(lowerBound, UniqueResultStructure.createWith(prefix + lowerBound));
+        }
+        return rangeStructure;
+    }
+
+    @Test
+    public void testGetUnique() {
+        String[] results = new String[8];
+
+        BatchSearch.getUnique(structure, results, "-", new String[] { "a", "b", "a", "c", "a", null, "b", "a" },
+                new Integer[] { 5, 3, 15, 1, -1, 5, 7, 5 });
+
+        assertArrayEquals(new String[] { "a0", "b0", "a10", "-", "-", "-", "b5", "a0" }, results);
+    }
+
+    @Test
+    public void testGetUnique_Compact() {
+        String[] results = new String[4];
+
+        BatchSearch.getUnique(structure.compact(), results, null, new String[] { "b", "a", "a", "b" }, new Integer[] {
+                7, 25, 10, null });
+
+        assertArrayEquals(new String[] { "b5", "a20", "a10", null }, results);
+    }
+
+    @Test
+    public void testGetUnique_EqualHashCodes() {
+        String[] results = new String[4];
+
+        BatchSearch.getUnique(structure, results, null, new String[] { "Aa", "BB", "BB", "Aa" }, new Integer[] { 1,
+                2, 3, 4 });
+
+        assertArrayEquals(new String[] { "Aa0", "BB0", "BB0", "Aa0" }, results);
+    }
+
+    @Test
+    public void testGetUnique_TwoColumnRange() {
+        TwoColumnRangeStructure<Integer, UniqueResultStructure<String>, String> rangeStructure = TwoColumnRangeStructure
+                .create();
+        rangeStructure.put(1, 5, UniqueResultStructure.createWith("low"));
+        rangeStructure.put(10, 20, UniqueResultStructure.createWith("high"));
+        String[] results = new String[5];
+
+        BatchSearch.getUnique(rangeStructure, results, null, new Integer[] { 20, 7, 1, 15, 5 });
+
+        assertArrayEquals(new String[] { "high", null, "low", "high", "low" }, results);
+    }
+
+    @Test
+    public void testGetUnique_ManyKeys() {
+        String[] keys1 = { "a", "b", "c", "Aa", "BB" };
+        Random random = new Random(42);
+        int count = 1000;
+        String[] firstKeys = new String[count];
+        Integer[] secondKeys = new Integer[count];
+        String[] expected = new String[count];
+        for (int i = 0; i < count; i++) {
+            firstKeys[i] = keys1[random.nextInt(keys1.length)];
+            secondKeys[i] = random.nextInt(30) - 5;
+            expected[i] = structure.get(firstKeys[i]).get(secondKeys[i]).getUnique(null);
+        }
+        String[] results = new String[count];
+
+        BatchSearch.getUnique(structure, results, null, firstKeys, secondKeys);
+
+        assertArrayEquals(expected, results);
+    }
+
+    @Test
+    public void testGetUnique_NoKeys() {
+        String[] results = new String[0];
+
+        BatchSearch.getUnique(structure, results, null, new String[0], new Integer[0]);
+
+        assertArrayEquals(new String[0], results);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetUnique_DifferentLength() {
+        BatchSearch.getUnique(structure, new String[2], null, new String[] { "a", "b" }, new Integer[] { 1 });
+    }
+
+}
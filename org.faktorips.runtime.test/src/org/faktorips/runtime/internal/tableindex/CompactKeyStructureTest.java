@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CompactKeyStructureTest {
+
+    @Test
+    public void testGet() {
+        KeyStructure<String, UniqueResultStructure<Integer>, Integer> structure = KeyStructure.create();
+        for (int i = 0; i < 1000; i++) {
+            structure.put("key" + i, UniqueResultStructure.createWith(i));
+        }
+
+        SearchStructure<Integer> compact = structure.compact();
+
+        assertTrue(compact instanceof CompactKeyStructure);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), compact.get("key" + i).getUnique());
+        }
+        assertTrue(compact.get("key1000").get().isEmpty());
+        assertTrue(compact.get(null).get().isEmpty());
+        assertEquals(structure.get(), compact.get());
+    }
+
+    @Test
+    public void testGet_CollidingHashCodes() {
+        KeyStructure<CollidingKey, ResultStructure<String>, String> structure = KeyStructure.create();
+        structure.put(new CollidingKey("a"), new ResultStructure<String>("A"));
+        structure.put(new CollidingKey("b"), new ResultStructure<String>("B"));
+        structure.put(new CollidingKey("c"), new ResultStructure<String>("C"));
+
+        SearchStructure<String> compact = structure.compact();
+
+        assertEquals("A", compact.get(new CollidingKey("a")).getUnique());
+        assertEquals("B", compact.get(new CollidingKey("b")).getUnique());
+        assertEquals("C", compact.get(new CollidingKey("c")).getUnique());
+        assertTrue(compact.get(new CollidingKey("d")).get().isEmpty());
+    }
+
+    @Test
+    public void testGet_Nested() {
+        KeyStructure<String, TwoColumnRangeStructure<Integer, UniqueResultStructure<String>, String>, String> structure = KeyStructure
+                .create();
+        structure.put("x", TwoColumnRangeStructure.<Integer, UniqueResultStructure<String>, String> createWith(1, 10,
+                UniqueResultStructure.createWith("X")));
+
+        SearchStructure<String> compact = structure.compact();
+
+        assertEquals("X", compact.get("x").get(5).getUnique());
+        assertTrue(compact.get("x").get(11).get().isEmpty());
+        assertTrue(compact.get("y").get(5).get().isEmpty());
+    }
+
+    private static class CollidingKey {
+
+        private final String value;
+
+        public CollidingKey(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey)obj).value.equals(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.GregorianCalendar;
+
+import org.faktorips.values.Decimal;
+import org.junit.Test;
+
+public class CompactRangeStructureTest {
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testGet_SameResultsAsRangeStructure() {
+        for (RangeType rangeType : RangeType.values()) {
+            RangeStructure<Integer, ResultStructure<String>, String> structure = RangeStructure.create(rangeType);
+            structure.put(-5, new ResultStructure<String>("A"));
+            structure.put(10, new ResultStructure<String>("B"));
+            structure.put(25, new ResultStructure<String>("C"));
+            structure.put(26, new ResultStructure<String>("D"));
+
+            SearchStructure<String> compact = structure.compact();
+
+            assertTrue(compact instanceof CompactRangeStructure);
+            for (int key = -10; key < 35; key++) {
+                assertEquals(rangeType + " " + key, structure.get(key).get(), compact.get(key).get());
+            }
+        }
+    }
+
+    @Test
+    public void testGet_Calendar() {
+        RangeStructure<GregorianCalendar, UniqueResultStructure<String>, String> structure = RangeStructure
+                .create(RangeType.LOWER_BOUND_EQUAL);
+        structure.put(new GregorianCalendar(2020, 0, 1), UniqueResultStructure.createWith("2020"));
+        structure.put(new GregorianCalendar(2021, 0, 1), UniqueResultStructure.createWith("2021"));
+
+        SearchStructure<String> compact = structure.compact();
+
+        assertEquals(null, compact.get(new GregorianCalendar(2019, 11, 31)).getUnique(null));
+        assertEquals("2020", compact.get(new GregorianCalendar(2020, 0, 1)).getUnique());
+        assertEquals("2020", compact.get(new GregorianCalendar(2020, 11, 31)).getUnique());
+        assertEquals("2021", compact.get(new GregorianCalendar(2030, 0, 1)).getUnique());
+    }
+
+    @Test
+    public void testGet_Decimal() {
+        RangeStructure<Decimal, UniqueResultStructure<String>, String> structure = RangeStructure
+                .create(RangeType.UPPER_BOUND_EQUAL);
+        structure.put(Decimal.valueOf("1.5"), UniqueResultStructure.createWith("low"));
+        structure.put(Decimal.valueOf("10"), UniqueResultStructure.createWith("high"));
+
+        SearchStructure<String> compact = structure.compact();
+
+        assertEquals("low", compact.get(Decimal.valueOf("1.50")).getUnique());
+        assertEquals("high", compact.get(Decimal.valueOf("1.51")).getUnique());
+        assertEquals(null, compact.get(Decimal.valueOf("10.01")).getUnique(null));
+    }
+
+    @Test
+    public void testGet_Nested() {
+        RangeStructure<Integer, RangeStructure<Long, UniqueResultStructure<String>, String>, String> structure = RangeStructure
+                .create(RangeType.LOWER_BOUND_EQUAL);
+        structure.put(0, RangeStructure.<Long, UniqueResultStructure<String>, String> createWith(
+                RangeType.LOWER_BOUND_EQUAL, 100L, UniqueResultStructure.createWith("A")));
+
+        SearchStructure<String> compact = structure.compact();
+
+        assertEquals("A", compact.get(1).get(200L).getUnique());
+        assertEquals(null, compact.get(1).get(99L).getUnique(null));
+        assertEquals(null, compact.get(-1).get(200L).getUnique(null));
+    }
+
+    @Test
+    public void testGet_Null() {
+        RangeStructure<Integer, ResultStructure<String>, String> structure = RangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, 1, new ResultStructure<String>("A"));
+
+        SearchStructure<String> compact = structure.compact();
+
+        assertTrue(compact.get(null).get().isEmpty());
+    }
+
+    @Test
+    public void testCompact() {
+        RangeStructure<Integer, ResultStructure<String>, String> structure = RangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, 1, new ResultStructure<String>("A"));
+        SearchStructure<String> compact = structure.compact();
+
+        assertSame(compact, compact.compact());
+        assertEquals(structure.get(), compact.get());
+    }
+
+}
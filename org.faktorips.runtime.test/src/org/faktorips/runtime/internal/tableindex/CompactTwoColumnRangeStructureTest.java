@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactTwoColumnRangeStructureTest {
+
+    private TwoColumnRangeStructure<Integer, ResultStructure<String>, String> structure;
+
+    @Before
+    public void setUp() {
+        structure = TwoColumnRangeStructure.create();
+        structure.put(0, 8, new ResultStructure<String>("A"));
+        structure.put(12, 20, new ResultStructure<String>("B"));
+        structure.put(15, 30, new ResultStructure<String>("overlapping"));
+        structure.put(120, 200, false, false, new ResultStructure<String>("exclusiveExclusive"));
+        structure.put(200, 200, new ResultStructure<String>("point"));
+        structure.put(220, 300, false, true, new ResultStructure<String>("exclusiveInclusive"));
+        structure.put(320, 400, true, false, new ResultStructure<String>("inclusiveExclusive"));
+    }
+
+    @Test
+    public void testGet_SameResultsAsTwoColumnRangeStructure() {
+        SearchStructure<String> compact = structure.compact();
+
+        assertTrue(compact instanceof CompactTwoColumnRangeStructure);
+        for (int key = -10; key < 420; key++) {
+            assertEquals("key " + key, structure.get(key).get(), compact.get(key).get());
+        }
+    }
+
+    @Test
+    public void testGet_Unbounded() {
+        structure.put(null, -10, new ResultStructure<String>("negativeInfinity"));
+        structure.put(500, null, new ResultStructure<String>("positiveInfinity"));
+
+        SearchStructure<String> compact = structure.compact();
+
+        for (int key = -20; key < 520; key++) {
+            assertEquals("key " + key, structure.get(key).get(), compact.get(key).get());
+        }
+        assertEquals("negativeInfinity", compact.get(Integer.MIN_VALUE).getUnique());
+        assertEquals("positiveInfinity", compact.get(Integer.MAX_VALUE).getUnique());
+    }
+
+    @Test
+    public void testGet_Empty() {
+        SearchStructure<String> compact = TwoColumnRangeStructure
+                .<Integer, ResultStructure<String>, String> create().compact();
+
+        assertTrue(compact.get(1).get().isEmpty());
+        assertTrue(compact.get(null).get().isEmpty());
+    }
+
+}
@@ -23,6 +23,7 @@ import org.faktorips.runtime.internal.ProductComponentGeneration;
 import org.faktorips.runtime.model.IpsModel;
 import org.faktorips.runtime.model.annotation.IpsAllowedValues;
 import org.faktorips.runtime.model.annotation.IpsAttribute;
+import org.faktorips.runtime.model.annotation.IpsAttributeAccessor;
 import org.faktorips.runtime.model.annotation.IpsAttributeSetter;
 import org.faktorips.runtime.model.annotation.IpsAttributes;
 import org.faktorips.runtime.model.annotation.IpsChangingOverTime;
@@ -89,6 +90,55 @@ public class DefaultPolicyAttributeTest {
         assertEquals(567, modelObject.attr1);
     }
 
+    @Test
+    public void testGetValue_WithAccessor() {
+        PolicyAttribute attr = IpsModel.getPolicyCmptType(AccessedPolicy.class).getAttribute("attr");
+        AccessedPolicy modelObject = new AccessedPolicy();
+        modelObject.attr = "foo";
+        CountingAccessor.count = 0;
+
+        assertEquals("foo", attr.getValue(modelObject));
+        assertEquals(1, CountingAccessor.count);
+    }
+
+    @Test
+    public void testSetValue_WithAccessor() {
+        PolicyAttribute attr = IpsModel.getPolicyCmptType(AccessedPolicy.class).getAttribute("attr");
+        AccessedPolicy modelObject = new AccessedPolicy();
+        CountingAccessor.count = 0;
+
+        attr.setValue(modelObject, "bar");
+
+        assertEquals("bar", modelObject.attr);
+        assertEquals(1, CountingAccessor.count);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetValue_WithAccessor_WrongModelObject() {
+        PolicyAttribute attr = IpsModel.getPolicyCmptType(AccessedPolicy.class).getAttribute("attr");
+
+        attr.getValue(new Policy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetValue_WithAccessor_WrongValue() {
+        PolicyAttribute attr = IpsModel.getPolicyCmptType(AccessedPolicy.class).getAttribute("attr");
+
+        attr.setValue(new AccessedPolicy(), 42);
+    }
+
+    @Test
+    public void testSetValue_WithAccessor_SetterThrows() {
+        PolicyAttribute attr = IpsModel.getPolicyCmptType(AccessedPolicy.class).getAttribute("attr");
+
+        try {
+            attr.setValue(new AccessedPolicy(), "invalid");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
     @Test
     public void testSetValue_OnSubclass() {
         PolicyCmptType subModelType = IpsModel.getPolicyCmptType(SubPolicy.class);
@@ -874,4 +924,50 @@ public class DefaultPolicyAttributeTest {
         }
     }
 
+    @IpsPolicyCmptType(name = "MyAccessedPolicy")
+    @IpsAttributes({ "attr" })
+    public static class AccessedPolicy implements IModelObject {
+
+        @IpsAttributeAccessor("attr")
+        public static final IAttributeAccessor ACCESSOR_ATTR = new CountingAccessor();
+
+        private String attr;
+
+        @IpsAttribute(name = "attr", kind = AttributeKind.CHANGEABLE, valueSetKind = ValueSetKind.AllValues)
+        public String getAttr() {
+            return attr;
+        }
+
+        @IpsAttributeSetter("attr")
+        public void setAttr(String attr) {
+            if ("invalid".equals(attr)) {
+                throw new IllegalStateException("invalid value");
+            }
+            this.attr = attr;
+        }
+
+        @Override
+        public MessageList validate(IValidationContext context) {
+            return null;
+        }
+    }
+
+    private static class CountingAccessor implements IAttributeAccessor {
+
+        private static int count;
+
+        @Override
+        public Object getValue(Object source) {
+            count++;
+            return ((AccessedPolicy)source).getAttr();
+        }
+
+        @Override
+        public void setValue(Object target, Object value) {
+            count++;
+            ((AccessedPolicy)target).setAttr((String)value);
+        }
+
+    }
+
 }
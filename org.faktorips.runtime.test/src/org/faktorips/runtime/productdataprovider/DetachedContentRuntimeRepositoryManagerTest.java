@@ -13,8 +13,11 @@ package org.faktorips.runtime.productdataprovider;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -23,12 +26,14 @@ import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import org.faktorips.runtime.IProductComponent;
 import org.faktorips.runtime.IProductComponentGeneration;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.IRuntimeRepositoryManager;
 import org.faktorips.runtime.InMemoryRuntimeRepository;
+import org.faktorips.runtime.PreloadFilter;
 import org.faktorips.runtime.internal.DateTime;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -406,6 +411,65 @@ public class DetachedContentRuntimeRepositoryManagerTest {
         assertEquals(referencedRepository, repository.getDirectlyReferencedRepositories().get(0));
     }
 
+    @Test
+    public void testGetCurrentRuntimeRepository_backgroundReload() throws Exception {
+        DetachedContentRuntimeRepositoryManager manager = (DetachedContentRuntimeRepositoryManager)new Builder(
+                pdpFactory).setBackgroundReload(10, TimeUnit.MILLISECONDS).setPreload(new PreloadFilter(), 2).build();
+        try {
+            assertTrue(manager.isBackgroundReloadEnabled());
+            IRuntimeRepository oldRepository = manager.getCurrentRuntimeRepository();
+            TestProductDataProvider oldProductDataProvider = pdpFactory.testProductDataProvider;
+            // preloaded before it was published
+            assertTrue(oldProductDataProvider.flag);
+            oldProductDataProvider.flag = false;
+            assertNotNull(oldRepository.getProductComponent("motor.MotorBasic"));
+            assertFalse(oldProductDataProvider.flag);
+            assertSame(oldRepository, manager.getCurrentRuntimeRepository());
+
+            oldProductDataProvider.baseVersion = "1";
+
+            IRuntimeRepository newRepository = oldRepository;
+            long timeout = System.currentTimeMillis() + 10000;
+            while (newRepository == oldRepository && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+                newRepository = manager.getCurrentRuntimeRepository();
+            }
+            assertNotSame(oldRepository, newRepository);
+            assertNotNull(newRepository.getProductComponent("motor.MotorBasic"));
+            // the old repository is still usable
+            assertNotNull(oldRepository.getProductComponent("motor.MotorBasic"));
+        } finally {
+            manager.stopBackgroundReload();
+        }
+        assertFalse(manager.isBackgroundReloadEnabled());
+    }
+
+    @Test
+    public void testGetCurrentRuntimeRepository_backgroundReloadDataModified() throws Exception {
+        DetachedContentRuntimeRepositoryManager manager = (DetachedContentRuntimeRepositoryManager)new Builder(
+                pdpFactory).setBackgroundReload(1, TimeUnit.HOURS).build();
+        try {
+            IRuntimeRepository oldRepository = manager.getCurrentRuntimeRepository();
+            pdpFactory.testProductDataProvider.baseVersion = "1";
+            // the background reload has not noticed the modification yet
+            assertSame(oldRepository, manager.getCurrentRuntimeRepository());
+
+            try {
+                oldRepository.getProductComponent("motor.MotorBasic");
+                fail();
+            } catch (DataModifiedRuntimeException e) {
+                // expected
+            }
+
+            IRuntimeRepository newRepository = manager.getCurrentRuntimeRepository();
+            assertNotSame(oldRepository, newRepository);
+            assertNotNull(newRepository.getProductComponent("motor.MotorBasic"));
+            assertSame(newRepository, manager.getCurrentRuntimeRepository());
+        } finally {
+            manager.stopBackgroundReload();
+        }
+    }
+
     private static class TestProductDataProvider extends ClassLoaderProductDataProvider {
 
         /**
@@ -414,7 +478,7 @@ public class DetachedContentRuntimeRepositoryManagerTest {
          */
         boolean flag = false;
 
-        String baseVersion = "0";
+        volatile String baseVersion = "0";
 
         public TestProductDataProvider(ClassLoaderDataSource dataSource, String toc) {
             super(dataSource, toc, true);
@@ -462,7 +526,7 @@ public class DetachedContentRuntimeRepositoryManagerTest {
 
     public static class MyFactory extends ClassLoaderProductDataProviderFactory {
 
-        private TestProductDataProvider testProductDataProvider;
+        private volatile TestProductDataProvider testProductDataProvider;
         private final ClassLoader cl;
         private final String tocResourcePath2;
 
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.lang.ref.WeakReference;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.faktorips.runtime.caching.BoundedCache;
+import org.faktorips.runtime.caching.CacheStatistics;
+import org.faktorips.runtime.caching.IComputable;
+import org.faktorips.runtime.caching.IWeigher;
+import org.faktorips.runtime.internal.AbstractCacheFactory;
+
+/**
+ * Cache factory creating a {@link BoundedCache} for each object type. In contrast to the
+ * {@link DefaultCacheFactory} the cached objects are not held by soft references, so they are never
+ * removed by the garbage collector. Instead every kind of cache has a maximum weight and evicts
+ * rarely used objects when it is exceeded.
+ * <p>
+ * By default the weight of every entry is 1, so the maximum weight is the maximum number of cached
+ * objects. Use {@link #setEstimatedEntryWeight(CacheKind, int)} or
+ * {@link #setWeigher(CacheKind, IWeigher)} to weigh the entries by their estimated memory
+ * consumption instead. The factory has to be configured before it is given to a repository.
+ * <p>
+ * The statistics of all caches created by this factory are available by calling
+ * {@link #getStatistics(CacheKind)}. The factory only holds weak references to its caches, so the
+ * caches of a repository that is no longer used, e.g. an old repository of a
+ * {@link org.faktorips.runtime.productdataprovider.DetachedContentRuntimeRepositoryManager}, are
+ * garbage collected together with their contents and no longer contribute to the statistics.
+ */
+public class BoundedCacheFactory extends AbstractCacheFactory {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 100;
+
+    private final Map<CacheKind, CacheConfiguration> configurations = new EnumMap<CacheKind, CacheConfiguration>(
+            CacheKind.class);
+
+    private final Map<CacheKind, List<WeakReference<BoundedCache<?, ?>>>> caches = new EnumMap<CacheKind, List<WeakReference<BoundedCache<?, ?>>>>(
+            CacheKind.class);
+
+    /**
+     * Creates a new factory using the default maximum weight of every {@link CacheKind} and a weight
+     * of 1 for every entry.
+     */
+    public BoundedCacheFactory() {
+        super();
+        for (CacheKind kind : CacheKind.values()) {
+            configurations.put(kind, new CacheConfiguration(kind.getDefaultMaximumWeight()));
+            caches.put(kind, new CopyOnWriteArrayList<WeakReference<BoundedCache<?, ?>>>());
+        }
+    }
+
+    /**
+     * Sets the maximum sum of the weights of all entries in a cache of the given kind.
+     */
+    public void setMaximumWeight(CacheKind kind, long maximumWeight) {
+        configurations.get(kind).maximumWeight = maximumWeight;
+    }
+
+    public long getMaximumWeight(CacheKind kind) {
+        return configurations.get(kind).maximumWeight;
+    }
+
+    /**
+     * Sets the estimated weight, for example the estimated memory consumption in bytes, that is
+     * used for every entry of a cache of the given kind.
+     */
+    public void setEstimatedEntryWeight(CacheKind kind, int estimatedEntryWeight) {
+        setWeigher(kind, new ConstantWeigher(estimatedEntryWeight));
+    }
+
+    /**
+     * Sets the {@link IWeigher} that computes the weight of every entry of a cache of the given kind.
+     */
+    public void setWeigher(CacheKind kind, IWeigher<Object, Object> weigher) {
+        configurations.get(kind).weigher = weigher;
+    }
+
+    /**
+     * Sets the initial capacity of the internal maps of a cache of the given kind. This parameter is
+     * only for tuning purpose.
+     */
+    public void setInitialCapacity(CacheKind kind, int initialCapacity) {
+        configurations.get(kind).initialCapacity = initialCapacity;
+    }
+
+    @Override
+    public IComputable<String, IProductComponent> createProductCmptCache(
+            IComputable<String, IProductComponent> computable) {
+        return createCache(CacheKind.PRODUCT_COMPONENT, computable);
+    }
+
+    @Override
+    public IComputable<GenerationId, IProductComponentGeneration> createProductCmptGenerationCache(
+            IComputable<GenerationId, IProductComponentGeneration> computable) {
+        return createCache(CacheKind.PRODUCT_COMPONENT_GENERATION, computable);
+    }
+
+    @Override
+    public IComputable<String, ITable<?>> createTableCache(IComputable<String, ITable<?>> computable) {
+        return createCache(CacheKind.TABLE, computable);
+    }
+
+    @Override
+    public IComputable<Class<?>, List<?>> createEnumCache(IComputable<Class<?>, List<?>> computable) {
+        return createCache(CacheKind.ENUM, computable);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The repository uses this method to create the caches for custom runtime objects, hence the
+     * configuration of {@link CacheKind#CUSTOM_OBJECT} is used.
+     */
+    @Override
+    public <K, V> IComputable<K, V> createCache(IComputable<K, V> computable) {
+        return createCache(CacheKind.CUSTOM_OBJECT, computable);
+    }
+
+    protected <K, V> BoundedCache<K, V> createCache(CacheKind kind, IComputable<K, V> computable) {
+        CacheConfiguration configuration = configurations.get(kind);
+        BoundedCache<K, V> cache = new BoundedCache<K, V>(computable, configuration.weigher,
+                configuration.maximumWeight, configuration.initialCapacity);
+        removeCollectedCaches(kind);
+        caches.get(kind).add(new WeakReference<BoundedCache<?, ?>>(cache));
+        return cache;
+    }
+
+    private void removeCollectedCaches(CacheKind kind) {
+        List<WeakReference<BoundedCache<?, ?>>> cachesOfKind = caches.get(kind);
+        for (WeakReference<BoundedCache<?, ?>> reference : cachesOfKind) {
+            if (reference.get() == null) {
+                cachesOfKind.remove(reference);
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of the statistics of all caches of the given kind created by this factory
+     * that have not been garbage collected yet.
+     */
+    public CacheStatistics getStatistics(CacheKind kind) {
+        removeCollectedCaches(kind);
+        CacheStatistics statistics = CacheStatistics.EMPTY;
+        for (WeakReference<BoundedCache<?, ?>> reference : caches.get(kind)) {
+            BoundedCache<?, ?> cache = reference.get();
+            if (cache != null) {
+                statistics = statistics.plus(cache.getStatistics());
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * The different kinds of caches used by a repository.
+     */
+    public enum CacheKind {
+
+        PRODUCT_COMPONENT(10000),
+
+        PRODUCT_COMPONENT_GENERATION(50000),
+
+        TABLE(500),
+
+        ENUM(500),
+
+        CUSTOM_OBJECT(1000);
+
+        private final long defaultMaximumWeight;
+
+        private CacheKind(long defaultMaximumWeight) {
+            this.defaultMaximumWeight = defaultMaximumWeight;
+        }
+
+        public long getDefaultMaximumWeight() {
+            return defaultMaximumWeight;
+        }
+
+    }
+
+    private static class CacheConfiguration {
+
+        private long maximumWeight;
+
+        private IWeigher<Object, Object> weigher = new ConstantWeigher(1);
+
+        private int initialCapacity = DEFAULT_INITIAL_CAPACITY;
+
+        public CacheConfiguration(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+    }
+
+    private static class ConstantWeigher implements IWeigher<Object, Object> {
+
+        private final int weight;
+
+        public ConstantWeigher(int weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("The weight must not be negative: " + weight);
+            }
+            this.weight = weight;
+        }
+
+        @Override
+        public int weigh(Object key, Object value) {
+            return weight;
+        }
+
+    }
+
+}
@@ -12,13 +12,17 @@ package org.faktorips.runtime;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.faktorips.runtime.internal.AbstractClassLoadingRuntimeRepository;
+import org.faktorips.runtime.internal.BinaryTableContent;
 import org.faktorips.runtime.internal.DateTime;
+import org.faktorips.runtime.internal.GenerationXmlReader;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -66,6 +70,9 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
     /** Path to the resource containing the toc. **/
     private final String tocResourcePath;
 
+    /** Reads single generations without parsing the whole product component resource. */
+    private final GenerationXmlReader generationXmlReader = new GenerationXmlReader();
+
     /**
      * Creates a new repository that loads its contents from the given classloader and the given
      * package. Uses the default toc resource name. Uses the default document builder available via
@@ -269,6 +276,12 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
 
     @Override
     protected Element getDocumentElement(GenerationTocEntry tocEntry) {
+        Element indexedGenElement = generationXmlReader.readGeneration(
+                getClassLoader().getResource(tocEntry.getParent().getXmlResourceName()), tocEntry.getValidFrom(),
+                getDocumentBuilder());
+        if (indexedGenElement != null) {
+            return indexedGenElement;
+        }
         Element docElement = getDocumentElement(tocEntry.getParent());
         NodeList nl = docElement.getChildNodes();
         DateTime validFrom = tocEntry.getValidFrom();
@@ -369,6 +382,27 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
         return is;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Looks for a resource next to the XML resource of the table contents having the file
+     * extension {@value BinaryTableContent#FILE_EXTENSION}. If the resource is a file, it is mapped
+     * into memory.
+     */
+    @Override
+    protected ByteBuffer getBinaryContent(TableContentTocEntry tocEntry) {
+        String resource = BinaryTableContent.getResourceName(tocEntry.getXmlResourceName());
+        URL url = getClassLoader().getResource(resource);
+        if (url == null) {
+            return null;
+        }
+        try {
+            return BinaryTableContent.load(url);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't load resource " + resource + " for toc entry " + tocEntry, e);
+        }
+    }
+
     @Override
     protected <T> Element getDocumentElement(CustomTocEntryObject<T> tocEntry) {
         return getDocumentElement((TocEntry)tocEntry);
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+/**
+ * Listener that is informed about the progress of
+ * {@link IRuntimeRepository#preload(PreloadFilter, java.util.concurrent.ExecutorService, IPreloadListener)}
+ * . The listener is always called by the thread that started the preloading, so implementations
+ * need not be thread safe.
+ */
+public interface IPreloadListener {
+
+    /**
+     * Called every time a runtime object has been loaded or failed to load.
+     * 
+     * @param timing the time needed to load the object and the error, if any
+     * @param completedCount the number of objects that have been processed so far, including this
+     *            one
+     * @param totalCount the number of objects that are preloaded in total
+     */
+    public void artifactLoaded(PreloadTiming timing, int completedCount, int totalCount);
+
+}
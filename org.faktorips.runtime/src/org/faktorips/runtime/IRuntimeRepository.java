@@ -13,13 +13,16 @@ package org.faktorips.runtime;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.xml.bind.JAXBContext;
 
 import org.faktorips.runtime.formula.IFormulaEvaluatorFactory;
 import org.faktorips.runtime.internal.AbstractTocBasedRuntimeRepository;
+import org.faktorips.runtime.internal.DateTime;
 import org.faktorips.runtime.internal.ProductConfiguration;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
+import org.faktorips.runtime.jaxb.IpsJAXBContext;
 import org.faktorips.runtime.model.IpsModel;
 import org.faktorips.runtime.modeltype.IModelType;
 import org.faktorips.runtime.test.IpsTest2;
@@ -209,6 +212,22 @@ public interface IRuntimeRepository {
      */
     public IProductComponentGeneration getProductComponentGeneration(String id, Calendar effectiveDate);
 
+    /**
+     * Returns the product component generation identified by the id and the effective date. Same as
+     * {@link #getProductComponentGeneration(String, Calendar)} but the effective date is given as
+     * {@link DateTime} that is interpreted in the default time zone.
+     * <p>
+     * Use this method if the same effective dates are requested very often, for example the current
+     * date. The repository does not need to convert the date to a point in time and may remember
+     * the generations found for the last requested dates.
+     * 
+     * @param id The product component's id.
+     * @param effectiveDate The process' effective date
+     * 
+     * @return The product component generation or <code>null</code>.
+     */
+    public IProductComponentGeneration getEffectiveProductComponentGeneration(String id, DateTime effectiveDate);
+
     /**
      * Returns the product component generation identified by the id and the effective date. Same as
      * getProductComponentGeneration(String id, Calendar effectiveDate) but throws an exception if
@@ -293,6 +312,16 @@ public interface IRuntimeRepository {
      */
     public List<String> getAllProductComponentIds();
 
+    /**
+     * Returns the graph of the links between the product components of this repository and the
+     * repositories it depends on. The graph is created when this method is called for the first
+     * time and shared by all subsequent calls. If the repository is modifiable a new graph is
+     * created for every call.
+     * 
+     * @see ProductStructureGraph#getProductTree(String, DateTime)
+     */
+    public ProductStructureGraph getProductStructureGraph();
+
     /**
      * Returns all tables available in this repository. Returns an empty list if no table is
      * available.
@@ -440,6 +469,23 @@ public interface IRuntimeRepository {
      */
     public JAXBContext newJAXBContext();
 
+    /**
+     * Returns a JAXBContext that can marshall / unmarshall all model classes like the context
+     * created by {@link #newJAXBContext()}. The context is created when this method is called for
+     * the first time and shared by all subsequent calls, as creating a context is expensive. The
+     * context is thread safe and provides pools of marshallers and unmarshallers that are
+     * preconfigured with the adapters of this repository.
+     * <p>
+     * The context is created again after an {@link IEnumValueLookupService} has been added to or
+     * removed from this repository. If the repository is modifiable a new context is created for
+     * every call. A new version of the product data is always provided by a new repository, so the
+     * context is never shared between different versions.
+     * 
+     * @see IpsJAXBContext#acquireMarshaller()
+     * @see IpsJAXBContext#acquireUnmarshaller()
+     */
+    public IpsJAXBContext getJAXBContext();
+
     /**
      * Getting a formula evaluator factory to create a new formula evaluator. If formula evaluation
      * is not supported, this method should return null.
@@ -495,4 +541,34 @@ public interface IRuntimeRepository {
      */
     public void setRuntimeRepositoryLookup(IRuntimeRepositoryLookup repositoryLookup);
 
+    /**
+     * Loads the product components, product component generations, tables and enum contents
+     * selected by the given filter into the caches of this repository and all referenced
+     * repositories. The objects are loaded in parallel by the given executor, its number of threads
+     * limits the number of objects that are loaded at the same time. This method returns when all
+     * objects are loaded.
+     * <p>
+     * Use this method to warm up a repository before it is used, so the first requests do not pay
+     * for parsing the product data. Objects that can not be loaded do not stop the preloading, their
+     * errors are reported in the result instead. Note that the configured caches may not be able to
+     * hold all preloaded objects.
+     * 
+     * @param filter selects the objects to preload
+     * @param executor the executor loading the objects, it is not shut down by this method
+     * @param listener informed about the progress, may be <code>null</code>
+     * @return the timings of all preloaded objects
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the
+     *             objects. The remaining objects are not loaded in this case.
+     */
+    public PreloadResult preload(PreloadFilter filter, ExecutorService executor, IPreloadListener listener)
+            throws InterruptedException;
+
+    /**
+     * Loads the objects selected by the given filter into the caches using a new thread pool with
+     * the given number of threads.
+     * 
+     * @see #preload(PreloadFilter, ExecutorService, IPreloadListener)
+     */
+    public PreloadResult preload(PreloadFilter filter, int parallelism) throws InterruptedException;
+
 }
@@ -183,7 +183,7 @@ public class InMemoryRuntimeRepository extends AbstractRuntimeRepository {
      */
     public <T> void putEnumValues(Class<T> enumType, List<T> enumValues) {
         List<T> copy = new ArrayList<T>(enumValues);
-        enumValuesMap.put(enumType, copy);
+        enumValuesMap.put(enumType, Collections.unmodifiableList(copy));
     }
 
     @Override
@@ -359,10 +359,7 @@ public class InMemoryRuntimeRepository extends AbstractRuntimeRepository {
     protected <T> List<T> getEnumValuesInternal(Class<T> clazz) {
         @SuppressWarnings("unchecked")
         List<T> values = (List<T>)enumValuesMap.get(clazz);
-        if (values == null) {
-            return null;
-        }
-        return Collections.unmodifiableList(values);
+        return values;
     }
 
     /**
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Selects the runtime objects that are loaded by
+ * {@link IRuntimeRepository#preload(PreloadFilter, java.util.concurrent.ExecutorService, IPreloadListener)}
+ * . A new filter accepts all product components, product component generations, tables and enum
+ * contents. The criteria set by the setters are combined, an object is preloaded only if it matches
+ * all of them.
+ */
+public class PreloadFilter {
+
+    private final Set<ArtifactType> artifactTypes = EnumSet.allOf(ArtifactType.class);
+
+    private String idPrefix;
+
+    private Class<?> productComponentType;
+
+    private long effectiveFrom = Long.MIN_VALUE;
+
+    private long effectiveTo = Long.MAX_VALUE;
+
+    /**
+     * Restricts the preloading to the given kinds of runtime objects.
+     */
+    public void setArtifactTypes(ArtifactType... types) {
+        artifactTypes.clear();
+        for (ArtifactType type : types) {
+            artifactTypes.add(type);
+        }
+    }
+
+    /**
+     * Returns whether runtime objects of the given kind are preloaded.
+     */
+    public boolean isIncluded(ArtifactType type) {
+        return artifactTypes.contains(type);
+    }
+
+    /**
+     * Restricts the preloading to runtime objects whose id starts with the given prefix. The id is
+     * the kind id for product components and their generations, the qualified name for tables and
+     * the name of the enum class for enum contents. <code>null</code> accepts all ids.
+     */
+    public void setIdPrefix(String idPrefix) {
+        this.idPrefix = idPrefix;
+    }
+
+    public String getIdPrefix() {
+        return idPrefix;
+    }
+
+    /**
+     * Returns whether the given id starts with the configured prefix.
+     * 
+     * @see #setIdPrefix(String)
+     */
+    public boolean acceptId(String id) {
+        return idPrefix == null || (id != null && id.startsWith(idPrefix));
+    }
+
+    /**
+     * Restricts the preloading of product components and generations to instances of the given
+     * product component class or interface. <code>null</code> accepts all product components.
+     */
+    public void setProductComponentType(Class<?> productComponentType) {
+        this.productComponentType = productComponentType;
+    }
+
+    public Class<?> getProductComponentType() {
+        return productComponentType;
+    }
+
+    /**
+     * Returns whether product components of the given implementation class are preloaded.
+     * 
+     * @see #setProductComponentType(Class)
+     */
+    public boolean acceptProductComponentType(Class<?> implementationClass) {
+        return productComponentType == null || productComponentType.isAssignableFrom(implementationClass);
+    }
+
+    /**
+     * Restricts the preloading of product components and generations to those that are valid at
+     * any time within the given window. Both dates are inclusive, <code>null</code> means that the
+     * window is unbounded on this side.
+     */
+    public void setEffectiveDateWindow(Calendar from, Calendar to) {
+        effectiveFrom = from == null ? Long.MIN_VALUE : from.getTimeInMillis();
+        effectiveTo = to == null ? Long.MAX_VALUE : to.getTimeInMillis();
+    }
+
+    /**
+     * Returns whether an object that is valid from the first until (exclusive) the second point in
+     * time overlaps the configured effective date window. The points in time are given in
+     * milliseconds, use {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE} for unbounded periods.
+     * 
+     * @see #setEffectiveDateWindow(Calendar, Calendar)
+     */
+    public boolean acceptValidityPeriod(long validFrom, long validTo) {
+        return validFrom <= effectiveTo && validTo > effectiveFrom;
+    }
+
+    /**
+     * The kinds of runtime objects that could be preloaded.
+     */
+    public enum ArtifactType {
+
+        PRODUCT_COMPONENT,
+
+        PRODUCT_COMPONENT_GENERATION,
+
+        TABLE,
+
+        ENUM;
+
+    }
+
+}
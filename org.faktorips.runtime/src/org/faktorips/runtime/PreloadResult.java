@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.faktorips.runtime.PreloadFilter.ArtifactType;
+
+/**
+ * The result of
+ * {@link IRuntimeRepository#preload(PreloadFilter, java.util.concurrent.ExecutorService, IPreloadListener)}
+ * containing the {@link PreloadTiming timings} of all preloaded runtime objects.
+ */
+public class PreloadResult {
+
+    private final List<PreloadTiming> timings;
+
+    private final long elapsedNanos;
+
+    public PreloadResult(List<PreloadTiming> timings, long elapsedNanos) {
+        this.timings = Collections.unmodifiableList(new ArrayList<PreloadTiming>(timings));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the timings of all preloaded objects in the order they finished loading.
+     */
+    public List<PreloadTiming> getTimings() {
+        return timings;
+    }
+
+    /**
+     * Returns the number of preloaded objects including those that failed to load.
+     */
+    public int getCount() {
+        return timings.size();
+    }
+
+    /**
+     * Returns the number of preloaded objects of the given kind.
+     */
+    public int getCount(ArtifactType type) {
+        int count = 0;
+        for (PreloadTiming timing : timings) {
+            if (timing.getType() == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the timings of all objects that could not be loaded.
+     */
+    public List<PreloadTiming> getFailures() {
+        List<PreloadTiming> failures = new ArrayList<PreloadTiming>();
+        for (PreloadTiming timing : timings) {
+            if (!timing.isSuccessful()) {
+                failures.add(timing);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Returns <code>true</code> if all objects were loaded without error.
+     */
+    public boolean isSuccessful() {
+        return getFailures().isEmpty();
+    }
+
+    /**
+     * Returns the wall clock time in nanoseconds from the start of the preloading until the last
+     * object was loaded.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the sum of the loading times of all objects. Divided by {@link #getElapsedNanos()}
+     * this is the achieved degree of parallelism.
+     */
+    public long getTotalLoadTimeNanos() {
+        long total = 0;
+        for (PreloadTiming timing : timings) {
+            total += timing.getDurationNanos();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the timings of the objects that took the longest time to load, the slowest first.
+     * 
+     * @param maxCount the maximum number of timings returned
+     */
+    public List<PreloadTiming> getSlowest(int maxCount) {
+        List<PreloadTiming> sorted = new ArrayList<PreloadTiming>(timings);
+        Collections.sort(sorted, new Comparator<PreloadTiming>() {
+
+            @Override
+            public int compare(PreloadTiming first, PreloadTiming second) {
+                long difference = second.getDurationNanos() - first.getDurationNanos();
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+
+        });
+        return sorted.subList(0, Math.min(maxCount, sorted.size()));
+    }
+
+    @Override
+    public String toString() {
+        return "PreloadResult [count=" + getCount() + ", failures=" + getFailures().size() + ", elapsedNanos="
+                + elapsedNanos + ", totalLoadTimeNanos=" + getTotalLoadTimeNanos() + "]";
+    }
+
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import org.faktorips.runtime.PreloadFilter.ArtifactType;
+
+/**
+ * The time needed to preload a single runtime object.
+ * 
+ * @see IRuntimeRepository#preload(PreloadFilter, java.util.concurrent.ExecutorService,
+ *      IPreloadListener)
+ */
+public final class PreloadTiming {
+
+    private final ArtifactType type;
+
+    private final String id;
+
+    private final long durationNanos;
+
+    private final Throwable error;
+
+    public PreloadTiming(ArtifactType type, String id, long durationNanos, Throwable error) {
+        this.type = type;
+        this.id = id;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    /**
+     * The kind of the preloaded runtime object.
+     */
+    public ArtifactType getType() {
+        return type;
+    }
+
+    /**
+     * The id of the preloaded runtime object. For generations the id of the product component
+     * followed by the valid from date.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The time in nanoseconds needed to load the object. Objects that were already cached are
+     * loaded in almost no time.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns <code>true</code> if the object was loaded without error.
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * The error that occurred while loading the object or <code>null</code> if it was loaded
+     * successfully.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + id + ": " + durationNanos + "ns" + (error == null ? "" : " failed: " + error);
+    }
+
+}
@@ -0,0 +1,518 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.faktorips.runtime.internal.DateTime;
+
+/**
+ * The structure of the product components of a repository as a graph whose edges are the links
+ * between the product components. The graph is used to get the whole product tree of a product
+ * component at an effective date in a single call instead of navigating link by link with
+ * {@link IProductComponentLink#getTarget()}, which looks up every target in the repository.
+ * <p>
+ * Every product component known to the repository when the graph is created is a node of the
+ * graph and identified by an integer. The links of a product component are read when its node is
+ * visited for the first time, the links of a generation when the node is visited for the first
+ * time on a date the generation is effective on. Only the generation effective on the requested
+ * date is loaded. The link targets are resolved to the integer ids of their nodes and stored in
+ * arrays, so any further traversal of the links does not need to resolve the targets again. The
+ * graph only keeps the ids of the product components, the product components and generations
+ * themselves are loaded from the repository, hence they are held by the repository's caches only.
+ * <p>
+ * The graph reflects the links of the product components as they were when their nodes were
+ * visited for the first time, hence it should only be used for repositories that are not
+ * modifiable. Use {@link IRuntimeRepository#getProductStructureGraph()} to get the graph shared by
+ * all clients of a repository. This class is thread safe.
+ */
+public class ProductStructureGraph {
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    private static final String[] NO_ASSOCIATIONS = new String[0];
+
+    private static final Links NO_LINKS = new Links(NO_TARGETS, NO_ASSOCIATIONS);
+
+    private static final Adjacency MISSING = new Adjacency(false, null, false, NO_LINKS);
+
+    private final IRuntimeRepository repository;
+
+    private final Map<String, Integer> nodeIds;
+
+    private final String[] productComponentIds;
+
+    private final AtomicReferenceArray<Adjacency> adjacencies;
+
+    /**
+     * Creates the graph of all product components of the given repository and the repositories it
+     * depends on. Only the ids of the product components are read from the repository's table of
+     * contents, the product components are loaded when their nodes are visited.
+     */
+    public ProductStructureGraph(IRuntimeRepository repository) {
+        this.repository = repository;
+        List<String> ids = repository.getAllProductComponentIds();
+        nodeIds = new HashMap<String, Integer>(ids.size() * 4 / 3 + 1);
+        List<String> distinctIds = new ArrayList<String>(ids.size());
+        for (String id : ids) {
+            if (!nodeIds.containsKey(id)) {
+                nodeIds.put(id, distinctIds.size());
+                distinctIds.add(id);
+            }
+        }
+        productComponentIds = distinctIds.toArray(new String[distinctIds.size()]);
+        adjacencies = new AtomicReferenceArray<Adjacency>(productComponentIds.length);
+    }
+
+    /**
+     * Returns the repository this graph was created for.
+     */
+    public IRuntimeRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Returns the number of nodes, that is the number of product components in the repository
+     * when the graph was created.
+     */
+    public int size() {
+        return productComponentIds.length;
+    }
+
+    /**
+     * Returns the transitive product tree of the product component with the given id that is
+     * effective on the given date. The tree contains the product component itself and all product
+     * components that are reachable by the links of the product component and the links of its
+     * generation effective on the given date, and so on.
+     * <p>
+     * Product components that are not effective on the given date are left out together with
+     * the links to them. A product component is not effective if its valid to date is before the
+     * effective date or if it changes over time and has no generation that is effective. Links to
+     * product components that are not found in the repository are left out, too.
+     * <p>
+     * Every product component is contained in the tree only once, even if it is reachable by
+     * several paths or by a cycle, so the size of the tree is limited by the number of reachable
+     * product components. Its parent in the tree is the product component it has been reached from
+     * first in a breadth first traversal, so it is placed at the shortest distance from the root.
+     * All links between the product components of the tree, including the links to product
+     * components placed below another parent, are available by
+     * {@link ProductTree#getTargetIndices(int)}.
+     * 
+     * @param productComponentId The id of the root product component
+     * @param effectiveDate The effective date, interpreted in the same way as by
+     *            {@link IRuntimeRepository#getEffectiveProductComponentGeneration(String, DateTime)}
+     * @return The product tree or <code>null</code> if there is no product component with the
+     *         given id or it is not effective on the given date
+     * @throws NullPointerException if the effective date is <code>null</code>
+     */
+    public ProductTree getProductTree(String productComponentId, DateTime effectiveDate) {
+        if (effectiveDate == null) {
+            throw new NullPointerException("The effective date must not be null.");
+        }
+        Integer root = nodeIds.get(productComponentId);
+        if (root == null) {
+            return null;
+        }
+        Links rootLinks = getEffectiveLinks(root, effectiveDate);
+        if (rootLinks == null) {
+            return null;
+        }
+        ProductTree tree = new ProductTree(repository, effectiveDate);
+        // the tree index of every visited node, -1 for nodes that are not effective
+        Map<Integer, Integer> treeIndices = new HashMap<Integer, Integer>();
+        List<Links> treeLinks = new ArrayList<Links>();
+        treeIndices.put(root, tree.add(productComponentIds[root], -1, null));
+        treeLinks.add(rootLinks);
+        // breadth first traversal, the nodes are expanded in the order they are added to the tree
+        for (int index = 0; index < tree.size; index++) {
+            Links links = treeLinks.get(index);
+            int[] targetIndices = new int[links.targets.length];
+            String[] targetAssociations = new String[links.targets.length];
+            int count = 0;
+            for (int i = 0; i < links.targets.length; i++) {
+                int target = links.targets[i];
+                if (target < 0) {
+                    continue;
+                }
+                Integer targetIndex = treeIndices.get(target);
+                if (targetIndex == null) {
+                    Links targetLinks = getEffectiveLinks(target, effectiveDate);
+                    if (targetLinks == null) {
+                        targetIndex = -1;
+                    } else {
+                        targetIndex = tree.add(productComponentIds[target], index, links.associations[i]);
+                        treeLinks.add(targetLinks);
+                    }
+                    treeIndices.put(target, targetIndex);
+                }
+                if (targetIndex >= 0) {
+                    targetIndices[count] = targetIndex;
+                    targetAssociations[count] = links.associations[i];
+                    count++;
+                }
+            }
+            tree.setLinks(index, copyOf(targetIndices, count), copyOf(targetAssociations, count));
+        }
+        return tree.reorder();
+    }
+
+    /**
+     * Returns the links of the product component with the given node id and of its generation
+     * effective on the given date or <code>null</code> if the product component is not effective.
+     */
+    private Links getEffectiveLinks(int node, DateTime effectiveDate) {
+        Adjacency adjacency = getAdjacency(node);
+        if (!adjacency.isValid(effectiveDate)) {
+            return null;
+        }
+        if (!adjacency.changingOverTime) {
+            return adjacency.links;
+        }
+        IProductComponentGeneration generation = repository.getEffectiveProductComponentGeneration(
+                productComponentIds[node], effectiveDate);
+        if (generation == null) {
+            return null;
+        }
+        DateTime validFrom = generation.getValidFrom();
+        Links links = adjacency.generationLinks.get(validFrom);
+        if (links == null) {
+            links = adjacency.links.append(toLinks(generation.getLinks()));
+            Links existingLinks = adjacency.generationLinks.putIfAbsent(validFrom, links);
+            if (existingLinks != null) {
+                links = existingLinks;
+            }
+        }
+        return links;
+    }
+
+    private Adjacency getAdjacency(int node) {
+        Adjacency adjacency = adjacencies.get(node);
+        if (adjacency == null) {
+            // several threads may load the same node at the same time, all of them use the first one
+            adjacency = loadAdjacency(productComponentIds[node]);
+            if (!adjacencies.compareAndSet(node, null, adjacency)) {
+                adjacency = adjacencies.get(node);
+            }
+        }
+        return adjacency;
+    }
+
+    private Adjacency loadAdjacency(String productComponentId) {
+        IProductComponent productComponent = repository.getProductComponent(productComponentId);
+        if (productComponent == null) {
+            return MISSING;
+        }
+        return new Adjacency(true, productComponent.getValidTo(), productComponent.isChangingOverTime(),
+                toLinks(productComponent.getLinks()));
+    }
+
+    private Links toLinks(List<IProductComponentLink<? extends IProductComponent>> links) {
+        if (links.isEmpty()) {
+            return NO_LINKS;
+        }
+        int[] targets = new int[links.size()];
+        String[] associations = new String[links.size()];
+        for (int i = 0; i < targets.length; i++) {
+            IProductComponentLink<? extends IProductComponent> link = links.get(i);
+            Integer target = nodeIds.get(link.getTargetId());
+            targets[i] = target == null ? -1 : target.intValue();
+            associations[i] = link.getAssociationName();
+        }
+        return new Links(targets, associations);
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    private static String[] copyOf(String[] array, int length) {
+        String[] copy = new String[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    /**
+     * The links of a product component or of a product component together with one of its
+     * generations. The targets are the ids of the target nodes or -1 if the target is not a node of
+     * the graph.
+     */
+    private static final class Links {
+
+        private final int[] targets;
+
+        private final String[] associations;
+
+        public Links(int[] targets, String[] associations) {
+            this.targets = targets;
+            this.associations = associations;
+        }
+
+        public Links append(Links other) {
+            if (other.targets.length == 0) {
+                return this;
+            }
+            if (targets.length == 0) {
+                return other;
+            }
+            int[] allTargets = copyOf(targets, targets.length + other.targets.length);
+            System.arraycopy(other.targets, 0, allTargets, targets.length, other.targets.length);
+            String[] allAssociations = copyOf(associations, associations.length + other.associations.length);
+            System.arraycopy(other.associations, 0, allAssociations, associations.length, other.associations.length);
+            return new Links(allTargets, allAssociations);
+        }
+
+    }
+
+    /**
+     * The data of a single node. The links of the generations are added when a generation is
+     * requested for the first time, otherwise an adjacency is not modified after it has been
+     * published.
+     */
+    private static class Adjacency {
+
+        private final boolean exists;
+
+        private final DateTime validTo;
+
+        private final boolean changingOverTime;
+
+        /** The links of the product component */
+        private final Links links;
+
+        /**
+         * The links of the product component followed by the links of a generation, by the valid
+         * from date of the generation
+         */
+        private final ConcurrentMap<DateTime, Links> generationLinks = new ConcurrentHashMap<DateTime, Links>(4);
+
+        public Adjacency(boolean exists, DateTime validTo, boolean changingOverTime, Links links) {
+            this.exists = exists;
+            this.validTo = validTo;
+            this.changingOverTime = changingOverTime;
+            this.links = links;
+        }
+
+        /**
+         * Returns <code>true</code> if the product component exists and its valid to date is not
+         * before the given date. The generations are not checked.
+         */
+        public boolean isValid(DateTime effectiveDate) {
+            return exists && (validTo == null || validTo.compareTo(effectiveDate) >= 0);
+        }
+
+    }
+
+    /**
+     * The product components reachable from a root product component on an effective date. The
+     * product components are numbered in pre-order, the root has the index 0 and the subtree of a
+     * product component directly follows it. Every product component except the root knows the
+     * index of its parent and the name of the association of the link from its parent.
+     * <p>
+     * The tree only contains the ids of the product components. The product components themselves
+     * are looked up in the repository when they are requested.
+     */
+    public static final class ProductTree {
+
+        private final IRuntimeRepository repository;
+
+        private final DateTime effectiveDate;
+
+        private int size;
+
+        private String[] ids = new String[16];
+
+        private int[] parents = new int[16];
+
+        private String[] associations = new String[16];
+
+        private int[][] targetIndices = new int[16][];
+
+        private String[][] targetAssociations = new String[16][];
+
+        private ProductTree(IRuntimeRepository repository, DateTime effectiveDate) {
+            this.repository = repository;
+            this.effectiveDate = effectiveDate;
+        }
+
+        /**
+         * Returns the effective date the tree was created for.
+         */
+        public DateTime getEffectiveDate() {
+            return effectiveDate;
+        }
+
+        /**
+         * Returns the number of product components in the tree including the root.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the product component with the given index.
+         * 
+         * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1
+         */
+        public IProductComponent getProductComponent(int index) {
+            return repository.getProductComponent(getProductComponentId(index));
+        }
+
+        /**
+         * Returns the id of the product component with the given index.
+         * 
+         * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1
+         */
+        public String getProductComponentId(int index) {
+            checkIndex(index);
+            return ids[index];
+        }
+
+        /**
+         * Returns the index of the parent of the product component with the given index or -1 for
+         * the root.
+         * 
+         * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1
+         */
+        public int getParentIndex(int index) {
+            checkIndex(index);
+            return parents[index];
+        }
+
+        /**
+         * Returns the name of the association of the link from the parent to the product component
+         * with the given index or <code>null</code> for the root.
+         * 
+         * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1
+         */
+        public String getAssociationName(int index) {
+            checkIndex(index);
+            return associations[index];
+        }
+
+        /**
+         * Returns the indices of the targets of all links of the product component with the given
+         * index in the order of the links. These are the indices of its children and of the product
+         * components reachable by the links that have been placed below another parent.
+         * 
+         * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1
+         */
+        public int[] getTargetIndices(int index) {
+            checkIndex(index);
+            return copyOf(targetIndices[index], targetIndices[index].length);
+        }
+
+        /**
+         * Returns the names of the associations of the links of the product component with the given
+         * index in the same order as {@link #getTargetIndices(int)}.
+         * 
+         * @throws IndexOutOfBoundsException if the index is not between 0 and size() - 1
+         */
+        public String[] getTargetAssociationNames(int index) {
+            checkIndex(index);
+            return copyOf(targetAssociations[index], targetAssociations[index].length);
+        }
+
+        /**
+         * Returns all product components of the tree in pre-order.
+         */
+        public List<IProductComponent> getProductComponents() {
+            List<IProductComponent> result = new ArrayList<IProductComponent>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(repository.getProductComponent(ids[i]));
+            }
+            return result;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        private int add(String id, int parent, String association) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = copyOf(ids, capacity);
+                parents = copyOf(parents, capacity);
+                associations = copyOf(associations, capacity);
+                int[][] newTargetIndices = new int[capacity][];
+                System.arraycopy(targetIndices, 0, newTargetIndices, 0, size);
+                targetIndices = newTargetIndices;
+                String[][] newTargetAssociations = new String[capacity][];
+                System.arraycopy(targetAssociations, 0, newTargetAssociations, 0, size);
+                targetAssociations = newTargetAssociations;
+            }
+            ids[size] = id;
+            parents[size] = parent;
+            associations[size] = association;
+            targetIndices[size] = NO_TARGETS;
+            targetAssociations[size] = NO_ASSOCIATIONS;
+            return size++;
+        }
+
+        private void setLinks(int index, int[] indices, String[] associationNames) {
+            targetIndices[index] = indices;
+            targetAssociations[index] = associationNames;
+        }
+
+        /**
+         * Returns a copy of this tree numbered in pre-order. The children of a product component
+         * are added together when it is expanded, so they are not directly followed by their own
+         * subtrees.
+         */
+        private ProductTree reorder() {
+            ProductTree result = new ProductTree(repository, effectiveDate);
+            int[] newIndices = new int[size];
+            int[] childCounts = new int[size + 1];
+            for (int i = 1; i < size; i++) {
+                childCounts[parents[i] + 1]++;
+            }
+            int[] childStarts = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                childStarts[i + 1] = childStarts[i] + childCounts[i + 1];
+            }
+            int[] children = new int[Math.max(size - 1, 0)];
+            int[] fill = copyOf(childStarts, size + 1);
+            for (int i = 1; i < size; i++) {
+                children[fill[parents[i]]++] = i;
+            }
+            int[] stack = new int[size];
+            int stackSize = 0;
+            stack[stackSize++] = 0;
+            while (stackSize > 0) {
+                int index = stack[--stackSize];
+                newIndices[index] = result.add(ids[index], parents[index] < 0 ? -1 : newIndices[parents[index]],
+                        associations[index]);
+                for (int i = childStarts[index + 1] - 1; i >= childStarts[index]; i--) {
+                    stack[stackSize++] = children[i];
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                int[] indices = new int[targetIndices[i].length];
+                for (int j = 0; j < indices.length; j++) {
+                    indices[j] = newIndices[targetIndices[i][j]];
+                }
+                result.setLinks(newIndices[i], indices, targetAssociations[i]);
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe cache with a bounded total weight. In contrast to the {@link Memoizer} the cached
+ * values are held by strong references, so the garbage collector never removes single entries
+ * under memory pressure. Instead, the cache removes entries as soon as the sum of the weights
+ * computed by the {@link IWeigher} exceeds the configured maximum weight.
+ * <p>
+ * The eviction policy is a segmented LRU: New entries are put into a probation segment. An entry
+ * that is requested again while in probation is promoted to the protected segment, which may use
+ * up to 80% of the maximum weight. Entries are always evicted from the least recently used end of
+ * the probation segment, so values that are requested only once can not displace the frequently
+ * used ones.
+ * <p>
+ * Like the {@link Memoizer}, every value is computed only once even if many threads request it at
+ * the same time (single flight loading). Lookups of cached values do not block: the access order
+ * is only updated if the internal lock is available, otherwise the access is not recorded.
+ * <p>
+ * A {@link CacheStatistics} snapshot with hit, miss, load time and eviction counters is available
+ * by calling {@link #getStatistics()}.
+ */
+public class BoundedCache<K, V> implements IComputable<K, V> {
+
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final IComputable<K, V> computable;
+
+    private final IWeigher<? super K, ? super V> weigher;
+
+    private final long maximumWeight;
+
+    private final long maximumProtectedWeight;
+
+    private final ConcurrentMap<K, Node<V>> data;
+
+    private final ConcurrentMap<K, Future<V>> loading;
+
+    private final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<K, Node<V>>(16, 0.75f, true);
+
+    private final LinkedHashMap<K, Node<V>> protectedSegment = new LinkedHashMap<K, Node<V>>(16, 0.75f, true);
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private long weight;
+
+    private long protectedWeight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong evictionWeight = new AtomicLong();
+
+    /**
+     * Creates a new bounded cache.
+     * 
+     * @param computable the {@link IComputable} to load new items
+     * @param weigher the {@link IWeigher} estimating the weight of every loaded item
+     * @param maximumWeight the maximum sum of the weights of all cached items
+     * @param initialCapacity the initial capacity of the internal maps
+     */
+    public BoundedCache(IComputable<K, V> computable, IWeigher<? super K, ? super V> weigher, long maximumWeight,
+            int initialCapacity) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("The maximum weight must not be negative: " + maximumWeight);
+        }
+        this.computable = computable;
+        this.weigher = weigher;
+        this.maximumWeight = maximumWeight;
+        maximumProtectedWeight = maximumWeight * PROTECTED_PERCENTAGE / 100;
+        data = new ConcurrentHashMap<K, Node<V>>(initialCapacity);
+        loading = new ConcurrentHashMap<K, Future<V>>();
+    }
+
+    @Override
+    public V compute(K key) throws InterruptedException {
+        Node<V> node = data.get(key);
+        if (node != null) {
+            hitCount.incrementAndGet();
+            recordAccess(key, node);
+            return node.value;
+        }
+        missCount.incrementAndGet();
+        return load(key);
+    }
+
+    private V load(final K key) throws InterruptedException {
+        // In case of CancellationException we want to try again - in all other cases we exit with
+        // return or throwing an exception
+        while (true) {
+            Future<V> future = loading.get(key);
+            if (future == null) {
+                Node<V> node = data.get(key);
+                if (node != null) {
+                    // loaded by another thread in the meantime
+                    return node.value;
+                }
+                FutureTask<V> futureTask = new FutureTask<V>(new Callable<V>() {
+
+                    @Override
+                    public V call() throws Exception {
+                        return computeAndStore(key);
+                    }
+
+                });
+                future = loading.putIfAbsent(key, futureTask);
+                if (future == null) {
+                    future = futureTask;
+                    try {
+                        futureTask.run();
+                    } finally {
+                        loading.remove(key, futureTask);
+                    }
+                }
+            }
+            try {
+                return future.get();
+            } catch (CancellationException e) {
+                loading.remove(key, future);
+                // try again: while (true)
+            } catch (ExecutionException e) {
+                throw Memoizer.launderThrowable(e.getCause());
+            }
+        }
+    }
+
+    private V computeAndStore(K key) throws InterruptedException {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = computable.compute(key);
+        } finally {
+            loadCount.incrementAndGet();
+            totalLoadTime.addAndGet(System.nanoTime() - start);
+        }
+        if (value != null) {
+            store(key, value);
+        }
+        return value;
+    }
+
+    private void store(K key, V value) {
+        int entryWeight = weigher.weigh(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("Negative weight " + entryWeight + " for " + key);
+        }
+        if (entryWeight > maximumWeight) {
+            // would evict everything else and itself, simply do not cache it
+            return;
+        }
+        Node<V> node = new Node<V>(value, entryWeight);
+        evictionLock.lock();
+        try {
+            data.put(key, node);
+            probation.put(key, node);
+            weight += entryWeight;
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void recordAccess(K key, Node<V> node) {
+        if (!evictionLock.tryLock()) {
+            // Another thread is changing the segments, we do not want to wait for it just to
+            // update the order.
+            return;
+        }
+        try {
+            if (node.isProtected) {
+                protectedSegment.get(key);
+            } else if (probation.get(key) == node) {
+                probation.remove(key);
+                promote(key, node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void promote(K key, Node<V> node) {
+        node.isProtected = true;
+        protectedSegment.put(key, node);
+        protectedWeight += node.weight;
+        Iterator<Entry<K, Node<V>>> iterator = protectedSegment.entrySet().iterator();
+        while (protectedWeight > maximumProtectedWeight && iterator.hasNext()) {
+            Entry<K, Node<V>> eldest = iterator.next();
+            iterator.remove();
+            Node<V> demoted = eldest.getValue();
+            demoted.isProtected = false;
+            protectedWeight -= demoted.weight;
+            probation.put(eldest.getKey(), demoted);
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry<K, Node<V>>> iterator = probation.entrySet().iterator();
+        while (weight > maximumWeight && iterator.hasNext()) {
+            Entry<K, Node<V>> eldest = iterator.next();
+            iterator.remove();
+            removeEvicted(eldest.getKey(), eldest.getValue());
+        }
+        iterator = protectedSegment.entrySet().iterator();
+        while (weight > maximumWeight && iterator.hasNext()) {
+            Entry<K, Node<V>> eldest = iterator.next();
+            iterator.remove();
+            protectedWeight -= eldest.getValue().weight;
+            removeEvicted(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void removeEvicted(K key, Node<V> node) {
+        data.remove(key, node);
+        weight -= node.weight;
+        evictionCount.incrementAndGet();
+        evictionWeight.addAndGet(node.weight);
+    }
+
+    /**
+     * Removes all cached values. Loads that are currently in progress are not affected.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            probation.clear();
+            protectedSegment.clear();
+            weight = 0;
+            protectedWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum sum of the weights of all cached values.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns a snapshot of the counters of this cache.
+     */
+    public CacheStatistics getStatistics() {
+        long currentSize;
+        long currentWeight;
+        evictionLock.lock();
+        try {
+            currentSize = data.size();
+            currentWeight = weight;
+        } finally {
+            evictionLock.unlock();
+        }
+        return new CacheStatistics(hitCount.get(), missCount.get(), loadCount.get(), totalLoadTime.get(),
+                evictionCount.get(), evictionWeight.get(), currentSize, currentWeight);
+    }
+
+    @Override
+    public Class<? super V> getValueClass() {
+        return computable.getValueClass();
+    }
+
+    private static class Node<V> {
+
+        private final V value;
+
+        private final int weight;
+
+        /** guarded by the eviction lock */
+        private boolean isProtected;
+
+        private Node(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+/**
+ * An immutable snapshot of the counters of a cache. Use {@link #plus(CacheStatistics)} to sum up
+ * the statistics of several caches.
+ */
+public final class CacheStatistics {
+
+    /** Statistics of a cache that has not been used yet. */
+    public static final CacheStatistics EMPTY = new CacheStatistics(0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long totalLoadTimeNanos;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long size;
+    private final long weight;
+
+    public CacheStatistics(long hitCount, long missCount, long loadCount, long totalLoadTimeNanos,
+            long evictionCount, long evictionWeight, long size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * The number of requests that were answered by an already cached value.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of requests that were not answered by an already cached value. Requests that wait
+     * for a value another thread is currently loading count as misses.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The total number of requests.
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * The ratio of hits to requests, <code>1.0</code> if there were no requests at all.
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double)hitCount / requestCount;
+    }
+
+    /**
+     * The number of times a value was actually computed.
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * The total time in nanoseconds spent computing values.
+     */
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    /**
+     * The average time in nanoseconds needed to compute a value.
+     */
+    public double getAverageLoadTimeNanos() {
+        return loadCount == 0 ? 0.0 : (double)totalLoadTimeNanos / loadCount;
+    }
+
+    /**
+     * The number of entries that were removed from the cache to keep it below its maximum weight.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * The sum of the weights of all evicted entries.
+     */
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * The number of entries in the cache when this snapshot was taken.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * The weight of all entries in the cache when this snapshot was taken.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns new statistics containing the sum of these and the given statistics.
+     */
+    public CacheStatistics plus(CacheStatistics other) {
+        return new CacheStatistics(hitCount + other.hitCount, missCount + other.missCount, loadCount
+                + other.loadCount, totalLoadTimeNanos + other.totalLoadTimeNanos, evictionCount
+                + other.evictionCount, evictionWeight + other.evictionWeight, size + other.size, weight
+                + other.weight);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics [hits=" + hitCount + ", misses=" + missCount + ", loads=" + loadCount
+                + ", totalLoadTimeNanos=" + totalLoadTimeNanos + ", evictions=" + evictionCount
+                + ", evictionWeight=" + evictionWeight + ", size=" + size + ", weight=" + weight + "]";
+    }
+
+}
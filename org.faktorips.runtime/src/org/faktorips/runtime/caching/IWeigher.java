@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+/**
+ * Estimates the weight of a cache entry, for example its approximate memory consumption. The
+ * weights are used by the {@link BoundedCache} to decide how many entries fit into the cache.
+ */
+public interface IWeigher<K, V> {
+
+    /**
+     * Returns the weight of the entry identified by the given key. The weight must not be negative.
+     * 
+     * @param key the key of the cached entry
+     * @param value the cached value, never <code>null</code>
+     */
+    public int weigh(K key, V value);
+
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+/**
+ * Base class of the classes generated and compiled by the {@link CompilingFormulaEvaluatorFactory}.
+ * A generated class contains the compiled formulas of a product component or product component
+ * generation as ordinary Java methods.
+ * <p>
+ * This class is only public because the generated classes are defined in their own package. It is
+ * not intended to be subclassed by clients.
+ */
+public abstract class CompiledFormulas {
+
+    /**
+     * Calls the compiled formula method with the given name and parameters.
+     * 
+     * @param formulaName the name of the formula method
+     * @param parameters the parameters of the formula
+     * 
+     * @throws IllegalArgumentException if there is no formula method with the given name and number
+     *             of parameters
+     */
+    public abstract Object evaluate(String formulaName, Object[] parameters) throws Exception;
+
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.util.Map;
+
+/**
+ * A formula evaluator calling the formulas compiled by the
+ * {@link CompilingFormulaEvaluatorFactory}. The formulas are compiled when the first formula is
+ * evaluated, so loading product data is not slowed down by the compiler.
+ */
+class CompilingFormulaEvaluator extends AbstractFormulaEvaluator {
+
+    private final CompilingFormulaEvaluatorFactory factory;
+
+    private volatile CompiledFormulas compiledFormulas;
+
+    public CompilingFormulaEvaluator(CompilingFormulaEvaluatorFactory factory, Object object,
+            Map<String, String> nameToExpressionMap) {
+        super(object, nameToExpressionMap);
+        this.factory = factory;
+    }
+
+    @Override
+    protected Object evaluateInternal(String formularName, Object... parameters) throws Exception {
+        return getCompiledFormulas().evaluate(formularName, parameters);
+    }
+
+    private CompiledFormulas getCompiledFormulas() {
+        CompiledFormulas result = compiledFormulas;
+        if (result == null) {
+            synchronized (this) {
+                result = compiledFormulas;
+                if (result == null) {
+                    result = factory.createCompiledFormulas(getObject(), getNameToExpressionMap());
+                    compiledFormulas = result;
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.faktorips.runtime.caching.AbstractComputable;
+import org.faktorips.runtime.caching.IComputable;
+import org.faktorips.runtime.caching.Memoizer;
+
+/**
+ * A {@link IFormulaEvaluatorFactory} that compiles the formulas of a product component or product
+ * component generation to Java byte code using the system Java compiler. The formulas are executed
+ * as ordinary method calls, without any interpretation or reflection.
+ * <p>
+ * The formulas of an object are compiled when the first formula is evaluated. The compiled class is
+ * cached for the class of the object and the source code of its formulas, so objects with the same
+ * formulas share the compiled class. The cache holds soft references, if a new version of the
+ * product data is loaded the classes compiled for the old version are garbage collected as soon as
+ * they are not used anymore.
+ * <p>
+ * The compiled expressions are Java methods of the product component (generation) class and may
+ * call all public methods of this class. The compiler needs a class path containing the product
+ * classes and all classes used by the formulas. By default it is derived from the code sources and
+ * class loaders of the product classes and the system property <code>java.class.path</code>. If
+ * they do not provide this information, for example in an OSGi or application server environment, the
+ * class path has to be specified using {@link #CompilingFormulaEvaluatorFactory(List)}.
+ * <p>
+ * This factory requires a JDK at runtime, a JRE does not contain the Java compiler.
+ */
+public class CompilingFormulaEvaluatorFactory implements IFormulaEvaluatorFactory {
+
+    private static final String CLASS_NAME_PREFIX = "CompiledFormulas";
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    private final FormulaClassCompiler compiler;
+
+    private final IComputable<FormulaSource, Class<? extends CompiledFormulas>> compiledClasses;
+
+    /**
+     * Creates a new factory deriving the class path for the compiler from the class loaders of the
+     * product classes.
+     * 
+     * @throws IllegalStateException if no Java compiler is available
+     */
+    public CompilingFormulaEvaluatorFactory() {
+        this(null);
+    }
+
+    /**
+     * Creates a new factory using the given class path to compile the formulas.
+     * 
+     * @param classpath the directories and archives containing the product classes and all classes
+     *            used by the formulas, <code>null</code> to derive the class path from the class
+     *            loaders of the product classes
+     * 
+     * @throws IllegalStateException if no Java compiler is available
+     */
+    public CompilingFormulaEvaluatorFactory(List<File> classpath) {
+        compiler = new FormulaClassCompiler(classpath == null ? null : new ArrayList<File>(classpath));
+        compiledClasses = new Memoizer<FormulaSource, Class<? extends CompiledFormulas>>(
+                new AbstractComputable<FormulaSource, Class<? extends CompiledFormulas>>(Class.class) {
+
+                    @Override
+                    public Class<? extends CompiledFormulas> compute(FormulaSource key) {
+                        return compile(key);
+                    }
+
+                });
+    }
+
+    @Override
+    public IFormulaEvaluator createFormulaEvaluator(Object object, Map<String, String> nameToCompiledExpressionMap) {
+        return new CompilingFormulaEvaluator(this, object, nameToCompiledExpressionMap);
+    }
+
+    /**
+     * Returns a new instance of the compiled formulas for the given object. The formulas are only
+     * compiled if there is no compiled class for the same type and formulas yet.
+     * 
+     * @throws IllegalArgumentException if the formulas do not compile
+     */
+    CompiledFormulas createCompiledFormulas(Object object, Map<String, String> nameToCompiledExpressionMap) {
+        Class<?> publicType = FormulaSourceGenerator.getPublicType(object.getClass());
+        try {
+            Class<? extends CompiledFormulas> compiledClass = compiledClasses.compute(new FormulaSource(publicType,
+                    nameToCompiledExpressionMap));
+            Constructor<? extends CompiledFormulas> constructor = compiledClass.getConstructor(Object.class);
+            return constructor.newInstance(object);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Class<? extends CompiledFormulas> compile(FormulaSource formulaSource) {
+        String simpleClassName = CLASS_NAME_PREFIX + CLASS_COUNTER.incrementAndGet();
+        FormulaSourceGenerator generator = new FormulaSourceGenerator(formulaSource.publicType, simpleClassName,
+                formulaSource.nameToCompiledExpressionMap);
+        return compiler.compile(generator.getQualifiedClassName(), generator.generate(), formulaSource.publicType);
+    }
+
+    /**
+     * The key of the compiled classes: the type the formulas are compiled for and their source
+     * code.
+     */
+    private static class FormulaSource {
+
+        private final Class<?> publicType;
+
+        private final Map<String, String> nameToCompiledExpressionMap;
+
+        public FormulaSource(Class<?> publicType, Map<String, String> nameToCompiledExpressionMap) {
+            this.publicType = publicType;
+            this.nameToCompiledExpressionMap = new LinkedHashMap<String, String>(nameToCompiledExpressionMap);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * publicType.hashCode() + nameToCompiledExpressionMap.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FormulaSource)) {
+                return false;
+            }
+            FormulaSource other = (FormulaSource)obj;
+            return publicType.equals(other.publicType)
+                    && nameToCompiledExpressionMap.equals(other.nameToCompiledExpressionMap);
+        }
+
+    }
+
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the source code created by a {@link FormulaSourceGenerator} in memory using the system
+ * Java compiler and defines the resulting classes in a new class loader.
+ */
+class FormulaClassCompiler {
+
+    private final JavaCompiler compiler;
+
+    private final List<File> classpath;
+
+    /**
+     * @param classpath the class path used to compile the formulas or <code>null</code> to derive
+     *            it from the class loaders of the compiled product classes
+     * 
+     * @throws IllegalStateException if no Java compiler is available, for example because the
+     *             application runs on a JRE instead of a JDK
+     */
+    FormulaClassCompiler(List<File> classpath) {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException(
+                    "No Java compiler available. Formulas can only be compiled if the application runs on a JDK.");
+        }
+        this.classpath = classpath;
+    }
+
+    /**
+     * Compiles the given source code and returns the class with the given name. The class is
+     * defined in a new class loader using the class loader of the given product class as parent.
+     * 
+     * @throws IllegalArgumentException if the source code does not compile
+     */
+    Class<? extends CompiledFormulas> compile(String qualifiedClassName, String source, Class<?> productClass) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        InMemoryFileManager fileManager = new InMemoryFileManager(standardFileManager);
+        try {
+            List<String> options = Arrays.asList("-classpath", getClasspath(productClass), "-proc:none");
+            JavaFileObject sourceFile = new SourceFile(qualifiedClassName, source);
+            Boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    Collections.singletonList(sourceFile)).call();
+            if (!Boolean.TRUE.equals(success)) {
+                throw new IllegalArgumentException(createErrorMessage(qualifiedClassName, diagnostics, source));
+            }
+        } finally {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                // nothing to release for in memory files
+            }
+        }
+        CompiledFormulasClassLoader classLoader = new CompiledFormulasClassLoader(productClass.getClassLoader(),
+                fileManager.getClassFiles());
+        try {
+            return classLoader.loadClass(qualifiedClassName).asSubclass(CompiledFormulas.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String createErrorMessage(String qualifiedClassName,
+            DiagnosticCollector<JavaFileObject> diagnostics,
+            String source) {
+        StringBuilder message = new StringBuilder("Unable to compile the formulas of ");
+        message.append(qualifiedClassName).append(':');
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                message.append("\nline ").append(diagnostic.getLineNumber()).append(": ")
+                        .append(diagnostic.getMessage(null));
+            }
+        }
+        message.append("\nsource:\n").append(source);
+        return message.toString();
+    }
+
+    private String getClasspath(Class<?> productClass) {
+        Set<String> entries = new LinkedHashSet<String>();
+        if (classpath != null) {
+            for (File file : classpath) {
+                entries.add(file.getAbsolutePath());
+            }
+        } else {
+            addCodeSource(entries, productClass);
+            addCodeSource(entries, CompiledFormulas.class);
+            addClasspathEntries(entries, productClass.getClassLoader());
+            addClasspathEntries(entries, CompiledFormulas.class.getClassLoader());
+            String javaClasspath = System.getProperty("java.class.path");
+            if (javaClasspath != null && javaClasspath.length() > 0) {
+                entries.addAll(Arrays.asList(javaClasspath.split(File.pathSeparator)));
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        for (String entry : entries) {
+            if (result.length() > 0) {
+                result.append(File.pathSeparatorChar);
+            }
+            result.append(entry);
+        }
+        return result.toString();
+    }
+
+    private void addCodeSource(Set<String> entries, Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            addFileUrl(entries, codeSource.getLocation());
+        }
+    }
+
+    private void addClasspathEntries(Set<String> entries, ClassLoader classLoader) {
+        for (ClassLoader currentLoader = classLoader; currentLoader != null; currentLoader = currentLoader.getParent()) {
+            if (currentLoader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader)currentLoader).getURLs()) {
+                    addFileUrl(entries, url);
+                }
+            }
+        }
+    }
+
+    private void addFileUrl(Set<String> entries, URL url) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                entries.add(new File(url.toURI()).getAbsolutePath());
+            } catch (URISyntaxException e) {
+                entries.add(url.getPath());
+            }
+        }
+    }
+
+    private static URI createUri(String qualifiedClassName, Kind kind) {
+        return URI.create("string:///" + qualifiedClassName.replace('.', '/') + kind.extension);
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        public SourceFile(String qualifiedClassName, String source) {
+            super(createUri(qualifiedClassName, Kind.SOURCE), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+
+    }
+
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        public ClassFile(String qualifiedClassName) {
+            super(createUri(qualifiedClassName, Kind.CLASS), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+
+        public byte[] getBytes() {
+            return bytes.toByteArray();
+        }
+
+    }
+
+    private static class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        private final Map<String, ClassFile> classFiles = new HashMap<String, ClassFile>();
+
+        public InMemoryFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location,
+                String className,
+                Kind kind,
+                FileObject sibling) throws IOException {
+            if (kind != Kind.CLASS) {
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            }
+            ClassFile classFile = new ClassFile(className);
+            classFiles.put(className, classFile);
+            return classFile;
+        }
+
+        public Map<String, byte[]> getClassFiles() {
+            Map<String, byte[]> result = new HashMap<String, byte[]>();
+            for (Map.Entry<String, ClassFile> entry : classFiles.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().getBytes());
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Defines the compiled classes. The class {@link CompiledFormulas} is always loaded by the
+     * class loader of the runtime, even if the class loader of the product classes can not see it.
+     */
+    private static class CompiledFormulasClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classFiles;
+
+        public CompiledFormulasClassLoader(ClassLoader parent, Map<String, byte[]> classFiles) {
+            super(parent);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (CompiledFormulas.class.getName().equals(name)) {
+                return CompiledFormulas.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classFiles.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+}
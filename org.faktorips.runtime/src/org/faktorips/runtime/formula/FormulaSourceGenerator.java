@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.faktorips.runtime.FormulaExecutionException;
+
+/**
+ * Generates the Java source code of a {@link CompiledFormulas} class for the compiled expressions
+ * of a product component or product component generation.
+ * <p>
+ * The compiled expressions are Java methods that were written to be part of the product component
+ * (generation) class, hence they call the methods of this class without qualifier. The generated
+ * class contains a forwarding method for every public method of the product component (generation)
+ * class, so these calls are resolved at compile time and do not need any reflection. Only public
+ * methods are accessible from the formulas.
+ */
+class FormulaSourceGenerator {
+
+    static final String PACKAGE_NAME = "org.faktorips.runtime.formula.compiled";
+
+    private static final String THIS_FIELD = "thiz";
+
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("/\\*.*?\\*/|//[^\\n]*", Pattern.DOTALL);
+
+    private static final Map<String, String> PRIMITIVE_WRAPPERS = new HashMap<String, String>();
+
+    static {
+        PRIMITIVE_WRAPPERS.put("boolean", "Boolean");
+        PRIMITIVE_WRAPPERS.put("byte", "Byte");
+        PRIMITIVE_WRAPPERS.put("char", "Character");
+        PRIMITIVE_WRAPPERS.put("short", "Short");
+        PRIMITIVE_WRAPPERS.put("int", "Integer");
+        PRIMITIVE_WRAPPERS.put("long", "Long");
+        PRIMITIVE_WRAPPERS.put("float", "Float");
+        PRIMITIVE_WRAPPERS.put("double", "Double");
+    }
+
+    private final Class<?> thisType;
+
+    private final String simpleClassName;
+
+    private final Set<String> imports = new LinkedHashSet<String>();
+
+    private final List<String> formulaMethods = new ArrayList<String>();
+
+    private final List<FormulaSignature> signatures = new ArrayList<FormulaSignature>();
+
+    /**
+     * @param thisType the public type of the product component (generation), the formulas are
+     *            evaluated for
+     * @param simpleClassName the unqualified name of the generated class
+     * @param nameToCompiledExpressionMap the compiled expressions
+     */
+    FormulaSourceGenerator(Class<?> thisType, String simpleClassName, Map<String, String> nameToCompiledExpressionMap) {
+        this.thisType = thisType;
+        this.simpleClassName = simpleClassName;
+        for (String compiledExpression : nameToCompiledExpressionMap.values()) {
+            addCompiledExpression(compiledExpression);
+        }
+    }
+
+    /**
+     * Returns the nearest public class in the hierarchy of the given class. The generated class is
+     * defined in another package and can only access public types.
+     */
+    static Class<?> getPublicType(Class<?> type) {
+        Class<?> currentType = type;
+        while (currentType != null && !isAccessible(currentType)) {
+            currentType = currentType.getSuperclass();
+        }
+        return currentType == null ? Object.class : currentType;
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (type.isArray()) {
+            return isAccessible(type.getComponentType());
+        }
+        if (type.getCanonicalName() == null) {
+            return false;
+        }
+        for (Class<?> currentType = type; currentType != null; currentType = currentType.getEnclosingClass()) {
+            if (!Modifier.isPublic(currentType.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getQualifiedClassName() {
+        return PACKAGE_NAME + '.' + simpleClassName;
+    }
+
+    private void addCompiledExpression(String compiledExpression) {
+        StringBuilder method = new StringBuilder();
+        for (String line : compiledExpression.split("\r?\n")) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.startsWith("import ")) {
+                imports.add(trimmedLine);
+            } else {
+                method.append(line).append('\n');
+            }
+        }
+        String methodSource = method.toString();
+        formulaMethods.add(methodSource);
+        signatures.add(createSignature(findFormulaMethod(methodSource)));
+    }
+
+    /**
+     * Returns the formula method of the product component (generation) class that is implemented
+     * by the given compiled expression. The generated formula methods declare a
+     * {@link FormulaExecutionException}, the compiled expression declares a method with the same
+     * name and parameters. As the declaration precedes the body, the formula method whose name is
+     * found first outside of comments is the one declared by the compiled expression.
+     * 
+     * @throws IllegalArgumentException if the compiled expression does not declare any formula
+     *             method of the product component (generation) class
+     */
+    private Method findFormulaMethod(String methodSource) {
+        String code = COMMENT_PATTERN.matcher(methodSource).replaceAll(" ");
+        Method formulaMethod = null;
+        int formulaMethodStart = Integer.MAX_VALUE;
+        for (Method method : thisType.getMethods()) {
+            if (!Arrays.asList(method.getExceptionTypes()).contains(FormulaExecutionException.class)) {
+                continue;
+            }
+            Matcher matcher = Pattern.compile("\\b" + Pattern.quote(method.getName()) + "\\s*\\(").matcher(code);
+            if (matcher.find() && matcher.start() < formulaMethodStart) {
+                formulaMethod = method;
+                formulaMethodStart = matcher.start();
+            }
+        }
+        if (formulaMethod == null) {
+            throw new IllegalArgumentException("No formula method of " + thisType.getName() + " is declared by: "
+                    + methodSource);
+        }
+        return formulaMethod;
+    }
+
+    private FormulaSignature createSignature(Method formulaMethod) {
+        List<String> parameterTypes = new ArrayList<String>();
+        for (Type parameterType : formulaMethod.getGenericParameterTypes()) {
+            parameterTypes.add(toSource(parameterType));
+        }
+        return new FormulaSignature(formulaMethod.getName(), parameterTypes,
+                formulaMethod.getReturnType() == Void.TYPE);
+    }
+
+    String generate() {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+        for (String importDeclaration : imports) {
+            source.append(importDeclaration).append('\n');
+        }
+        String thisTypeName = thisType.getCanonicalName();
+        source.append("\npublic class ").append(simpleClassName).append(" extends ")
+                .append(CompiledFormulas.class.getName()).append(" {\n\n");
+        source.append("private final ").append(thisTypeName).append(' ').append(THIS_FIELD).append(";\n\n");
+        source.append("public ").append(simpleClassName).append("(Object object) {\n");
+        source.append(THIS_FIELD).append(" = (").append(thisTypeName).append(")object;\n}\n\n");
+        appendForwardingMethods(source);
+        for (String formulaMethod : formulaMethods) {
+            source.append(formulaMethod).append('\n');
+        }
+        appendEvaluateMethod(source);
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void appendEvaluateMethod(StringBuilder source) {
+        source.append("@Override\npublic Object evaluate(String formulaName, Object[] parameters) throws Exception {\n");
+        for (FormulaSignature signature : signatures) {
+            source.append("if (\"").append(signature.name).append("\".equals(formulaName) && parameters.length == ")
+                    .append(signature.parameterTypes.size()).append(") {\n");
+            StringBuilder call = new StringBuilder();
+            call.append(signature.name).append('(');
+            for (int i = 0; i < signature.parameterTypes.size(); i++) {
+                if (i > 0) {
+                    call.append(", ");
+                }
+                appendParameterCast(call, signature.parameterTypes.get(i), i);
+            }
+            call.append(')');
+            if (signature.isVoid) {
+                source.append(call).append(";\nreturn null;\n}\n");
+            } else {
+                source.append("return ").append(call).append(";\n}\n");
+            }
+        }
+        source.append("throw new IllegalArgumentException(\"Unknown formula \" + formulaName + \" with \" + parameters.length + \" parameters\");\n}\n");
+    }
+
+    private void appendParameterCast(StringBuilder call, String parameterType, int index) {
+        String wrapper = PRIMITIVE_WRAPPERS.get(parameterType);
+        if (wrapper != null) {
+            call.append("((").append(wrapper).append(")parameters[").append(index).append("]).")
+                    .append(parameterType).append("Value()");
+        } else {
+            call.append('(').append(parameterType).append(")parameters[").append(index).append(']');
+        }
+    }
+
+    private void appendForwardingMethods(StringBuilder source) {
+        Set<String> formulaNames = new LinkedHashSet<String>();
+        for (FormulaSignature signature : signatures) {
+            formulaNames.add(signature.name);
+        }
+        for (Method method : getForwardableMethods()) {
+            if (!formulaNames.contains(method.getName())) {
+                appendForwardingMethod(source, method);
+            }
+        }
+    }
+
+    /**
+     * Returns the public methods of the product component (generation) class. If a method is
+     * declared several times with the same parameters, for example with a covariant return type,
+     * the one with the most specific return type is used.
+     */
+    private List<Method> getForwardableMethods() {
+        Map<String, Method> methods = new LinkedHashMap<String, Method>();
+        for (Method method : thisType.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || method.isBridge() || method.isSynthetic()
+                    || !isForwardable(method)) {
+                continue;
+            }
+            String key = method.getName() + Arrays.toString(method.getParameterTypes());
+            Method existing = methods.get(key);
+            if (existing == null || existing.getReturnType().isAssignableFrom(method.getReturnType())) {
+                methods.put(key, method);
+            }
+        }
+        return new ArrayList<Method>(methods.values());
+    }
+
+    private boolean isForwardable(Method method) {
+        if (!isAccessible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isAccessible(parameterType)) {
+                return false;
+            }
+        }
+        for (Class<?> exceptionType : method.getExceptionTypes()) {
+            if (!isAccessible(exceptionType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendForwardingMethod(StringBuilder source, Method method) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        source.append("public ");
+        if (isStatic) {
+            source.append("static ");
+        }
+        appendTypeParameters(source, method.getTypeParameters());
+        source.append(toSource(method.getGenericReturnType())).append(' ').append(method.getName()).append('(');
+        Type[] parameterTypes = method.getGenericParameterTypes();
+        StringBuilder arguments = new StringBuilder();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                source.append(", ");
+                arguments.append(", ");
+            }
+            String parameterType = toSource(parameterTypes[i]);
+            if (method.isVarArgs() && i == parameterTypes.length - 1) {
+                parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+            }
+            source.append(parameterType).append(" p").append(i);
+            arguments.append('p').append(i);
+        }
+        source.append(')');
+        appendThrowsClause(source, method.getExceptionTypes());
+        source.append(" {\n");
+        if (method.getReturnType() != Void.TYPE) {
+            source.append("return ");
+        }
+        source.append(isStatic ? thisType.getCanonicalName() : THIS_FIELD).append('.').append(method.getName())
+                .append('(').append(arguments).append(");\n}\n\n");
+    }
+
+    private void appendTypeParameters(StringBuilder source, TypeVariable<Method>[] typeParameters) {
+        if (typeParameters.length == 0) {
+            return;
+        }
+        source.append('<');
+        for (int i = 0; i < typeParameters.length; i++) {
+            if (i > 0) {
+                source.append(", ");
+            }
+            source.append(typeParameters[i].getName());
+            Type[] bounds = typeParameters[i].getBounds();
+            for (int j = 0; j < bounds.length; j++) {
+                if (j == 0 && bounds[j] == Object.class) {
+                    continue;
+                }
+                source.append(j == 0 ? " extends " : " & ").append(toSource(bounds[j]));
+            }
+        }
+        source.append("> ");
+    }
+
+    private void appendThrowsClause(StringBuilder source, Class<?>[] exceptionTypes) {
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            source.append(i == 0 ? " throws " : ", ").append(exceptionTypes[i].getCanonicalName());
+        }
+    }
+
+    private String toSource(Type type) {
+        if (type instanceof Class<?>) {
+            return ((Class<?>)type).getCanonicalName();
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            StringBuilder source = new StringBuilder(toSource(parameterizedType.getRawType()));
+            source.append('<');
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) {
+                    source.append(", ");
+                }
+                source.append(toSource(arguments[i]));
+            }
+            return source.append('>').toString();
+        } else if (type instanceof GenericArrayType) {
+            return toSource(((GenericArrayType)type).getGenericComponentType()) + "[]";
+        } else if (type instanceof WildcardType) {
+            WildcardType wildcardType = (WildcardType)type;
+            if (wildcardType.getLowerBounds().length > 0) {
+                return "? super " + toSource(wildcardType.getLowerBounds()[0]);
+            } else if (wildcardType.getUpperBounds().length > 0 && wildcardType.getUpperBounds()[0] != Object.class) {
+                return "? extends " + toSource(wildcardType.getUpperBounds()[0]);
+            }
+            return "?";
+        } else if (type instanceof TypeVariable<?>) {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            if (typeVariable.getGenericDeclaration() instanceof Method) {
+                return typeVariable.getName();
+            }
+            // type variables of a generic class are used with their erasure
+            return toSource(getErasure(typeVariable.getBounds()[0]));
+        }
+        throw new IllegalArgumentException("Unsupported type " + type);
+    }
+
+    private Class<?> getErasure(Type type) {
+        if (type instanceof Class<?>) {
+            return (Class<?>)type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>)((ParameterizedType)type).getRawType();
+        } else if (type instanceof TypeVariable<?>) {
+            return getErasure(((TypeVariable<?>)type).getBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    /**
+     * The name, parameter types and return type of a compiled formula method, taken from the
+     * formula method of the product component (generation) class.
+     */
+    static class FormulaSignature {
+
+        private final String name;
+
+        private final List<String> parameterTypes;
+
+        private final boolean isVoid;
+
+        FormulaSignature(String name, List<String> parameterTypes, boolean isVoid) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.isVoid = isVoid;
+        }
+
+    }
+
+}
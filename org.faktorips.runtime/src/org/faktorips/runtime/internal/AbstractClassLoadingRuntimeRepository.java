@@ -14,8 +14,10 @@ import java.beans.Expression;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -38,6 +40,7 @@ import org.faktorips.runtime.internal.toc.ProductCmptTocEntry;
 import org.faktorips.runtime.internal.toc.TableContentTocEntry;
 import org.faktorips.runtime.internal.toc.TestCaseTocEntry;
 import org.faktorips.runtime.internal.toc.TocEntry;
+import org.faktorips.runtime.model.annotation.IpsEnumValueFactory;
 import org.faktorips.runtime.test.IpsTestCase2;
 import org.faktorips.runtime.test.IpsTestCaseBase;
 import org.faktorips.values.InternationalString;
@@ -55,6 +58,12 @@ import org.xml.sax.SAXException;
  */
 public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocBasedRuntimeRepository {
 
+    /**
+     * Looking up the factory implementation is expensive, so the factory is shared. Parsers are
+     * created while holding its lock because the factory is not guaranteed to be thread safe.
+     */
+    private static final SAXParserFactory SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
+
     private final ClassLoader cl;
 
     private final ProductVariantRuntimeHelper productVariantHelper = new ProductVariantRuntimeHelper();
@@ -122,28 +131,71 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The values are created by the {@link IEnumValueFactory} of the enumeration class if it has
+     * one. Otherwise its protected constructor is called by reflection.
+     */
     @Override
     protected <T> List<T> createEnumValues(EnumContentTocEntry tocEntry, Class<T> enumClass) {
         List<List<Object>> enumValueList = getEnumValueListFromSaxHandler(tocEntry);
         if (enumValueList.isEmpty()) {
             return Collections.emptyList();
+        }
+        int startIndex = getEnumValuesDefinedInType(enumClass).size();
+        IEnumValueFactory<T> factory = getEnumValueFactory(enumClass);
+        if (factory != null) {
+            return getCreatedEnumValueList(enumValueList, factory, startIndex);
         } else {
             Constructor<T> constructor = getCandidateConstructorThrowRuntimeException(tocEntry, enumClass,
                     getParameterSize(enumValueList));
-            return getCreatedEnumValueList(tocEntry, enumValueList, constructor,
-                    getEnumValuesDefinedInType(enumClass).size());
+            return getCreatedEnumValueList(tocEntry, enumValueList, constructor, startIndex);
         }
     }
 
+    /**
+     * Returns the factory published in the static field of the given enumeration class that is
+     * marked with {@link IpsEnumValueFactory} or <code>null</code> if there is none. If the class
+     * has been loaded by a class loader that does not share the runtime classes, the annotation is
+     * not found and the values are created by reflection.
+     */
+    private <T> IEnumValueFactory<T> getEnumValueFactory(Class<T> enumClass) {
+        for (Field field : enumClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.isAnnotationPresent(IpsEnumValueFactory.class)) {
+                try {
+                    @SuppressWarnings("unchecked")
+                    IEnumValueFactory<T> factory = (IEnumValueFactory<T>)field.get(null);
+                    return factory;
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException("Can't read the enumeration value factory of " + enumClass, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    private <T> List<T> getCreatedEnumValueList(List<List<Object>> enumValueList,
+            IEnumValueFactory<T> factory,
+            int startIndex) {
+        List<T> enumValues = new ArrayList<T>(enumValueList.size());
+        int index = startIndex;
+        for (List<Object> attributeValues : enumValueList) {
+            enumValues.add(factory.createEnumValue(index, attributeValues, this));
+            index++;
+        }
+        return enumValues;
+    }
+
     private <T> List<T> getCreatedEnumValueList(EnumContentTocEntry tocEntry,
             List<List<Object>> enumValueList,
             Constructor<T> constructor,
             int startIndex) {
         T enumValue = null;
-        ArrayList<T> enumValues = new ArrayList<T>();
+        ArrayList<T> enumValues = new ArrayList<T>(enumValueList.size());
         int valueCounterForIndexParameter = startIndex;
+        constructor.setAccessible(true);
         for (List<Object> enumValueAsStrings : enumValueList) {
-            constructor.setAccessible(true);
             Object[] enumAttributeValues = enumValueAsStrings.toArray();
             Object[] parameters = new Object[enumAttributeValues.length + 2];
             setValuesForParamters(valueCounterForIndexParameter, enumAttributeValues, parameters);
@@ -188,7 +240,7 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
         InputStream is = getXmlAsStream(tocEntry);
         EnumSaxHandler saxhandler = new EnumSaxHandler();
         try {
-            SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+            SAXParser saxParser = newSAXParser();
             saxParser.parse(new InputSource(is), saxhandler);
         } catch (SAXException e) {
             throw new RuntimeException(
@@ -203,6 +255,12 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
         return saxhandler;
     }
 
+    private SAXParser newSAXParser() throws ParserConfigurationException, SAXException {
+        synchronized (SAX_PARSER_FACTORY) {
+            return SAX_PARSER_FACTORY.newSAXParser();
+        }
+    }
+
     private <T> Constructor<T> getCorrectConstructor(int parameterSize, Class<?> runtimeRepoClass, Class<T> enumClass) {
         Constructor<?>[] constructors = enumClass.getDeclaredConstructors();
         Constructor<T> constructor = null;
@@ -337,6 +395,14 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
             throw createCannotInstantiateException(e, tocEntry);
         }
 
+        if (table.isCreateRowSupported()) {
+            BinaryTableContent binaryContent = getUpToDateBinaryContent(tocEntry);
+            if (binaryContent != null) {
+                table.initFromBinary(binaryContent, this, tocEntry.getIpsObjectId());
+                return table;
+            }
+        }
+
         InputStream is = getXmlAsStream(tocEntry);
 
         try {
@@ -452,6 +518,49 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
      */
     protected abstract InputStream getXmlAsStream(TableContentTocEntry tocEntry);
 
+    /**
+     * Returns the table contents for the specified tocEntry in the binary format read by
+     * {@link BinaryTableContent}, preferably as memory mapped buffer. If this method returns
+     * <code>null</code>, or binary table contents that were not created from the current XML data,
+     * the table is initialized from the XML data returned by
+     * {@link #getXmlAsStream(TableContentTocEntry)}.
+     * <p>
+     * The default implementation returns <code>null</code>. Subclasses may override.
+     * 
+     * @param tocEntry Specifying the requested TableContent
+     * @return The binary table contents or <code>null</code> if there are none
+     */
+    protected ByteBuffer getBinaryContent(TableContentTocEntry tocEntry) {
+        return null;
+    }
+
+    /**
+     * Returns the binary table contents for the specified tocEntry if they were created from the
+     * current XML data. Returns <code>null</code> if there are no binary table contents, if they
+     * are invalid or were written in an unsupported version of the format or if the XML data has
+     * changed since, so the table is initialized from the XML data in these cases. The XML data is
+     * not read, the checksum stored in the binary table contents is compared with the checksum of
+     * the XML data recorded in the tocEntry.
+     */
+    private BinaryTableContent getUpToDateBinaryContent(TableContentTocEntry tocEntry) {
+        Long xmlChecksum = tocEntry.getXmlChecksum();
+        if (xmlChecksum == null) {
+            return null;
+        }
+        ByteBuffer buffer = getBinaryContent(tocEntry);
+        if (buffer == null || !BinaryTableContent.isSupported(buffer)) {
+            return null;
+        }
+        BinaryTableContent binaryContent;
+        try {
+            binaryContent = new BinaryTableContent(buffer);
+        } catch (IllegalArgumentException e) {
+            // corrupt or truncated binary table contents are ignored
+            return null;
+        }
+        return binaryContent.getSourceChecksum() == xmlChecksum.longValue() ? binaryContent : null;
+    }
+
     @Override
     protected <T> T createCustomObject(CustomTocEntryObject<T> tocEntry) {
         T runtimeObject = tocEntry.createRuntimeObject(this);
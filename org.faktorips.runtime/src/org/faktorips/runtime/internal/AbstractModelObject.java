@@ -11,6 +11,7 @@
 package org.faktorips.runtime.internal;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.faktorips.runtime.IModelObject;
@@ -96,6 +97,23 @@ public abstract class AbstractModelObject implements IModelObject {
         // empty default implementation
     }
 
+    /**
+     * Returns the dependant components that are validated by
+     * {@link #validateDependants(MessageList, IValidationContext)} in the order they are validated
+     * or <code>null</code> if they are not known. Validators use this list to validate the
+     * dependant components separately from this component.
+     * <p>
+     * The default implementation returns <code>null</code>. The generated code overrides this
+     * method together with validateDependants. If a subclass changes the components validated by
+     * validateDependants, it must override this method, too, or return <code>null</code>.
+     * <p>
+     * This method is model internal, it is not part of the published interface and should not be
+     * used by clients.
+     */
+    protected List<IModelObject> getDependantsToValidate() {
+        return null;
+    }
+
     /**
      * Validates this policy component's state without validating the dependant components. Adds any
      * message generated to the given list.
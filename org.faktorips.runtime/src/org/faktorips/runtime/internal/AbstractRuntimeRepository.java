@@ -10,9 +10,8 @@
 
 package org.faktorips.runtime.internal;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
@@ -23,7 +22,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -31,13 +33,17 @@ import javax.xml.bind.annotation.adapters.XmlAdapter;
 
 import org.faktorips.runtime.IEnumValueLookupService;
 import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IPreloadListener;
 import org.faktorips.runtime.IProductComponent;
 import org.faktorips.runtime.IProductComponentGeneration;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.IRuntimeRepositoryLookup;
 import org.faktorips.runtime.ITable;
+import org.faktorips.runtime.PreloadFilter;
+import org.faktorips.runtime.PreloadResult;
 import org.faktorips.runtime.ProductCmptGenerationNotFoundException;
 import org.faktorips.runtime.ProductCmptNotFoundException;
+import org.faktorips.runtime.ProductStructureGraph;
 import org.faktorips.runtime.formula.IFormulaEvaluatorFactory;
 import org.faktorips.runtime.jaxb.IpsJAXBContext;
 import org.faktorips.runtime.model.IpsModel;
@@ -69,12 +75,18 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
     // see getAllRepositories() for further information
     private List<IRuntimeRepository> allRepositories = null;
 
+    private final ConcurrentHashMap<Class<?>, SoftReference<EnumValueIdIndex<?>>> enumValueIdIndices = new ConcurrentHashMap<Class<?>, SoftReference<EnumValueIdIndex<?>>>();
+
     private Map<Class<?>, IEnumValueLookupService<?>> enumValueLookups = new ConcurrentHashMap<Class<?>, IEnumValueLookupService<?>>();
 
     private IFormulaEvaluatorFactory formulaEvaluatorFactory;
 
     private IRuntimeRepositoryLookup runtimeRepositoryLookup;
 
+    private volatile ProductStructureGraph productStructureGraph;
+
+    private volatile IpsJAXBContext jaxbContext;
+
     public AbstractRuntimeRepository(String name) {
         if (name == null) {
             throw new NullPointerException();
@@ -256,6 +268,42 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
     protected abstract IProductComponentGeneration getProductComponentGenerationInternal(String id,
             Calendar effectiveDate);
 
+    @Override
+    public final IProductComponentGeneration getEffectiveProductComponentGeneration(String id, DateTime effectiveDate) {
+        IProductComponentGeneration pcGen = getEffectiveProductComponentGenerationInternal(id, effectiveDate);
+        if (pcGen != null) {
+            DateTime validTo = pcGen.getProductComponent().getValidTo();
+            if (validTo != null && validTo.compareTo(effectiveDate) < 0) {
+                // If validTo is set and is before effectiveDate, the generation is invalid
+                return null;
+            }
+            return pcGen;
+        }
+        for (IRuntimeRepository repository : repositories) {
+            pcGen = repository.getEffectiveProductComponentGeneration(id, effectiveDate);
+            if (pcGen != null) {
+                return pcGen;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as getEffectiveProductComponentGeneration(String id, DateTime effectiveDate) but searches
+     * only in this repository and not the ones, this repository depends on.
+     * <p>
+     * The default implementation converts the effective date to a calendar in the default time zone
+     * and calls {@link #getProductComponentGenerationInternal(String, Calendar)}. Subclasses may
+     * override this method to search the generations without the conversion.
+     */
+    protected IProductComponentGeneration getEffectiveProductComponentGenerationInternal(String id,
+            DateTime effectiveDate) {
+        if (effectiveDate == null) {
+            return null;
+        }
+        return getProductComponentGenerationInternal(id, effectiveDate.toGregorianCalendar(TimeZone.getDefault()));
+    }
+
     @Override
     public final <T extends IProductComponent> List<T> getAllProductComponents(Class<T> productCmptClass) {
         List<T> result = new ArrayList<T>();
@@ -340,6 +388,20 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
      */
     protected abstract void getAllProductComponentIds(List<String> result);
 
+    @Override
+    public ProductStructureGraph getProductStructureGraph() {
+        if (isModifiable()) {
+            return new ProductStructureGraph(this);
+        }
+        ProductStructureGraph graph = productStructureGraph;
+        if (graph == null) {
+            // several threads may create a graph at the same time, the last one is kept
+            graph = new ProductStructureGraph(this);
+            productStructureGraph = graph;
+        }
+        return graph;
+    }
+
     @Override
     public List<ITable<?>> getAllTables() {
         List<ITable<?>> result = new ArrayList<ITable<?>>();
@@ -681,32 +743,40 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
         if (lookup != null) {
             return lookup.getEnumValue(id);
         }
-        List<T> enumValues = getEnumValues(clazz);
-        if (enumValues == null) {
-            return null;
+        List<T> values = getEnumValuesInternal(clazz);
+        T enumValue = getEnumValueIdIndex(clazz, values).getEnumValue(id);
+        if (enumValue != null || values != null) {
+            return enumValue;
         }
-        try {
-            Method enumValueIdMethod = clazz.getDeclaredMethod("getEnumValueId", new Class[0]); //$NON-NLS-1$
-            enumValueIdMethod.setAccessible(true);
-            for (T enumValue : enumValues) {
-                Object idValue = enumValueIdMethod.invoke(enumValue, new Object[0]);
-                if (id.equals(idValue)) {
-                    return enumValue;
-                }
+        for (IRuntimeRepository repository : repositories) {
+            enumValue = repository.getEnumValue(clazz, id);
+            if (enumValue != null) {
+                return enumValue;
             }
-        } catch (SecurityException e) {
-            throwUnableToCallMethodException(e);
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                    "The provided enumeration class doesn't provide an identifing method getEnumValueId.", e); //$NON-NLS-1$
-        } catch (IllegalAccessException e) {
-            throwUnableToCallMethodException(e);
-        } catch (InvocationTargetException e) {
-            throwUnableToCallMethodException(e);
         }
         return null;
     }
 
+    /**
+     * Returns the index of the IDs of the values defined in the enumeration class and the given
+     * values. The index is created only once for every list of values. If the values are reloaded,
+     * for example because they were removed from the enum cache, a new index is created.
+     * <p>
+     * The index references all values it contains. It is only held softly, so it does not keep
+     * values in memory that the enum cache has already released.
+     */
+    private <T> EnumValueIdIndex<T> getEnumValueIdIndex(Class<T> clazz, List<T> values) {
+        SoftReference<EnumValueIdIndex<?>> indexReference = enumValueIdIndices.get(clazz);
+        @SuppressWarnings("unchecked")
+        EnumValueIdIndex<T> index = indexReference == null ? null : (EnumValueIdIndex<T>)indexReference.get();
+        if (index == null || !index.isIndexOf(values)) {
+            // in worst case two threads create the same index
+            index = new EnumValueIdIndex<T>(clazz, getEnumValuesDefinedInType(clazz), values);
+            enumValueIdIndices.put(clazz, new SoftReference<EnumValueIdIndex<?>>(index));
+        }
+        return index;
+    }
+
     @Override
     public final <T> T getExistingEnumValue(Class<T> clazz, Object id) {
         if (id == null) {
@@ -720,10 +790,6 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
         return result;
     }
 
-    private void throwUnableToCallMethodException(Exception e) {
-        throw new IllegalStateException("Unable to call the getEnumValueId of the provided enumeration value.", e); //$NON-NLS-1$
-    }
-
     @Override
     public final <T> List<T> getEnumValues(Class<T> clazz) {
         List<T> values;
@@ -812,6 +878,7 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
     @Override
     public void addEnumValueLookupService(IEnumValueLookupService<?> lookup) {
         enumValueLookups.put(lookup.getEnumTypeClass(), lookup);
+        resetJAXBContext();
     }
 
     @Override
@@ -826,6 +893,7 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
     @Override
     public void removeEnumValueLookupService(IEnumValueLookupService<?> lookup) {
         enumValueLookups.remove(lookup.getEnumTypeClass());
+        resetJAXBContext();
     }
 
     /**
@@ -865,6 +933,10 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
      * product components.
      */
     public JAXBContext newJAXBContext(JAXBContext ctx) {
+        return newIpsJAXBContext(ctx);
+    }
+
+    private IpsJAXBContext newIpsJAXBContext(JAXBContext ctx) {
         LinkedList<XmlAdapter<?, ?>> adapters = new LinkedList<XmlAdapter<?, ?>>();
         addAllEnumXmlAdapters(adapters, this);
         for (IRuntimeRepository runtimeRepository : getAllReferencedRepositories()) {
@@ -884,6 +956,36 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
      */
     @Override
     public JAXBContext newJAXBContext() {
+        return newIpsJAXBContext();
+    }
+
+    @Override
+    public IpsJAXBContext getJAXBContext() {
+        if (isModifiable()) {
+            return newIpsJAXBContext();
+        }
+        IpsJAXBContext ctx = jaxbContext;
+        if (ctx == null) {
+            synchronized (this) {
+                ctx = jaxbContext;
+                if (ctx == null) {
+                    ctx = newIpsJAXBContext();
+                    jaxbContext = ctx;
+                }
+            }
+        }
+        return ctx;
+    }
+
+    /**
+     * Discards the shared context. Synchronized with the creation of the context, so a context that
+     * is created concurrently with old adapters is discarded, too.
+     */
+    private synchronized void resetJAXBContext() {
+        jaxbContext = null;
+    }
+
+    private IpsJAXBContext newIpsJAXBContext() {
         try {
             Set<String> classNames = getAllModelTypeImplementationClasses();
             Set<Class<?>> classes = new LinkedHashSet<Class<?>>(classNames.size());
@@ -894,7 +996,7 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
                 }
             }
             JAXBContext ctx = JAXBContext.newInstance(classes.toArray(new Class[classes.size()]));
-            return newJAXBContext(ctx);
+            return newIpsJAXBContext(ctx);
             // CSOFF: IllegalCatch
         } catch (RuntimeException e) {
             throw e;
@@ -952,6 +1054,42 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
      */
     protected abstract <T> T getCustomRuntimeObjectInternal(Class<T> type, String ipsObjectQualifiedName);
 
+    @Override
+    public PreloadResult preload(PreloadFilter filter, ExecutorService executor, IPreloadListener listener)
+            throws InterruptedException {
+        List<PreloadTask> tasks = new ArrayList<PreloadTask>();
+        getPreloadTasks(filter, tasks);
+        for (IRuntimeRepository repository : getAllReferencedRepositories()) {
+            if (repository instanceof AbstractRuntimeRepository) {
+                ((AbstractRuntimeRepository)repository).getPreloadTasks(filter, tasks);
+            }
+        }
+        return new RuntimeRepositoryPreloader(tasks, listener).run(executor);
+    }
+
+    @Override
+    public PreloadResult preload(PreloadFilter filter, int parallelism) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            return preload(filter, executor, null);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds a {@link PreloadTask} for every runtime object of this repository, not the ones this
+     * repository depends on, that is accepted by the filter.
+     * <p>
+     * The default implementation adds no tasks. Subclasses that load their objects lazily should
+     * override this method.
+     * 
+     * @see #preload(PreloadFilter, ExecutorService, IPreloadListener)
+     */
+    protected void getPreloadTasks(PreloadFilter filter, List<PreloadTask> result) {
+        // nothing to preload
+    }
+
     @Override
     public IRuntimeRepositoryLookup getRuntimeRepositoryLookup() {
         return runtimeRepositoryLookup;
@@ -52,17 +52,14 @@ public abstract class AbstractRuntimeRepositoryManager implements IRuntimeReposi
     @Override
     public IRuntimeRepository getCurrentRuntimeRepository() {
         IRuntimeRepository runtimeRepository = currentRuntimeRepository;
-        if (!(isRepositoryUpToDate(runtimeRepository) && areReferencedRepositoriesUpToDate())) {
+        if (runtimeRepository != null && !isUpToDateCheckedOnAccess(runtimeRepository)) {
+            return runtimeRepository;
+        }
+        if (!isUpToDate(runtimeRepository)) {
             synchronized (this) {
                 runtimeRepository = currentRuntimeRepository;
-                if (!(isRepositoryUpToDate(runtimeRepository) && areReferencedRepositoriesUpToDate())) {
-                    runtimeRepository = createNewRuntimeRepository();
-                    for (IRuntimeRepositoryManager manager : managers) {
-                        IRuntimeRepository referencedRuntimeRepository = manager.getCurrentRuntimeRepository();
-                        if (referencedRuntimeRepository != null) {
-                            runtimeRepository.addDirectlyReferencedRepository(referencedRuntimeRepository);
-                        }
-                    }
+                if (!isUpToDate(runtimeRepository)) {
+                    runtimeRepository = createNewRuntimeRepositoryWithReferences();
                     currentRuntimeRepository = runtimeRepository;
                 }
             }
@@ -70,6 +67,72 @@ public abstract class AbstractRuntimeRepositoryManager implements IRuntimeReposi
         return runtimeRepository;
     }
 
+    /**
+     * Replaces the current repository by a new one if it is not up to date anymore. The new
+     * repository is created and {@link #prepareNewRuntimeRepository(IRuntimeRepository) prepared}
+     * by the calling thread before it replaces the current one. In the meantime other threads still
+     * get the current repository.
+     * <p>
+     * The replaced repository is not changed in any way. Clients that still reference it can use it
+     * until they get the new one.
+     * 
+     * @return whether the repository was replaced
+     */
+    protected boolean updateRuntimeRepository() {
+        if (isUpToDate(currentRuntimeRepository)) {
+            return false;
+        }
+        IRuntimeRepository runtimeRepository = createNewRuntimeRepositoryWithReferences();
+        prepareNewRuntimeRepository(runtimeRepository);
+        synchronized (this) {
+            currentRuntimeRepository = runtimeRepository;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether {@link #getCurrentRuntimeRepository()} checks whether the given current
+     * repository is still up to date. Subclasses that call {@link #updateRuntimeRepository()} in
+     * the background may return <code>false</code>, then {@link #getCurrentRuntimeRepository()}
+     * simply returns the current repository without any locking.
+     * <p>
+     * The default implementation returns <code>true</code>.
+     * 
+     * @param currentRuntimeRepository the current repository, never <code>null</code>
+     */
+    protected boolean isUpToDateCheckedOnAccess(IRuntimeRepository currentRuntimeRepository) {
+        return true;
+    }
+
+    /**
+     * Called by {@link #updateRuntimeRepository()} with the new repository before it replaces the
+     * current one, for example to preload the product data.
+     * <p>
+     * The default implementation does nothing.
+     * 
+     * @param newRuntimeRepository the new repository, already connected to the referenced
+     *            repositories
+     */
+    protected void prepareNewRuntimeRepository(IRuntimeRepository newRuntimeRepository) {
+        // nothing to prepare
+    }
+
+    private boolean isUpToDate(IRuntimeRepository runtimeRepository) {
+        return runtimeRepository != null && isRepositoryUpToDate(runtimeRepository)
+                && areReferencedRepositoriesUpToDate(runtimeRepository);
+    }
+
+    private IRuntimeRepository createNewRuntimeRepositoryWithReferences() {
+        IRuntimeRepository runtimeRepository = createNewRuntimeRepository();
+        for (IRuntimeRepositoryManager manager : managers) {
+            IRuntimeRepository referencedRuntimeRepository = manager.getCurrentRuntimeRepository();
+            if (referencedRuntimeRepository != null) {
+                runtimeRepository.addDirectlyReferencedRepository(referencedRuntimeRepository);
+            }
+        }
+        return runtimeRepository;
+    }
+
     /**
      * Checks whether the {@link IRuntimeRepository} is up to date or not. If this method returns
      * {@code false}, a new repository has to be created.
@@ -93,9 +156,9 @@ public abstract class AbstractRuntimeRepositoryManager implements IRuntimeReposi
      * 
      * @return whether no directly referenced repository changed
      */
-    private boolean areReferencedRepositoriesUpToDate() {
+    private boolean areReferencedRepositoriesUpToDate(IRuntimeRepository runtimeRepository) {
         List<IRuntimeRepository> directReferencedRepos = new ArrayList<IRuntimeRepository>(
-                currentRuntimeRepository.getDirectlyReferencedRepositories());
+                runtimeRepository.getDirectlyReferencedRepositories());
         for (IRuntimeRepositoryManager manager : managers) {
             IRuntimeRepository referencedRepository = manager.getCurrentRuntimeRepository();
             if (referencedRepository != null) {
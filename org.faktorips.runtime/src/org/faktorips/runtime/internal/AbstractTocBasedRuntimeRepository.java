@@ -13,7 +13,7 @@ package org.faktorips.runtime.internal;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
@@ -26,6 +26,8 @@ import org.faktorips.runtime.IProductComponent;
 import org.faktorips.runtime.IProductComponentGeneration;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.ITable;
+import org.faktorips.runtime.PreloadFilter;
+import org.faktorips.runtime.PreloadFilter.ArtifactType;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -49,6 +51,8 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
 
     private volatile IReadonlyTableOfContents toc;
 
+    private final EffectiveGenerationMemo effectiveGenerationMemo = new EffectiveGenerationMemo();
+
     public AbstractTocBasedRuntimeRepository(String name, ICacheFactory cacheFactory, ClassLoader cl) {
         super(name, cacheFactory, cl);
     }
@@ -111,15 +115,41 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
         return getProductComponentGenerationInternal(id, generationTocEntry.getValidFrom());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The generation is searched in the sorted valid from dates of the table of contents without
+     * converting the effective date to a point in time. The table of contents entries found for
+     * the last requested effective dates are remembered, so requesting the generations effective
+     * on the same dates again and again does not need to search the table of contents.
+     */
+    @Override
+    protected IProductComponentGeneration getEffectiveProductComponentGenerationInternal(String id,
+            DateTime effectiveDate) {
+        if (id == null || effectiveDate == null) {
+            return null;
+        }
+        GenerationTocEntry generationTocEntry = effectiveGenerationMemo.get(id, effectiveDate);
+        if (generationTocEntry == null) {
+            ProductCmptTocEntry tocEntry = toc.getProductCmptTocEntry(id);
+            if (tocEntry == null) {
+                return null;
+            }
+            generationTocEntry = tocEntry.getEffectiveGenerationEntry(effectiveDate);
+            if (generationTocEntry == null) {
+                return null;
+            }
+            effectiveGenerationMemo.put(id, effectiveDate, generationTocEntry);
+        }
+        return getProductComponentGenerationInternal(id, generationTocEntry.getValidFrom());
+    }
+
     @Override
     protected IProductComponentGeneration getNextProductComponentGenerationInternal(
             IProductComponentGeneration generation) {
         String id = generation.getProductComponent().getId();
         ProductCmptTocEntry tocEntry = toc.getProductCmptTocEntry(id);
-        Date validFromAsDate = generation.getValidFrom(TimeZone.getDefault());
-        Calendar validFromAsCalendar = Calendar.getInstance();
-        validFromAsCalendar.setTime(validFromAsDate);
-        GenerationTocEntry generationTocEntry = tocEntry.getNextGenerationEntry(validFromAsCalendar);
+        GenerationTocEntry generationTocEntry = tocEntry.getNextGenerationEntry(generation.getValidFrom());
         if (generationTocEntry == null) {
             return null;
         }
@@ -131,10 +161,7 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
             IProductComponentGeneration generation) {
         String id = generation.getProductComponent().getId();
         ProductCmptTocEntry tocEntry = toc.getProductCmptTocEntry(id);
-        Date validFromAsDate = generation.getValidFrom(TimeZone.getDefault());
-        Calendar validFromAsCalendar = Calendar.getInstance();
-        validFromAsCalendar.setTime(validFromAsDate);
-        GenerationTocEntry generationTocEntry = tocEntry.getPreviousGenerationEntry(validFromAsCalendar);
+        GenerationTocEntry generationTocEntry = tocEntry.getPreviousGenerationEntry(generation.getValidFrom());
         if (generationTocEntry == null) {
             return null;
         }
@@ -270,6 +297,68 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
         }
     }
 
+    @Override
+    protected void getPreloadTasks(PreloadFilter filter, List<PreloadTask> result) {
+        if (filter.isIncluded(ArtifactType.PRODUCT_COMPONENT)
+                || filter.isIncluded(ArtifactType.PRODUCT_COMPONENT_GENERATION)) {
+            for (ProductCmptTocEntry entry : toc.getProductCmptTocEntries()) {
+                if (filter.acceptId(entry.getKindId()) && acceptProductComponentType(filter, entry)) {
+                    addPreloadTasks(filter, entry, result);
+                }
+            }
+        }
+        if (filter.isIncluded(ArtifactType.TABLE)) {
+            for (TableContentTocEntry entry : toc.getTableTocEntries()) {
+                if (filter.acceptId(entry.getIpsObjectQualifiedName())) {
+                    result.add(new TablePreloadTask(entry.getIpsObjectQualifiedName()));
+                }
+            }
+        }
+        if (filter.isIncluded(ArtifactType.ENUM)) {
+            for (EnumContentTocEntry entry : toc.getEnumContentTocEntries()) {
+                if (filter.acceptId(entry.getImplementationClassName())) {
+                    result.add(new EnumPreloadTask(entry.getImplementationClassName()));
+                }
+            }
+        }
+    }
+
+    private boolean acceptProductComponentType(PreloadFilter filter, ProductCmptTocEntry entry) {
+        return filter.getProductComponentType() == null || filter
+                .acceptProductComponentType(getClass(entry.getImplementationClassName(), getClassLoader()));
+    }
+
+    private void addPreloadTasks(PreloadFilter filter, ProductCmptTocEntry entry, List<PreloadTask> result) {
+        TimeZone zone = TimeZone.getDefault();
+        long validTo = Long.MAX_VALUE;
+        if (entry.getValidTo() != null) {
+            // the product component is valid including the valid to date
+            GregorianCalendar dayAfterValidTo = entry.getValidTo().toGregorianCalendar(zone);
+            dayAfterValidTo.add(Calendar.DATE, 1);
+            validTo = dayAfterValidTo.getTimeInMillis();
+        }
+        List<GenerationTocEntry> generationEntries = entry.getGenerationEntries();
+        long validFrom = generationEntries.isEmpty() ? Long.MIN_VALUE
+                : generationEntries.get(generationEntries.size() - 1).getValidFromInMillisec(zone);
+        if (!filter.acceptValidityPeriod(validFrom, validTo)) {
+            return;
+        }
+        if (filter.isIncluded(ArtifactType.PRODUCT_COMPONENT)) {
+            result.add(new ProductCmptPreloadTask(entry.getIpsObjectId()));
+        }
+        if (filter.isIncluded(ArtifactType.PRODUCT_COMPONENT_GENERATION)) {
+            // the generation entries are ordered by their valid from date, the latest first
+            long nextValidFrom = validTo;
+            for (GenerationTocEntry generationEntry : generationEntries) {
+                long generationValidFrom = generationEntry.getValidFromInMillisec(zone);
+                if (filter.acceptValidityPeriod(generationValidFrom, nextValidFrom)) {
+                    result.add(new GenerationPreloadTask(entry.getIpsObjectId(), generationEntry.getValidFrom()));
+                }
+                nextValidFrom = generationValidFrom;
+            }
+        }
+    }
+
     @Override
     protected void getAllModelTypeImplementationClasses(Set<String> result) {
         Set<ModelTypeTocEntry> entries = toc.getModelTypeTocEntries();
@@ -361,4 +450,62 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
 
     protected abstract <T> T createCustomObject(CustomTocEntryObject<T> tocEntry);
 
+    private class ProductCmptPreloadTask extends PreloadTask {
+
+        public ProductCmptPreloadTask(String id) {
+            super(ArtifactType.PRODUCT_COMPONENT, id);
+        }
+
+        @Override
+        public void load() {
+            getProductComponent(getId());
+        }
+
+    }
+
+    private class GenerationPreloadTask extends PreloadTask {
+
+        private final String productCmptId;
+
+        private final DateTime validFrom;
+
+        public GenerationPreloadTask(String productCmptId, DateTime validFrom) {
+            super(ArtifactType.PRODUCT_COMPONENT_GENERATION, productCmptId + " " + validFrom.toIsoFormat());
+            this.productCmptId = productCmptId;
+            this.validFrom = validFrom;
+        }
+
+        @Override
+        public void load() {
+            getProductComponentGeneration(productCmptId, validFrom.toGregorianCalendar(TimeZone.getDefault()));
+        }
+
+    }
+
+    private class TablePreloadTask extends PreloadTask {
+
+        public TablePreloadTask(String qualifiedTableName) {
+            super(ArtifactType.TABLE, qualifiedTableName);
+        }
+
+        @Override
+        public void load() {
+            getTable(getId());
+        }
+
+    }
+
+    private class EnumPreloadTask extends PreloadTask {
+
+        public EnumPreloadTask(String className) {
+            super(ArtifactType.ENUM, className);
+        }
+
+        @Override
+        public void load() {
+            getEnumValues(AbstractTocBasedRuntimeRepository.this.getClass(getId(), getClassLoader()));
+        }
+
+    }
+
 }
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Read only view of table contents stored in the columnar binary format written by the
+ * {@link BinaryTableContentWriter}. The values are read directly from the given {@link ByteBuffer},
+ * that is usually a memory mapped file, so loading the table contents neither parses XML nor
+ * creates any objects for the cells.
+ * <p>
+ * The format consists of the following blocks. All numbers are big endian integers.
+ * <ol>
+ * <li>Header: the magic number, the format version, the CRC-32 checksum of the XML data the
+ * binary table contents were created from, the number of columns and the number of rows</li>
+ * <li>Dictionary: the number of distinct strings, the end offset of every string and the UTF-8
+ * encoded strings. Each distinct string is stored only once.</li>
+ * <li>Columns: for every column one block with the dictionary index of the value in each row, or
+ * <code>-1</code> for a <code>null</code> value</li>
+ * </ol>
+ * The strings of the dictionary are decoded on first access and reused afterwards.
+ * <p>
+ * The checksum of the XML data allows to detect binary table contents that are older than the XML
+ * data, for example because the XML data was changed after the binary file was written.
+ */
+public class BinaryTableContent {
+
+    /**
+     * The file extension of table contents in the binary format.
+     */
+    public static final String FILE_EXTENSION = "bintable";
+
+    static final int MAGIC_NUMBER = 0x46495054;
+
+    static final int VERSION = 2;
+
+    static final int NULL_INDEX = -1;
+
+    static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final int HEADER_SIZE = 20;
+
+    private final ByteBuffer buffer;
+
+    private final long sourceChecksum;
+
+    private final int columnCount;
+
+    private final int rowCount;
+
+    private final int stringCount;
+
+    private final int stringOffsetsStart;
+
+    private final int stringDataStart;
+
+    private final int columnsStart;
+
+    private final String[] strings;
+
+    /**
+     * Creates a view of the table contents in the given buffer. All offsets stored in the buffer are
+     * checked against its limit, so corrupt or truncated binary table contents are rejected here
+     * instead of failing when the values are read.
+     * 
+     * @throws IllegalArgumentException if the buffer does not contain valid table contents in a
+     *             supported version of the binary format
+     */
+    public BinaryTableContent(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC_NUMBER) {
+            throw new IllegalArgumentException("The buffer does not contain binary table contents");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version of binary table contents: " + version);
+        }
+        long limit = buffer.limit();
+        if (limit < HEADER_SIZE + 4) {
+            throw new IllegalArgumentException("The binary table contents are truncated");
+        }
+        sourceChecksum = buffer.getInt(8) & 0xFFFFFFFFL;
+        columnCount = buffer.getInt(12);
+        rowCount = buffer.getInt(16);
+        stringCount = buffer.getInt(HEADER_SIZE);
+        if (columnCount < 0 || rowCount < 0 || stringCount < 0) {
+            throw new IllegalArgumentException("The binary table contents are corrupt");
+        }
+        stringOffsetsStart = HEADER_SIZE + 4;
+        long stringDataStartOffset = stringOffsetsStart + 4L * stringCount;
+        if (stringDataStartOffset > limit) {
+            throw new IllegalArgumentException("The binary table contents are truncated");
+        }
+        stringDataStart = (int)stringDataStartOffset;
+        columnsStart = stringDataStart + checkStringOffsets(limit - stringDataStart);
+        if ((long)columnCount * rowCount > (limit - columnsStart) / 4) {
+            throw new IllegalArgumentException("The binary table contents are truncated");
+        }
+        strings = new String[stringCount];
+    }
+
+    /**
+     * Checks that the end offsets of the strings are ascending and do not exceed the given length
+     * and returns the length of the string data.
+     */
+    private int checkStringOffsets(long maxLength) {
+        int previousOffset = 0;
+        for (int i = 0; i < stringCount; i++) {
+            int offset = buffer.getInt(stringOffsetsStart + 4 * i);
+            if (offset < previousOffset) {
+                throw new IllegalArgumentException("The binary table contents are corrupt");
+            }
+            if (offset > maxLength) {
+                throw new IllegalArgumentException("The binary table contents are truncated");
+            }
+            previousOffset = offset;
+        }
+        return previousOffset;
+    }
+
+    /**
+     * Returns <code>true</code> if the given buffer contains binary table contents in the version
+     * of the binary format supported by this class, <code>false</code> otherwise, for example if
+     * the binary file was written by an older version.
+     */
+    public static boolean isSupported(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC_NUMBER && buffer.getInt(4) == VERSION;
+    }
+
+    /**
+     * Computes the CRC-32 checksum of the given data, that is the checksum stored in the binary
+     * table contents created from this data.
+     */
+    public static long computeChecksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    /**
+     * Returns the name of the resource containing the binary table contents for the table
+     * contents stored in the given XML resource.
+     */
+    public static String getResourceName(String xmlResourceName) {
+        int extensionIndex = xmlResourceName.lastIndexOf('.');
+        String baseName = extensionIndex < 0 ? xmlResourceName : xmlResourceName.substring(0, extensionIndex);
+        return baseName + '.' + FILE_EXTENSION;
+    }
+
+    /**
+     * Returns a buffer with the content of the resource identified by the given URL. Files are
+     * mapped into memory, any other resource, for example an entry of a JAR file, is read into a
+     * heap buffer.
+     * 
+     * @throws IOException if the resource cannot be read
+     */
+    public static ByteBuffer load(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            return map(toFile(url));
+        }
+        InputStream is = url.openStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = is.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        } finally {
+            is.close();
+        }
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return new File(url.getPath());
+        }
+    }
+
+    /**
+     * Maps the given file read only into memory. The mapping stays valid after this method has
+     * closed the file.
+     * 
+     * @throws IOException if the file cannot be mapped
+     */
+    public static ByteBuffer map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Returns the CRC-32 checksum of the XML data the binary table contents were created from.
+     * 
+     * @see #computeChecksum(byte[])
+     */
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the value of the given cell, may be <code>null</code>.
+     * 
+     * @throws IndexOutOfBoundsException if there is no such row or column
+     */
+    public String getValue(int row, int column) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", row count: " + rowCount);
+        }
+        if (column < 0 || column >= columnCount) {
+            throw new IndexOutOfBoundsException("Column: " + column + ", column count: " + columnCount);
+        }
+        // the constructor ensures that the offset of every cell is within the buffer
+        int stringIndex = buffer.getInt((int)(columnsStart + 4L * ((long)column * rowCount + row)));
+        if (stringIndex == NULL_INDEX) {
+            return null;
+        }
+        if (stringIndex < 0 || stringIndex >= stringCount) {
+            throw new IllegalStateException("The binary table contents are corrupt, invalid string index "
+                    + stringIndex + " in row " + row + ", column " + column);
+        }
+        return getString(stringIndex);
+    }
+
+    /**
+     * Returns the values of all columns of the given row in the same form as they are passed to
+     * {@link Table#addRow(List, org.faktorips.runtime.IRuntimeRepository)}.
+     */
+    public List<String> getRow(int row) {
+        List<String> values = new ArrayList<String>(columnCount);
+        for (int column = 0; column < columnCount; column++) {
+            values.add(getValue(row, column));
+        }
+        return values;
+    }
+
+    private String getString(int stringIndex) {
+        // Strings are immutable, so the benign race on the array element does no harm: in the
+        // worst case the same string is decoded twice.
+        String string = strings[stringIndex];
+        if (string == null) {
+            int start = stringIndex == 0 ? 0 : buffer.getInt(stringOffsetsStart + 4 * (stringIndex - 1));
+            int end = buffer.getInt(stringOffsetsStart + 4 * stringIndex);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(stringDataStart + start);
+            duplicate.get(bytes);
+            string = new String(bytes, CHARSET);
+            strings[stringIndex] = string;
+        }
+        return string;
+    }
+
+}
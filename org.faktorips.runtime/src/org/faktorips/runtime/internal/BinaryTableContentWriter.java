@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * Writes table contents in the columnar binary format read by {@link BinaryTableContent}. The rows
+ * are collected by {@link #addRow(List)} and written all at once by {@link #write(OutputStream)},
+ * because the columns are stored one after the other.
+ */
+public class BinaryTableContentWriter {
+
+    private final int columnCount;
+
+    private final long sourceChecksum;
+
+    private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+    private final List<byte[]> encodedStrings = new ArrayList<byte[]>();
+
+    private final List<int[]> rows = new ArrayList<int[]>();
+
+    /**
+     * Creates a writer for table contents with the given number of columns.
+     * 
+     * @param columnCount the number of columns
+     * @param sourceChecksum the checksum of the XML data the table contents are read from as
+     *            computed by {@link BinaryTableContent#computeChecksum(byte[])}
+     */
+    public BinaryTableContentWriter(int columnCount, long sourceChecksum) {
+        if (columnCount < 0) {
+            throw new IllegalArgumentException("The number of columns must not be negative: " + columnCount);
+        }
+        this.columnCount = columnCount;
+        this.sourceChecksum = sourceChecksum;
+    }
+
+    /**
+     * Creates a writer containing the rows of the table contents in the given XML data. The rows
+     * are read exactly as by {@link Table#initFromXml(java.io.InputStream, IRuntimeRepository, String)}
+     * and the checksum is computed from the same data, so the binary table contents always match
+     * the XML data they claim to be created from.
+     * 
+     * @throws IOException if the XML data cannot be parsed
+     * @throws IllegalArgumentException if a row does not contain a value for every column
+     */
+    public static BinaryTableContentWriter createFromXml(byte[] xmlData) throws IOException {
+        XmlTableContents tableContents = new XmlTableContents(BinaryTableContent.computeChecksum(xmlData));
+        try {
+            Table.parse(new ByteArrayInputStream(xmlData), new XmlTableContentsHandler(tableContents));
+        } catch (ParserConfigurationException e) {
+            throw new IOException("Unable to create a parser for the table contents", e);
+        } catch (SAXException e) {
+            throw new IOException("Unable to parse the table contents", e);
+        }
+        if (tableContents.writer == null) {
+            throw new IOException("The XML data does not contain table contents");
+        }
+        return tableContents.writer;
+    }
+
+    /**
+     * Adds a row with the given values. The list must contain a value for every column, a value may
+     * be <code>null</code>.
+     * 
+     * @throws IllegalArgumentException if the number of values differs from the number of columns
+     */
+    public void addRow(List<String> values) {
+        if (values.size() != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values but got " + values.size());
+        }
+        int[] row = new int[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            row[column] = getStringIndex(values.get(column));
+        }
+        rows.add(row);
+    }
+
+    private int getStringIndex(String value) {
+        if (value == null) {
+            return BinaryTableContent.NULL_INDEX;
+        }
+        Integer index = stringIndices.get(value);
+        if (index == null) {
+            index = encodedStrings.size();
+            stringIndices.put(value, index);
+            encodedStrings.add(value.getBytes(BinaryTableContent.CHARSET));
+        }
+        return index;
+    }
+
+    /**
+     * Writes all rows added so far to the given stream. The stream is not closed.
+     * 
+     * @throws IOException if writing to the stream fails
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(BinaryTableContent.MAGIC_NUMBER);
+        data.writeInt(BinaryTableContent.VERSION);
+        data.writeInt((int)sourceChecksum);
+        data.writeInt(columnCount);
+        data.writeInt(rows.size());
+
+        data.writeInt(encodedStrings.size());
+        int offset = 0;
+        for (byte[] encodedString : encodedStrings) {
+            offset += encodedString.length;
+            data.writeInt(offset);
+        }
+        for (byte[] encodedString : encodedStrings) {
+            data.write(encodedString);
+        }
+
+        for (int column = 0; column < columnCount; column++) {
+            for (int[] row : rows) {
+                data.writeInt(row[column]);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Passes the rows read from the XML data to the writer that is created as soon as the number of
+     * columns is known.
+     */
+    private static class XmlTableContents extends Table<Object> {
+
+        private final long sourceChecksum;
+
+        private BinaryTableContentWriter writer;
+
+        public XmlTableContents(long sourceChecksum) {
+            this.sourceChecksum = sourceChecksum;
+        }
+
+        @Override
+        protected void addRow(List<String> columns, IRuntimeRepository productRepository) {
+            if (writer == null) {
+                throw new IllegalStateException("The number of columns is unknown");
+            }
+            writer.addRow(columns);
+        }
+
+        @Override
+        protected void initKeyMaps() {
+            // the rows are only passed to the writer
+        }
+
+    }
+
+    /**
+     * Reads the number of columns from the root element of the table contents in addition to the
+     * rows.
+     */
+    private static class XmlTableContentsHandler extends TableSaxHandler {
+
+        private static final String TABLE_CONTENTS = "TableContents";
+
+        private static final String NUM_OF_COLUMNS = "numOfColumns";
+
+        private final XmlTableContents tableContents;
+
+        public XmlTableContentsHandler(XmlTableContents tableContents) {
+            super(tableContents, null);
+            this.tableContents = tableContents;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            if (TABLE_CONTENTS.equals(qName)) {
+                try {
+                    tableContents.writer = new BinaryTableContentWriter(Integer.parseInt(attributes
+                            .getValue(NUM_OF_COLUMNS)), tableContents.sourceChecksum);
+                } catch (NumberFormatException e) {
+                    throw new SAXException("Invalid number of columns: " + attributes.getValue(NUM_OF_COLUMNS), e);
+                }
+            } else {
+                super.startElement(uri, localName, qName, attributes);
+            }
+        }
+
+    }
+
+}
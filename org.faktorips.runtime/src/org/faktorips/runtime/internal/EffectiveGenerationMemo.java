@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.faktorips.runtime.internal.toc.GenerationTocEntry;
+
+/**
+ * Remembers the table of contents entries of the product component generations found for the last
+ * requested effective dates. Most requests ask for the generations effective on very few dates,
+ * for example the current date or the inception dates of some policies. For these dates the entry
+ * is found by a single map lookup instead of searching the table of contents.
+ * <p>
+ * Only the entries are remembered, not the generations themselves. The generations are still
+ * resolved through the generation cache, so the memo does not keep generations the cache has
+ * released.
+ * <p>
+ * The memo has a small fixed number of slots, every effective date is assigned to one of them by
+ * its hash code. A date replaces the date currently held by its slot together with all its
+ * generations. The number of generations remembered for one date is limited, too. This class is
+ * thread safe. Because the memo is only a shortcut, concurrent updates of the same slot may lose
+ * entries.
+ */
+class EffectiveGenerationMemo {
+
+    /** The number of slots, must be a power of two */
+    static final int SLOTS = 8;
+
+    static final int MAX_GENERATIONS_PER_DATE = 4096;
+
+    private static final int SLOT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SLOTS);
+
+    private final AtomicReferenceArray<DateEntry> dateEntries = new AtomicReferenceArray<DateEntry>(SLOTS);
+
+    /**
+     * Returns the table of contents entry of the generation of the product component with the given
+     * id remembered for the given effective date or <code>null</code> if there is none.
+     */
+    public GenerationTocEntry get(String id, DateTime effectiveDate) {
+        DateEntry dateEntry = dateEntries.get(slot(effectiveDate));
+        if (dateEntry == null || !dateEntry.effectiveDate.equals(effectiveDate)) {
+            return null;
+        }
+        return dateEntry.generations.get(id);
+    }
+
+    /**
+     * Remembers the table of contents entry of the generation of the product component with the
+     * given id that is effective on the given date.
+     */
+    public void put(String id, DateTime effectiveDate, GenerationTocEntry generationTocEntry) {
+        int slot = slot(effectiveDate);
+        DateEntry dateEntry = dateEntries.get(slot);
+        if (dateEntry == null || !dateEntry.effectiveDate.equals(effectiveDate)) {
+            dateEntry = new DateEntry(effectiveDate);
+            dateEntries.set(slot, dateEntry);
+        }
+        if (dateEntry.generations.size() < MAX_GENERATIONS_PER_DATE) {
+            dateEntry.generations.put(id, generationTocEntry);
+        }
+    }
+
+    private int slot(DateTime effectiveDate) {
+        // the hash codes of consecutive days differ by a multiple of two, spread them over all slots
+        return (effectiveDate.hashCode() * 0x9E3779B9) >>> SLOT_SHIFT;
+    }
+
+    private static class DateEntry {
+
+        private final DateTime effectiveDate;
+
+        private final ConcurrentMap<String, GenerationTocEntry> generations = new ConcurrentHashMap<String, GenerationTocEntry>();
+
+        public DateEntry(DateTime effectiveDate) {
+            this.effectiveDate = effectiveDate;
+        }
+
+    }
+
+}
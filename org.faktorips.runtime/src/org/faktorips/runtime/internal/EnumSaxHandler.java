@@ -92,9 +92,7 @@ public class EnumSaxHandler extends DefaultHandler {
     @Override
     public void characters(char[] buf, int offset, int len) throws SAXException {
         if (stringBuilder != null) {
-            char[] dest = new char[len];
-            System.arraycopy(buf, offset, dest, 0, len);
-            stringBuilder.append(dest);
+            stringBuilder.append(buf, offset, len);
         }
     }
 
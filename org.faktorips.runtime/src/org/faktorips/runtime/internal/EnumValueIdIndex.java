@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the IDs of the values of one enumeration class to the values. The IDs are read once by
+ * calling the generated method <code>getEnumValueId()</code> when the index is created, so a lookup
+ * is a simple hash map access without any reflection.
+ * <p>
+ * The index remembers the list of values it was created for. The repository uses
+ * {@link #isIndexOf(List)} to check whether the values have been reloaded in the meantime, for
+ * example because they were removed from the enum cache.
+ */
+class EnumValueIdIndex<T> {
+
+    private final List<T> indexedValues;
+
+    private final Map<Object, T> valuesById;
+
+    /**
+     * Creates the index for the given values.
+     * 
+     * @param enumClass the class of the enumeration
+     * @param valuesFromType the values defined in the enumeration class itself
+     * @param indexedValues the values that are loaded by the repository, may be <code>null</code>
+     * 
+     * @throws IllegalArgumentException if the enumeration class does not provide the method
+     *             <code>getEnumValueId()</code>
+     */
+    EnumValueIdIndex(Class<T> enumClass, List<T> valuesFromType, List<T> indexedValues) {
+        this.indexedValues = indexedValues;
+        int size = valuesFromType.size() + (indexedValues == null ? 0 : indexedValues.size());
+        valuesById = new HashMap<Object, T>(Math.max(16, (int)(size / .75f) + 1));
+        Method enumValueIdMethod = getEnumValueIdMethod(enumClass);
+        addValues(enumValueIdMethod, valuesFromType);
+        if (indexedValues != null) {
+            addValues(enumValueIdMethod, indexedValues);
+        }
+    }
+
+    private Method getEnumValueIdMethod(Class<T> enumClass) {
+        try {
+            Method enumValueIdMethod = enumClass.getDeclaredMethod("getEnumValueId", new Class<?>[0]); //$NON-NLS-1$
+            enumValueIdMethod.setAccessible(true);
+            return enumValueIdMethod;
+        } catch (SecurityException e) {
+            throw createUnableToCallMethodException(e);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                    "The provided enumeration class doesn't provide an identifing method getEnumValueId.", e); //$NON-NLS-1$
+        }
+    }
+
+    private void addValues(Method enumValueIdMethod, List<T> values) {
+        try {
+            for (T enumValue : values) {
+                Object id = enumValueIdMethod.invoke(enumValue, new Object[0]);
+                // the first value wins like in a linear search
+                if (id != null && !valuesById.containsKey(id)) {
+                    valuesById.put(id, enumValue);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw createUnableToCallMethodException(e);
+        } catch (InvocationTargetException e) {
+            throw createUnableToCallMethodException(e);
+        }
+    }
+
+    private IllegalStateException createUnableToCallMethodException(Exception e) {
+        return new IllegalStateException("Unable to call the getEnumValueId of the provided enumeration value.", e); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns <code>true</code> if this index was created for exactly the given list instance.
+     */
+    boolean isIndexOf(List<T> values) {
+        return indexedValues == values;
+    }
+
+    /**
+     * Returns the value with the given ID or <code>null</code> if there is no such value.
+     */
+    T getEnumValue(Object id) {
+        return valuesById.get(id);
+    }
+
+}
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Index of the <code>Generation</code> elements of a product component XML file. For every
+ * generation the index contains the byte offsets of its start and end tag in the file, so a single
+ * generation can be read without parsing the other generations.
+ * <p>
+ * The index is created by a lightweight scanner that only recognizes the XML markup and does not
+ * build any objects except for the generation entries. The scanner works on the bytes of the file
+ * and therefore supports all encodings that are compatible to ASCII like UTF-8 or ISO-8859-1. For
+ * other encodings, for example UTF-16, the index is marked as not supported and the file has to be
+ * parsed completely.
+ */
+public class GenerationOffsetIndex {
+
+    static final String GENERATION_TAG = "Generation";
+
+    static final String VALID_FROM_ATTRIBUTE = "validFrom";
+
+    private static final String DEFAULT_ENCODING = "UTF-8";
+
+    private final Map<DateTime, Range> generations;
+
+    private final String encoding;
+
+    private GenerationOffsetIndex(Map<DateTime, Range> generations, String encoding) {
+        this.generations = generations;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Creates the index by scanning the given stream. The stream is not closed.
+     * 
+     * @throws IOException if the stream can not be read
+     * @throws IllegalArgumentException if the stream does not contain well-formed XML
+     */
+    public static GenerationOffsetIndex create(InputStream is) throws IOException {
+        return new Scanner(new BufferedInputStream(is)).scan();
+    }
+
+    /**
+     * Returns <code>true</code> if the encoding of the file is supported by the index. If it is not
+     * supported the index does not contain any generation.
+     */
+    public boolean isSupported() {
+        return encoding != null;
+    }
+
+    /**
+     * Returns the encoding of the file as declared in the XML declaration, <code>UTF-8</code> if
+     * there is no declaration and <code>null</code> if the encoding is not supported.
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Returns the range of the generation with the given valid from date or <code>null</code> if
+     * there is no such generation. If the file contains several generations with the same date the
+     * range of the first one is returned.
+     */
+    public Range getGeneration(DateTime validFrom) {
+        return generations.get(validFrom);
+    }
+
+    /**
+     * Returns the number of indexed generations.
+     */
+    public int size() {
+        return generations.size();
+    }
+
+    /**
+     * The position of a generation element in the file. The start offset is the offset of the
+     * <code>&lt;</code> of the start tag, the end offset is the offset directly after the
+     * <code>&gt;</code> of the end tag.
+     */
+    public static final class Range {
+
+        private final long start;
+
+        private final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public int getLength() {
+            return (int)(end - start);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+
+    }
+
+    /**
+     * Recognizes start tags, end tags, comments, CDATA sections, processing instructions and the
+     * document type declaration. Text content is skipped byte by byte.
+     */
+    private static class Scanner {
+
+        private final InputStream is;
+
+        private final Map<DateTime, Range> generations = new HashMap<DateTime, Range>();
+
+        private final StringBuilder nameBuilder = new StringBuilder();
+
+        private String encoding = DEFAULT_ENCODING;
+
+        private long position;
+
+        private int depth;
+
+        private long generationStart = -1;
+
+        private String generationValidFrom;
+
+        public Scanner(InputStream is) {
+            this.is = is;
+        }
+
+        public GenerationOffsetIndex scan() throws IOException {
+            int b = read();
+            if (b == 0xFE || b == 0xFF || b == 0) {
+                // UTF-16 or UTF-32
+                return new GenerationOffsetIndex(new HashMap<DateTime, Range>(), null);
+            }
+            if (b == 0xEF) {
+                // UTF-8 byte order mark
+                read();
+                read();
+                b = read();
+            }
+            while (b != -1) {
+                if (b == '<') {
+                    scanMarkup(position - 1);
+                }
+                b = read();
+            }
+            if (depth != 0) {
+                throw new IllegalArgumentException("Unexpected end of XML document at offset " + position);
+            }
+            return new GenerationOffsetIndex(generations, encoding);
+        }
+
+        private void scanMarkup(long start) throws IOException {
+            int b = read();
+            if (b == '?') {
+                scanProcessingInstruction();
+            } else if (b == '!') {
+                scanDeclarationOrComment();
+            } else if (b == '/') {
+                scanEndTag();
+            } else {
+                scanStartTag(start, b);
+            }
+        }
+
+        private void scanProcessingInstruction() throws IOException {
+            String content = readUntil("?>");
+            if (content.startsWith("xml ")) {
+                String declaredEncoding = getPseudoAttribute(content, "encoding");
+                if (declaredEncoding != null) {
+                    encoding = declaredEncoding;
+                }
+            }
+        }
+
+        private void scanDeclarationOrComment() throws IOException {
+            int b = read();
+            if (b == '-') {
+                expect('-');
+                skipUntil("-->");
+            } else if (b == '[') {
+                skipUntil("]]>");
+            } else {
+                // DOCTYPE, possibly with an internal subset
+                int brackets = 0;
+                while (b != '>' || brackets > 0) {
+                    if (b == '[') {
+                        brackets++;
+                    } else if (b == ']') {
+                        brackets--;
+                    } else if (b == '"' || b == '\'') {
+                        skipUntil(String.valueOf((char)b));
+                    }
+                    b = readNotEof();
+                }
+            }
+        }
+
+        private void scanEndTag() throws IOException {
+            skipUntil(">");
+            depth--;
+            if (depth == 1 && generationStart >= 0) {
+                addGeneration(position);
+            }
+        }
+
+        private void scanStartTag(long start, int firstByte) throws IOException {
+            nameBuilder.setLength(0);
+            int b = firstByte;
+            while (!isWhitespace(b) && b != '>' && b != '/') {
+                nameBuilder.append((char)b);
+                b = readNotEof();
+            }
+            boolean isGeneration = depth == 1 && GENERATION_TAG.contentEquals(nameBuilder);
+            String validFrom = null;
+            boolean emptyElement = false;
+            while (b != '>') {
+                if (b == '/') {
+                    emptyElement = true;
+                } else if (!isWhitespace(b)) {
+                    String value = scanAttribute(b);
+                    if (isGeneration && VALID_FROM_ATTRIBUTE.contentEquals(nameBuilder)) {
+                        validFrom = value;
+                    }
+                }
+                b = readNotEof();
+            }
+            if (isGeneration) {
+                generationStart = start;
+                generationValidFrom = validFrom;
+            }
+            if (emptyElement) {
+                if (isGeneration) {
+                    addGeneration(position);
+                }
+            } else {
+                depth++;
+            }
+        }
+
+        /**
+         * Reads the name of the attribute into the name builder and returns the raw value.
+         */
+        private String scanAttribute(int firstByte) throws IOException {
+            nameBuilder.setLength(0);
+            int b = firstByte;
+            while (b != '=' && !isWhitespace(b)) {
+                nameBuilder.append((char)b);
+                b = readNotEof();
+            }
+            while (b != '"' && b != '\'') {
+                b = readNotEof();
+            }
+            return readUntil(String.valueOf((char)b));
+        }
+
+        private void addGeneration(long end) {
+            DateTime validFrom = parseValidFrom();
+            if (validFrom != null && !generations.containsKey(validFrom)) {
+                generations.put(validFrom, new Range(generationStart, end));
+            }
+            generationStart = -1;
+            generationValidFrom = null;
+        }
+
+        /**
+         * Returns <code>null</code> if the date can not be parsed, such generations are not indexed
+         * and reported by the XML parser when they are requested.
+         */
+        private DateTime parseValidFrom() {
+            try {
+                return DateTime.parseIso(generationValidFrom);
+            } catch (IllegalArgumentException e) {
+                return null;
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+        }
+
+        private String getPseudoAttribute(String declaration, String name) {
+            int index = declaration.indexOf(name);
+            if (index < 0) {
+                return null;
+            }
+            int start = index + name.length();
+            while (start < declaration.length() && declaration.charAt(start) != '"'
+                    && declaration.charAt(start) != '\'') {
+                start++;
+            }
+            if (start == declaration.length()) {
+                return null;
+            }
+            int end = declaration.indexOf(declaration.charAt(start), start + 1);
+            return end < 0 ? null : declaration.substring(start + 1, end);
+        }
+
+        private String readUntil(String terminator) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (!endsWith(sb, terminator)) {
+                sb.append((char)readNotEof());
+            }
+            sb.setLength(sb.length() - terminator.length());
+            return sb.toString();
+        }
+
+        private void skipUntil(String terminator) throws IOException {
+            int length = terminator.length();
+            char[] window = new char[length];
+            int count = 0;
+            while (count < length || !matches(window, terminator)) {
+                System.arraycopy(window, 1, window, 0, length - 1);
+                window[length - 1] = (char)readNotEof();
+                count++;
+            }
+        }
+
+        private boolean matches(char[] chars, String s) {
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] != s.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean endsWith(StringBuilder sb, String suffix) {
+            int offset = sb.length() - suffix.length();
+            if (offset < 0) {
+                return false;
+            }
+            for (int i = 0; i < suffix.length(); i++) {
+                if (sb.charAt(offset + i) != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (readNotEof() != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at offset " + (position - 1));
+            }
+        }
+
+        private boolean isWhitespace(int b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private int readNotEof() throws IOException {
+            int b = read();
+            if (b == -1) {
+                throw new IllegalArgumentException("Unexpected end of XML document at offset " + position);
+            }
+            return b;
+        }
+
+        private int read() throws IOException {
+            int b = is.read();
+            if (b != -1) {
+                position++;
+            }
+            return b;
+        }
+
+    }
+
+}
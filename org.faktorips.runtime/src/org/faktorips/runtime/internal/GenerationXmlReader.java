@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.faktorips.runtime.internal.GenerationOffsetIndex.Range;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+/**
+ * Reads single generations from product component XML resources without parsing the whole
+ * resource into a DOM.
+ * <p>
+ * When a generation of a resource is requested for the first time, a {@link GenerationOffsetIndex}
+ * containing the byte offsets of all generations of the resource is created. Every generation is
+ * then read by skipping to its start offset and streaming only its own XML events with a StAX
+ * parser. The DOM element that is built from these events contains nothing but the requested
+ * generation, so the cost of loading a generation is proportional to its size instead of the size
+ * of the whole product component.
+ * <p>
+ * Only unpacked resources, that are files in the file system, are read this way. The entries of a
+ * compressed archive like a JAR file can not be accessed at an offset without decompressing all
+ * data in front of it, so reading a single generation would not be cheaper than parsing the whole
+ * resource.
+ * <p>
+ * The indices are kept as long as this reader is used, hence the resources must not change in the
+ * meantime. This class is thread safe.
+ */
+public class GenerationXmlReader {
+
+    /**
+     * Property of the JDK's StAX implementation to report CDATA sections as CDATA events instead of
+     * character events. Without it the CDATA sections of compiled formulas would become text nodes.
+     */
+    private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    private final ConcurrentMap<String, GenerationOffsetIndex> indices = new ConcurrentHashMap<String, GenerationOffsetIndex>();
+
+    private final XMLInputFactory inputFactory;
+
+    public GenerationXmlReader() {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        if (inputFactory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            inputFactory.setProperty(REPORT_CDATA_EVENT, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Returns the <code>Generation</code> element with the given valid from date read from the
+     * given resource. The element is the document element of a new document created by the given
+     * document builder.
+     * <p>
+     * Returns <code>null</code> if the resource is <code>null</code> or not an unpacked file, or
+     * if the generation can not be found in the index of the resource, for example because the
+     * encoding of the resource is not supported by the index. In these cases the caller has to
+     * parse the whole resource.
+     * 
+     * @param resource the URL of the product component resource, may be <code>null</code>
+     * @param validFrom the valid from date of the requested generation
+     * @param documentBuilder the document builder creating the document of the generation
+     * 
+     * @throws RuntimeException if the resource can not be read or parsed
+     */
+    public Element readGeneration(URL resource, DateTime validFrom, DocumentBuilder documentBuilder) {
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        GenerationOffsetIndex index = getIndex(resource);
+        Range range = index.getGeneration(validFrom);
+        if (range == null) {
+            return null;
+        }
+        byte[] content = readRange(resource, range);
+        try {
+            Element genElement = parseElement(new ByteArrayInputStream(content), index.getEncoding(),
+                    documentBuilder.newDocument());
+            if (!GenerationOffsetIndex.GENERATION_TAG.equals(genElement.getNodeName())
+                    || !validFrom.equals(DateTime.parseIso(genElement
+                            .getAttribute(GenerationOffsetIndex.VALID_FROM_ATTRIBUTE)))) {
+                throw new IllegalStateException("The generation " + validFrom + " is not at the indexed position "
+                        + range + ", the resource must have been changed.");
+            }
+            return genElement;
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Can't parse the generation " + validFrom + " of the xml resource " + resource,
+                    e);
+        }
+    }
+
+    /**
+     * Removes the indices of all resources, for example because the resources have changed.
+     */
+    public void clear() {
+        indices.clear();
+    }
+
+    GenerationOffsetIndex getIndex(URL resource) {
+        String key = resource.toExternalForm();
+        GenerationOffsetIndex index = indices.get(key);
+        if (index == null) {
+            // several threads may create an index at the same time, all of them use the first one
+            index = createIndex(resource);
+            GenerationOffsetIndex existingIndex = indices.putIfAbsent(key, index);
+            if (existingIndex != null) {
+                index = existingIndex;
+            }
+        }
+        return index;
+    }
+
+    private GenerationOffsetIndex createIndex(URL resource) {
+        InputStream is = openStream(resource);
+        try {
+            return GenerationOffsetIndex.create(is);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't read the xml resource " + resource, e);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Can't parse the xml resource " + resource, e);
+        } finally {
+            close(is, resource);
+        }
+    }
+
+    private byte[] readRange(URL resource, Range range) {
+        InputStream is = openStream(resource);
+        try {
+            skipFully(is, range.getStart());
+            byte[] content = new byte[range.getLength()];
+            int offset = 0;
+            while (offset < content.length) {
+                int count = is.read(content, offset, content.length - offset);
+                if (count < 0) {
+                    throw new IllegalStateException("The xml resource " + resource
+                            + " is shorter than indexed, it must have been changed.");
+                }
+                offset += count;
+            }
+            return content;
+        } catch (IOException e) {
+            throw new RuntimeException("Can't read the xml resource " + resource, e);
+        } finally {
+            close(is, resource);
+        }
+    }
+
+    private void skipFully(InputStream is, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = is.skip(remaining);
+            if (skipped <= 0) {
+                // skip may return 0 before the end of the stream is reached
+                if (is.read() < 0) {
+                    throw new IOException("Unexpected end of stream");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private InputStream openStream(URL resource) {
+        try {
+            return resource.openStream();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't open the xml resource " + resource, e);
+        }
+    }
+
+    private void close(InputStream is, URL resource) {
+        try {
+            is.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close the input stream of the resource: " + resource, e);
+        }
+    }
+
+    /**
+     * Builds the DOM of the first element in the given stream and appends it to the document.
+     */
+    private Element parseElement(InputStream is, String encoding, Document document) throws XMLStreamException {
+        XMLStreamReader reader;
+        synchronized (inputFactory) {
+            // the factory is not guaranteed to be thread safe
+            reader = inputFactory.createXMLStreamReader(is, encoding);
+        }
+        try {
+            Node current = document;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        Element element = document.createElement(reader.getLocalName());
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        }
+                        current.appendChild(element);
+                        current = element;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        current = current.getParentNode();
+                        if (current == document) {
+                            return document.getDocumentElement();
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        if (current != document) {
+                            appendText(current, reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        current.appendChild(document.createCDATASection(reader.getText()));
+                        break;
+                    default:
+                        // comments and processing instructions are not needed
+                        break;
+                }
+            }
+            throw new XMLStreamException("Unexpected end of the element");
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Appends the text to the given node. The parser is not coalescing, because that would turn
+     * CDATA sections into text, so the text of an element may be reported in several events, for
+     * example one for every entity reference. Like a DOM parser, the text is merged into a single
+     * text node, hence clients reading the first child get the whole text.
+     */
+    private void appendText(Node node, String text) {
+        Node lastChild = node.getLastChild();
+        if (lastChild != null && lastChild.getNodeType() == Node.TEXT_NODE) {
+            ((Text)lastChild).appendData(text);
+        } else {
+            node.appendChild(node.getOwnerDocument().createTextNode(text));
+        }
+    }
+
+}
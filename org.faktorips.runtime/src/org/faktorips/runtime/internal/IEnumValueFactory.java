@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.List;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.values.InternationalString;
+
+/**
+ * Creates the values of an extensible enumeration that are defined in an enumeration content. The
+ * code generator creates a factory for every extensible enumeration class that calls the
+ * enumeration's constructor directly and publishes it in a static field marked with
+ * {@link org.faktorips.runtime.model.annotation.IpsEnumValueFactory}. The runtime repository uses
+ * the factory if it is present and falls back to reflection for classes generated without
+ * factories.
+ * 
+ * @param <T> the enumeration class
+ */
+public interface IEnumValueFactory<T> {
+
+    /**
+     * Creates a new enumeration value.
+     * 
+     * @param index the index of the new value, following the values defined in the enumeration
+     *            type
+     * @param attributeValues the values read from the enumeration content in the order of the
+     *            enumeration's attributes, each value is either a {@link String} or an
+     *            {@link InternationalString}
+     * @param repository the repository the value is loaded by
+     */
+    public T createEnumValue(int index, List<Object> attributeValues, IRuntimeRepository repository);
+
+}
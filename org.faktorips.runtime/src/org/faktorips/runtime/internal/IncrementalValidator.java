@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.faktorips.runtime.AssociationChangedEvent;
+import org.faktorips.runtime.IDependantObject;
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IModelObjectVisitor;
+import org.faktorips.runtime.INotificationSupport;
+import org.faktorips.runtime.IValidationContext;
+import org.faktorips.runtime.IVisitorSupport;
+import org.faktorips.runtime.IpsPropertyChangeSupport;
+import org.faktorips.runtime.MessageList;
+
+/**
+ * Validates a tree of model objects repeatedly and validates again only the objects that have
+ * changed since the last validation, for example while a user edits the objects.
+ * <p>
+ * The validator remembers the messages of every object's own rules. It listens to the change
+ * events of the root object including the events propagated from its children (see
+ * {@link IpsPropertyChangeSupport#fireChildPropertyChange(PropertyChangeEvent)}). When an object
+ * has changed, the rules of this object and of all its parents are executed again by the next
+ * call to {@link #validate()}, because the rules of a parent often check its children. The
+ * remembered messages of all other objects are reused. Objects added to the tree are validated
+ * completely. The result contains the same messages in the same order as
+ * {@link IModelObject#validate(IValidationContext)}.
+ * <p>
+ * Rules that check objects outside the parent path of the changed object, for example a sibling,
+ * are not executed again. The same applies to changes that are not notified, for example of
+ * product components or of the validation context. In these cases {@link #invalidateAll()} must be
+ * called. The children of an object are the dependant objects it validates, see
+ * {@link AbstractModelObject#getDependantsToValidate()}. Objects whose dependant objects are not
+ * known or that override the <code>validate</code> methods of {@link AbstractModelObject} are
+ * validated again completely every time, see {@link ParallelValidator}.
+ * <p>
+ * This class is thread safe, but the model objects must not be modified while they are validated.
+ */
+public class IncrementalValidator implements PropertyChangeListener {
+
+    private final IModelObject root;
+
+    private final IValidationContext context;
+
+    /** The results of the last validation, objects that have changed since then are removed */
+    private Map<IModelObject, SelfValidation> results = new IdentityHashMap<IModelObject, SelfValidation>();
+
+    /**
+     * Creates a validator for the tree with the given root object. If the root object supports
+     * change listeners, the validator registers itself as listener. Otherwise changes must be
+     * reported by calling {@link #propertyChange(PropertyChangeEvent)} or
+     * {@link #invalidate(IModelObject)}.
+     * 
+     * @throws NullPointerException if the root or the context is <code>null</code>
+     */
+    public IncrementalValidator(IModelObject root, IValidationContext context) {
+        if (root == null || context == null) {
+            throw new NullPointerException();
+        }
+        this.root = root;
+        this.context = context;
+        if (root instanceof INotificationSupport) {
+            ((INotificationSupport)root).addPropertyChangeListener(this, true);
+        }
+    }
+
+    public IModelObject getRoot() {
+        return root;
+    }
+
+    public IValidationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Validates the objects that have changed since the last validation and returns the messages of
+     * the whole tree.
+     */
+    public synchronized MessageList validate() {
+        Map<IModelObject, SelfValidation> newResults = new IdentityHashMap<IModelObject, SelfValidation>();
+        MessageList list = new MessageList();
+        validate(root, list, newResults);
+        // objects no longer in the tree are dropped
+        results = newResults;
+        return list;
+    }
+
+    private void validate(IModelObject modelObject, MessageList list, Map<IModelObject, SelfValidation> newResults) {
+        List<IModelObject> children = ParallelValidator.getDependantsToValidate(modelObject);
+        if (children == null) {
+            list.add(modelObject.validate(context));
+            return;
+        }
+        SelfValidation result = results.get(modelObject);
+        if (result == null) {
+            result = new SelfValidation();
+            result.continueValidation = ((AbstractModelObject)modelObject).validateSelf(result.messages, context);
+        }
+        newResults.put(modelObject, result);
+        list.add(result.messages);
+        if (result.continueValidation) {
+            for (IModelObject child : children) {
+                validate(child, list, newResults);
+            }
+        }
+    }
+
+    /**
+     * Marks the source of the event and its parents as changed. If the event is an
+     * {@link AssociationChangedEvent} the added object and all its dependant objects are marked
+     * as changed, too.
+     */
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (evt instanceof AssociationChangedEvent) {
+            Object addedTarget = ((AssociationChangedEvent)evt).getAddedAssociationTarget();
+            if (addedTarget instanceof IModelObject) {
+                invalidateTree((IModelObject)addedTarget);
+            }
+        }
+        if (evt.getSource() instanceof IModelObject) {
+            invalidate((IModelObject)evt.getSource());
+        }
+    }
+
+    /**
+     * Marks the given object and its parents as changed, so their rules are executed again by the
+     * next validation.
+     */
+    public synchronized void invalidate(IModelObject modelObject) {
+        IModelObject current = modelObject;
+        while (current != null) {
+            results.remove(current);
+            current = current instanceof IDependantObject ? ((IDependantObject)current).getParentModelObject()
+                    : null;
+        }
+    }
+
+    private synchronized void invalidateTree(IModelObject modelObject) {
+        if (modelObject instanceof IVisitorSupport) {
+            ((IVisitorSupport)modelObject).accept(new IModelObjectVisitor() {
+
+                @Override
+                public boolean visit(IModelObject visited) {
+                    results.remove(visited);
+                    return true;
+                }
+            });
+        } else {
+            results.remove(modelObject);
+        }
+    }
+
+    /**
+     * Marks all objects as changed, so the next validation validates the whole tree.
+     */
+    public synchronized void invalidateAll() {
+        results.clear();
+    }
+
+    /**
+     * Removes this validator from the change listeners of the root object.
+     */
+    public void dispose() {
+        if (root instanceof INotificationSupport) {
+            ((INotificationSupport)root).removePropertyChangeListener(this);
+        }
+    }
+
+    /**
+     * The result of the rules of a single object.
+     */
+    private static class SelfValidation {
+
+        private final MessageList messages = new MessageList();
+
+        private boolean continueValidation;
+
+    }
+
+}
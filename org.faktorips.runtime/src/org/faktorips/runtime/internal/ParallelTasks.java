@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs short, independent, CPU bound tasks in parallel on a shared pool of daemon threads, for
+ * example the initialization of the search structures of a table.
+ * <p>
+ * The calling thread takes part in running the tasks: It runs every task that has not been started
+ * by a pool thread yet and only waits for the tasks that are currently running in the pool. Hence
+ * the tasks are completed even if all pool threads are busy, for example because several tables
+ * are initialized at the same time.
+ */
+final class ParallelTasks {
+
+    private ParallelTasks() {
+        // utility class
+    }
+
+    /**
+     * Returns <code>true</code> if running tasks in parallel may be faster than running them one
+     * after the other, that means if there is more than one processor.
+     */
+    static boolean isParallelismAvailable() {
+        return Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Runs the given tasks in parallel and returns when all of them are completed. If a task
+     * throws an exception, the other tasks are still completed and the first exception is thrown
+     * afterwards.
+     */
+    static void run(Runnable... tasks) {
+        ClaimableTask[] claimableTasks = new ClaimableTask[tasks.length];
+        for (int i = 0; i < tasks.length; i++) {
+            claimableTasks[i] = new ClaimableTask(tasks[i]);
+        }
+        // the first task is run by the calling thread anyway
+        for (int i = 1; i < claimableTasks.length; i++) {
+            PoolHolder.POOL.execute(claimableTasks[i]);
+        }
+        for (ClaimableTask task : claimableTasks) {
+            task.run();
+        }
+        Throwable failure = null;
+        for (ClaimableTask task : claimableTasks) {
+            task.awaitCompletion();
+            if (failure == null) {
+                failure = task.failure;
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        } else if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    /**
+     * A task that is run by the first thread that claims it, every other call of {@link #run()} is
+     * ignored.
+     */
+    private static class ClaimableTask implements Runnable {
+
+        private final Runnable task;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        /** written before the latch is counted down, so it is visible after awaiting it */
+        private Throwable failure;
+
+        public ClaimableTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            // CSOFF: IllegalCatch
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                completed.countDown();
+            }
+            // CSON: IllegalCatch
+        }
+
+        public void awaitCompletion() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    completed.await();
+                    break;
+                } catch (InterruptedException e) {
+                    // the task is running and can not be abandoned
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+    /**
+     * Creates the pool when it is used for the first time.
+     */
+    private static class PoolHolder {
+
+        private static final ThreadPoolExecutor POOL;
+
+        static {
+            int numberOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            POOL = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory());
+            POOL.allowCoreThreadTimeOut(true);
+        }
+
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Faktor-IPS parallel task " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
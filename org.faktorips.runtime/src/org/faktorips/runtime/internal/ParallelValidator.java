@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IValidationContext;
+import org.faktorips.runtime.MessageList;
+
+/**
+ * Validates trees of model objects like {@link IModelObject#validate(IValidationContext)}, but
+ * validates independent subtrees in parallel.
+ * <p>
+ * An object is split into its own rules and its dependant objects only if the dependant objects
+ * its <code>validateDependants</code> method validates are known, that is if
+ * {@link AbstractModelObject#getDependantsToValidate()} is implemented like in the generated code,
+ * and if it does not override the <code>validate</code> methods of {@link AbstractModelObject}.
+ * Such an object is validated by its own <code>validateSelf</code> method. If it returns
+ * {@link AbstractModelObject#CONTINUE_VALIDATION}, the dependant objects are validated afterwards.
+ * If an object has many dependant objects, they are divided into batches that are validated in
+ * parallel, each batch into its own {@link MessageList}. The lists are added to the result in the
+ * order of the dependant objects, hence the result contains the same messages in the same order as
+ * the sequential validation. All other objects are validated by their own <code>validate</code>
+ * method as a whole.
+ * <p>
+ * The validation rules are called concurrently for different objects of the tree. Hence the rules
+ * must not modify any objects and the model objects must not be modified while they are validated.
+ * The {@link IValidationContext} is read by several threads at the same time.
+ */
+public class ParallelValidator {
+
+    /**
+     * The minimum number of children of an object to validate them in parallel. The validation of
+     * fewer children is not worth the synchronization, their children are searched for a larger
+     * number of independent subtrees instead.
+     */
+    static final int MIN_CHILDREN_FOR_PARALLEL_VALIDATION = 16;
+
+    /** The number of batches per processor, more batches balance differently sized subtrees */
+    private static final int BATCHES_PER_PROCESSOR = 4;
+
+    /** Whether a model object class overrides one of the validate methods */
+    private static final Map<Class<?>, Boolean> OVERRIDES_VALIDATE = Collections
+            .synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+
+    private final IValidationContext context;
+
+    /**
+     * Creates a validator validating model objects with the given context.
+     * 
+     * @throws NullPointerException if the context is <code>null</code>
+     */
+    public ParallelValidator(IValidationContext context) {
+        if (context == null) {
+            throw new NullPointerException();
+        }
+        this.context = context;
+    }
+
+    public IValidationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Validates the given model object and all its dependant objects and returns the messages.
+     */
+    public MessageList validate(IModelObject modelObject) {
+        MessageList list = new MessageList();
+        validate(modelObject, list, ParallelTasks.isParallelismAvailable());
+        return list;
+    }
+
+    private void validate(IModelObject modelObject, MessageList list, boolean parallel) {
+        List<IModelObject> children = getDependantsToValidate(modelObject);
+        if (children == null) {
+            list.add(modelObject.validate(context));
+            return;
+        }
+        if (!((AbstractModelObject)modelObject).validateSelf(list, context)) {
+            return;
+        }
+        if (parallel && children.size() >= MIN_CHILDREN_FOR_PARALLEL_VALIDATION) {
+            validateInParallel(children, list);
+        } else {
+            for (IModelObject child : children) {
+                validate(child, list, parallel);
+            }
+        }
+    }
+
+    private void validateInParallel(final List<IModelObject> children, MessageList list) {
+        int numberOfBatches = Math.min(children.size(), Runtime.getRuntime().availableProcessors()
+                * BATCHES_PER_PROCESSOR);
+        final MessageList[] batchLists = new MessageList[numberOfBatches];
+        Runnable[] batches = new Runnable[numberOfBatches];
+        for (int i = 0; i < numberOfBatches; i++) {
+            final int batch = i;
+            final int from = children.size() * i / numberOfBatches;
+            final int to = children.size() * (i + 1) / numberOfBatches;
+            batchLists[i] = new MessageList();
+            batches[i] = new Runnable() {
+
+                @Override
+                public void run() {
+                    for (IModelObject child : children.subList(from, to)) {
+                        validate(child, batchLists[batch], false);
+                    }
+                }
+            };
+        }
+        ParallelTasks.run(batches);
+        for (MessageList batchList : batchLists) {
+            list.add(batchList);
+        }
+    }
+
+    /**
+     * Returns the dependant objects the given object validates in the order they are validated or
+     * <code>null</code> if the object's own rules cannot be validated separately from its
+     * dependant objects. In this case the object must be validated as a whole by its
+     * <code>validate</code> method.
+     * 
+     * @see AbstractModelObject#getDependantsToValidate()
+     */
+    static List<IModelObject> getDependantsToValidate(IModelObject modelObject) {
+        if (!(modelObject instanceof AbstractModelObject) || overridesValidate(modelObject.getClass())) {
+            return null;
+        }
+        return ((AbstractModelObject)modelObject).getDependantsToValidate();
+    }
+
+    private static boolean overridesValidate(Class<?> modelObjectClass) {
+        Boolean overrides = OVERRIDES_VALIDATE.get(modelObjectClass);
+        if (overrides == null) {
+            try {
+                overrides = Boolean.valueOf(modelObjectClass.getMethod("validate", IValidationContext.class)
+                        .getDeclaringClass() != AbstractModelObject.class
+                        || modelObjectClass.getMethod("validate", MessageList.class, IValidationContext.class)
+                                .getDeclaringClass() != AbstractModelObject.class);
+            } catch (NoSuchMethodException e) {
+                // cannot happen, the methods are declared by AbstractModelObject
+                throw new IllegalStateException(e);
+            }
+            OVERRIDES_VALIDATE.put(modelObjectClass, overrides);
+        }
+        return overrides.booleanValue();
+    }
+
+}
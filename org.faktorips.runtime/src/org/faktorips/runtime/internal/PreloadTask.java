@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import org.faktorips.runtime.PreloadFilter.ArtifactType;
+
+/**
+ * A single runtime object that is loaded by
+ * {@link AbstractRuntimeRepository#preload(org.faktorips.runtime.PreloadFilter, java.util.concurrent.ExecutorService, org.faktorips.runtime.IPreloadListener)}
+ * .
+ */
+public abstract class PreloadTask {
+
+    private final ArtifactType type;
+
+    private final String id;
+
+    public PreloadTask(ArtifactType type, String id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public ArtifactType getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Loads the runtime object into the caches of the repository.
+     */
+    public abstract void load();
+
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.faktorips.runtime.IPreloadListener;
+import org.faktorips.runtime.PreloadResult;
+import org.faktorips.runtime.PreloadTiming;
+
+/**
+ * Executes {@link PreloadTask preload tasks} on an executor and collects their timings. The
+ * listener is called by the thread calling {@link #run(ExecutorService)}.
+ */
+class RuntimeRepositoryPreloader {
+
+    private final List<PreloadTask> tasks;
+
+    private final IPreloadListener listener;
+
+    RuntimeRepositoryPreloader(List<PreloadTask> tasks, IPreloadListener listener) {
+        this.tasks = tasks;
+        this.listener = listener;
+    }
+
+    PreloadResult run(ExecutorService executor) throws InterruptedException {
+        long start = System.nanoTime();
+        CompletionService<PreloadTiming> completionService = new ExecutorCompletionService<PreloadTiming>(executor);
+        List<Future<PreloadTiming>> futures = new ArrayList<Future<PreloadTiming>>(tasks.size());
+        List<PreloadTiming> timings = new ArrayList<PreloadTiming>(tasks.size());
+        try {
+            for (PreloadTask task : tasks) {
+                futures.add(completionService.submit(new TimedTask(task)));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                PreloadTiming timing = getTiming(completionService.take());
+                timings.add(timing);
+                if (listener != null) {
+                    listener.artifactLoaded(timing, timings.size(), tasks.size());
+                }
+            }
+        } finally {
+            if (timings.size() < tasks.size()) {
+                for (Future<PreloadTiming> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return new PreloadResult(timings, System.nanoTime() - start);
+    }
+
+    private PreloadTiming getTiming(Future<PreloadTiming> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // TimedTask catches every exception, only errors like OutOfMemoryError end here
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class TimedTask implements Callable<PreloadTiming> {
+
+        private final PreloadTask task;
+
+        public TimedTask(PreloadTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public PreloadTiming call() {
+            long start = System.nanoTime();
+            Throwable error = null;
+            try {
+                task.load();
+                // CSOFF: IllegalCatch
+            } catch (RuntimeException e) {
+                // CSON: IllegalCatch
+                error = e;
+            }
+            return new PreloadTiming(task.getType(), task.getId(), System.nanoTime() - start, error);
+        }
+
+    }
+
+}
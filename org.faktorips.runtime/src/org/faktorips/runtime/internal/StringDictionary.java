@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+/**
+ * Deduplicates strings that are read from a character buffer. A string is only created if the
+ * characters are not yet contained in the dictionary, otherwise the existing instance is returned.
+ * This avoids creating a new string for every occurrence of a value that is repeated many times,
+ * like the values of a table column.
+ * <p>
+ * To limit the memory used for columns with mostly distinct values, the dictionary stops adding
+ * new strings when it contains the maximum number of entries. Strings not contained in a full
+ * dictionary are created for every occurrence.
+ * <p>
+ * This class is not thread safe.
+ */
+class StringDictionary {
+
+    private final int maxSize;
+
+    private String[] entries;
+
+    private int size;
+
+    /**
+     * @param maxSize the maximum number of strings held by this dictionary
+     */
+    public StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+        entries = new String[16];
+    }
+
+    /**
+     * Returns a string containing the given characters.
+     */
+    public String get(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int mask = entries.length - 1;
+        int index = spread(hash) & mask;
+        String entry = entries[index];
+        while (entry != null) {
+            if (entry.hashCode() == hash && equals(entry, chars, offset, length)) {
+                return entry;
+            }
+            index = (index + 1) & mask;
+            entry = entries[index];
+        }
+        String value = new String(chars, offset, length);
+        if (size < maxSize) {
+            entries[index] = value;
+            size++;
+            if (size * 2 > entries.length) {
+                resize();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of strings in this dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        String[] oldEntries = entries;
+        entries = new String[oldEntries.length * 2];
+        int mask = entries.length - 1;
+        for (String entry : oldEntries) {
+            if (entry != null) {
+                int index = spread(entry.hashCode()) & mask;
+                while (entries[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                entries[index] = entry;
+            }
+        }
+    }
+
+    /**
+     * Computes the same hash code as {@link String#hashCode()}.
+     */
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes the high bits into the low bits that are used as index.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(String s, char[] chars, int offset, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
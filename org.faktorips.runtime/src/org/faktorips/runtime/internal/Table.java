@@ -10,12 +10,17 @@
 
 package org.faktorips.runtime.internal;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
@@ -23,6 +28,8 @@ import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.ITable;
 import org.w3c.dom.Element;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * The base class for all the generated table classes. The table content is read from a DOM element
@@ -44,6 +51,18 @@ import org.xml.sax.InputSource;
  */
 public abstract class Table<R> implements ITable<R> {
 
+    /**
+     * Looking up the implementation of a new factory is expensive compared to parsing a small table,
+     * so all tables share one factory.
+     */
+    private static final SAXParserFactory SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
+
+    /**
+     * The minimum number of rows for which the search structures are initialized in parallel. For
+     * smaller tables the overhead of the coordination exceeds the gain.
+     */
+    private static final int MIN_ROWS_FOR_PARALLEL_INIT = 10000;
+
     /**
      * Contains all rows of this table.
      */
@@ -64,12 +83,64 @@ public abstract class Table<R> implements ITable<R> {
      */
     protected abstract void addRow(List<String> columns, IRuntimeRepository productRepository);
 
+    /**
+     * Creates the row object for the given values without adding it to the rows of this table. Is
+     * used to create the rows lazily if the table is initialized from binary table contents.
+     * <p>
+     * Table classes generated by current versions of Faktor-IPS override this method. The default
+     * implementation throws an {@link UnsupportedOperationException}.
+     * 
+     * @param columns List of objects that contain the values.
+     * 
+     * @see #initFromBinary(BinaryTableContent, IRuntimeRepository, String)
+     */
+    protected R createRow(List<String> columns, IRuntimeRepository productRepository) {
+        throw new UnsupportedOperationException("The table class " + getClass().getName()
+                + " does not support the creation of single rows. Please regenerate it.");
+    }
+
+    /**
+     * Returns <code>true</code> if this table can be initialized from binary table contents, that
+     * means if its class overrides {@link #createRow(List, IRuntimeRepository)}.
+     */
+    public boolean isCreateRowSupported() {
+        for (Class<?> clazz = getClass(); clazz != Table.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod("createRow", List.class, IRuntimeRepository.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // try the super class
+            }
+        }
+        return false;
+    }
+
     /**
      * Is used by the generated classes to build up the the maps and trees that are used by the also
      * generated find-methods.
      */
     protected abstract void initKeyMaps();
 
+    /**
+     * Is used by the generated classes with more than one index to initialize the search structures
+     * of the indices. Every initializer builds the search structure of one index by iterating over
+     * all rows, so the initializers are independent of each other. For large tables they are run
+     * in parallel, otherwise one after the other in the calling thread.
+     * <p>
+     * The method returns when all initializers are completed. Exceptions thrown by the
+     * initializers are rethrown.
+     */
+    protected void initKeyMapsInParallel(Runnable... initializers) {
+        if (initializers.length > 1 && rows.size() >= MIN_ROWS_FOR_PARALLEL_INIT
+                && ParallelTasks.isParallelismAvailable()) {
+            ParallelTasks.run(initializers);
+        } else {
+            for (Runnable initializer : initializers) {
+                initializer.run();
+            }
+        }
+    }
+
     /**
      * Initializes this object with the data stored in the XML element.
      */
@@ -77,12 +148,41 @@ public abstract class Table<R> implements ITable<R> {
             throws Exception {
         rows = new ArrayList<R>(200);
         name = qualifiedTableName;
-        SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-        saxParser.parse(new InputSource(is), new TableSaxHandler(this, productRepository));
+        parse(is, new TableSaxHandler(this, productRepository));
         ((ArrayList<R>)rows).trimToSize();
         init();
     }
 
+    /**
+     * Parses the table contents read from the given stream with the given handler.
+     */
+    static void parse(InputStream is, DefaultHandler handler) throws ParserConfigurationException, SAXException,
+            IOException {
+        SAXParser saxParser;
+        synchronized (SAX_PARSER_FACTORY) {
+            // the factory is not guaranteed to be thread safe
+            saxParser = SAX_PARSER_FACTORY.newSAXParser();
+        }
+        saxParser.parse(new InputSource(is), handler);
+    }
+
+    /**
+     * Initializes this object with the binary table contents. The row objects are not created
+     * until they are accessed for the first time, hence tables whose rows are only accessed
+     * partially keep most of their data outside the Java heap, for example in a memory mapped file.
+     * The search structures built by {@link #initKeyMaps()} contain all rows, so they are created
+     * during initialization in tables with indices.
+     * <p>
+     * This method must only be used if {@link #isCreateRowSupported()} returns <code>true</code>.
+     */
+    public void initFromBinary(BinaryTableContent content,
+            IRuntimeRepository productRepository,
+            String qualifiedTableName) {
+        rows = new LazyRowList<R>(this, content, productRepository);
+        name = qualifiedTableName;
+        init();
+    }
+
     protected void init() {
         initKeyMaps();
         performAdditionalInitializations();
@@ -135,4 +235,42 @@ public abstract class Table<R> implements ITable<R> {
         return Collections.unmodifiableList(rows);
     }
 
+    /**
+     * Unmodifiable list creating the row objects from the binary table contents on first access.
+     * Once created, a row object is kept and returned for every following access.
+     */
+    private static class LazyRowList<R> extends AbstractList<R> implements RandomAccess {
+
+        private final Table<R> table;
+
+        private final BinaryTableContent content;
+
+        private final IRuntimeRepository productRepository;
+
+        private final AtomicReferenceArray<R> createdRows;
+
+        private LazyRowList(Table<R> table, BinaryTableContent content, IRuntimeRepository productRepository) {
+            this.table = table;
+            this.content = content;
+            this.productRepository = productRepository;
+            createdRows = new AtomicReferenceArray<R>(content.getRowCount());
+        }
+
+        @Override
+        public R get(int index) {
+            R row = createdRows.get(index);
+            if (row == null) {
+                createdRows.compareAndSet(index, null, table.createRow(content.getRow(index), productRepository));
+                row = createdRows.get(index);
+            }
+            return row;
+        }
+
+        @Override
+        public int size() {
+            return createdRows.length();
+        }
+
+    }
+
 }
@@ -20,6 +20,10 @@ import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * SAX event handler class for ips table contents.
+ * <p>
+ * The characters of a value are collected in a buffer that is reused for all values. The string of
+ * a value is taken from a dictionary per column, so a value that is repeated in many rows of a
+ * column is created only once and all rows share the same instance.
  * 
  * @author Joerg Ortmann
  */
@@ -27,14 +31,28 @@ public class TableSaxHandler extends DefaultHandler {
     private static final String VALUE = "Value";
     private static final String ROW = "Row";
 
+    /**
+     * The maximum number of distinct values per column that are deduplicated.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+
     // the table which will be filled
     private Table<?> table;
 
     // contains all column values,
     private List<String> columns = new ArrayList<String>(20);
 
+    // the dictionaries of the column values, one for every column
+    private List<StringDictionary> dictionaries = new ArrayList<StringDictionary>(20);
+
     // buffer to store the characters inside the value node
-    private StringBuffer textBuffer = null;
+    private char[] textBuffer = new char[64];
+
+    // the number of characters in the text buffer
+    private int textLength;
+
+    // true if the characters method was called for the current value node
+    private boolean textReceived;
 
     // true if the parser is inside the row node
     private boolean insideRowNode;
@@ -61,9 +79,8 @@ public class TableSaxHandler extends DefaultHandler {
             columns.clear();
         } else if (isColumnValueNode(qName)) {
             insideValueNode = false;
-            columns.add(textBuffer == null && nullValue ? null : textBuffer == null ? new String("") : textBuffer
-                    .substring(0));
-            textBuffer = null;
+            columns.add(!textReceived && nullValue ? null : getDictionary(columns.size()).get(textBuffer, 0,
+                    textLength));
         }
     }
 
@@ -73,6 +90,8 @@ public class TableSaxHandler extends DefaultHandler {
             insideRowNode = true;
         } else if (isColumnValueNode(qName)) {
             insideValueNode = true;
+            textLength = 0;
+            textReceived = false;
             nullValue = Boolean.valueOf(attributes.getValue("isNull")).booleanValue();
         }
     }
@@ -83,12 +102,21 @@ public class TableSaxHandler extends DefaultHandler {
             // ignore characters which are not inside a value node
             return;
         }
-        String s = new String(buf, offset, len);
-        if (textBuffer == null) {
-            textBuffer = new StringBuffer(s);
-        } else {
-            textBuffer.append(s);
+        textReceived = true;
+        if (textLength + len > textBuffer.length) {
+            char[] newBuffer = new char[Math.max(textBuffer.length * 2, textLength + len)];
+            System.arraycopy(textBuffer, 0, newBuffer, 0, textLength);
+            textBuffer = newBuffer;
+        }
+        System.arraycopy(buf, offset, textBuffer, textLength, len);
+        textLength += len;
+    }
+
+    private StringDictionary getDictionary(int column) {
+        while (dictionaries.size() <= column) {
+            dictionaries.add(new StringDictionary(MAX_DICTIONARY_SIZE));
         }
+        return dictionaries.get(column);
     }
 
     /*
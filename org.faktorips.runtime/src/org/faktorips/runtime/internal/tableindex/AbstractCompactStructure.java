@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Base class for the immutable, array based {@link SearchStructure SearchStructures} created by
+ * {@link SearchStructure#compact()}. The nested structures are stored in an array, subclasses map
+ * a key to the index of the matching nested structure.
+ * 
+ * @param <R> The type of the result values.
+ */
+abstract class AbstractCompactStructure<R> extends SearchStructure<R> {
+
+    private static final SearchStructure<?> EMPTY = new EmptySearchStructure<Object>();
+
+    private final Object[] values;
+
+    /**
+     * Creates a new structure holding the compacted versions of the given nested structures.
+     */
+    protected AbstractCompactStructure(Collection<? extends SearchStructure<R>> nestedStructures) {
+        values = new Object[nestedStructures.size()];
+        int i = 0;
+        for (SearchStructure<R> nestedStructure : nestedStructures) {
+            values[i++] = nestedStructure.compact();
+        }
+    }
+
+    /**
+     * Returns the nested structure at the given index or an {@link EmptySearchStructure} if the
+     * index is negative.
+     */
+    @SuppressWarnings("unchecked")
+    protected SearchStructure<R> getValue(int index) {
+        if (index < 0) {
+            return emptyResult();
+        }
+        return (SearchStructure<R>)values[index];
+    }
+
+    protected int size() {
+        return values.length;
+    }
+
+    @Override
+    public Set<R> get() {
+        HashSet<R> resultSet = new HashSet<R>();
+        for (int i = 0; i < values.length; i++) {
+            resultSet.addAll(getValue(i).get());
+        }
+        return resultSet;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This structure is already compact, hence it is returned as it is.
+     */
+    @Override
+    public SearchStructure<R> compact() {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected SearchStructure<R> emptyResult() {
+        return (SearchStructure<R>)EMPTY;
+    }
+
+}
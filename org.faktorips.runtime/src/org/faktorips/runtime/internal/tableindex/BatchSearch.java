@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+/**
+ * Searches a {@link SearchStructure} for many keys at once. The keys are given column by column:
+ * For every level of the nested structures there is one array containing the keys of all searches
+ * for this level. The results are written into an array provided by the caller.
+ * <p>
+ * Instead of walking the nested structures once for every search, the searches are grouped by their
+ * keys level by level. Every distinct key is looked up only once per nested structure and all
+ * searches with this key continue in the found structure together. The keys for structures
+ * ordered by key, like the {@link RangeStructure} and the {@link TwoColumnRangeStructure}, are
+ * sorted by their natural order so consecutive lookups hit neighbouring entries. The keys for
+ * other structures are grouped by their hash codes. Apart from the internal index arrays no
+ * objects are created for a search.
+ * <p>
+ * Example: Searching <code>get(x[i]).get(y[i]).getUnique(null)</code> for every <code>i</code> is
+ * done by <code>BatchSearch.getUnique(structure, results, null, x, y)</code>.
+ * 
+ * @param <R> The type of the resulting values.
+ */
+public final class BatchSearch<R> {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final Object[][] keys;
+
+    private final R[] results;
+
+    private final R defaultValue;
+
+    /** The indices of the searches, reordered so that searches with equal keys are adjacent */
+    private final int[] order;
+
+    /** The hash codes of the keys of the current level, indexed by the search index */
+    private final int[] hashCodes;
+
+    private final int[] buffer;
+
+    private BatchSearch(Object[][] keys, R[] results, R defaultValue) {
+        this.keys = keys;
+        this.results = results;
+        this.defaultValue = defaultValue;
+        order = new int[results.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        hashCodes = new int[results.length];
+        buffer = new int[results.length];
+    }
+
+    /**
+     * Searches the given structure for every tuple of keys and writes the unique results into the
+     * given results array. The result of the tuple <code>i</code> consisting of the keys
+     * <code>keys[0][i]</code>, <code>keys[1][i]</code> and so on is the same as the result of
+     * <code>structure.get(keys[0][i]).get(keys[1][i])...getUnique(defaultValue)</code>.
+     * 
+     * @param structure The structure to search in
+     * @param results The array the results are written into, its length is the number of searches
+     * @param defaultValue The value written into the results array for every tuple of keys without
+     *            result
+     * @param keys One array of keys for every level of the nested structures, every array must have
+     *            the same length as the results array
+     * @throws IllegalArgumentException if the arrays of keys do not have the length of the results
+     *             array
+     * @throws AssertionError if there is more than one result for a tuple of keys
+     */
+    public static <R> void getUnique(SearchStructure<R> structure, R[] results, R defaultValue, Object[]... keys) {
+        for (Object[] levelKeys : keys) {
+            if (levelKeys.length != results.length) {
+                throw new IllegalArgumentException("Expected " + results.length + " keys for every level but got "
+                        + levelKeys.length);
+            }
+        }
+        if (results.length > 0) {
+            new BatchSearch<R>(keys, results, defaultValue).search(structure, 0, 0, results.length);
+        }
+    }
+
+    /**
+     * Searches the structure for the searches at the positions <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive) of the order array. All these searches reached the given structure
+     * with the keys of the previous levels.
+     */
+    private void search(SearchStructure<R> structure, int level, int from, int to) {
+        if (level == keys.length || structure instanceof EmptySearchStructure) {
+            R result = structure.getUnique(defaultValue);
+            for (int i = from; i < to; i++) {
+                results[order[i]] = result;
+            }
+        } else if (to - from == 1) {
+            search(structure.get(keys[level][order[from]]), level + 1, from, to);
+        } else if (structure.isOrderedByKey()) {
+            searchSorted(structure, level, from, to);
+        } else {
+            searchHashed(structure, level, from, to);
+        }
+    }
+
+    private void searchSorted(SearchStructure<R> structure, int level, int from, int to) {
+        Object[] levelKeys = keys[level];
+        sort(levelKeys, true, from, to);
+        int groupStart = from;
+        while (groupStart < to) {
+            Object key = levelKeys[order[groupStart]];
+            int groupEnd = groupStart + 1;
+            while (groupEnd < to && compareNatural(key, levelKeys[order[groupEnd]]) == 0) {
+                groupEnd++;
+            }
+            search(structure.get(key), level + 1, groupStart, groupEnd);
+            groupStart = groupEnd;
+        }
+    }
+
+    private void searchHashed(SearchStructure<R> structure, int level, int from, int to) {
+        Object[] levelKeys = keys[level];
+        for (int i = from; i < to; i++) {
+            Object key = levelKeys[order[i]];
+            hashCodes[order[i]] = key == null ? 0 : key.hashCode();
+        }
+        sort(levelKeys, false, from, to);
+        int groupStart = from;
+        while (groupStart < to) {
+            int hashCode = hashCodes[order[groupStart]];
+            int runEnd = groupStart + 1;
+            while (runEnd < to && hashCodes[order[runEnd]] == hashCode) {
+                runEnd++;
+            }
+            // keys with the same hash code are not necessarily equal
+            while (groupStart < runEnd) {
+                Object key = levelKeys[order[groupStart]];
+                int groupEnd = groupStart + 1;
+                for (int i = groupEnd; i < runEnd; i++) {
+                    if (isEqual(key, levelKeys[order[i]])) {
+                        swap(groupEnd, i);
+                        groupEnd++;
+                    }
+                }
+                search(structure.get(key), level + 1, groupStart, groupEnd);
+                groupStart = groupEnd;
+            }
+        }
+    }
+
+    /**
+     * Sorts the positions <code>from</code> (inclusive) to <code>to</code> (exclusive) of the order
+     * array by the natural order of the keys or by their hash codes.
+     */
+    private void sort(Object[] levelKeys, boolean natural, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int index = order[i];
+                int j = i;
+                while (j > from && compare(levelKeys, natural, order[j - 1], index) > 0) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = index;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(levelKeys, natural, from, middle);
+        sort(levelKeys, natural, middle, to);
+        if (compare(levelKeys, natural, order[middle - 1], order[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right == to || (left < middle && compare(levelKeys, natural, buffer[left], buffer[right]) <= 0)) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compare(Object[] levelKeys, boolean natural, int index1, int index2) {
+        if (natural) {
+            return compareNatural(levelKeys[index1], levelKeys[index2]);
+        } else {
+            int hashCode1 = hashCodes[index1];
+            int hashCode2 = hashCodes[index2];
+            return hashCode1 < hashCode2 ? -1 : (hashCode1 == hashCode2 ? 0 : 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareNatural(Object key1, Object key2) {
+        if (key1 == null) {
+            return key2 == null ? 0 : -1;
+        } else if (key2 == null) {
+            return 1;
+        } else {
+            return ((Comparable<Object>)key1).compareTo(key2);
+        }
+    }
+
+    private static boolean isEqual(Object key1, Object key2) {
+        return key1 == null ? key2 == null : key1.equals(key2);
+    }
+
+    private void swap(int i, int j) {
+        int index = order[i];
+        order[i] = order[j];
+        order[j] = index;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Immutable counterpart of a {@link KeyStructure}. The keys are stored in an open addressing hash
+ * table with linear probing. In contrast to a {@link java.util.HashMap} there is no entry object
+ * per key and a lookup does not allocate any objects.
+ * <p>
+ * Instances are created by {@link KeyStructure#compact()}.
+ * 
+ * @see KeyStructure
+ */
+public class CompactKeyStructure<R> extends AbstractCompactStructure<R> {
+
+    private final Object[] keys;
+
+    /**
+     * The index of the nested structure for the key at the same position in {@link #keys}
+     */
+    private final int[] valueIndices;
+
+    private final int mask;
+
+    CompactKeyStructure(Map<?, ? extends SearchStructure<R>> map) {
+        super(map.values());
+        int capacity = tableSizeFor(map.size() * 2);
+        keys = new Object[capacity];
+        valueIndices = new int[capacity];
+        mask = capacity - 1;
+        int valueIndex = 0;
+        for (Entry<?, ? extends SearchStructure<R>> entry : map.entrySet()) {
+            int slot = slot(entry.getKey());
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = entry.getKey();
+            valueIndices[slot] = valueIndex++;
+        }
+    }
+
+    private static int tableSizeFor(int minimumCapacity) {
+        int capacity = 2;
+        while (capacity < minimumCapacity) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private int slot(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @Override
+    public SearchStructure<R> get(Object key) {
+        if (key == null) {
+            return emptyResult();
+        }
+        int slot = slot(key);
+        Object candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return getValue(valueIndices[slot]);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return emptyResult();
+    }
+
+}
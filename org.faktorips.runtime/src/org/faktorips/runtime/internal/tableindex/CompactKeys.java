@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * An immutable array of keys used by the compact {@link SearchStructure SearchStructures}. Keys of
+ * the types {@link Integer}, {@link Long} and {@link Calendar} are stored in primitive arrays, all
+ * other keys must be {@link Comparable} and are stored in an object array.
+ * <p>
+ * The keys given to {@link #create(List)} may contain <code>null</code> values as placeholders for
+ * unbounded ranges. These positions must never be compared, the structure using this array is
+ * responsible for skipping them.
+ */
+abstract class CompactKeys {
+
+    /**
+     * Creates the most compact representation for the given keys. The keys must be sorted if the
+     * search methods are used.
+     */
+    static CompactKeys create(List<?> keys) {
+        Class<?> commonClass = getCommonClass(keys);
+        if (commonClass == Integer.class) {
+            return new IntKeys(keys);
+        } else if (commonClass == Long.class) {
+            return new LongKeys(keys);
+        } else if (commonClass != null && Calendar.class.isAssignableFrom(commonClass)) {
+            return new CalendarKeys(keys);
+        } else {
+            return new ComparableKeys(keys);
+        }
+    }
+
+    private static Class<?> getCommonClass(List<?> keys) {
+        Class<?> commonClass = null;
+        for (Object key : keys) {
+            if (key == null) {
+                continue;
+            }
+            if (commonClass == null) {
+                commonClass = key.getClass();
+            } else if (commonClass != key.getClass()) {
+                return Object.class;
+            }
+        }
+        return commonClass;
+    }
+
+    /**
+     * Returns the number of keys.
+     */
+    abstract int size();
+
+    /**
+     * Compares the key at the given index with the given key.
+     * 
+     * @return a negative integer, zero, or a positive integer as the key at the given index is less
+     *         than, equal to, or greater than the given key.
+     */
+    abstract int compareAt(int index, Object key);
+
+    /**
+     * Returns the first index in the range from <code>fromIndex</code> (inclusive) to
+     * {@link #size()} (exclusive) whose key is greater than or equal to the given key. Returns
+     * {@link #size()} if all keys in this range are less than the given key. The keys in the range
+     * must be sorted in ascending order, but may contain duplicates.
+     */
+    abstract int firstNotLess(Object key, int fromIndex);
+
+    /**
+     * Returns the index of the greatest key less than or equal to the given key or -1 if there is
+     * no such key.
+     */
+    int floorIndex(Object key) {
+        int index = firstNotLess(key, 0);
+        if (index < size() && compareAt(index, key) == 0) {
+            return index;
+        }
+        return index - 1;
+    }
+
+    /**
+     * Returns the index of the greatest key strictly less than the given key or -1 if there is no
+     * such key.
+     */
+    int lowerIndex(Object key) {
+        return firstNotLess(key, 0) - 1;
+    }
+
+    /**
+     * Returns the index of the least key greater than or equal to the given key or -1 if there is
+     * no such key.
+     */
+    int ceilingIndex(Object key) {
+        int index = firstNotLess(key, 0);
+        return index < size() ? index : -1;
+    }
+
+    /**
+     * Returns the index of the least key strictly greater than the given key or -1 if there is no
+     * such key.
+     */
+    int higherIndex(Object key) {
+        int index = firstNotLess(key, 0);
+        while (index < size() && compareAt(index, key) == 0) {
+            index++;
+        }
+        return index < size() ? index : -1;
+    }
+
+    private static int compare(long a, long b) {
+        return (a < b) ? -1 : ((a == b) ? 0 : 1);
+    }
+
+    private static class IntKeys extends CompactKeys {
+
+        private final int[] keys;
+
+        public IntKeys(List<?> keyList) {
+            keys = new int[keyList.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Object key = keyList.get(i);
+                keys[i] = key == null ? 0 : ((Integer)key).intValue();
+            }
+        }
+
+        @Override
+        int size() {
+            return keys.length;
+        }
+
+        @Override
+        int compareAt(int index, Object key) {
+            return compare(keys[index], ((Integer)key).intValue());
+        }
+
+        @Override
+        int firstNotLess(Object key, int fromIndex) {
+            int value = ((Integer)key).intValue();
+            int low = fromIndex;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
+    private static class LongKeys extends CompactKeys {
+
+        private final long[] keys;
+
+        public LongKeys(List<?> keyList) {
+            keys = new long[keyList.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Object key = keyList.get(i);
+                keys[i] = key == null ? 0 : toLong(key);
+            }
+        }
+
+        protected long toLong(Object key) {
+            return ((Long)key).longValue();
+        }
+
+        @Override
+        int size() {
+            return keys.length;
+        }
+
+        @Override
+        int compareAt(int index, Object key) {
+            return compare(keys[index], toLong(key));
+        }
+
+        @Override
+        int firstNotLess(Object key, int fromIndex) {
+            long value = toLong(key);
+            int low = fromIndex;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
+    /**
+     * {@link Calendar#compareTo(Calendar)} compares the time in milliseconds, hence it is sufficient
+     * to store the milliseconds.
+     */
+    private static class CalendarKeys extends LongKeys {
+
+        public CalendarKeys(List<?> keyList) {
+            super(keyList);
+        }
+
+        @Override
+        protected long toLong(Object key) {
+            return ((Calendar)key).getTimeInMillis();
+        }
+
+    }
+
+    private static class ComparableKeys extends CompactKeys {
+
+        private final Object[] keys;
+
+        public ComparableKeys(List<?> keyList) {
+            keys = keyList.toArray();
+        }
+
+        @Override
+        int size() {
+            return keys.length;
+        }
+
+        @Override
+        int compareAt(int index, Object key) {
+            @SuppressWarnings("unchecked")
+            Comparable<Object> comparable = (Comparable<Object>)keys[index];
+            return comparable.compareTo(key);
+        }
+
+        @Override
+        int firstNotLess(Object key, int fromIndex) {
+            int low = fromIndex;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareAt(mid, key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
+}
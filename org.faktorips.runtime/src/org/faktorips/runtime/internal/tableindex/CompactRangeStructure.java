@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Immutable counterpart of a {@link RangeStructure}. The bounds of the ranges are stored in a
+ * sorted array, {@link Integer}, {@link Long} and {@link java.util.Calendar} bounds even in a
+ * primitive array. A lookup is a binary search that does not allocate any objects.
+ * <p>
+ * Instances are created by {@link RangeStructure#compact()}.
+ * 
+ * @see RangeStructure
+ */
+public class CompactRangeStructure<R> extends AbstractCompactStructure<R> {
+
+    private final RangeType rangeType;
+
+    private final CompactKeys keys;
+
+    CompactRangeStructure(RangeType rangeType, TreeMap<?, ? extends SearchStructure<R>> map) {
+        super(map.values());
+        this.rangeType = rangeType;
+        keys = CompactKeys.create(new ArrayList<Object>(map.keySet()));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public SearchStructure<R> get(Object key) {
+        if (key == null) {
+            return emptyResult();
+        }
+        switch (rangeType) {
+            case LOWER_BOUND_EQUAL:
+                return getValue(keys.floorIndex(key));
+            case UPPER_BOUND_EQUAL:
+                return getValue(keys.ceilingIndex(key));
+            case LOWER_BOUND:
+                return getValue(keys.lowerIndex(key));
+            case UPPER_BOUND:
+                return getValue(keys.higherIndex(key));
+            default:
+                throw new IllegalStateException("Unknown range type " + rangeType);
+        }
+    }
+
+    @Override
+    boolean isOrderedByKey() {
+        return true;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Immutable counterpart of a {@link TwoColumnRangeStructure}. The ranges of a
+ * {@link TwoColumnRangeStructure} never overlap, hence they are sorted by their lower as well as by
+ * their upper bounds. The lower and upper bounds are stored in two arrays, {@link Integer},
+ * {@link Long} and {@link java.util.Calendar} bounds even in primitive arrays. A lookup is a binary
+ * search on the lower bounds followed by a comparison with the upper bound of the found range. In
+ * contrast to {@link TwoColumnRangeStructure#get(Object)} no {@link TwoColumnRange} is created for
+ * the lookup.
+ * <p>
+ * Instances are created by {@link TwoColumnRangeStructure#compact()}.
+ * 
+ * @see TwoColumnRangeStructure
+ */
+public class CompactTwoColumnRangeStructure<R> extends AbstractCompactStructure<R> {
+
+    private static final byte LOWER_UNBOUNDED = 1;
+    private static final byte LOWER_INCLUSIVE = 2;
+    private static final byte UPPER_UNBOUNDED = 4;
+    private static final byte UPPER_INCLUSIVE = 8;
+
+    private final CompactKeys lowerBounds;
+
+    private final CompactKeys upperBounds;
+
+    private final byte[] flags;
+
+    /**
+     * The first index with a bounded lower bound. Only the first range may be unbounded.
+     */
+    private final int firstBoundedIndex;
+
+    <K extends Comparable<? super K>> CompactTwoColumnRangeStructure(
+            TreeMap<TwoColumnRange<K>, ? extends SearchStructure<R>> map) {
+        super(map.values());
+        List<K> lowerBoundList = new ArrayList<K>(map.size());
+        List<K> upperBoundList = new ArrayList<K>(map.size());
+        flags = new byte[map.size()];
+        int i = 0;
+        for (TwoColumnRange<K> range : map.keySet()) {
+            lowerBoundList.add(range.getLowerBound());
+            upperBoundList.add(range.getUpperBound());
+            flags[i++] = getFlags(range);
+        }
+        lowerBounds = CompactKeys.create(lowerBoundList);
+        upperBounds = CompactKeys.create(upperBoundList);
+        firstBoundedIndex = flags.length > 0 && isSet(0, LOWER_UNBOUNDED) ? 1 : 0;
+    }
+
+    private static byte getFlags(TwoColumnRange<?> range) {
+        byte result = 0;
+        if (range.getLowerBound() == null) {
+            result |= LOWER_UNBOUNDED;
+        }
+        if (range.isLowerInclusive()) {
+            result |= LOWER_INCLUSIVE;
+        }
+        if (range.getUpperBound() == null) {
+            result |= UPPER_UNBOUNDED;
+        }
+        if (range.isUpperInclusive()) {
+            result |= UPPER_INCLUSIVE;
+        }
+        return result;
+    }
+
+    private boolean isSet(int index, byte flag) {
+        return (flags[index] & flag) != 0;
+    }
+
+    @Override
+    public SearchStructure<R> get(Object key) {
+        if (key == null) {
+            return emptyResult();
+        }
+        return getValue(findRangeIndex(key));
+    }
+
+    private int findRangeIndex(Object key) {
+        int index = lowerBounds.firstNotLess(key, firstBoundedIndex);
+        if (index == size() || lowerBounds.compareAt(index, key) != 0 || !isSet(index, LOWER_INCLUSIVE)) {
+            // the range at index starts after the key, so the key can only be in the previous one
+            index--;
+        }
+        if (index < 0 || !isInUpperBound(index, key)) {
+            return -1;
+        }
+        return index;
+    }
+
+    private boolean isInUpperBound(int index, Object key) {
+        if (isSet(index, UPPER_UNBOUNDED)) {
+            return true;
+        }
+        int comparison = upperBounds.compareAt(index, key);
+        return comparison > 0 || (comparison == 0 && isSet(index, UPPER_INCLUSIVE));
+    }
+
+    @Override
+    boolean isOrderedByKey() {
+        return true;
+    }
+
+}
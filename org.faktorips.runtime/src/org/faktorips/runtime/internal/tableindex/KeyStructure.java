@@ -62,4 +62,14 @@ public class KeyStructure<K, V extends SearchStructure<R> & MergeAndCopyStructur
     public KeyStructure<K, V, R> copy() {
         return fillCopy(new KeyStructure<K, V, R>());
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a {@link CompactKeyStructure}.
+     */
+    @Override
+    public SearchStructure<R> compact() {
+        return new CompactKeyStructure<R>(getMap());
+    }
 }
\ No newline at end of file
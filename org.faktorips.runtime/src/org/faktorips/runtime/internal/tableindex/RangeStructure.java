@@ -94,4 +94,19 @@ public class RangeStructure<K extends Comparable<? super K>, V extends SearchStr
         return fillCopy(new RangeStructure<K, V, R>(rangeType));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a {@link CompactRangeStructure}.
+     */
+    @Override
+    public SearchStructure<R> compact() {
+        return new CompactRangeStructure<R>(rangeType, getMap());
+    }
+
+    @Override
+    boolean isOrderedByKey() {
+        return true;
+    }
+
 }
\ No newline at end of file
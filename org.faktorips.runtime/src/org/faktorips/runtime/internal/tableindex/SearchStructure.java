@@ -62,6 +62,32 @@ public abstract class SearchStructure<R> {
      */
     public abstract Set<R> get();
 
+    /**
+     * Returns an immutable {@link SearchStructure} with the same content as this one that is
+     * optimized for memory consumption and lookup speed. The nested structures are compacted, too.
+     * Call this method after all values are put into the structure, the returned structure can not
+     * be modified any more.
+     * <p>
+     * The default implementation simply returns this structure.
+     * 
+     * @return A compact version of this structure or this structure if it is already compact.
+     */
+    public SearchStructure<R> compact() {
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if this structure finds its nested structures by comparing the keys
+     * with their natural order, like the range structures do. Keys that are equal according to their
+     * natural order yield the same nested structure. If this method returns <code>false</code> the
+     * keys are compared using {@link Object#equals(Object)}.
+     * <p>
+     * The {@link BatchSearch} uses this information to group and sort the keys it searches for.
+     */
+    boolean isOrderedByKey() {
+        return false;
+    }
+
     /**
      * Returns the value if there is exactly one value.
      * <p>
@@ -176,6 +176,16 @@ public class TwoColumnRangeStructure<K extends Comparable<? super K>, V extends
         return fillCopy(new TwoColumnRangeStructure<K, V, R>());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a {@link CompactTwoColumnRangeStructure}.
+     */
+    @Override
+    public SearchStructure<R> compact() {
+        return new CompactTwoColumnRangeStructure<R>(getMap());
+    }
+
     /**
      * Helper class managing overlapping ranges when putting into a {@link TwoColumnRangeStructure}.
      * When an overlapping occurs this
@@ -461,4 +471,9 @@ public class TwoColumnRangeStructure<K extends Comparable<? super K>, V extends
         }
     }
 
+    @Override
+    boolean isOrderedByKey() {
+        return true;
+    }
+
 }
\ No newline at end of file
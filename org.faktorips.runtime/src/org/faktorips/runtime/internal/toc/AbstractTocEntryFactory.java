@@ -106,7 +106,20 @@ public abstract class AbstractTocEntryFactory<T extends TocEntryObject> implemen
                 String xmlResourceName,
                 String implementationClassName) {
             return new TableContentTocEntry(ipsObjectId, ipsObjectQualifiedName, xmlResourceName,
-                    implementationClassName);
+                    implementationClassName, parseChecksum(entryElement
+                            .getAttribute(TableContentTocEntry.PROPERTY_XML_CHECKSUM)));
+        }
+
+        private Long parseChecksum(String checksum) {
+            if (checksum.length() == 0) {
+                return null;
+            }
+            try {
+                return Long.valueOf(checksum);
+            } catch (NumberFormatException e) {
+                // an invalid checksum is treated like an unknown one
+                return null;
+            }
         }
 
         @Override
@@ -11,12 +11,12 @@
 package org.faktorips.runtime.internal.toc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.SortedMap;
 import java.util.TimeZone;
-import java.util.TreeMap;
 
 import org.faktorips.runtime.internal.DateTime;
 import org.faktorips.values.ObjectUtil;
@@ -35,7 +35,24 @@ public class ProductCmptTocEntry extends TocEntryObject {
     public static final String PROPERTY_GENERATION_IMPL_CLASS_NAME = "generationImplClassName";
     public static final String XML_TAG = "ProductComponent";
 
-    private TreeMap<Long, GenerationTocEntry> generationEntries = createNewTreeMap();
+    private static final GenerationTocEntry[] NO_GENERATIONS = new GenerationTocEntry[0];
+
+    /**
+     * The generation entries sorted by their valid from date, the latest generation is the last
+     * one. The arrays of the valid from dates have the same order and are searched binary.
+     */
+    private GenerationTocEntry[] generations = NO_GENERATIONS;
+    /**
+     * The valid from dates of the generations in milliseconds in the default time zone
+     */
+    private long[] validFromInMillis = new long[0];
+    /**
+     * The valid from dates of the generations as numbers with the same order as the {@link DateTime}
+     * objects
+     * 
+     * @see #toKey(DateTime)
+     */
+    private long[] validFromKeys = new long[0];
     /**
      * If this entry is a product component: the (runtime) id if of the product component kind,
      * empty string otherwise.
@@ -95,14 +112,18 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * generation entries.
      */
     public List<GenerationTocEntry> getGenerationEntries() {
-        return new ArrayList<GenerationTocEntry>(generationEntries.values());
+        List<GenerationTocEntry> result = new ArrayList<GenerationTocEntry>(generations.length);
+        for (int i = generations.length - 1; i >= 0; i--) {
+            result.add(generations[i]);
+        }
+        return result;
     }
 
     /**
      * Returns the number of genertion entries.
      */
     public int getNumberOfGenerationEntries() {
-        return generationEntries == null ? 0 : generationEntries.size();
+        return generations.length;
     }
 
     /**
@@ -116,10 +137,37 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * Sets the generation entries.
      */
     public void setGenerationEntries(List<GenerationTocEntry> entries) {
-        generationEntries = createNewTreeMap();
-        for (GenerationTocEntry entry : entries) {
-            generationEntries.put(entry.getValidFromInMillisec(TimeZone.getDefault()), entry);
+        final TimeZone zone = TimeZone.getDefault();
+        List<GenerationTocEntry> sortedEntries = new ArrayList<GenerationTocEntry>(entries);
+        // the sort is stable, so the last of several entries with the same date wins
+        Collections.sort(sortedEntries, new Comparator<GenerationTocEntry>() {
+
+            @Override
+            public int compare(GenerationTocEntry first, GenerationTocEntry second) {
+                long firstValidFrom = first.getValidFromInMillisec(zone);
+                long secondValidFrom = second.getValidFromInMillisec(zone);
+                return firstValidFrom < secondValidFrom ? -1 : (firstValidFrom == secondValidFrom ? 0 : 1);
+            }
+
+        });
+        List<GenerationTocEntry> distinctEntries = new ArrayList<GenerationTocEntry>(sortedEntries.size());
+        for (int i = 0; i < sortedEntries.size(); i++) {
+            GenerationTocEntry entry = sortedEntries.get(i);
+            if (i + 1 == sortedEntries.size()
+                    || entry.getValidFromInMillisec(zone) != sortedEntries.get(i + 1).getValidFromInMillisec(zone)) {
+                distinctEntries.add(entry);
+            }
         }
+        GenerationTocEntry[] newGenerations = distinctEntries.toArray(new GenerationTocEntry[distinctEntries.size()]);
+        long[] newValidFromInMillis = new long[newGenerations.length];
+        long[] newValidFromKeys = new long[newGenerations.length];
+        for (int i = 0; i < newGenerations.length; i++) {
+            newValidFromInMillis[i] = newGenerations[i].getValidFromInMillisec(zone);
+            newValidFromKeys[i] = toKey(newGenerations[i].getValidFrom());
+        }
+        generations = newGenerations;
+        validFromInMillis = newValidFromInMillis;
+        validFromKeys = newValidFromKeys;
     }
 
     /**
@@ -128,12 +176,19 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * if the found one doesn't have a successor.
      */
     public GenerationTocEntry getNextGenerationEntry(Calendar validFrom) {
-        SortedMap<Long, GenerationTocEntry> map = generationEntries.headMap(validFrom.getTimeInMillis());
-        if (map.isEmpty()) {
-            return null;
-        }
-        Long key = map.lastKey();
-        return generationEntries.get(key);
+        return getGeneration(indexOfFirstGreater(validFromInMillis, validFrom.getTimeInMillis()));
+    }
+
+    /**
+     * Returns the {@link GenerationTocEntry} successor of the one that is found for the provided
+     * validity date. Returns <code>null</code> if either no entry is found for the provided date or
+     * if the found one doesn't have a successor.
+     * <p>
+     * In contrast to {@link #getNextGenerationEntry(Calendar)} this method does not need to convert
+     * the date to a point in time.
+     */
+    public GenerationTocEntry getNextGenerationEntry(DateTime validFrom) {
+        return getGeneration(indexOfFirstGreater(validFromKeys, toKey(validFrom)));
     }
 
     /**
@@ -142,23 +197,26 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * provided date or if the found one doesn't have a predecessor.
      */
     public GenerationTocEntry getPreviousGenerationEntry(Calendar validFrom) {
-        SortedMap<Long, GenerationTocEntry> map = generationEntries.tailMap(validFrom.getTimeInMillis() - 1);
-        if (map.isEmpty()) {
-            return null;
-        }
-        Long key = map.firstKey();
-        return generationEntries.get(key);
+        return getGeneration(indexOfFirstGreater(validFromInMillis, validFrom.getTimeInMillis() - 1) - 1);
+    }
 
+    /**
+     * Returns the {@link GenerationTocEntry} that is prior to the one that is found for the
+     * provided validity date. Returns <code>null</code> if either no entry is found for the
+     * provided date or if the found one doesn't have a predecessor.
+     * <p>
+     * In contrast to {@link #getPreviousGenerationEntry(Calendar)} this method does not need to
+     * convert the date to a point in time.
+     */
+    public GenerationTocEntry getPreviousGenerationEntry(DateTime validFrom) {
+        return getGeneration(indexOfFirstGreater(validFromKeys, toKey(validFrom) - 1) - 1);
     }
 
     /**
      * Returns the latest {@link GenerationTocEntry} with repect to the generations validity date.
      */
     public GenerationTocEntry getLatestGenerationEntry() {
-        if (generationEntries.isEmpty()) {
-            return null;
-        }
-        return generationEntries.get(generationEntries.firstKey());
+        return getGeneration(generations.length - 1);
     }
 
     /**
@@ -170,12 +228,23 @@ public class ProductCmptTocEntry extends TocEntryObject {
         if (effectiveDate == null) {
             return null;
         }
-        SortedMap<Long, GenerationTocEntry> map = generationEntries.tailMap(effectiveDate.getTimeInMillis() + 1);
-        if (map.isEmpty()) {
+        return getGeneration(indexOfFirstGreater(validFromInMillis, effectiveDate.getTimeInMillis() + 1) - 1);
+    }
+
+    /**
+     * Returns the toc entry for the generation valid on the given effective date, or
+     * <code>null</code> if no generation is effective on the given date or the effective date is
+     * <code>null</code>.
+     * <p>
+     * In contrast to {@link #getGenerationEntry(Calendar)} this method does not need to convert the
+     * date to a point in time, it only searches the sorted valid from dates. The effective date is
+     * interpreted in the default time zone like the valid from dates of the generations.
+     */
+    public GenerationTocEntry getEffectiveGenerationEntry(DateTime effectiveDate) {
+        if (effectiveDate == null) {
             return null;
         }
-        Long key = map.firstKey();
-        return generationEntries.get(key);
+        return getGeneration(indexOfFirstGreater(validFromKeys, toKey(effectiveDate)) - 1);
     }
 
     /**
@@ -184,7 +253,42 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * 
      */
     public GenerationTocEntry getGenerationEntry(DateTime validAt) {
-        return generationEntries.get(validAt.toTimeInMillisecs(TimeZone.getDefault()));
+        int index = Arrays.binarySearch(validFromKeys, toKey(validAt));
+        return index < 0 ? null : generations[index];
+    }
+
+    private GenerationTocEntry getGeneration(int index) {
+        if (index < 0 || index >= generations.length) {
+            return null;
+        }
+        return generations[index];
+    }
+
+    /**
+     * Returns the index of the first value in the sorted array that is greater than the given
+     * value, or the length of the array if there is no greater value.
+     */
+    private static int indexOfFirstGreater(long[] sortedValues, long value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Converts the date to a number that can be compared instead of the {@link DateTime} objects.
+     * Two numbers have the same order as the dates they were created from.
+     */
+    static long toKey(DateTime date) {
+        long days = (date.getYear() * 13L + date.getMonth()) * 32 + date.getDay();
+        return ((days * 24 + date.getHour()) * 60 + date.getMinute()) * 60 + date.getSecond();
     }
 
     @Override
@@ -197,7 +301,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
         }
         if (!getGenerationEntries().isEmpty()) {
             entryElement.setAttribute(PROPERTY_GENERATION_IMPL_CLASS_NAME, generationImplClassName);
-            for (GenerationTocEntry generationEntry : generationEntries.values()) {
+            for (GenerationTocEntry generationEntry : getGenerationEntries()) {
                 entryElement.appendChild(generationEntry.toXml(entryElement.getOwnerDocument()));
             }
         }
@@ -208,10 +312,6 @@ public class ProductCmptTocEntry extends TocEntryObject {
         return XML_TAG;
     }
 
-    private static TreeMap<Long, GenerationTocEntry> createNewTreeMap() {
-        return new TreeMap<Long, GenerationTocEntry>(new InverseLongComparator());
-    }
-
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -219,7 +319,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
         // using only the size of the generation entries is a quite weak implementation. But because
         // we know that most time the other properties are not the same we prefer the performance
         // of this implementation.
-        result = prime * result + ((generationEntries == null) ? 0 : generationEntries.size());
+        result = prime * result + generations.length;
         result = prime * result + ((generationImplClassName == null) ? 0 : generationImplClassName.hashCode());
         result = prime * result + ((kindId == null) ? 0 : kindId.hashCode());
         result = prime * result + ((validTo == null) ? 0 : validTo.hashCode());
@@ -239,7 +339,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
             return false;
         }
         ProductCmptTocEntry other = (ProductCmptTocEntry)obj;
-        if (!ObjectUtil.equals(generationEntries, other.generationEntries)) {
+        if (!Arrays.equals(generations, other.generations)) {
             return false;
         }
         if (!ObjectUtil.equals(generationImplClassName, other.generationImplClassName)) {
@@ -257,13 +357,4 @@ public class ProductCmptTocEntry extends TocEntryObject {
         return super.equals(obj);
     }
 
-    static class InverseLongComparator implements Comparator<Long> {
-
-        @Override
-        public int compare(Long first, Long second) {
-            return -1 * first.compareTo(second);
-        }
-
-    }
-
 }
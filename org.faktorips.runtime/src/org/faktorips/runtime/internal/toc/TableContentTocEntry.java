@@ -10,6 +10,9 @@
 
 package org.faktorips.runtime.internal.toc;
 
+import org.faktorips.values.ObjectUtil;
+import org.w3c.dom.Element;
+
 /**
  * A {@link TocEntryObject} for table contents
  * 
@@ -19,9 +22,33 @@ public class TableContentTocEntry extends TocEntryObject {
 
     public static final String XML_TAG = "TableContent";
 
+    public static final String PROPERTY_XML_CHECKSUM = "xmlChecksum";
+
+    /**
+     * The CRC-32 checksum of the XML resource or <code>null</code> if it is unknown.
+     */
+    private final Long xmlChecksum;
+
     public TableContentTocEntry(String ipsObjectId, String ipsObjectQualifiedName, String xmlResourceName,
             String implementationClassName) {
+        this(ipsObjectId, ipsObjectQualifiedName, xmlResourceName, implementationClassName, null);
+    }
+
+    public TableContentTocEntry(String ipsObjectId, String ipsObjectQualifiedName, String xmlResourceName,
+            String implementationClassName, Long xmlChecksum) {
         super(ipsObjectId, ipsObjectQualifiedName, xmlResourceName, implementationClassName);
+        this.xmlChecksum = xmlChecksum;
+    }
+
+    /**
+     * Returns the CRC-32 checksum of the XML resource or <code>null</code> if it is unknown. The
+     * checksum is compared with the one stored in the binary table contents, so they are only used
+     * if they were created from the current XML resource without reading the XML resource.
+     * 
+     * @see org.faktorips.runtime.internal.BinaryTableContent#getSourceChecksum()
+     */
+    public Long getXmlChecksum() {
+        return xmlChecksum;
     }
 
     @Override
@@ -29,4 +56,35 @@ public class TableContentTocEntry extends TocEntryObject {
         return XML_TAG;
     }
 
+    @Override
+    protected void addToXml(Element entryElement) {
+        super.addToXml(entryElement);
+        if (xmlChecksum != null) {
+            entryElement.setAttribute(PROPERTY_XML_CHECKSUM, xmlChecksum.toString());
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + ((xmlChecksum == null) ? 0 : xmlChecksum.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj)) {
+            return false;
+        }
+        if (!(obj instanceof TableContentTocEntry)) {
+            return false;
+        }
+        TableContentTocEntry other = (TableContentTocEntry)obj;
+        return ObjectUtil.equals(xmlChecksum, other.xmlChecksum);
+    }
+
 }
@@ -15,6 +15,8 @@ package org.faktorips.runtime.jaxb;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.bind.Binder;
 import javax.xml.bind.JAXBContext;
@@ -35,6 +37,12 @@ import org.w3c.dom.Node;
  * Faktor-IPS enumerations that defer their values to an enumeration content that is hold by a
  * Faktor-IPS IRuntimeRepository. See {@link #createMarshaller()} and {@link #createUnmarshaller()}
  * for more details. All other methods just delegate to the wrapped context.
+ * <p>
+ * Creating marshallers and unmarshallers is cheap compared to creating the context, but still
+ * involves setting up all adapters. Marshallers and unmarshallers are not thread safe, so a context
+ * that is shared by several threads, e.g. the one returned by
+ * {@link IRuntimeRepository#getJAXBContext()}, provides pools of preconfigured instances. See
+ * {@link #acquireMarshaller()} and {@link #acquireUnmarshaller()}.
  * 
  * @author Jan Ortmann
  */
@@ -46,6 +54,10 @@ public class IpsJAXBContext extends JAXBContext {
     private List<? extends XmlAdapter<?, ?>> enumXmlAdapters;
     private IRuntimeRepository repository;
 
+    private final Queue<Marshaller> marshallerPool = new ConcurrentLinkedQueue<Marshaller>();
+
+    private final Queue<Unmarshaller> unmarshallerPool = new ConcurrentLinkedQueue<Unmarshaller>();
+
     public IpsJAXBContext(JAXBContext wrappedCtx, List<? extends XmlAdapter<?, ?>> enumXmlAdapters,
             IRuntimeRepository repository) {
         super();
@@ -81,6 +93,66 @@ public class IpsJAXBContext extends JAXBContext {
         return unmarshaller;
     }
 
+    /**
+     * Returns a marshaller from the pool of this context or a new one created by
+     * {@link #createMarshaller()} if the pool is empty. The marshaller is used exclusively by the
+     * caller until it is given back by {@link #releaseMarshaller(Marshaller)}.
+     * <p>
+     * The marshaller is shared by all subsequent callers after it has been released. Hence callers
+     * must not change its properties, adapters, listeners or schema. Use
+     * {@link #createMarshaller()} to get a marshaller with a different configuration.
+     * 
+     * @throws JAXBException The exception thrown by {@link #createMarshaller()}
+     */
+    public Marshaller acquireMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallerPool.poll();
+        if (marshaller == null) {
+            marshaller = createMarshaller();
+        }
+        return marshaller;
+    }
+
+    /**
+     * Puts the given marshaller, that has been returned by {@link #acquireMarshaller()}, back into
+     * the pool of this context. The marshaller must not be used by the caller afterwards. Does
+     * nothing if the marshaller is <code>null</code>.
+     */
+    public void releaseMarshaller(Marshaller marshaller) {
+        if (marshaller != null) {
+            marshallerPool.offer(marshaller);
+        }
+    }
+
+    /**
+     * Returns an unmarshaller from the pool of this context or a new one created by
+     * {@link #createUnmarshaller()} if the pool is empty. The unmarshaller is used exclusively by
+     * the caller until it is given back by {@link #releaseUnmarshaller(Unmarshaller)}.
+     * <p>
+     * The unmarshaller is shared by all subsequent callers after it has been released. Hence
+     * callers must not change its properties, adapters, listeners or schema. Use
+     * {@link #createUnmarshaller()} to get an unmarshaller with a different configuration.
+     * 
+     * @throws JAXBException The exception thrown by {@link #createUnmarshaller()}
+     */
+    public Unmarshaller acquireUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallerPool.poll();
+        if (unmarshaller == null) {
+            unmarshaller = createUnmarshaller();
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Puts the given unmarshaller, that has been returned by {@link #acquireUnmarshaller()}, back
+     * into the pool of this context. The unmarshaller must not be used by the caller afterwards.
+     * Does nothing if the unmarshaller is <code>null</code>.
+     */
+    public void releaseUnmarshaller(Unmarshaller unmarshaller) {
+        if (unmarshaller != null) {
+            unmarshallerPool.offer(unmarshaller);
+        }
+    }
+
     @Override
     public Validator createValidator() throws JAXBException {
         return wrappedCtx.createValidator();
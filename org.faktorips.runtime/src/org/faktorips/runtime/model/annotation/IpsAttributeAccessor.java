@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.model.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.faktorips.runtime.model.type.IAttributeAccessor;
+
+/**
+ * Marks the static field holding the {@link IAttributeAccessor} for an {@link IpsAttribute}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface IpsAttributeAccessor {
+
+    /**
+     * The {@link IpsAttribute#name() attribute's name}.
+     */
+    String value();
+
+}
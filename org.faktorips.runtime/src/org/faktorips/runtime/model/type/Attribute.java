@@ -131,6 +131,42 @@ public abstract class Attribute extends TypePart implements IModelTypeAttribute
         return isOverriding() ? getType().getSuperType().getAttribute(getName()) : null;
     }
 
+    /**
+     * Returns the value of this attribute in the given object using the given accessor. Any
+     * exception, for example caused by objects or values of the wrong type or thrown by the getter
+     * itself, is reported by an {@link IllegalArgumentException} just like a failing call by
+     * reflection.
+     */
+    protected Object getValueWithAccessor(IAttributeAccessor accessor, Object source) {
+        try {
+            return accessor.getValue(source);
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            throw createAccessorError(source, e);
+        }
+    }
+
+    /**
+     * Sets the value of this attribute in the given object using the given accessor.
+     * 
+     * @see #getValueWithAccessor(IAttributeAccessor, Object)
+     */
+    protected void setValueWithAccessor(IAttributeAccessor accessor, Object target, Object value) {
+        try {
+            accessor.setValue(target, value);
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            throw createAccessorError(target, e);
+        }
+    }
+
+    private IllegalArgumentException createAccessorError(Object source, RuntimeException e) {
+        return new IllegalArgumentException(String.format("Could not access attribute %s on source object %s.",
+                getName(), source), e);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(getName());
@@ -33,15 +33,29 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
 
     private final Method setter;
 
+    private final IAttributeAccessor accessor;
+
     private Method defaultValueMethod;
     private Map<Type, Method> valueSetMethods = new HashMap<Type, Method>(2);
 
     public DefaultPolicyAttribute(PolicyCmptType policyCmptType, Method getter, Method setter,
             boolean changingOverTime) {
+        this(policyCmptType, getter, setter, null, changingOverTime);
+    }
+
+    /**
+     * Creates an attribute that reads and writes its values using the given accessor instead of
+     * calling the getter and setter by reflection.
+     * 
+     * @param accessor the generated accessor or <code>null</code> to use reflection
+     */
+    public DefaultPolicyAttribute(PolicyCmptType policyCmptType, Method getter, Method setter,
+            IAttributeAccessor accessor, boolean changingOverTime) {
         super(policyCmptType, getter.getAnnotation(IpsAttribute.class),
                 getter.getAnnotation(IpsExtensionProperties.class), getter.getReturnType(), changingOverTime);
         this.getter = getter;
         this.setter = setter;
+        this.accessor = accessor;
     }
 
     @Override
@@ -51,6 +65,9 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
 
     @Override
     public Object getValue(IModelObject modelObject) {
+        if (accessor != null) {
+            return getValueWithAccessor(accessor, modelObject);
+        }
         return invokeMethod(getter, modelObject);
     }
 
@@ -63,6 +80,8 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
                 throw new IllegalArgumentException(String.format("There is no setter for attribute %s in type %s.",
                         getName(), getType().getName()));
             }
+        } else if (accessor != null) {
+            setValueWithAccessor(accessor, modelObject, value);
         } else {
             invokeMethod(setter, modelObject, value);
         }
@@ -145,7 +164,7 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
 
     @Override
     public DefaultPolicyAttribute createOverwritingAttributeFor(Type subType) {
-        return new DefaultPolicyAttribute((PolicyCmptType)subType, getter, setter, isChangingOverTime());
+        return new DefaultPolicyAttribute((PolicyCmptType)subType, getter, setter, accessor, isChangingOverTime());
     }
 
     private Method findValueSetMethod(Type type) {
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH. <http://www.faktorzehn.org>
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.model.type;
+
+/**
+ * Reads and writes the value of an attribute by calling its getter and setter directly instead of
+ * using reflection. The code generator creates an accessor for every attribute and publishes it in
+ * a static field marked with {@link org.faktorips.runtime.model.annotation.IpsAttributeAccessor}.
+ * {@link DefaultPolicyAttribute} and {@link ProductAttribute} use the accessor if it is present
+ * and fall back to reflection for classes generated without accessors.
+ */
+public interface IAttributeAccessor {
+
+    /**
+     * Returns the value of the attribute in the given object by calling its getter.
+     * 
+     * @param source the model object or product object the attribute belongs to
+     * @throws ClassCastException if the object is not of the type declaring the attribute
+     */
+    public Object getValue(Object source);
+
+    /**
+     * Sets the value of the attribute in the given object by calling its setter.
+     * 
+     * @param target the model object or product object the attribute belongs to
+     * @param value the new value
+     * @throws ClassCastException if the object is not of the type declaring the attribute or the
+     *             value is not of the attribute's datatype
+     * @throws UnsupportedOperationException if there is no setter for the attribute
+     */
+    public void setValue(Object target, Object value);
+
+}
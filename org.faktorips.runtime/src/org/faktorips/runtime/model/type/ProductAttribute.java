@@ -27,11 +27,25 @@ public class ProductAttribute extends Attribute {
 
     private final Method setter;
 
+    private final IAttributeAccessor accessor;
+
     public ProductAttribute(Type type, boolean changingOverTime, Method getter, Method setter) {
+        this(type, changingOverTime, getter, setter, null);
+    }
+
+    /**
+     * Creates an attribute that reads its values using the given accessor instead of calling the
+     * getter by reflection.
+     * 
+     * @param accessor the generated accessor or <code>null</code> to use reflection
+     */
+    public ProductAttribute(Type type, boolean changingOverTime, Method getter, Method setter,
+            IAttributeAccessor accessor) {
         super(type, getter.getAnnotation(IpsAttribute.class), getter.getAnnotation(IpsExtensionProperties.class),
                 getInnermostGenericClass(getter.getGenericReturnType()), changingOverTime);
         this.getter = getter;
         this.setter = setter;
+        this.accessor = accessor;
     }
 
     /**
@@ -60,7 +74,7 @@ public class ProductAttribute extends Attribute {
 
     @Override
     public Attribute createOverwritingAttributeFor(Type subType) {
-        return new ProductAttribute(subType, isChangingOverTime(), getter, setter);
+        return new ProductAttribute(subType, isChangingOverTime(), getter, setter, accessor);
     }
 
     /**
@@ -78,7 +92,11 @@ public class ProductAttribute extends Attribute {
      *            generation, if this attribute {@link #isChangingOverTime()}
      */
     public Object getValue(IProductComponent productComponent, Calendar effectiveDate) {
-        return invokeMethod(getter, getRelevantProductObject(productComponent, effectiveDate));
+        Object productObject = getRelevantProductObject(productComponent, effectiveDate);
+        if (accessor != null) {
+            return getValueWithAccessor(accessor, productObject);
+        }
+        return invokeMethod(getter, productObject);
     }
 
     /**
@@ -14,6 +14,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
 import org.faktorips.runtime.model.type.Attribute;
+import org.faktorips.runtime.model.type.IAttributeAccessor;
 import org.faktorips.runtime.model.type.ModelElement;
 import org.faktorips.runtime.model.type.Type;
 
@@ -23,6 +24,8 @@ public abstract class AbstractAttributeDescriptor<T extends Attribute> extends P
 
     private Method setterMethod;
 
+    private IAttributeAccessor accessor;
+
     public boolean isValid() {
         return getAnnotatedElement() instanceof Field || getAnnotatedElement() instanceof Method;
     }
@@ -43,6 +46,14 @@ public abstract class AbstractAttributeDescriptor<T extends Attribute> extends P
         this.setterMethod = setterMethod;
     }
 
+    public IAttributeAccessor getAccessor() {
+        return accessor;
+    }
+
+    public void setAccessor(IAttributeAccessor accessor) {
+        this.accessor = accessor;
+    }
+
     @Override
     public T create(ModelElement parentElement) {
         Type type = (Type)parentElement;
@@ -10,14 +10,17 @@
 package org.faktorips.runtime.model.type.read;
 
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.List;
 
 import org.faktorips.runtime.model.annotation.AnnotatedDeclaration;
 import org.faktorips.runtime.model.annotation.IpsAttribute;
+import org.faktorips.runtime.model.annotation.IpsAttributeAccessor;
 import org.faktorips.runtime.model.annotation.IpsAttributeSetter;
 import org.faktorips.runtime.model.annotation.IpsAttributes;
 import org.faktorips.runtime.model.type.Attribute;
+import org.faktorips.runtime.model.type.IAttributeAccessor;
 
 public abstract class AttributeCollector<T extends Attribute, D extends AbstractAttributeDescriptor<T>> extends
         TypePartCollector<T, D> {
@@ -73,4 +76,29 @@ public abstract class AttributeCollector<T extends Attribute, D extends Abstract
 
     }
 
+    static class IpsAttributeAccessorProcessor<D extends AbstractAttributeDescriptor<? extends Attribute>> extends
+            AnnotationProcessor<IpsAttributeAccessor, D> {
+
+        public IpsAttributeAccessorProcessor() {
+            super(IpsAttributeAccessor.class);
+        }
+
+        @Override
+        public String getName(IpsAttributeAccessor annotation) {
+            return annotation.value();
+        }
+
+        @Override
+        public void process(D descriptor, AnnotatedDeclaration annotatedDeclaration, AnnotatedElement annotatedElement) {
+            Field field = (Field)annotatedElement;
+            try {
+                descriptor.setAccessor((IAttributeAccessor)field.get(null));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Could not read the attribute accessor " + field.getName()
+                        + " of " + annotatedDeclaration.getDeclarationClassName(), e);
+            }
+        }
+
+    }
+
 }
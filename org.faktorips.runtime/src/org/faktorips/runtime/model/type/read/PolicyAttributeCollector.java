@@ -28,7 +28,8 @@ public class PolicyAttributeCollector
     // http://bugs.java.com/bugdatabase/view_bug.do?bug_id=6227971
     public PolicyAttributeCollector() {
         super(Arrays.asList(new IpsAttributeProcessor<PolicyAttributeDescriptor>(),
-                new IpsAttributeSetterProcessor<PolicyAttributeDescriptor>()));
+                new IpsAttributeSetterProcessor<PolicyAttributeDescriptor>(),
+                new IpsAttributeAccessorProcessor<PolicyAttributeDescriptor>()));
     }
 
     @Override
@@ -45,7 +46,7 @@ public class PolicyAttributeCollector
                 return new ConstantPolicyAttribute(type, (Field)getAnnotatedElement(), changingOverTime);
             } else {
                 return new DefaultPolicyAttribute((PolicyCmptType)type, (Method)getAnnotatedElement(),
-                        getSetterMethod(), isChangingOverTime());
+                        getSetterMethod(), getAccessor(), isChangingOverTime());
             }
         }
 
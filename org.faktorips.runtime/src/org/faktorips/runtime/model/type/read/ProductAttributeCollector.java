@@ -26,7 +26,8 @@ public class ProductAttributeCollector
     // http://bugs.java.com/bugdatabase/view_bug.do?bug_id=6227971
     public ProductAttributeCollector() {
         super(Arrays.asList(new ProductIpsAttributeProcessor(),
-                new IpsAttributeSetterProcessor<ProductAttributeDescriptor>()));
+                new IpsAttributeSetterProcessor<ProductAttributeDescriptor>(),
+                new IpsAttributeAccessorProcessor<ProductAttributeDescriptor>()));
     }
 
     @Override
@@ -53,7 +54,8 @@ public class ProductAttributeCollector
 
         @Override
         public ProductAttribute createValid(Type type) {
-            return new ProductAttribute(type, isChangingOverTime(), (Method)getAnnotatedElement(), getSetterMethod());
+            return new ProductAttribute(type, isChangingOverTime(), (Method)getAnnotatedElement(), getSetterMethod(),
+                    getAccessor());
         }
 
         public boolean isChangingOverTime() {
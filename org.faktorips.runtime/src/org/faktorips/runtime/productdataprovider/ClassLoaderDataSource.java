@@ -63,6 +63,13 @@ public class ClassLoaderDataSource {
         return getClassLoader().getResourceAsStream(resourceName);
     }
 
+    /**
+     * Returns the URL of the given resource or <code>null</code> if there is no such resource.
+     */
+    public URL getResource(String resourcePath) {
+        return getClassLoader().getResource(resourcePath);
+    }
+
     public String getLastModificationStamp(String resourcePath) {
         URL url = getResourceUrl(resourcePath);
         URLConnection connection;
@@ -14,6 +14,7 @@ import java.io.InputStream;
 
 import org.faktorips.runtime.IVersionChecker;
 import org.faktorips.runtime.internal.DateTime;
+import org.faktorips.runtime.internal.GenerationXmlReader;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -22,6 +23,7 @@ import org.faktorips.runtime.internal.toc.ReadonlyTableOfContents;
 import org.faktorips.runtime.internal.toc.TableContentTocEntry;
 import org.faktorips.runtime.internal.toc.TestCaseTocEntry;
 import org.faktorips.runtime.internal.toc.TocEntryObject;
+import org.faktorips.values.ObjectUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -47,6 +49,11 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
 
     private final String tocResourcePath;
 
+    private final GenerationXmlReader generationXmlReader;
+
+    /** The base version of the resources the generation offsets have been indexed for. */
+    private volatile String indexedVersion;
+
     public ClassLoaderProductDataProvider(ClassLoaderDataSource dataSource, String tocResourcePath,
             boolean checkTocModifications) {
         super(new IVersionChecker() {
@@ -61,6 +68,7 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
         this.dataSource = dataSource;
         this.tocResourcePath = tocResourcePath;
         this.checkTocModifications = checkTocModifications;
+        generationXmlReader = new GenerationXmlReader();
 
         toc = loadToc();
         tocFileLastModified = getBaseVersion();
@@ -98,6 +106,11 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
 
     @Override
     public Element getProductCmptGenerationData(GenerationTocEntry tocEntry) throws DataModifiedException {
+        Element indexedGenElement = readGeneration(tocEntry);
+        if (indexedGenElement != null) {
+            throwExceptionIfModified(tocEntry.getParent().getIpsObjectId(), getBaseVersion());
+            return indexedGenElement;
+        }
         Element docElement = getDocumentElement(tocEntry.getParent().getXmlResourceName());
         NodeList nl = docElement.getChildNodes();
         DateTime validFrom = tocEntry.getValidFrom();
@@ -115,6 +128,30 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
         throw new RuntimeException("Can't find the generation for the TOC entry '" + tocEntry + "'");
     }
 
+    /**
+     * Reads the generation using the generation offset index of the product component resource.
+     * The indices are discarded whenever the base version changes. If the resource was modified in
+     * the meantime the index may be outdated, hence the modification is checked before any error is
+     * reported. Returns <code>null</code> if the resource is not available as unpacked file.
+     */
+    private Element readGeneration(GenerationTocEntry tocEntry) throws DataModifiedException {
+        String baseVersion = getBaseVersion();
+        if (!ObjectUtil.equals(baseVersion, indexedVersion)) {
+            generationXmlReader.clear();
+            indexedVersion = baseVersion;
+        }
+        try {
+            return generationXmlReader.readGeneration(
+                    dataSource.getResource(tocEntry.getParent().getXmlResourceName()), tocEntry.getValidFrom(),
+                    getDocumentBuilder());
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            throwExceptionIfModified(tocEntry.getParent().getIpsObjectId(), getBaseVersion());
+            throw e;
+        }
+    }
+
     @Override
     public InputStream getTableContentAsStream(TableContentTocEntry tocEntry) throws DataModifiedException {
         return getResourceAsStream(tocEntry);
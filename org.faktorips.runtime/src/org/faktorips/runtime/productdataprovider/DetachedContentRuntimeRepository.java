@@ -47,6 +47,8 @@ public class DetachedContentRuntimeRepository extends AbstractClassLoadingRuntim
         implements IDetachedContentRuntimeRepository {
 
     private final IProductDataProvider productDataProvider;
+
+    private volatile boolean dataModified;
     private final IFormulaEvaluatorFactory formulaEvaluatorFactory;
 
     DetachedContentRuntimeRepository(String repositoryName, ICacheFactory cacheFactory, ClassLoader classLoader,
@@ -147,7 +149,16 @@ public class DetachedContentRuntimeRepository extends AbstractClassLoadingRuntim
         return productDataProvider.isCompatibleToBaseVersion();
     }
 
+    /**
+     * Returns whether this repository has already thrown a {@link DataModifiedRuntimeException},
+     * that means it is known to be out of date without asking the product data provider.
+     */
+    boolean isDataModified() {
+        return dataModified;
+    }
+
     private RuntimeException createDataModifiedRuntimeException(DataModifiedException e) {
+        dataModified = true;
         return new DataModifiedRuntimeException(e);
     }
 
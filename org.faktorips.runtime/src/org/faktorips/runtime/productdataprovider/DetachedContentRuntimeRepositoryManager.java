@@ -10,10 +10,18 @@
 
 package org.faktorips.runtime.productdataprovider;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import org.faktorips.runtime.DefaultCacheFactory;
 import org.faktorips.runtime.ICacheFactory;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.IRuntimeRepositoryManager;
+import org.faktorips.runtime.PreloadFilter;
 import org.faktorips.runtime.formula.IFormulaEvaluator;
 import org.faktorips.runtime.formula.IFormulaEvaluatorFactory;
 import org.faktorips.runtime.internal.AbstractRuntimeRepositoryManager;
@@ -24,6 +32,16 @@ import org.faktorips.runtime.internal.AbstractRuntimeRepositoryManager;
  * product data you have to call {@link #getActualRuntimeRepository()}.
  * <p>
  * To create a new {@link DetachedContentRuntimeRepositoryManager} use the internal {@link Builder}.
+ * <p>
+ * By default every call of {@link #getCurrentRuntimeRepository()} asks the
+ * {@link IProductDataProvider} whether the product data has changed and creates a new repository
+ * on the calling thread if necessary. If the background reload is enabled by
+ * {@link Builder#setBackgroundReload(long, TimeUnit)}, a background thread polls the product data
+ * provider instead. It creates and optionally preloads the new repository before it replaces the
+ * current one, so {@link #getCurrentRuntimeRepository()} usually returns immediately. Only if the
+ * current repository has thrown a {@link DataModifiedRuntimeException} because the product data
+ * changed before the background thread noticed it, the new repository is created on the calling
+ * thread.
  * 
  * @see DetachedContentRuntimeRepository
  * 
@@ -31,14 +49,26 @@ import org.faktorips.runtime.internal.AbstractRuntimeRepositoryManager;
  */
 public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepositoryManager {
 
+    private static final Logger LOGGER = Logger.getLogger(DetachedContentRuntimeRepositoryManager.class.getName());
+
     private final Builder builder;
 
+    private final ScheduledExecutorService reloadExecutor;
+
     /**
      * This is the constructor for the {@link DetachedContentRuntimeRepositoryManager}. The
      * constructor is only called from the internal {@link Builder}.
      */
     private DetachedContentRuntimeRepositoryManager(Builder builder) {
         this.builder = builder;
+        if (builder.getReloadInterval() > 0) {
+            updateRuntimeRepository();
+            reloadExecutor = Executors.newSingleThreadScheduledExecutor(new ReloadThreadFactory());
+            reloadExecutor.scheduleWithFixedDelay(new ReloadTask(), builder.getReloadInterval(),
+                    builder.getReloadInterval(), builder.getReloadIntervalUnit());
+        } else {
+            reloadExecutor = null;
+        }
     }
 
     /**
@@ -49,12 +79,12 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
      */
     @Override
     @Deprecated
-    public synchronized IDetachedContentRuntimeRepository getActualRuntimeRepository() {
+    public IDetachedContentRuntimeRepository getActualRuntimeRepository() {
         return getCurrentRuntimeRepository();
     }
 
     @Override
-    public synchronized IDetachedContentRuntimeRepository getCurrentRuntimeRepository() {
+    public IDetachedContentRuntimeRepository getCurrentRuntimeRepository() {
         IRuntimeRepository currentRuntimeRepository = super.getCurrentRuntimeRepository();
         if (currentRuntimeRepository instanceof DetachedContentRuntimeRepository) {
             return (IDetachedContentRuntimeRepository)currentRuntimeRepository;
@@ -80,6 +110,84 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
                 builder.getFormulaEvaluatorFactory());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns <code>false</code> if the background reload is enabled, unless the current repository
+     * has already detected that the product data was modified. In this case the repository cannot
+     * load any more data, so the new repository is created on the calling thread instead of waiting
+     * for the next run of the background reload.
+     */
+    @Override
+    protected boolean isUpToDateCheckedOnAccess(IRuntimeRepository currentRuntimeRepository) {
+        return reloadExecutor == null || (currentRuntimeRepository instanceof DetachedContentRuntimeRepository
+                && ((DetachedContentRuntimeRepository)currentRuntimeRepository).isDataModified());
+    }
+
+    /**
+     * Preloads the new repository if a {@link PreloadFilter} is configured.
+     * 
+     * @see Builder#setPreload(PreloadFilter, int)
+     */
+    @Override
+    protected void prepareNewRuntimeRepository(IRuntimeRepository newRuntimeRepository) {
+        if (builder.getPreloadFilter() != null) {
+            try {
+                newRuntimeRepository.preload(builder.getPreloadFilter(), builder.getPreloadParallelism());
+            } catch (InterruptedException e) {
+                // the repository is usable without preloading, just keep the interrupt status
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the product data provider is polled in the background.
+     * 
+     * @see Builder#setBackgroundReload(long, TimeUnit)
+     */
+    public boolean isBackgroundReloadEnabled() {
+        return reloadExecutor != null && !reloadExecutor.isShutdown();
+    }
+
+    /**
+     * Stops polling the product data provider in the background. Afterwards the current repository
+     * is not replaced anymore. Does nothing if the background reload is not enabled.
+     */
+    public void stopBackgroundReload() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+        }
+    }
+
+    private class ReloadTask implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                updateRuntimeRepository();
+                // CSOFF: IllegalCatch
+            } catch (RuntimeException e) {
+                // CSON: IllegalCatch
+                // keep the current repository and try again with the next run, an exception thrown
+                // by this method would cancel all further runs
+                LOGGER.log(Level.WARNING, "Unable to reload the runtime repository " + builder.getRepositoryName(), e);
+            }
+        }
+
+    }
+
+    private static class ReloadThreadFactory implements ThreadFactory {
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "faktorips-repository-reload");
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
     public static class Builder {
 
         private final IProductDataProviderFactory dataProviderFactory;
@@ -87,6 +195,10 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
         private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         private IFormulaEvaluatorFactory formulaEvaluatorFactory;
         private ICacheFactory cacheFactory = new DefaultCacheFactory(classLoader);
+        private long reloadInterval;
+        private TimeUnit reloadIntervalUnit = TimeUnit.SECONDS;
+        private PreloadFilter preloadFilter;
+        private int preloadParallelism = 1;
 
         /**
          * The only mandatory parameter is the {@link IProductDataProviderFactory}. It is used to
@@ -173,6 +285,55 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
             return cacheFactory;
         }
 
+        /**
+         * Enables the background reload. A background thread asks the {@link IProductDataProvider}
+         * in the given interval whether the product data has changed and replaces the current
+         * repository if necessary. The first repository is created when the manager is built.
+         * <p>
+         * Call {@link DetachedContentRuntimeRepositoryManager#stopBackgroundReload()} if the
+         * manager is not used anymore.
+         * 
+         * @param interval the delay between two checks, a value less or equal to 0 disables the
+         *            background reload
+         * @param unit the unit of the interval
+         */
+        public Builder setBackgroundReload(long interval, TimeUnit unit) {
+            this.reloadInterval = interval;
+            this.reloadIntervalUnit = unit;
+            return this;
+        }
+
+        long getReloadInterval() {
+            return reloadInterval;
+        }
+
+        TimeUnit getReloadIntervalUnit() {
+            return reloadIntervalUnit;
+        }
+
+        /**
+         * Optionally preloads every new repository created by the background reload before it
+         * replaces the current one. Has no effect if the background reload is not enabled.
+         * 
+         * @param filter selects the product data to preload
+         * @param parallelism the number of threads used for preloading
+         * 
+         * @see IRuntimeRepository#preload(PreloadFilter, int)
+         */
+        public Builder setPreload(PreloadFilter filter, int parallelism) {
+            this.preloadFilter = filter;
+            this.preloadParallelism = parallelism;
+            return this;
+        }
+
+        PreloadFilter getPreloadFilter() {
+            return preloadFilter;
+        }
+
+        int getPreloadParallelism() {
+            return preloadParallelism;
+        }
+
         /**
          * This method builds a {@link DetachedContentRuntimeRepositoryManager}. All the values set
          * in the builder are used to create the manager and the